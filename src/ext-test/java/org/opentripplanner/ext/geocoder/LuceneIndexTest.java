@@ -0,0 +1,88 @@
+package org.opentripplanner.ext.geocoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import io.micrometer.core.instrument.Metrics;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.model.WgsCoordinate;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.kryosupport.KryoBuilder;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
+import org.opentripplanner.standalone.config.RouterConfig;
+import org.opentripplanner.standalone.server.Router;
+
+public class LuceneIndexTest {
+
+  private static final Stop CENTRAL_NORTH = Stop.stopForTest("Central North", 60.5, 10.5);
+  private static final Stop CENTRAL_SOUTH = Stop.stopForTest("Central South", 60.0, 10.0);
+  private static final Stop HARBOUR = Stop.stopForTest("Harbour", 60.0, 10.01);
+
+  private Graph graph;
+
+  @BeforeEach
+  public void setUp() {
+    graph = new Graph();
+    for (Stop stop : List.of(CENTRAL_NORTH, CENTRAL_SOUTH, HARBOUR)) {
+      new TransitStopVertex(graph, stop, null);
+    }
+    graph.index();
+  }
+
+  @Test
+  public void nearbyResultsAreRankedHigher() {
+    var index = new LuceneIndex(graph);
+    var nearNorth = new WgsCoordinate(60.49, 10.49);
+    var nearSouth = new WgsCoordinate(60.01, 10.01);
+
+    for (boolean autocomplete : new boolean[] { false, true }) {
+      String query = autocomplete ? "Cent" : "Central";
+      assertEquals(
+        List.of(CENTRAL_NORTH, CENTRAL_SOUTH),
+        index.queryStopLocations(query, autocomplete, nearNorth).collect(Collectors.toList())
+      );
+      assertEquals(
+        List.of(CENTRAL_SOUTH, CENTRAL_NORTH),
+        index.queryStopLocations(query, autocomplete, nearSouth).collect(Collectors.toList())
+      );
+    }
+  }
+
+  @Test
+  public void indexBuiltWithTheGraphCanBeOpenedAfterSerialization() {
+    LuceneIndex.forGraphBuild(graph);
+
+    var kryo = KryoBuilder.create();
+    var bytes = new ByteArrayOutputStream();
+    try (var output = new Output(bytes)) {
+      kryo.writeClassAndObject(output, graph.getService(LuceneIndex.class));
+    }
+    LuceneIndex deserialized;
+    try (var input = new Input(bytes.toByteArray())) {
+      deserialized = (LuceneIndex) kryo.readClassAndObject(input);
+    }
+    assertNotNull(deserialized);
+    graph.putService(LuceneIndex.class, deserialized);
+
+    var router = new Router(graph, RouterConfig.DEFAULT, Metrics.globalRegistry);
+    var index = LuceneIndex.forServer(router);
+
+    assertSame(deserialized, index);
+    assertEquals(
+      List.of(HARBOUR),
+      index.queryStopLocations("Harbour", false).collect(Collectors.toList())
+    );
+    assertEquals(
+      List.of(HARBOUR),
+      index.queryStopLocations("Harb", true).collect(Collectors.toList())
+    );
+  }
+}
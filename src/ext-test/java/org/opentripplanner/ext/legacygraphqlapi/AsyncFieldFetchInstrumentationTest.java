@@ -0,0 +1,134 @@
+package org.opentripplanner.ext.legacygraphqlapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AsyncFieldFetchInstrumentationTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(2);
+  private final AtomicInteger fetchCount = new AtomicInteger();
+
+  private final GraphQL.Builder graphQL = GraphQL.newGraphQL(
+    new SchemaGenerator()
+      .makeExecutableSchema(
+        new SchemaParser().parse("type Query { thread: String slow: String counted: Int }"),
+        RuntimeWiring
+          .newRuntimeWiring()
+          .type(
+            "Query",
+            type ->
+              type
+                .dataFetcher("thread", env -> Thread.currentThread().getName())
+                .dataFetcher("counted", env -> fetchCount.incrementAndGet())
+                .dataFetcher(
+                  "slow",
+                  env -> {
+                    Thread.sleep(500);
+                    return "slow";
+                  }
+                )
+          )
+          .build()
+      )
+  );
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void topLevelFieldsAreFetchedInExecutor() {
+    var result = execute("{ thread }", TimeUnit.SECONDS.toNanos(10));
+
+    assertEquals(0, result.getErrors().size());
+    assertNotEquals(Thread.currentThread().getName(), data(result).get("thread"));
+  }
+
+  @Test
+  void slowFieldTimesOut() {
+    var result = execute("{ thread slow }", TimeUnit.MILLISECONDS.toNanos(100));
+
+    assertEquals(1, result.getErrors().size());
+    assertNull(data(result).get("slow"));
+    assertNotNull(data(result).get("thread"));
+  }
+
+  @Test
+  void fieldWaitingPastTheDeadlineIsNotFetched() throws Exception {
+    var singleThread = Executors.newSingleThreadExecutor();
+    try {
+      singleThread.submit(() -> sleep(300));
+
+      var result = execute(singleThread, "{ counted }", TimeUnit.MILLISECONDS.toNanos(100));
+      // Let the queued field run
+      singleThread.submit(() -> {}).get();
+
+      assertEquals(1, result.getErrors().size());
+      assertNull(data(result).get("counted"));
+      assertEquals(0, fetchCount.get());
+    } finally {
+      singleThread.shutdownNow();
+    }
+  }
+
+  @Test
+  void fieldIsNotFetchedWhenTheQueueIsFull() {
+    var busy = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+    try {
+      busy.execute(() -> sleep(300));
+      busy.execute(() -> sleep(300));
+
+      var result = execute(busy, "{ counted }", TimeUnit.SECONDS.toNanos(10));
+
+      assertEquals(1, result.getErrors().size());
+      assertNull(data(result).get("counted"));
+      assertEquals(0, fetchCount.get());
+    } finally {
+      busy.shutdownNow();
+    }
+  }
+
+  private ExecutionResult execute(String query, long timeoutNanos) {
+    return execute(executor, query, timeoutNanos);
+  }
+
+  private ExecutionResult execute(ExecutorService executor, String query, long timeoutNanos) {
+    return graphQL
+      .instrumentation(
+        new AsyncFieldFetchInstrumentation(executor, System.nanoTime() + timeoutNanos)
+      )
+      .build()
+      .executeAsync(builder -> builder.query(query))
+      .join();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Map<String, Object> data(ExecutionResult result) {
+    return result.getData();
+  }
+}
@@ -0,0 +1,237 @@
+package org.opentripplanner.ext.siri;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ConstantsForTests;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Timetable;
+import org.opentripplanner.model.TimetableSnapshot;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.trippattern.TripTimes;
+import uk.org.siri.siri20.DatedVehicleJourneyRef;
+import uk.org.siri.siri20.EstimatedCall;
+import uk.org.siri.siri20.EstimatedTimetableDeliveryStructure;
+import uk.org.siri.siri20.EstimatedVehicleJourney;
+import uk.org.siri.siri20.EstimatedVersionFrameStructure;
+import uk.org.siri.siri20.LineRef;
+import uk.org.siri.siri20.StopPointRef;
+
+public class SiriTimetableSnapshotSourceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2022, 1, 4);
+  private static final ServiceDate SERVICE_DATE = new ServiceDate(DATE);
+  private static final List<String> TRIP_IDS = List.of("1.1", "1.2", "2.1", "2.2", "3.1");
+  private static final int NUMBER_OF_JOURNEYS =
+    SiriTimetableSnapshotSource.MIN_JOURNEYS_FOR_PARALLEL_MATCHING + 200;
+
+  @Test
+  public void parallelMatchingAppliesTheSameUpdatesAsSequentialMatching() {
+    var sequentialGraph = ConstantsForTests.buildGtfsGraph(ConstantsForTests.FAKE_GTFS);
+    var parallelGraph = ConstantsForTests.buildGtfsGraph(ConstantsForTests.FAKE_GTFS);
+    var sequential = snapshotSource(sequentialGraph);
+    sequential.minJourneysForParallelMatching = Integer.MAX_VALUE;
+    var parallel = snapshotSource(parallelGraph);
+
+    String feedId = sequentialGraph.getFeedIds().iterator().next();
+    var journeys = journeys(sequentialGraph, feedId);
+
+    List<Boolean> sequentialMatches = matched(sequential, sequentialGraph, feedId, journeys);
+    List<Boolean> parallelMatches = matched(parallel, parallelGraph, feedId, journeys);
+
+    assertEquals(sequentialMatches, parallelMatches);
+    assertTrue(sequentialMatches.contains(true));
+    assertTrue(sequentialMatches.contains(false));
+
+    sequential.applyEstimatedTimetable(sequentialGraph, feedId, false, delivery(journeys));
+    parallel.applyEstimatedTimetable(parallelGraph, feedId, false, delivery(journeys));
+
+    assertEquals(
+      appliedTripTimes(sequentialGraph, feedId, sequential.getTimetableSnapshot()),
+      appliedTripTimes(parallelGraph, feedId, parallel.getTimetableSnapshot())
+    );
+  }
+
+  private static SiriTimetableSnapshotSource snapshotSource(Graph graph) {
+    var source = new SiriTimetableSnapshotSource(graph);
+    source.maxSnapshotFrequency = 0;
+    source.purgeExpiredData = false;
+    return source;
+  }
+
+  /**
+   * Delayed and cancelled journeys for the scheduled trips, journeys which do not match any trip
+   * and journeys which fail to match because the times are decreasing or the line is missing.
+   */
+  private static List<EstimatedVehicleJourney> journeys(Graph graph, String feedId) {
+    List<EstimatedVehicleJourney> journeys = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_JOURNEYS; ++i) {
+      Trip trip = graph.index
+        .getTripForId()
+        .get(new FeedScopedId(feedId, TRIP_IDS.get(i % TRIP_IDS.size())));
+      switch (i % 4) {
+        case 0 -> journeys.add(journey(graph, trip, 60 * (i % 5), 60 * (i % 5), false));
+        case 1 -> journeys.add(journey(graph, trip, 0, 0, true));
+        case 2 -> journeys.add(unknownJourney(graph, i));
+        default -> {
+          var journey = journey(graph, trip, 600, -600, false);
+          if ((i / 4) % 2 == 0) {
+            journey.setLineRef(null);
+          }
+          journeys.add(journey);
+        }
+      }
+    }
+    return journeys;
+  }
+
+  /**
+   * @param firstDelay the delay at the first stop
+   * @param delay      the delay at the following stops
+   */
+  private static EstimatedVehicleJourney journey(
+    Graph graph,
+    Trip trip,
+    int firstDelay,
+    int delay,
+    boolean cancellation
+  ) {
+    TripPattern pattern = graph.index.getPatternForTrip().get(trip);
+    Timetable timetable = pattern.getScheduledTimetable();
+    TripTimes times = timetable.getTripTimes(timetable.getTripIndex(trip.getId()));
+
+    var journey = new EstimatedVehicleJourney();
+    journey.setLineRef(lineRef(trip.getRoute().getId().getId()));
+    var journeyRef = new DatedVehicleJourneyRef();
+    journeyRef.setValue(trip.getId().getId());
+    journey.setDatedVehicleJourneyRef(journeyRef);
+    journey.setCancellation(cancellation);
+
+    var calls = new EstimatedVehicleJourney.EstimatedCalls();
+    for (int i = 0; i < pattern.numberOfStops(); ++i) {
+      int callDelay = i == 0 ? firstDelay : delay;
+      calls
+        .getEstimatedCalls()
+        .add(
+          call(
+            graph,
+            pattern.getStop(i).getId().getId(),
+            times.getScheduledArrivalTime(i),
+            times.getScheduledDepartureTime(i),
+            callDelay
+          )
+        );
+    }
+    journey.setEstimatedCalls(calls);
+    return journey;
+  }
+
+  private static EstimatedVehicleJourney unknownJourney(Graph graph, int i) {
+    var journey = new EstimatedVehicleJourney();
+    journey.setLineRef(lineRef("unknown"));
+    var journeyRef = new DatedVehicleJourneyRef();
+    journeyRef.setValue("unknown-" + i);
+    journey.setDatedVehicleJourneyRef(journeyRef);
+    var calls = new EstimatedVehicleJourney.EstimatedCalls();
+    calls.getEstimatedCalls().add(call(graph, "unknown", 3600, 3600, 0));
+    journey.setEstimatedCalls(calls);
+    return journey;
+  }
+
+  private static EstimatedCall call(
+    Graph graph,
+    String stopId,
+    int arrivalTime,
+    int departureTime,
+    int delay
+  ) {
+    ZonedDateTime midnight = DATE.atStartOfDay(graph.getTimeZone().toZoneId());
+    var stopPointRef = new StopPointRef();
+    stopPointRef.setValue(stopId);
+
+    var call = new EstimatedCall();
+    call.setStopPointRef(stopPointRef);
+    call.setAimedArrivalTime(midnight.plusSeconds(arrivalTime));
+    call.setExpectedArrivalTime(midnight.plusSeconds(arrivalTime + delay));
+    call.setAimedDepartureTime(midnight.plusSeconds(departureTime));
+    call.setExpectedDepartureTime(midnight.plusSeconds(departureTime + delay));
+    return call;
+  }
+
+  private static LineRef lineRef(String id) {
+    var lineRef = new LineRef();
+    lineRef.setValue(id);
+    return lineRef;
+  }
+
+  private static List<EstimatedTimetableDeliveryStructure> delivery(
+    List<EstimatedVehicleJourney> journeys
+  ) {
+    var frame = new EstimatedVersionFrameStructure();
+    frame.getEstimatedVehicleJourneies().addAll(journeys);
+    var delivery = new EstimatedTimetableDeliveryStructure();
+    delivery.getEstimatedJourneyVersionFrames().add(frame);
+    return List.of(delivery);
+  }
+
+  private static List<Boolean> matched(
+    SiriTimetableSnapshotSource source,
+    Graph graph,
+    String feedId,
+    List<EstimatedVehicleJourney> journeys
+  ) {
+    return source
+      .matchModifiedTrips(graph, feedId, journeys)
+      .stream()
+      .map(match -> match != null)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * The trip times of each scheduled trip on the service date, from the pattern the trip was last
+   * added to by a realtime update or else from its scheduled pattern.
+   */
+  private static Map<String, String> appliedTripTimes(
+    Graph graph,
+    String feedId,
+    TimetableSnapshot snapshot
+  ) {
+    Map<String, String> tripTimes = new TreeMap<>();
+    for (String tripId : TRIP_IDS) {
+      FeedScopedId id = new FeedScopedId(feedId, tripId);
+      TripPattern pattern = snapshot.getLastAddedTripPattern(id, SERVICE_DATE);
+      if (pattern == null) {
+        pattern = graph.index.getPatternForTrip().get(graph.index.getTripForId().get(id));
+      }
+      Timetable timetable = snapshot.resolve(pattern, SERVICE_DATE);
+      TripTimes times = timetable.getTripTimes(timetable.getTripIndex(id));
+      int[] arrivals = new int[times.getNumStops()];
+      int[] departures = new int[times.getNumStops()];
+      for (int i = 0; i < times.getNumStops(); ++i) {
+        arrivals[i] = times.getArrivalTime(i);
+        departures[i] = times.getDepartureTime(i);
+      }
+      tripTimes.put(
+        tripId,
+        times.getRealTimeState() +
+        " " +
+        Arrays.toString(arrivals) +
+        " " +
+        Arrays.toString(departures)
+      );
+    }
+    return tripTimes;
+  }
+}
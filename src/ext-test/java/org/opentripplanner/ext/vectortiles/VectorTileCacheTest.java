@@ -0,0 +1,70 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import com.wdtinc.mapbox_vector_tile.VectorTile;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.routing.graph.Graph;
+
+public class VectorTileCacheTest {
+
+  private final LayerParameters stops = mock(LayerParameters.class);
+  private final LayerParameters rentals = mock(LayerParameters.class);
+
+  private int buildCount = 0;
+
+  @Test
+  public void layerIsBuiltOncePerVersion() {
+    var subject = VectorTileCache.forGraph(new Graph());
+
+    byte[] first = subject.getLayer(stops, 1, 2, 15, 0, () -> layer("stops"));
+    byte[] second = subject.getLayer(stops, 1, 2, 15, 0, () -> layer("stops"));
+    subject.getLayer(stops, 1, 3, 15, 0, () -> layer("stops"));
+    subject.getLayer(stops, 1, 2, 15, 1, () -> layer("stops"));
+
+    assertSame(first, second);
+    assertEquals(3, buildCount);
+  }
+
+  @Test
+  public void cacheIsKeptWithTheGraph() {
+    var graph = new Graph();
+    assertSame(VectorTileCache.forGraph(graph), VectorTileCache.forGraph(graph));
+  }
+
+  @Test
+  public void concatenatedLayersAreOneTile() throws Exception {
+    var subject = VectorTileCache.forGraph(new Graph());
+    var tile = new ByteArrayOutputStream();
+
+    tile.writeBytes(subject.getLayer(stops, 1, 2, 15, 0, () -> layer("stops")));
+    tile.writeBytes(subject.getLayer(rentals, 1, 2, 15, 0, () -> layer("rentals")));
+
+    var expected = VectorTile.Tile
+      .newBuilder()
+      .addLayers(layer("stops"))
+      .addLayers(layer("rentals"))
+      .build();
+    assertArrayEquals(expected.toByteArray(), tile.toByteArray());
+    assertEquals(
+      List.of("stops", "rentals"),
+      VectorTile.Tile
+        .parseFrom(tile.toByteArray())
+        .getLayersList()
+        .stream()
+        .map(VectorTile.Tile.Layer::getName)
+        .toList()
+    );
+  }
+
+  private VectorTile.Tile.Layer layer(String name) {
+    ++buildCount;
+    return VectorTile.Tile.Layer.newBuilder().setName(name).setVersion(2).build();
+  }
+}
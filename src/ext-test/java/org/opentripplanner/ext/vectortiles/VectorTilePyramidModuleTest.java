@@ -0,0 +1,52 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.opentripplanner.common.geometry.GeometryUtils;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+
+public class VectorTilePyramidModuleTest {
+
+  private static final int Z = 12;
+  private static final int Y = WebMercatorTile.lat2tile(60.0, Z);
+  /** In the middle of the row of tiles, so the geometries are only in one row */
+  private static final double LAT =
+    (WebMercatorTile.tile2lat(Y, Z) + WebMercatorTile.tile2lat(Y + 1, Z)) / 2;
+
+  @Test
+  public void geometryIsInAllTheTilesItCrosses() {
+    var line = GeometryUtils.makeLineString(10.01, LAT, 10.49, LAT);
+    long[] expected = LongStream
+      .rangeClosed(WebMercatorTile.lon2tile(10.01, Z), WebMercatorTile.lon2tile(10.49, Z))
+      .map(x -> VectorTilePyramid.key(0, Z, (int) x, Y))
+      .toArray();
+
+    assertArrayEquals(
+      expected,
+      VectorTilePyramidModule.tilesWithFeatures(List.of(line), 0.0, 0, Z, Z)
+    );
+  }
+
+  @Test
+  public void geometryIsInTheNeighbourTileWhenInsideTheExpansion() {
+    int x = WebMercatorTile.lon2tile(10.01, Z);
+    double eastEdge = WebMercatorTile.tile2lon(x + 1, Z);
+    double tileWidth = eastEdge - WebMercatorTile.tile2lon(x, Z);
+    var point = GeometryUtils
+      .getGeometryFactory()
+      .createPoint(new Coordinate(eastEdge - tileWidth / 10, LAT));
+
+    assertArrayEquals(
+      new long[] { VectorTilePyramid.key(0, Z, x, Y) },
+      VectorTilePyramidModule.tilesWithFeatures(List.of(point), 0.0, 0, Z, Z)
+    );
+    assertArrayEquals(
+      new long[] { VectorTilePyramid.key(0, Z, x, Y), VectorTilePyramid.key(0, Z, x + 1, Y) },
+      VectorTilePyramidModule.tilesWithFeatures(List.of(point), 0.25, 0, Z, Z)
+    );
+  }
+}
@@ -0,0 +1,138 @@
+package org.opentripplanner.ext.vectortiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.wdtinc.mapbox_vector_tile.VectorTile;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.routing.graph.Graph;
+
+public class VectorTilePyramidTest {
+
+  private static final LayerParameters STOPS = new TestLayerParameters("stops", "Stop", 0.25);
+  private static final LayerParameters STATIONS = new TestLayerParameters(
+    "stations",
+    "Station",
+    0.25
+  );
+
+  @TempDir
+  File tempDir;
+
+  @Test
+  public void tilesAreReadFromTheFile() throws Exception {
+    var graph = new Graph();
+    var file = write(graph);
+
+    VectorTilePyramid.load(file, graph);
+    var subject = graph.getService(VectorTilePyramid.class);
+
+    assertEquals("stops-1-2-15", name(subject.getLayer(STOPS, 1, 2, 15)));
+    assertEquals("stops-2-1-15", name(subject.getLayer(STOPS, 2, 1, 15)));
+    assertEquals("stations-1-2-16", name(subject.getLayer(STATIONS, 1, 2, 16)));
+    assertNull(subject.getLayer(STOPS, 1, 3, 15));
+    assertNull(subject.getLayer(STATIONS, 1, 2, 15));
+  }
+
+  @Test
+  public void layersWithOtherParametersAreNotRead() throws Exception {
+    var graph = new Graph();
+    var file = write(graph);
+
+    VectorTilePyramid.load(file, graph);
+    var subject = graph.getService(VectorTilePyramid.class);
+
+    assertNull(subject.getLayer(new TestLayerParameters("stops", "Stop", 0.5), 1, 2, 15));
+  }
+
+  @Test
+  public void fileForAnotherGraphIsNotUsed() throws Exception {
+    var otherGraph = new Graph();
+    var file = write(otherGraph);
+    var graph = new Graph();
+    write(graph);
+
+    VectorTilePyramid.load(file, graph);
+    var subject = graph.getService(VectorTilePyramid.class);
+
+    assertNotNull(subject);
+    assertNull(subject.getLayer(STOPS, 1, 2, 15));
+  }
+
+  @Test
+  public void numberOfLayersIsLimitedByTheKey() throws Exception {
+    var file = File.createTempFile("pyramid", null, tempDir);
+    try (
+      var writer = new VectorTilePyramid.Writer(
+        new DataOutputStream(new FileOutputStream(file)),
+        new Graph()
+      )
+    ) {
+      for (int i = 0; i < VectorTilePyramid.MAX_LAYERS; ++i) {
+        writer.addLayer(STOPS, 9, 15);
+      }
+      int last = VectorTilePyramid.MAX_LAYERS - 1;
+      assertTrue(VectorTilePyramid.key(last, 20, 0xfffff, 0xfffff) > 0);
+      assertThrows(IllegalArgumentException.class, () -> writer.addLayer(STOPS, 9, 15));
+    }
+  }
+
+  private File write(Graph graph) throws Exception {
+    var file = File.createTempFile("pyramid", null, tempDir);
+    try (
+      var writer = new VectorTilePyramid.Writer(
+        new DataOutputStream(new FileOutputStream(file)),
+        graph
+      )
+    ) {
+      int stops = writer.addLayer(STOPS, 9, 15);
+      int stations = writer.addLayer(STATIONS, 16, 16);
+      writer.addTile(VectorTilePyramid.key(stops, 15, 1, 2), tile("stops-1-2-15"));
+      writer.addTile(VectorTilePyramid.key(stops, 15, 2, 1), tile("stops-2-1-15"));
+      writer.addTile(VectorTilePyramid.key(stations, 16, 1, 2), tile("stations-1-2-16"));
+    }
+    return file;
+  }
+
+  private static byte[] tile(String name) {
+    return VectorTileCache.encode(
+      VectorTile.Tile.Layer.newBuilder().setName(name).setVersion(2).build()
+    );
+  }
+
+  private static String name(ByteBuffer tile) throws Exception {
+    return VectorTile.Tile.parseFrom(tile).getLayers(0).getName();
+  }
+
+  private record TestLayerParameters(String name, String type, double expansionFactor)
+    implements LayerParameters {
+    @Override
+    public String mapper() {
+      return "Digitransit";
+    }
+
+    @Override
+    public int maxZoom() {
+      return 20;
+    }
+
+    @Override
+    public int minZoom() {
+      return 9;
+    }
+
+    @Override
+    public int cacheMaxSeconds() {
+      return -1;
+    }
+  }
+}
@@ -18,6 +18,7 @@ import graphql.execution.instrumentation.parameters.InstrumentationValidationPar
 import graphql.language.Document;
 import graphql.schema.GraphQLTypeUtil;
 import graphql.validation.ValidationError;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
@@ -31,6 +32,9 @@ import java.util.concurrent.CompletableFuture;
  * There are two types of metrics: one for query execution, and another for resolver timing. The
  * timers are registered to micrometer using graphql.timer.query and graphql.timer.resolver.
  * <p>
+ * When a cached query document is used, the query is not parsed. The number of queries executed
+ * with and without parsing is counted by graphql.document.cache, with the result tag hit or miss.
+ * <p>
  * ### See also: - https://github.com/symbaloo/graphql-micrometer/blob/main/src/main/kotlin/com/symbaloo/graphqlmicrometer/MicrometerInstrumentation.kt
  * - https://github.com/graphql-java-kickstart/graphql-spring-boot/blob/master/graphql-spring-boot-autoconfigure/src/main/java/graphql/kickstart/autoconfigure/web/servlet/metrics/MetricsInstrumentation.java
  * - https://github.com/apollographql/apollo-tracing - [TracingInstrumentation]
@@ -39,12 +43,16 @@ public class MicrometerGraphQLInstrumentation implements Instrumentation {
 
   private static final String QUERY_TIME_METRIC_NAME = "graphql.timer.query";
   private static final String RESOLVER_TIME_METRIC_NAME = "graphql.timer.resolver";
+  private static final String DOCUMENT_CACHE_METRIC_NAME = "graphql.document.cache";
   private static final String OPERATION_NAME_TAG = "operationName";
   private static final String OPERATION = "operation";
   private static final String PARENT = "parent";
   private static final String FIELD = "field";
+  private static final String RESULT = "result";
   private static final String TIMER_DESCRIPTION =
     "Timer that records the time to fetch the data by Operation Name";
+  private static final String DOCUMENT_CACHE_DESCRIPTION =
+    "Counter of the queries executed with a cached query document, and of those parsed";
 
   private final MeterRegistry meterRegistry;
   private final Iterable<Tag> tags;
@@ -65,9 +73,10 @@ public class MicrometerGraphQLInstrumentation implements Instrumentation {
   ) {
     TraceState state = parameters.getInstrumentationState();
     Timer.Sample sample = Timer.start(meterRegistry);
-    return whenCompleted((res, err) ->
-      sample.stop(buildQueryTimer(state.operationName, "execution"))
-    );
+    return whenCompleted((res, err) -> {
+      sample.stop(buildQueryTimer(state.operationName, "execution"));
+      buildDocumentCacheCounter(state.operationName, state.parsed ? "miss" : "hit").increment();
+    });
   }
 
   @Override
@@ -75,6 +84,7 @@ public class MicrometerGraphQLInstrumentation implements Instrumentation {
     InstrumentationExecutionParameters parameters
   ) {
     TraceState state = parameters.getInstrumentationState();
+    state.parsed = true;
     Timer.Sample sample = Timer.start(meterRegistry);
     return whenCompleted((res, err) -> sample.stop(buildQueryTimer(state.operationName, "parse")));
   }
@@ -156,10 +166,23 @@ public class MicrometerGraphQLInstrumentation implements Instrumentation {
       .register(meterRegistry);
   }
 
+  private Counter buildDocumentCacheCounter(String operationName, String result) {
+    return Counter
+      .builder(DOCUMENT_CACHE_METRIC_NAME)
+      .description(DOCUMENT_CACHE_DESCRIPTION)
+      .tag(OPERATION_NAME_TAG, operationName)
+      .tag(RESULT, result)
+      .tags(tags)
+      .register(meterRegistry);
+  }
+
   private static class TraceState implements InstrumentationState {
 
     private final String operationName;
 
+    /** Set if the query is parsed, which it is not if a cached document is used. */
+    private volatile boolean parsed = false;
+
     private TraceState(String operationName) {
       this.operationName = operationName == null ? "__UNKNOWN__" : operationName;
     }
@@ -16,6 +16,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.opentripplanner.api.mapping.FeedScopedIdMapper;
 import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.model.WgsCoordinate;
 import org.opentripplanner.routing.vertextype.StreetVertex;
 import org.opentripplanner.standalone.server.OTPServer;
 import org.opentripplanner.standalone.server.Router;
@@ -49,6 +50,8 @@ public class GeocoderResource {
    * @param stops        Search for stops, either by name or stop code
    * @param clusters     Search for clusters by their name
    * @param corners      Search for street corners using at least one of the street names
+   * @param focusLat     Latitude of a point, the results closer to it are ranked higher
+   * @param focusLon     Longitude of a point, the results closer to it are ranked higher
    * @return list of results in in the format expected by GeocoderBuiltin.js in the OTP Leaflet
    * client
    */
@@ -58,11 +61,16 @@ public class GeocoderResource {
     @QueryParam("autocomplete") @DefaultValue("false") boolean autocomplete,
     @QueryParam("stops") @DefaultValue("true") boolean stops,
     @QueryParam("clusters") @DefaultValue("false") boolean clusters,
-    @QueryParam("corners") @DefaultValue("true") boolean corners
+    @QueryParam("corners") @DefaultValue("true") boolean corners,
+    @QueryParam("focusLat") Double focusLat,
+    @QueryParam("focusLon") Double focusLon
   ) {
+    WgsCoordinate focus = focusLat != null && focusLon != null
+      ? new WgsCoordinate(focusLat, focusLon)
+      : null;
     return Response
       .status(Response.Status.OK)
-      .entity(query(query, autocomplete, stops, clusters, corners))
+      .entity(query(query, autocomplete, stops, clusters, corners, focus))
       .build();
   }
 
@@ -71,29 +79,34 @@ public class GeocoderResource {
     boolean autocomplete,
     boolean stops,
     boolean clusters,
-    boolean corners
+    boolean corners,
+    WgsCoordinate focus
   ) {
     List<SearchResult> results = new ArrayList<>();
 
     if (stops) {
-      results.addAll(queryStopLocations(query, autocomplete));
+      results.addAll(queryStopLocations(query, autocomplete, focus));
     }
 
     if (clusters) {
-      results.addAll(queryStations(query, autocomplete));
+      results.addAll(queryStations(query, autocomplete, focus));
     }
 
     if (corners) {
-      results.addAll(queryCorners(query, autocomplete));
+      results.addAll(queryCorners(query, autocomplete, focus));
     }
 
     return results;
   }
 
-  private Collection<SearchResult> queryStopLocations(String query, boolean autocomplete) {
+  private Collection<SearchResult> queryStopLocations(
+    String query,
+    boolean autocomplete,
+    WgsCoordinate focus
+  ) {
     return LuceneIndex
       .forServer(router)
-      .queryStopLocations(query, autocomplete)
+      .queryStopLocations(query, autocomplete, focus)
       .map(sl ->
         new SearchResult(
           sl.getCoordinate().latitude(),
@@ -105,10 +118,14 @@ public class GeocoderResource {
       .collect(Collectors.toList());
   }
 
-  private Collection<? extends SearchResult> queryStations(String query, boolean autocomplete) {
+  private Collection<? extends SearchResult> queryStations(
+    String query,
+    boolean autocomplete,
+    WgsCoordinate focus
+  ) {
     return LuceneIndex
       .forServer(router)
-      .queryStopCollections(query, autocomplete)
+      .queryStopCollections(query, autocomplete, focus)
       .map(sc ->
         new SearchResult(
           sc.getCoordinate().latitude(),
@@ -120,10 +137,14 @@ public class GeocoderResource {
       .collect(Collectors.toList());
   }
 
-  private Collection<? extends SearchResult> queryCorners(String query, boolean autocomplete) {
+  private Collection<? extends SearchResult> queryCorners(
+    String query,
+    boolean autocomplete,
+    WgsCoordinate focus
+  ) {
     return LuceneIndex
       .forServer(router)
-      .queryStreetVertices(query, autocomplete)
+      .queryStreetVertices(query, autocomplete, focus)
       .map(v -> new SearchResult(v.getLat(), v.getLon(), stringifyStreetVertex(v), v.getLabel()))
       .collect(Collectors.toList());
   }
@@ -3,6 +3,8 @@ package org.opentripplanner.ext.geocoder;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -17,6 +19,7 @@ import org.apache.lucene.codecs.PostingsFormat;
 import org.apache.lucene.codecs.lucene91.Lucene91Codec;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.LatLonDocValuesField;
 import org.apache.lucene.document.LatLonPoint;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.TextField;
@@ -27,6 +30,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.suggest.document.Completion90PostingsFormat;
 import org.apache.lucene.search.suggest.document.CompletionAnalyzer;
@@ -35,9 +39,13 @@ import org.apache.lucene.search.suggest.document.ContextSuggestField;
 import org.apache.lucene.search.suggest.document.PrefixCompletionQuery;
 import org.apache.lucene.search.suggest.document.SuggestIndexSearcher;
 import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.StopCollection;
 import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.model.WgsCoordinate;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.vertextype.StreetVertex;
 import org.opentripplanner.standalone.server.Router;
@@ -52,20 +60,112 @@ public class LuceneIndex implements Serializable {
   private static final String CODE = "code";
   private static final String COORDINATE = "coordinate";
 
-  private final Graph graph;
-  private final Analyzer analyzer;
-  private final SuggestIndexSearcher searcher;
+  private static final String LATITUDE = "latitude";
+  private static final String LONGITUDE = "longitude";
+
+  private static final int MAX_RESULTS = 25;
+
+  /**
+   * When results are ranked by the distance to a focus point, this many suggestions are ranked for
+   * an autocomplete query.
+   */
+  private static final int MAX_SUGGESTIONS_TO_RANK = 200;
+
+  /** Results this far from the focus point get half the score of the results at the point */
+  private static final double FOCUS_PIVOT_DISTANCE_METERS = 5_000;
+
+  /**
+   * The files of an index built with the graph, serialized with the graph. The files are released
+   * when the index is opened by the server.
+   */
+  private Map<String, byte[]> indexFiles;
+
+  private transient Graph graph;
+  private transient Analyzer analyzer;
+  private transient SuggestIndexSearcher searcher;
 
   public LuceneIndex(Graph graph) {
-    this.graph = graph;
-    this.analyzer =
-      new PerFieldAnalyzerWrapper(
-        new StandardAnalyzer(),
-        Map.of(NAME, new SimpleAnalyzer(), SUGGEST, new CompletionAnalyzer(new StandardAnalyzer()))
-      );
+    this(graph, false);
+  }
 
+  private LuceneIndex(Graph graph, boolean keepIndexFiles) {
     var directory = new ByteBuffersDirectory();
+    writeIndex(graph, directory);
+    if (keepIndexFiles) {
+      indexFiles = readIndexFiles(directory);
+    }
+    open(graph, directory);
+  }
+
+  /**
+   * Build the index when the graph is built, and add it to the graph, so the server does not need
+   * to build it at startup.
+   */
+  public static void forGraphBuild(Graph graph) {
+    graph.putService(LuceneIndex.class, new LuceneIndex(graph, true));
+  }
+
+  public static synchronized LuceneIndex forServer(Router router) {
+    var graph = router.graph;
+    var existingIndex = graph.getService(LuceneIndex.class);
+    if (existingIndex != null) {
+      if (existingIndex.searcher == null) {
+        existingIndex.open(graph, writeIndexFiles(existingIndex.indexFiles));
+      }
+      // The files are only needed to serialize the graph
+      existingIndex.indexFiles = null;
+      return existingIndex;
+    }
+
+    var newIndex = new LuceneIndex(graph);
+    graph.putService(LuceneIndex.class, newIndex);
+    return newIndex;
+  }
+
+  public Stream<StopLocation> queryStopLocations(String query, boolean autocomplete) {
+    return queryStopLocations(query, autocomplete, null);
+  }
+
+  /**
+   * @param focus If given, the results closer to this point are ranked higher.
+   */
+  public Stream<StopLocation> queryStopLocations(
+    String query,
+    boolean autocomplete,
+    @Nullable WgsCoordinate focus
+  ) {
+    return matchingDocuments(StopLocation.class, query, autocomplete, focus)
+      .map(document -> graph.getStopLocationById(FeedScopedId.parseId(document.get(ID))));
+  }
+
+  public Stream<StopCollection> queryStopCollections(String query, boolean autocomplete) {
+    return queryStopCollections(query, autocomplete, null);
+  }
+
+  public Stream<StopCollection> queryStopCollections(
+    String query,
+    boolean autocomplete,
+    @Nullable WgsCoordinate focus
+  ) {
+    return matchingDocuments(StopCollection.class, query, autocomplete, focus)
+      .map(document -> graph.getStopCollectionById(FeedScopedId.parseId(document.get(ID))));
+  }
+
+  public Stream<StreetVertex> queryStreetVertices(String query, boolean autocomplete) {
+    return queryStreetVertices(query, autocomplete, null);
+  }
+
+  public Stream<StreetVertex> queryStreetVertices(
+    String query,
+    boolean autocomplete,
+    @Nullable WgsCoordinate focus
+  ) {
+    return matchingDocuments(StreetVertex.class, query, autocomplete, focus)
+      .map(document -> (StreetVertex) graph.getVertex(document.get(ID)));
+  }
 
+  private static void writeIndex(Graph graph, Directory directory) {
+    var analyzer = analyzer();
     try {
       try (
         var directoryWriter = new IndexWriter(
@@ -118,41 +218,11 @@ public class LuceneIndex implements Serializable {
             )
           );
       }
-
-      DirectoryReader indexReader = DirectoryReader.open(directory);
-      searcher = new SuggestIndexSearcher(indexReader);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
   }
 
-  public static synchronized LuceneIndex forServer(Router router) {
-    var graph = router.graph;
-    var existingIndex = graph.getService(LuceneIndex.class);
-    if (existingIndex != null) {
-      return existingIndex;
-    }
-
-    var newIndex = new LuceneIndex(graph);
-    graph.putService(LuceneIndex.class, newIndex);
-    return newIndex;
-  }
-
-  public Stream<StopLocation> queryStopLocations(String query, boolean autocomplete) {
-    return matchingDocuments(StopLocation.class, query, autocomplete)
-      .map(document -> graph.getStopLocationById(FeedScopedId.parseId(document.get(ID))));
-  }
-
-  public Stream<StopCollection> queryStopCollections(String query, boolean autocomplete) {
-    return matchingDocuments(StopCollection.class, query, autocomplete)
-      .map(document -> graph.getStopCollectionById(FeedScopedId.parseId(document.get(ID))));
-  }
-
-  public Stream<StreetVertex> queryStreetVertices(String query, boolean autocomplete) {
-    return matchingDocuments(StreetVertex.class, query, autocomplete)
-      .map(document -> (StreetVertex) graph.getVertex(document.get(ID)));
-  }
-
   static IndexWriterConfig iwcWithSuggestField(Analyzer analyzer, final Set<String> suggestFields) {
     IndexWriterConfig iwc = new IndexWriterConfig(analyzer);
     Codec filterCodec = new Lucene91Codec() {
@@ -187,6 +257,9 @@ public class LuceneIndex implements Serializable {
     document.add(new TextField(NAME, Objects.toString(name), Store.YES));
     document.add(new ContextSuggestField(SUGGEST, Objects.toString(name), 1, typeName));
     document.add(new LatLonPoint(COORDINATE, latitude, longitude));
+    document.add(new LatLonDocValuesField(COORDINATE, latitude, longitude));
+    document.add(new StoredField(LATITUDE, latitude));
+    document.add(new StoredField(LONGITUDE, longitude));
 
     if (code != null) {
       document.add(new TextField(CODE, code, Store.YES));
@@ -203,7 +276,8 @@ public class LuceneIndex implements Serializable {
   private Stream<Document> matchingDocuments(
     Class<?> type,
     String searchTerms,
-    boolean autocomplete
+    boolean autocomplete,
+    @Nullable WgsCoordinate focus
   ) {
     try {
       if (autocomplete) {
@@ -214,17 +288,22 @@ public class LuceneIndex implements Serializable {
         var query = new ContextQuery(completionQuery);
         query.addContext(type.getSimpleName());
 
-        var topDocs = searcher.suggest(query, 25, true);
+        if (focus == null) {
+          var topDocs = searcher.suggest(query, MAX_RESULTS, true);
+          return Arrays.stream(topDocs.scoreDocs).map(this::document);
+        }
 
+        // The suggester can only rank by the weight of the suggestions, so the best suggestions
+        // are ranked again by their distance to the focus point.
+        var topDocs = searcher.suggest(query, MAX_SUGGESTIONS_TO_RANK, true);
         return Arrays
           .stream(topDocs.scoreDocs)
-          .map(scoreDoc -> {
-            try {
-              return searcher.doc(scoreDoc.doc);
-            } catch (IOException e) {
-              throw new RuntimeException(e);
-            }
-          });
+          .map(scoreDoc -> new ScoredDocument(scoreDoc.score, document(scoreDoc)))
+          .sorted(
+            Comparator.comparingDouble(d -> -d.score() * focusBoost(d.document(), focus))
+          )
+          .limit(MAX_RESULTS)
+          .map(ScoredDocument::document);
       } else {
         var parser = new QueryParser(CODE, analyzer);
         var nameQuery = parser.createPhraseQuery(NAME, searchTerms);
@@ -233,31 +312,112 @@ public class LuceneIndex implements Serializable {
           new Term(TYPE, analyzer.normalize(TYPE, type.getSimpleName()))
         );
 
-        var builder = new BooleanQuery.Builder()
+        var textQuery = new BooleanQuery.Builder()
           .setMinimumNumberShouldMatch(1)
-          .add(typeQuery, Occur.MUST)
           .add(codeQuery, Occur.SHOULD);
 
         if (nameQuery != null) {
-          builder.add(nameQuery, Occur.SHOULD);
+          textQuery.add(nameQuery, Occur.SHOULD);
+        }
+
+        var builder = new BooleanQuery.Builder()
+          .add(typeQuery, Occur.MUST)
+          .add(textQuery.build(), Occur.MUST);
+
+        // Nearby results are scored higher in the same query
+        if (focus != null) {
+          builder.add(
+            LatLonPoint.newDistanceFeatureQuery(
+              COORDINATE,
+              1,
+              focus.latitude(),
+              focus.longitude(),
+              FOCUS_PIVOT_DISTANCE_METERS
+            ),
+            Occur.SHOULD
+          );
         }
 
         var query = builder.build();
 
-        var topDocs = searcher.search(query, 25);
+        var topDocs = searcher.search(query, MAX_RESULTS);
 
-        return Arrays
-          .stream(topDocs.scoreDocs)
-          .map(scoreDoc -> {
-            try {
-              return searcher.doc(scoreDoc.doc);
-            } catch (IOException e) {
-              throw new RuntimeException(e);
-            }
-          });
+        return Arrays.stream(topDocs.scoreDocs).map(this::document);
       }
     } catch (IOException ex) {
       throw new RuntimeException(ex);
     }
   }
+
+  private Document document(ScoreDoc scoreDoc) {
+    try {
+      return searcher.doc(scoreDoc.doc);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * The same decay with distance as the distance feature query, 1 at the focus point and 0.5 at
+   * the pivot distance.
+   */
+  private static double focusBoost(Document document, WgsCoordinate focus) {
+    double distance = SphericalDistanceLibrary.distance(
+      document.getField(LATITUDE).numericValue().doubleValue(),
+      document.getField(LONGITUDE).numericValue().doubleValue(),
+      focus.latitude(),
+      focus.longitude()
+    );
+    return FOCUS_PIVOT_DISTANCE_METERS / (FOCUS_PIVOT_DISTANCE_METERS + distance);
+  }
+
+  private void open(Graph graph, Directory directory) {
+    this.graph = graph;
+    this.analyzer = analyzer();
+    try {
+      DirectoryReader indexReader = DirectoryReader.open(directory);
+      searcher = new SuggestIndexSearcher(indexReader);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Analyzer analyzer() {
+    return new PerFieldAnalyzerWrapper(
+      new StandardAnalyzer(),
+      Map.of(NAME, new SimpleAnalyzer(), SUGGEST, new CompletionAnalyzer(new StandardAnalyzer()))
+    );
+  }
+
+  private static Map<String, byte[]> readIndexFiles(Directory directory) {
+    try {
+      Map<String, byte[]> files = new HashMap<>();
+      for (String name : directory.listAll()) {
+        try (var input = directory.openInput(name, IOContext.READONCE)) {
+          byte[] bytes = new byte[(int) input.length()];
+          input.readBytes(bytes, 0, bytes.length);
+          files.put(name, bytes);
+        }
+      }
+      return files;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Directory writeIndexFiles(Map<String, byte[]> files) {
+    var directory = new ByteBuffersDirectory();
+    try {
+      for (var file : files.entrySet()) {
+        try (var output = directory.createOutput(file.getKey(), IOContext.DEFAULT)) {
+          output.writeBytes(file.getValue(), file.getValue().length);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return directory;
+  }
+
+  private record ScoredDocument(float score, Document document) {}
 }
@@ -0,0 +1,32 @@
+package org.opentripplanner.ext.geocoder;
+
+import java.util.HashMap;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.graph_builder.services.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Build the geocoder index when the graph is built. The index is serialized with the graph, so the
+ * server only needs to open it at startup.
+ */
+public class LuceneIndexModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(LuceneIndexModule.class);
+
+  @Override
+  public void buildGraph(
+    Graph graph,
+    HashMap<Class<?>, Object> extra,
+    DataImportIssueStore issueStore
+  ) {
+    LOG.info("Creating geocoder lucene index");
+    LuceneIndex.forGraphBuild(graph);
+  }
+
+  @Override
+  public void checkInputs() {
+    //No inputs other than the graph itself
+  }
+}
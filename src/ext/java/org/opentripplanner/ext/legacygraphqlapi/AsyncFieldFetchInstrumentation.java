@@ -0,0 +1,109 @@
+package org.opentripplanner.ext.legacygraphqlapi;
+
+import graphql.execution.AbortExecutionException;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.language.OperationDefinition;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetch the top level fields of a query asynchronously in the given executor, so the fields are
+ * fetched in parallel and the request thread is not blocked. This makes a difference for queries
+ * with more than one expensive top level field, like several {@code plan} aliases.
+ * <p>
+ * Each top level field must be fetched before the deadline of the request. If not, the field is
+ * returned with an error, while the other fields are returned as normal. The fetching of a field
+ * can not be interrupted, but when the deadline is passed the fields below it are not fetched, and
+ * a field still waiting for a thread is not fetched at all. If the queue of the executor is full,
+ * the field is returned with an error.
+ */
+class AsyncFieldFetchInstrumentation extends SimpleInstrumentation {
+
+  private final Executor executor;
+  private final long deadlineNanos;
+
+  /**
+   * @param deadlineNanos The deadline of the request, relative to {@link System#nanoTime()}.
+   */
+  AsyncFieldFetchInstrumentation(Executor executor, long deadlineNanos) {
+    this.executor = executor;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  @Override
+  public DataFetcher<?> instrumentDataFetcher(
+    DataFetcher<?> dataFetcher,
+    InstrumentationFieldFetchParameters parameters
+  ) {
+    if (parameters.isTrivialDataFetcher()) {
+      return dataFetcher;
+    }
+    if (isTopLevelQueryField(parameters)) {
+      return environment -> {
+        try {
+          return CompletableFuture
+            .supplyAsync(
+              () -> {
+                // The task may have waited in the queue until after the deadline
+                checkDeadline();
+                return fetch(dataFetcher, environment);
+              },
+              executor
+            )
+            .thenCompose(AsyncFieldFetchInstrumentation::unwrap)
+            .orTimeout(nanosLeft(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+          return CompletableFuture.failedFuture(
+            new AbortExecutionException("The server is busy, the field is not fetched")
+          );
+        }
+      };
+    }
+    return environment -> {
+      checkDeadline();
+      return dataFetcher.get(environment);
+    };
+  }
+
+  private long nanosLeft() {
+    return deadlineNanos - System.nanoTime();
+  }
+
+  private void checkDeadline() {
+    if (nanosLeft() <= 0) {
+      throw new AbortExecutionException("The deadline of the request is passed");
+    }
+  }
+
+  private static boolean isTopLevelQueryField(InstrumentationFieldFetchParameters parameters) {
+    return (
+      parameters.getExecutionStepInfo().getPath().getLevel() == 1 &&
+      parameters.getExecutionContext().getOperationDefinition().getOperation() ==
+      OperationDefinition.Operation.QUERY
+    );
+  }
+
+  private static Object fetch(DataFetcher<?> dataFetcher, DataFetchingEnvironment environment) {
+    try {
+      return dataFetcher.get(environment);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** A data fetcher may itself return a future, which must be completed before the value is used */
+  private static CompletionStage<Object> unwrap(Object value) {
+    if (value instanceof CompletionStage<?> stage) {
+      return stage.thenApply(v -> v);
+    }
+    return CompletableFuture.completedFuture(value);
+  }
+}
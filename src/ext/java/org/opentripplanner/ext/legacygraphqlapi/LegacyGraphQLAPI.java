@@ -8,7 +8,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DefaultValue;
@@ -17,6 +17,8 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -52,19 +54,26 @@ public class LegacyGraphQLAPI {
 
   @POST
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response getGraphQL(
+  public void getGraphQL(
     HashMap<String, Object> queryParameters,
     @HeaderParam("OTPTimeout") @DefaultValue("30000") int timeout,
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
-    @Context HttpHeaders headers
+    @Context HttpHeaders headers,
+    @Suspended AsyncResponse asyncResponse
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    if (
+      queryParameters == null ||
+      !(queryParameters.containsKey("query") || queryParameters.containsKey("extensions"))
+    ) {
       LOG.debug("No query found in body");
-      return Response
-        .status(Response.Status.BAD_REQUEST)
-        .type(MediaType.TEXT_PLAIN_TYPE)
-        .entity("No query found in body")
-        .build();
+      asyncResponse.resume(
+        Response
+          .status(Response.Status.BAD_REQUEST)
+          .type(MediaType.TEXT_PLAIN_TYPE)
+          .entity("No query found in body")
+          .build()
+      );
+      return;
     }
 
     Locale locale = headers.getAcceptableLanguages().size() > 0
@@ -82,58 +91,71 @@ public class LegacyGraphQLAPI {
       try {
         variables = deserializer.readValue((String) queryVariables, Map.class);
       } catch (IOException e) {
-        return Response
-          .status(Response.Status.BAD_REQUEST)
-          .type(MediaType.TEXT_PLAIN_TYPE)
-          .entity("Variables must be a valid json object")
-          .build();
+        asyncResponse.resume(
+          Response
+            .status(Response.Status.BAD_REQUEST)
+            .type(MediaType.TEXT_PLAIN_TYPE)
+            .entity("Variables must be a valid json object")
+            .build()
+        );
+        return;
       }
     } else {
       variables = new HashMap<>();
     }
-    return LegacyGraphQLIndex.getGraphQLResponse(
-      query,
-      router,
-      variables,
-      operationName,
-      maxResolves,
-      timeout,
-      locale
+    resume(
+      asyncResponse,
+      LegacyGraphQLIndex.getGraphQLResponse(
+        query,
+        router,
+        variables,
+        extensions(queryParameters),
+        operationName,
+        maxResolves,
+        timeout,
+        locale
+      )
     );
   }
 
   @POST
   @Consumes("application/graphql")
-  public Response getGraphQL(
+  public void getGraphQL(
     String query,
     @HeaderParam("OTPTimeout") @DefaultValue("30000") int timeout,
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
-    @Context HttpHeaders headers
+    @Context HttpHeaders headers,
+    @Suspended AsyncResponse asyncResponse
   ) {
     Locale locale = headers.getAcceptableLanguages().size() > 0
       ? headers.getAcceptableLanguages().get(0)
       : router.getDefaultLocale();
-    return LegacyGraphQLIndex.getGraphQLResponse(
-      query,
-      router,
-      null,
-      null,
-      maxResolves,
-      timeout,
-      locale
+    resume(
+      asyncResponse,
+      LegacyGraphQLIndex.getGraphQLResponse(
+        query,
+        router,
+        null,
+        null,
+        null,
+        maxResolves,
+        timeout,
+        locale
+      )
     );
   }
 
   @POST
   @Path("/batch")
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response getGraphQLBatch(
+  public void getGraphQLBatch(
     List<HashMap<String, Object>> queries,
     @HeaderParam("OTPTimeout") @DefaultValue("30000") int timeout,
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
-    @Context HttpHeaders headers
+    @Context HttpHeaders headers,
+    @Suspended AsyncResponse asyncResponse
   ) {
-    List<Callable<ExecutionResult>> futures = new ArrayList<>();
+    List<CompletableFuture<ExecutionResult>> futures = new ArrayList<>();
     Locale locale = headers.getAcceptableLanguages().size() > 0
       ? headers.getAcceptableLanguages().get(0)
       : router.getDefaultLocale();
@@ -148,22 +170,26 @@ public class LegacyGraphQLAPI {
         try {
           variables = deserializer.readValue((String) query.get("variables"), Map.class);
         } catch (IOException e) {
-          return Response
-            .status(Response.Status.BAD_REQUEST)
-            .type(MediaType.TEXT_PLAIN_TYPE)
-            .entity("Variables must be a valid json object")
-            .build();
+          asyncResponse.resume(
+            Response
+              .status(Response.Status.BAD_REQUEST)
+              .type(MediaType.TEXT_PLAIN_TYPE)
+              .entity("Variables must be a valid json object")
+              .build()
+          );
+          return;
         }
       } else {
         variables = null;
       }
       String operationName = (String) query.getOrDefault("operationName", null);
 
-      futures.add(() ->
+      futures.add(
         LegacyGraphQLIndex.getGraphQLExecutionResult(
           (String) query.get("query"),
           router,
           variables,
+          extensions(query),
           operationName,
           maxResolves,
           timeout,
@@ -172,15 +198,43 @@ public class LegacyGraphQLAPI {
       );
     }
 
-    try {
-      List<Future<ExecutionResult>> results = LegacyGraphQLIndex.threadPool.invokeAll(futures);
-      return Response
-        .status(Response.Status.OK)
-        .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
-        .build();
-    } catch (InterruptedException e) {
-      LOG.error("Batch query interrupted", e);
-      throw new RuntimeException(e);
-    }
+    // The queries are executed in parallel, respond when all of them are done
+    List<Future<ExecutionResult>> results = new ArrayList<>(futures);
+    resume(
+      asyncResponse,
+      CompletableFuture
+        .allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(ignore ->
+          Response
+            .status(Response.Status.OK)
+            .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
+            .build()
+        )
+    );
+  }
+
+  /**
+   * Resume the suspended request when the response is ready. The request thread is released while
+   * the query is executed.
+   */
+  private static void resume(AsyncResponse asyncResponse, CompletableFuture<Response> response) {
+    response.whenComplete((result, e) -> {
+      if (e != null) {
+        LOG.error("GraphQL request failed", e);
+        asyncResponse.resume(e);
+      } else {
+        asyncResponse.resume(result);
+      }
+    });
+  }
+
+  /**
+   * The extensions of the request, used by persisted queries.
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> extensions(Map<String, Object> queryParameters) {
+    return queryParameters.get("extensions") instanceof Map
+      ? (Map<String, Object>) queryParameters.get("extensions")
+      : null;
   }
 }
@@ -2,7 +2,6 @@ package org.opentripplanner.ext.legacygraphqlapi;
 
 import com.google.api.client.util.Charsets;
 import com.google.common.io.Resources;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -18,16 +17,16 @@ import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import io.micrometer.core.instrument.Metrics;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import javax.ws.rs.core.Response;
+import org.opentripplanner.api.common.GraphQLDocumentCache;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.ext.actuator.MicrometerGraphQLInstrumentation;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLAgencyImpl;
@@ -77,7 +76,7 @@ import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLplaceA
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLserviceTimeRangeImpl;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLstepImpl;
 import org.opentripplanner.ext.legacygraphqlapi.datafetchers.LegacyGraphQLstopAtDistanceImpl;
-import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.RequestScopedRoutingService;
 import org.opentripplanner.standalone.server.Router;
 import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
@@ -89,9 +88,7 @@ class LegacyGraphQLIndex {
 
   private static final GraphQLSchema indexSchema = buildSchema();
 
-  static final ExecutorService threadPool = Executors.newCachedThreadPool(
-    new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
-  );
+  private static final GraphQLDocumentCache documentCache = new GraphQLDocumentCache(indexSchema);
 
   protected static GraphQLSchema buildSchema() {
     try {
@@ -164,26 +161,35 @@ class LegacyGraphQLIndex {
     return null;
   }
 
-  static ExecutionResult getGraphQLExecutionResult(
+  /**
+   * Execute the query without blocking the calling thread. The top level fields of the query are
+   * fetched in parallel by the {@link Router#graphQLExecutor}, see
+   * {@link AsyncFieldFetchInstrumentation}.
+   */
+  static CompletableFuture<ExecutionResult> getGraphQLExecutionResult(
     String query,
     Router router,
     Map<String, Object> variables,
+    Map<String, Object> extensions,
     String operationName,
     int maxResolves,
     int timeoutMs,
     Locale locale
   ) {
-    Instrumentation instrumentation = new MaxQueryComplexityInstrumentation(maxResolves);
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    List<Instrumentation> instrumentations = new ArrayList<>();
 
     if (OTPFeature.ActuatorAPI.isOn()) {
-      instrumentation =
-        new ChainedInstrumentation(
-          new MicrometerGraphQLInstrumentation(Metrics.globalRegistry, List.of()),
-          instrumentation
-        );
+      instrumentations.add(new MicrometerGraphQLInstrumentation(Metrics.globalRegistry, List.of()));
     }
+    instrumentations.add(new MaxQueryComplexityInstrumentation(maxResolves));
+    instrumentations.add(new AsyncFieldFetchInstrumentation(router.graphQLExecutor, deadlineNanos));
 
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    GraphQL graphQL = GraphQL
+      .newGraphQL(indexSchema)
+      .instrumentation(new ChainedInstrumentation(instrumentations))
+      .preparsedDocumentProvider(documentCache.provider(maxResolves))
+      .build();
 
     if (variables == null) {
       variables = new HashMap<>();
@@ -191,47 +197,55 @@ class LegacyGraphQLIndex {
 
     LegacyGraphQLRequestContext requestContext = new LegacyGraphQLRequestContext(
       router,
-      new RoutingService(router.graph)
+      new RequestScopedRoutingService(router.graph)
     );
 
     ExecutionInput executionInput = ExecutionInput
       .newExecutionInput()
-      .query(query)
+      .query(query == null ? "" : query)
       .operationName(operationName)
       .context(requestContext)
       .root(router)
       .variables(variables)
+      .extensions(extensions == null ? Map.of() : extensions)
       .locale(locale)
       .build();
-    try {
-      return graphQL.executeAsync(executionInput).get(timeoutMs, TimeUnit.MILLISECONDS);
-    } catch (InterruptedException | ExecutionException | TimeoutException e) {
-      return new AbortExecutionException(e).toExecutionResult();
-    }
+
+    return graphQL
+      .executeAsync(executionInput)
+      .exceptionally(e ->
+        new AbortExecutionException(
+          e instanceof CompletionException && e.getCause() != null ? e.getCause() : e
+        )
+          .toExecutionResult()
+      );
   }
 
-  static Response getGraphQLResponse(
+  static CompletableFuture<Response> getGraphQLResponse(
     String query,
     Router router,
     Map<String, Object> variables,
+    Map<String, Object> extensions,
     String operationName,
     int maxResolves,
     int timeoutMs,
     Locale locale
   ) {
-    ExecutionResult executionResult = getGraphQLExecutionResult(
+    return getGraphQLExecutionResult(
       query,
       router,
       variables,
+      extensions,
       operationName,
       maxResolves,
       timeoutMs,
       locale
-    );
-
-    return Response
-      .status(Response.Status.OK)
-      .entity(GraphQLResponseSerializer.serialize(executionResult))
-      .build();
+    )
+      .thenApply(executionResult ->
+        Response
+          .status(Response.Status.OK)
+          .entity(GraphQLResponseSerializer.serialize(executionResult))
+          .build()
+      );
   }
 }
@@ -11,7 +11,6 @@ import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLDataFetch
 import org.opentripplanner.ext.legacygraphqlapi.generated.LegacyGraphQLTypes;
 import org.opentripplanner.model.Agency;
 import org.opentripplanner.routing.RoutingService;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.services.TransitAlertService;
 
@@ -38,18 +37,7 @@ public class LegacyGraphQLFeedImpl implements LegacyGraphQLDataFetchers.LegacyGr
               );
               break;
             case ROUTE_TYPES:
-              alertService
-                .getAllAlerts()
-                .stream()
-                .filter(alert ->
-                  alert
-                    .getEntities()
-                    .stream()
-                    .filter(entitySelector -> entitySelector instanceof EntitySelector.RouteType)
-                    .map(EntitySelector.RouteType.class::cast)
-                    .anyMatch(entity -> entity.feedId.equals(getSource(environment)))
-                )
-                .forEach(alert -> alerts.add(alert));
+              alerts.addAll(alertService.getRouteTypeAlertsByFeed(getSource(environment)));
               break;
           }
         });
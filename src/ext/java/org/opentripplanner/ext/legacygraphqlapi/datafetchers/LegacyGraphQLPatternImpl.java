@@ -24,7 +24,6 @@ import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.model.vehicle_position.RealtimeVehiclePosition;
 import org.opentripplanner.routing.RoutingService;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.services.TransitAlertService;
 
@@ -72,23 +71,7 @@ public class LegacyGraphQLPatternImpl implements LegacyGraphQLDataFetchers.Legac
               break;
             case STOPS_ON_PATTERN:
               alerts.addAll(
-                alertService
-                  .getAllAlerts()
-                  .stream()
-                  .filter(alert ->
-                    alert
-                      .getEntities()
-                      .stream()
-                      .anyMatch(entity ->
-                        (
-                          entity instanceof EntitySelector.StopAndRoute &&
-                          ((EntitySelector.StopAndRoute) entity).stopAndRoute.routeOrTrip.equals(
-                              getRoute(environment).getId()
-                            )
-                        )
-                      )
-                  )
-                  .collect(Collectors.toList())
+                alertService.getStopAndRouteAlertsByRoute(getRoute(environment).getId())
               );
               getSource(environment)
                 .getStops()
@@ -100,25 +83,7 @@ public class LegacyGraphQLPatternImpl implements LegacyGraphQLDataFetchers.Legac
             case STOPS_ON_TRIPS:
               Iterable<Trip> trips = getTrips(environment);
               trips.forEach(trip ->
-                alerts.addAll(
-                  alertService
-                    .getAllAlerts()
-                    .stream()
-                    .filter(alert ->
-                      alert
-                        .getEntities()
-                        .stream()
-                        .anyMatch(entity ->
-                          (
-                            entity instanceof EntitySelector.StopAndTrip &&
-                            ((EntitySelector.StopAndTrip) entity).stopAndTrip.routeOrTrip.equals(
-                                getSource(environment).getId()
-                              )
-                          )
-                        )
-                    )
-                    .collect(Collectors.toList())
-                )
+                alerts.addAll(alertService.getStopAndTripAlertsByTrip(trip.getId()))
               );
               break;
           }
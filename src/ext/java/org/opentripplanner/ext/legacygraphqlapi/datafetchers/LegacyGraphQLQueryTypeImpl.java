@@ -350,9 +350,11 @@ public class LegacyGraphQLQueryTypeImpl
         environment.getArguments()
       );
 
-      RoutingService routingService = getRoutingService(environment);
+      LegacyGraphQLRequestContext context = environment.<LegacyGraphQLRequestContext>getContext();
+      RoutingService routingService = context.getRoutingService();
 
-      return new GtfsRealtimeFuzzyTripMatcher(routingService)
+      return GtfsRealtimeFuzzyTripMatcher
+        .forGraph(context.getRouter().graph)
         .getTrip(
           routingService.getRouteForId(FeedScopedId.parseId(args.getLegacyGraphQLRoute())),
           args.getLegacyGraphQLDirection(),
@@ -15,7 +15,6 @@ import org.opentripplanner.model.StopLocation;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.routing.RoutingService;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.services.TransitAlertService;
 
@@ -64,21 +63,7 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
               break;
             case STOPS_ON_ROUTE:
               alerts.addAll(
-                alertService
-                  .getAllAlerts()
-                  .stream()
-                  .filter(alert ->
-                    alert
-                      .getEntities()
-                      .stream()
-                      .anyMatch(entity ->
-                        entity instanceof EntitySelector.StopAndRoute &&
-                        ((EntitySelector.StopAndRoute) entity).stopAndRoute.routeOrTrip.equals(
-                            getSource(environment).getId()
-                          )
-                      )
-                  )
-                  .collect(Collectors.toList())
+                alertService.getStopAndRouteAlertsByRoute(getSource(environment).getId())
               );
               getStops(environment)
                 .forEach(stop -> {
@@ -87,25 +72,9 @@ public class LegacyGraphQLRouteImpl implements LegacyGraphQLDataFetchers.LegacyG
               break;
             case STOPS_ON_TRIPS:
               Iterable<Trip> trips = getTrips(environment);
-              trips.forEach(trip -> {
-                alerts.addAll(
-                  alertService
-                    .getAllAlerts()
-                    .stream()
-                    .filter(alert ->
-                      alert
-                        .getEntities()
-                        .stream()
-                        .anyMatch(entity ->
-                          entity instanceof EntitySelector.StopAndTrip &&
-                          ((EntitySelector.StopAndTrip) entity).stopAndTrip.routeOrTrip.equals(
-                              trip.getId()
-                            )
-                        )
-                    )
-                    .collect(Collectors.toList())
-                );
-              });
+              trips.forEach(trip ->
+                alerts.addAll(alertService.getStopAndTripAlertsByTrip(trip.getId()))
+              );
               break;
             case PATTERNS:
               alerts.addAll(
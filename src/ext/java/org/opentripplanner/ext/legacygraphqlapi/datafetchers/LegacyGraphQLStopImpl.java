@@ -29,8 +29,6 @@ import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.TripTimeOnDate;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.RoutingService;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
-import org.opentripplanner.routing.alertpatch.EntitySelector.StopAndRoute;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graphfinder.NearbyStop;
@@ -51,33 +49,11 @@ public class LegacyGraphQLStopImpl implements LegacyGraphQLDataFetchers.LegacyGr
         if (types.contains(LegacyGraphQLStopAlertType.STOP)) {
           alerts.addAll(alertService.getStopAlerts(id));
         }
-        if (
-          types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES) ||
-          types.contains(LegacyGraphQLStopAlertType.STOP_ON_TRIPS)
-        ) {
-          alerts.addAll(
-            alertService
-              .getAllAlerts()
-              .stream()
-              .filter(alert ->
-                alert
-                  .getEntities()
-                  .stream()
-                  .anyMatch(entity ->
-                    (
-                      types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES) &&
-                      entity instanceof EntitySelector.StopAndRoute &&
-                      ((StopAndRoute) entity).stopAndRoute.stop.equals(id)
-                    ) ||
-                    (
-                      types.contains(LegacyGraphQLStopAlertType.STOP_ON_TRIPS) &&
-                      entity instanceof EntitySelector.StopAndTrip &&
-                      ((EntitySelector.StopAndTrip) entity).stopAndTrip.stop.equals(id)
-                    )
-                  )
-              )
-              .collect(Collectors.toList())
-          );
+        if (types.contains(LegacyGraphQLStopAlertType.STOP_ON_ROUTES)) {
+          alerts.addAll(alertService.getStopAndRouteAlertsByStop(id));
+        }
+        if (types.contains(LegacyGraphQLStopAlertType.STOP_ON_TRIPS)) {
+          alerts.addAll(alertService.getStopAndTripAlertsByStop(id));
         }
         if (
           types.contains(LegacyGraphQLStopAlertType.PATTERNS) ||
@@ -27,7 +27,6 @@ import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.TripTimeOnDate;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.RoutingService;
-import org.opentripplanner.routing.alertpatch.EntitySelector;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.core.ServiceDay;
 import org.opentripplanner.routing.services.TransitAlertService;
@@ -87,29 +86,10 @@ public class LegacyGraphQLTripImpl implements LegacyGraphQLDataFetchers.LegacyGr
               break;
             case STOPS_ON_TRIP:
               alerts.addAll(
-                alertService
-                  .getAllAlerts()
-                  .stream()
-                  .filter(alert ->
-                    alert
-                      .getEntities()
-                      .stream()
-                      .anyMatch(entity ->
-                        (
-                          entity instanceof EntitySelector.StopAndRoute &&
-                          ((EntitySelector.StopAndRoute) entity).stopAndRoute.routeOrTrip.equals(
-                              getRoute(environment).getId()
-                            )
-                        ) ||
-                        (
-                          entity instanceof EntitySelector.StopAndTrip &&
-                          ((EntitySelector.StopAndTrip) entity).stopAndTrip.routeOrTrip.equals(
-                              getSource(environment).getId()
-                            )
-                        )
-                      )
-                  )
-                  .collect(Collectors.toList())
+                alertService.getStopAndRouteAlertsByRoute(getRoute(environment).getId())
+              );
+              alerts.addAll(
+                alertService.getStopAndTripAlertsByTrip(getSource(environment).getId())
               );
               getStops(environment)
                 .forEach(stop -> {
@@ -1,12 +1,16 @@
 package org.opentripplanner.ext.siri;
 
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.Route;
 import org.opentripplanner.model.Station;
@@ -39,16 +43,32 @@ import uk.org.siri.siri20.VehicleModesEnumeration;
  * Several instances of this SiriFuzzyTripMatcher may appear in different SIRI updaters, but they
  * all share a common set of static Map fields. We generally don't advocate using static fields in
  * this way, but as part of a sandbox contribution we are maintaining this implementation.
+ * <p>
+ * The caches are built once, when the first matcher is created after the graph is loaded, and
+ * trips added by realtime updates are added to them with {@link #addTrip}. The matching methods
+ * may be called from several threads at once, see
+ * {@link SiriTimetableSnapshotSource#applyEstimatedTimetable}, so the cached sets are never
+ * modified after they are published - a trip is added by replacing the set. The number of lookups
+ * which found, or did not find, a trip in each cache is available in the "siri.fuzzy_match" metric.
  */
 public class SiriFuzzyTripMatcher {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiriFuzzyTripMatcher.class);
-  private static final Map<String, Set<Trip>> mappedTripsCache = new HashMap<>();
-  private static final Map<String, Set<Trip>> mappedVehicleRefCache = new HashMap<>();
-  private static final Map<String, Set<Route>> mappedRoutesCache = new HashMap<>();
-  private static final Map<String, Set<Trip>> start_stop_tripCache = new HashMap<>();
-  private static final Map<String, Trip> vehicleJourneyTripCache = new HashMap<>();
-  private static final Set<String> nonExistingStops = new HashSet<>();
+  private static final Map<String, Set<Trip>> mappedTripsCache = new ConcurrentHashMap<>();
+  private static final Map<String, Set<Trip>> mappedVehicleRefCache = new ConcurrentHashMap<>();
+  private static final Map<String, Set<Route>> mappedRoutesCache = new ConcurrentHashMap<>();
+  /** Trips by the id of the last stop and the scheduled arrival time at that stop */
+  private static final Map<String, TIntObjectMap<Set<Trip>>> lastStopArrivalTimeCache =
+    new ConcurrentHashMap<>();
+  private static final Map<String, Trip> vehicleJourneyTripCache = new ConcurrentHashMap<>();
+  private static final Set<String> nonExistingStops = ConcurrentHashMap.newKeySet();
+
+  private static final MatchCounter VEHICLE_REF_MATCHES = new MatchCounter("vehicleRef");
+  private static final MatchCounter DATED_VEHICLE_JOURNEY_MATCHES = new MatchCounter(
+    "datedVehicleJourney"
+  );
+  private static final MatchCounter LAST_STOP_MATCHES = new MatchCounter("lastStop");
+
   private final RoutingService routingService;
 
   public SiriFuzzyTripMatcher(RoutingService routingService) {
@@ -97,12 +117,14 @@ public class SiriFuzzyTripMatcher {
       )
     ) {
       trips = getCachedTripsByVehicleRef(journey.getVehicleRef().getValue());
+      VEHICLE_REF_MATCHES.record(trips);
     }
 
     if (trips == null || trips.isEmpty()) {
       String serviceJourneyId = resolveDatedVehicleJourneyRef(journey);
       if (serviceJourneyId != null) {
         trips = getCachedTripsBySiriId(serviceJourneyId);
+        DATED_VEHICLE_JOURNEY_MATCHES.record(trips);
       }
     }
     if (trips == null || trips.isEmpty()) {
@@ -139,6 +161,7 @@ public class SiriFuzzyTripMatcher {
 
       if (arrivalTime != null) {
         trips = getMatchingTripsOnStopOrSiblings(lastStopPoint, arrivalTime);
+        LAST_STOP_MATCHES.record(trips);
       }
     }
     return trips;
@@ -294,69 +317,35 @@ public class SiriFuzzyTripMatcher {
     return null;
   }
 
-  private static void initCache(RoutingService index) {
+  /**
+   * Add a trip created by a realtime update to the caches, so that later updates for the same trip
+   * can be matched. The scheduled times of the given {@code tripTimes} are used.
+   */
+  public void addTrip(Trip trip, TripPattern tripPattern, TripTimes tripTimes) {
+    synchronized (SiriFuzzyTripMatcher.class) {
+      cacheTrip(trip, tripPattern, tripTimes, true);
+      vehicleJourneyTripCache.put(trip.getId().getId(), trip);
+    }
+  }
+
+  private static synchronized void initCache(RoutingService index) {
     if (mappedTripsCache.isEmpty()) {
       Set<Trip> trips = index.getPatternForTrip().keySet();
       for (Trip trip : trips) {
         TripPattern tripPattern = index.getPatternForTrip().get(trip);
-
-        String currentTripId = getUnpaddedTripId(trip.getId().getId());
-
-        if (mappedTripsCache.containsKey(currentTripId)) {
-          mappedTripsCache.get(currentTripId).add(trip);
-        } else {
-          Set<Trip> initialSet = new HashSet<>();
-          initialSet.add(trip);
-          mappedTripsCache.put(currentTripId, initialSet);
-        }
-
-        if (
-          tripPattern != null &&
-          tripPattern.matchesModeOrSubMode(TransitMode.RAIL, "railReplacementBus")
-        ) {
-          if (trip.getInternalPlanningCode() != null) {
-            String internalPlanningCode = trip.getInternalPlanningCode();
-            if (mappedVehicleRefCache.containsKey(internalPlanningCode)) {
-              mappedVehicleRefCache.get(internalPlanningCode).add(trip);
-            } else {
-              Set<Trip> initialSet = new HashSet<>();
-              initialSet.add(trip);
-              mappedVehicleRefCache.put(internalPlanningCode, initialSet);
-            }
-          }
-        }
-        String lastStopId = tripPattern.lastStop().getId().getId();
-
         TripTimes tripTimes = tripPattern.getScheduledTimetable().getTripTimes(trip);
-        if (tripTimes != null) {
-          int arrivalTime = tripTimes.getArrivalTime(tripTimes.getNumStops() - 1);
-
-          String key = createStartStopKey(lastStopId, arrivalTime);
-          if (start_stop_tripCache.containsKey(key)) {
-            start_stop_tripCache.get(key).add(trip);
-          } else {
-            Set<Trip> initialSet = new HashSet<>();
-            initialSet.add(trip);
-            start_stop_tripCache.put(key, initialSet);
-          }
-        }
+        cacheTrip(trip, tripPattern, tripTimes, false);
       }
       Set<Route> routes = index.getPatternsForRoute().keySet();
       for (Route route : routes) {
         String currentRouteId = getUnpaddedTripId(route.getId().getId());
-        if (mappedRoutesCache.containsKey(currentRouteId)) {
-          mappedRoutesCache.get(currentRouteId).add(route);
-        } else {
-          Set<Route> initialSet = new HashSet<>();
-          initialSet.add(route);
-          mappedRoutesCache.put(currentRouteId, initialSet);
-        }
+        mappedRoutesCache.computeIfAbsent(currentRouteId, k -> new HashSet<>()).add(route);
       }
 
       LOG.info("Built route-cache [{}].", mappedRoutesCache.size());
       LOG.info("Built vehicleRef-cache [{}].", mappedVehicleRefCache.size());
       LOG.info("Built trips-cache [{}].", mappedTripsCache.size());
-      LOG.info("Built start-stop-cache [{}].", start_stop_tripCache.size());
+      LOG.info("Built last-stop-cache [{}].", lastStopArrivalTimeCache.size());
     }
 
     if (vehicleJourneyTripCache.isEmpty()) {
@@ -367,8 +356,68 @@ public class SiriFuzzyTripMatcher {
     }
   }
 
-  private static String createStartStopKey(String lastStopId, int lastStopArrivalTime) {
-    return lastStopId + ":" + lastStopArrivalTime;
+  /**
+   * @param copyOnWrite If {@code true} the cached sets and maps are replaced instead of modified,
+   *                    this is used after the caches are published to the matching threads.
+   */
+  private static void cacheTrip(
+    Trip trip,
+    TripPattern tripPattern,
+    TripTimes tripTimes,
+    boolean copyOnWrite
+  ) {
+    String currentTripId = getUnpaddedTripId(trip.getId().getId());
+    addToCache(mappedTripsCache, currentTripId, trip, copyOnWrite);
+
+    if (
+      tripPattern != null &&
+      tripPattern.matchesModeOrSubMode(TransitMode.RAIL, "railReplacementBus")
+    ) {
+      if (trip.getInternalPlanningCode() != null) {
+        String internalPlanningCode = trip.getInternalPlanningCode();
+        addToCache(mappedVehicleRefCache, internalPlanningCode, trip, copyOnWrite);
+      }
+    }
+    String lastStopId = tripPattern.lastStop().getId().getId();
+
+    if (tripTimes != null) {
+      int arrivalTime = tripTimes.getScheduledArrivalTime(tripTimes.getNumStops() - 1);
+
+      TIntObjectMap<Set<Trip>> tripsByArrivalTime = lastStopArrivalTimeCache.get(lastStopId);
+      if (tripsByArrivalTime == null) {
+        tripsByArrivalTime = new TIntObjectHashMap<>();
+      } else if (copyOnWrite) {
+        tripsByArrivalTime = new TIntObjectHashMap<>(tripsByArrivalTime);
+      }
+      Set<Trip> trips = tripsByArrivalTime.get(arrivalTime);
+      if (trips == null) {
+        trips = new HashSet<>();
+      } else if (copyOnWrite) {
+        trips = new HashSet<>(trips);
+      }
+      // Realtime updates may create a new instance of an added trip, replace the old one
+      trips.remove(trip);
+      trips.add(trip);
+      tripsByArrivalTime.put(arrivalTime, trips);
+      lastStopArrivalTimeCache.put(lastStopId, tripsByArrivalTime);
+    }
+  }
+
+  private static void addToCache(
+    Map<String, Set<Trip>> cache,
+    String key,
+    Trip trip,
+    boolean copyOnWrite
+  ) {
+    Set<Trip> trips = cache.get(key);
+    if (trips == null) {
+      trips = new HashSet<>();
+    } else if (copyOnWrite) {
+      trips = new HashSet<>(trips);
+    }
+    trips.remove(trip);
+    trips.add(trip);
+    cache.put(key, trips);
   }
 
   private static String getUnpaddedTripId(String id) {
@@ -404,13 +453,10 @@ public class SiriFuzzyTripMatcher {
       routingService.getTimeZone().toZoneId()
     );
 
-    Set<Trip> trips = start_stop_tripCache.get(
-      createStartStopKey(lastStopPoint, secondsSinceMidnight)
-    );
+    Set<Trip> trips = getCachedTripsByLastStop(lastStopPoint, secondsSinceMidnight);
     if (trips == null) {
       //Attempt to fetch trips that started yesterday - i.e. add 24 hours to arrival-time
-      trips =
-        start_stop_tripCache.get(createStartStopKey(lastStopPoint, secondsSinceMidnightYesterday));
+      trips = getCachedTripsByLastStop(lastStopPoint, secondsSinceMidnightYesterday);
     }
 
     if (trips == null || trips.isEmpty()) {
@@ -421,12 +467,14 @@ public class SiriFuzzyTripMatcher {
         // TODO OTP2 resolve stop-station split
         var allQuays = stop.getParentStation().getChildStops();
         for (var quay : allQuays) {
-          Set<Trip> tripSet = start_stop_tripCache.get(
-            createStartStopKey(quay.getId().getId(), secondsSinceMidnight)
+          Set<Trip> tripSet = getCachedTripsByLastStop(
+            quay.getId().getId(),
+            secondsSinceMidnight
           );
           if (tripSet != null) {
+            // Copy, the cached sets must not be modified
             if (trips == null) {
-              trips = tripSet;
+              trips = new HashSet<>(tripSet);
             } else {
               trips.addAll(tripSet);
             }
@@ -437,6 +485,11 @@ public class SiriFuzzyTripMatcher {
     return trips;
   }
 
+  private Set<Trip> getCachedTripsByLastStop(String lastStopId, int arrivalTime) {
+    TIntObjectMap<Set<Trip>> tripsByArrivalTime = lastStopArrivalTimeCache.get(lastStopId);
+    return tripsByArrivalTime == null ? null : tripsByArrivalTime.get(arrivalTime);
+  }
+
   private Set<Trip> getCachedTripsByVehicleRef(String vehicleRef) {
     if (vehicleRef == null) {
       return null;
@@ -450,4 +503,32 @@ public class SiriFuzzyTripMatcher {
     }
     return mappedTripsCache.getOrDefault(tripId, new HashSet<>());
   }
+
+  private static class MatchCounter {
+
+    private final Counter hits;
+    private final Counter misses;
+
+    private MatchCounter(String cache) {
+      this.hits = counter(cache, "hit");
+      this.misses = counter(cache, "miss");
+    }
+
+    void record(Set<Trip> trips) {
+      if (trips == null || trips.isEmpty()) {
+        misses.increment();
+      } else {
+        hits.increment();
+      }
+    }
+
+    private static Counter counter(String cache, String result) {
+      return Counter
+        .builder("siri.fuzzy_match")
+        .description("Number of SIRI journeys matched with the fuzzy trip matcher caches")
+        .tag("cache", cache)
+        .tag("result", result)
+        .register(Metrics.globalRegistry);
+    }
+  }
 }
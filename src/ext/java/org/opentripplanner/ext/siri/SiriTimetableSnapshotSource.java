@@ -8,6 +8,8 @@ import static org.opentripplanner.model.PickDrop.NONE;
 import static org.opentripplanner.model.PickDrop.SCHEDULED;
 
 import com.google.common.base.Preconditions;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Date;
@@ -16,8 +18,11 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.opentripplanner.common.model.T2;
 import org.opentripplanner.model.Agency;
 import org.opentripplanner.model.FeedScopedId;
@@ -38,6 +43,7 @@ import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.DateMapper;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.TransitLayerUpdater;
 import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.trippattern.Deduplicator;
 import org.opentripplanner.routing.trippattern.RealTimeState;
 import org.opentripplanner.routing.trippattern.TripTimes;
 import org.rutebanken.netex.model.BusSubmodeEnumeration;
@@ -68,6 +74,16 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
 
   private static final Logger LOG = LoggerFactory.getLogger(SiriTimetableSnapshotSource.class);
 
+  /**
+   * Journeys in an update are matched in parallel if there are at least this many of them.
+   */
+  static final int MIN_JOURNEYS_FOR_PARALLEL_MATCHING = 1000;
+
+  /**
+   * The number of journeys in each shard when matching in parallel.
+   */
+  private static final int JOURNEYS_PER_SHARD = 500;
+
   private static boolean keepLogging = true;
   /**
    * The working copy of the timetable snapshot. Should not be visible to routing threads. Should
@@ -95,7 +111,22 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   private final RoutingService routingService;
   private final SiriFuzzyTripMatcher siriFuzzyTripMatcher;
   private final TransitLayerUpdater transitLayerUpdater;
+  /** Time spent matching EstimatedVehicleJourneys to trips, without holding the buffer lock. */
+  private final Timer matchTimer = Timer
+    .builder("siri.et.match")
+    .description("Time spent matching SIRI-ET journeys to trips")
+    .register(Metrics.globalRegistry);
+  /** Time spent applying matched EstimatedVehicleJourneys while holding the buffer lock. */
+  private final Timer applyTimer = Timer
+    .builder("siri.et.apply")
+    .description("Time spent applying SIRI-ET journeys to the timetable buffer")
+    .register(Metrics.globalRegistry);
   public int logFrequency = 2000;
+  /**
+   * Journeys in an update are matched in parallel if there are at least this many of them, see
+   * {@link #MIN_JOURNEYS_FOR_PARALLEL_MATCHING}.
+   */
+  int minJourneysForParallelMatching = MIN_JOURNEYS_FOR_PARALLEL_MATCHING;
   /**
    * If a timetable snapshot is requested less than this number of milliseconds after the previous
    * snapshot, just return the same one. Throttles the potentially resource-consuming task of
@@ -226,6 +257,11 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
 
   /**
    * Method to apply a trip update list to the most recent version of the timetable snapshot.
+   * <p>
+   * The journeys are matched to scheduled trips, and the updated trip times are created, before
+   * the buffer lock is taken. For large updates this is done in parallel, see
+   * {@link #matchModifiedTrips}. Only applying the matched trip times to the buffer, and adding
+   * extra journeys to the graph, is done while holding the lock.
    *
    * @param graph       graph to update (needed for adding/changing stop patterns)
    * @param fullDataset true iff the list with updates represent all updates that are active right
@@ -243,8 +279,26 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       return;
     }
 
+    List<EstimatedVehicleJourney> journeys = new ArrayList<>();
+    for (EstimatedTimetableDeliveryStructure etDelivery : updates) {
+      List<EstimatedVersionFrameStructure> estimatedJourneyVersions = etDelivery.getEstimatedJourneyVersionFrames();
+      if (estimatedJourneyVersions != null) {
+        for (EstimatedVersionFrameStructure estimatedJourneyVersion : estimatedJourneyVersions) {
+          journeys.addAll(estimatedJourneyVersion.getEstimatedVehicleJourneies());
+        }
+      }
+    }
+    LOG.debug("Handling {} EstimatedVehicleJourneys.", journeys.size());
+
+    // Match the journeys against the last committed snapshot, this does not need the lock
+    final long matchStart = System.nanoTime();
+    List<JourneyMatch> matches = matchModifiedTrips(graph, feedId, journeys);
+    final long matchTime = System.nanoTime() - matchStart;
+    matchTimer.record(matchTime, TimeUnit.NANOSECONDS);
+
     // Acquire lock on buffer
     bufferLock.lock();
+    final long applyStart = System.nanoTime();
 
     try {
       if (fullDataset) {
@@ -252,58 +306,57 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
         buffer.clear(feedId);
       }
 
-      for (EstimatedTimetableDeliveryStructure etDelivery : updates) {
-        List<EstimatedVersionFrameStructure> estimatedJourneyVersions = etDelivery.getEstimatedJourneyVersionFrames();
-        if (estimatedJourneyVersions != null) {
-          //Handle deliveries
-          for (EstimatedVersionFrameStructure estimatedJourneyVersion : estimatedJourneyVersions) {
-            List<EstimatedVehicleJourney> journeys = estimatedJourneyVersion.getEstimatedVehicleJourneies();
-            LOG.debug("Handling {} EstimatedVehicleJourneys.", journeys.size());
-            int handledCounter = 0;
-            int skippedCounter = 0;
-            int addedCounter = 0;
-            int notMonitoredCounter = 0;
-            for (EstimatedVehicleJourney journey : journeys) {
-              if (journey.isExtraJourney() != null && journey.isExtraJourney()) {
-                // Added trip
-                try {
-                  if (handleAddedTrip(graph, feedId, journey)) {
-                    addedCounter++;
-                  } else {
-                    skippedCounter++;
-                  }
-                } catch (Throwable t) {
-                  // Since this is work in progress - catch everything to continue processing updates
-                  LOG.warn(
-                    "Adding ExtraJourney with id='{}' failed, caused by '{}'.",
-                    journey.getEstimatedVehicleJourneyCode(),
-                    t.getMessage()
-                  );
-                  skippedCounter++;
-                }
-              } else {
-                // Updated trip
-                if (handleModifiedTrip(graph, feedId, journey)) {
-                  handledCounter++;
-                } else {
-                  if (journey.isMonitored() != null && !journey.isMonitored()) {
-                    notMonitoredCounter++;
-                  } else {
-                    skippedCounter++;
-                  }
-                }
-              }
+      int handledCounter = 0;
+      int skippedCounter = 0;
+      int addedCounter = 0;
+      int notMonitoredCounter = 0;
+      boolean extraJourneyAdded = false;
+      for (int i = 0; i < journeys.size(); i++) {
+        EstimatedVehicleJourney journey = journeys.get(i);
+        if (journey.isExtraJourney() != null && journey.isExtraJourney()) {
+          // Added trip
+          try {
+            if (handleAddedTrip(graph, feedId, journey)) {
+              addedCounter++;
+              extraJourneyAdded = true;
+            } else {
+              skippedCounter++;
             }
-            LOG.debug(
-              "Processed EstimatedVehicleJourneys: updated {}, added {}, skipped {}, not monitored {}.",
-              handledCounter,
-              addedCounter,
-              skippedCounter,
-              notMonitoredCounter
+          } catch (Throwable t) {
+            // Since this is work in progress - catch everything to continue processing updates
+            LOG.warn(
+              "Adding ExtraJourney with id='{}' failed, caused by '{}'.",
+              journey.getEstimatedVehicleJourneyCode(),
+              t.getMessage()
             );
+            skippedCounter++;
+          }
+        } else {
+          // Updated trip
+          JourneyMatch match = matches.get(i);
+          if (match == null && extraJourneyAdded) {
+            // The journey may update an extra journey added earlier in this delivery, which did
+            // not exist when the journeys were matched. Match it again against the buffer.
+            match = matchModifiedTripOrLog(graph, feedId, journey, buffer, graph.deduplicator);
+          }
+          if (match != null && applyModifiedTrip(graph, feedId, match)) {
+            handledCounter++;
+          } else {
+            if (journey.isMonitored() != null && !journey.isMonitored()) {
+              notMonitoredCounter++;
+            } else {
+              skippedCounter++;
+            }
           }
         }
       }
+      LOG.debug(
+        "Processed EstimatedVehicleJourneys: updated {}, added {}, skipped {}, not monitored {}.",
+        handledCounter,
+        addedCounter,
+        skippedCounter,
+        notMonitoredCounter
+      );
 
       LOG.debug("message contains {} trip updates", updates.size());
       LOG.debug("end of update message");
@@ -318,8 +371,16 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
         getTimetableSnapshot(false);
       }
     } finally {
+      final long applyTime = System.nanoTime() - applyStart;
       // Always release lock
       bufferLock.unlock();
+      applyTimer.record(applyTime, TimeUnit.NANOSECONDS);
+      LOG.debug(
+        "Matched {} EstimatedVehicleJourneys in {} ms, applied them in {} ms.",
+        journeys.size(),
+        TimeUnit.NANOSECONDS.toMillis(matchTime),
+        TimeUnit.NANOSECONDS.toMillis(applyTime)
+      );
     }
   }
 
@@ -455,9 +516,16 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
    * Snapshot timetable is used as source if initialised, trip patterns scheduled timetable if not.
    */
   private Timetable getCurrentTimetable(TripPattern tripPattern, ServiceDate serviceDate) {
-    TimetableSnapshot timetableSnapshot = getTimetableSnapshot();
+    return getCurrentTimetable(getTimetableSnapshot(), tripPattern, serviceDate);
+  }
+
+  private static Timetable getCurrentTimetable(
+    TimetableSnapshot timetableSnapshot,
+    TripPattern tripPattern,
+    ServiceDate serviceDate
+  ) {
     if (timetableSnapshot != null) {
-      return getTimetableSnapshot().resolve(tripPattern, serviceDate);
+      return timetableSnapshot.resolve(tripPattern, serviceDate);
     }
     return tripPattern.getScheduledTimetable();
   }
@@ -746,7 +814,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       "Non-increasing triptimes for added trip"
     );
 
-    return addTripToGraphAndBuffer(
+    boolean success = addTripToGraphAndBuffer(
       feedId,
       graph,
       trip,
@@ -756,6 +824,12 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
       serviceDate,
       estimatedVehicleJourney
     );
+
+    // Make the added trip available for matching later updates
+    if (success) {
+      siriFuzzyTripMatcher.addTrip(trip, pattern, tripTimes);
+    }
+    return success;
   }
 
   /**
@@ -796,10 +870,99 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     return null;
   }
 
-  private boolean handleModifiedTrip(
+  /**
+   * Match all journeys which are not extra journeys to scheduled trips, and create the updated trip
+   * times. The result list has the same size and order as the journeys, with {@code null} for
+   * journeys that are extra journeys or could not be matched.
+   * <p>
+   * This only reads the graph and the last committed timetable snapshot, so it is safe to do
+   * without holding the buffer lock. Large updates are split into shards of consecutive journeys
+   * which are matched in parallel. Each shard gets its own {@link Deduplicator}, since the graph
+   * deduplicator is not thread-safe.
+   * <p>
+   * A journey updating an extra journey added earlier in the same delivery is not matched here,
+   * since the extra journey is added when the delivery is applied. Journeys that are not matched
+   * here are matched again while applying, if an extra journey was added before them.
+   */
+  List<JourneyMatch> matchModifiedTrips(
     Graph graph,
     String feedId,
-    EstimatedVehicleJourney estimatedVehicleJourney
+    List<EstimatedVehicleJourney> journeys
+  ) {
+    final TimetableSnapshot timetableSnapshot = getTimetableSnapshot();
+
+    if (journeys.size() < minJourneysForParallelMatching) {
+      return matchModifiedTrips(graph, feedId, journeys, timetableSnapshot, graph.deduplicator);
+    }
+
+    int nShards = (journeys.size() + JOURNEYS_PER_SHARD - 1) / JOURNEYS_PER_SHARD;
+    return IntStream
+      .range(0, nShards)
+      .parallel()
+      .mapToObj(shard ->
+        matchModifiedTrips(
+          graph,
+          feedId,
+          journeys.subList(
+            shard * JOURNEYS_PER_SHARD,
+            Math.min(journeys.size(), (shard + 1) * JOURNEYS_PER_SHARD)
+          ),
+          timetableSnapshot,
+          new Deduplicator()
+        )
+      )
+      .flatMap(List::stream)
+      .collect(Collectors.toList());
+  }
+
+  private List<JourneyMatch> matchModifiedTrips(
+    Graph graph,
+    String feedId,
+    List<EstimatedVehicleJourney> journeys,
+    TimetableSnapshot timetableSnapshot,
+    Deduplicator deduplicator
+  ) {
+    List<JourneyMatch> matches = new ArrayList<>(journeys.size());
+    for (EstimatedVehicleJourney journey : journeys) {
+      JourneyMatch match = null;
+      if (journey.isExtraJourney() == null || !journey.isExtraJourney()) {
+        match = matchModifiedTripOrLog(graph, feedId, journey, timetableSnapshot, deduplicator);
+      }
+      matches.add(match);
+    }
+    return matches;
+  }
+
+  private JourneyMatch matchModifiedTripOrLog(
+    Graph graph,
+    String feedId,
+    EstimatedVehicleJourney journey,
+    TimetableSnapshot timetableSnapshot,
+    Deduplicator deduplicator
+  ) {
+    try {
+      return matchModifiedTrip(graph, feedId, journey, timetableSnapshot, deduplicator);
+    } catch (RuntimeException e) {
+      LOG.warn(
+        "Matching EstimatedVehicleJourney with id='{}' failed, caused by '{}'.",
+        journey.getEstimatedVehicleJourneyCode(),
+        e.getMessage()
+      );
+      return null;
+    }
+  }
+
+  /**
+   * Find the trips and patterns matching the given journey, and create the updated trip times.
+   *
+   * @return the match, or {@code null} if the journey could not be matched.
+   */
+  private JourneyMatch matchModifiedTrip(
+    Graph graph,
+    String feedId,
+    EstimatedVehicleJourney estimatedVehicleJourney,
+    TimetableSnapshot timetableSnapshot,
+    Deduplicator deduplicator
   ) {
     //Check if EstimatedVehicleJourney is reported as NOT monitored
     if (estimatedVehicleJourney.isMonitored() != null && !estimatedVehicleJourney.isMonitored()) {
@@ -808,7 +971,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
         estimatedVehicleJourney.isCancellation() != null &&
         !estimatedVehicleJourney.isCancellation()
       ) {
-        return false;
+        return null;
       }
     }
 
@@ -831,7 +994,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
     ServiceDate serviceDate = getServiceDateForEstimatedVehicleJourney(estimatedVehicleJourney);
 
     if (serviceDate == null) {
-      return false;
+      return null;
     }
 
     Set<TripTimes> times = new HashSet<>();
@@ -851,12 +1014,17 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
         .get(tripMatchedByServiceJourneyId);
 
       if (exactPattern != null) {
-        Timetable currentTimetable = getCurrentTimetable(exactPattern, serviceDate);
+        Timetable currentTimetable = getCurrentTimetable(
+          timetableSnapshot,
+          exactPattern,
+          serviceDate
+        );
         TripTimes exactUpdatedTripTimes = createUpdatedTripTimes(
           graph,
           currentTimetable,
           estimatedVehicleJourney,
-          tripMatchedByServiceJourneyId.getId()
+          tripMatchedByServiceJourneyId.getId(),
+          deduplicator
         );
         if (exactUpdatedTripTimes != null) {
           times.add(exactUpdatedTripTimes);
@@ -866,7 +1034,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
             "Failed to update TripTimes for trip found by exact match {}",
             tripMatchedByServiceJourneyId.getId()
           );
-          return false;
+          return null;
         }
       }
     } else {
@@ -883,7 +1051,7 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
           lineRef,
           vehicleRef
         );
-        return false;
+        return null;
       }
 
       //Find the trips that best corresponds to EstimatedVehicleJourney
@@ -897,18 +1065,19 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
           lineRef,
           vehicleRef
         );
-        return false;
+        return null;
       }
 
       for (Trip matchingTrip : matchingTrips) {
         TripPattern pattern = getPatternForTrip(matchingTrip, estimatedVehicleJourney);
         if (pattern != null) {
-          Timetable currentTimetable = getCurrentTimetable(pattern, serviceDate);
+          Timetable currentTimetable = getCurrentTimetable(timetableSnapshot, pattern, serviceDate);
           TripTimes updatedTripTimes = createUpdatedTripTimes(
             graph,
             currentTimetable,
             estimatedVehicleJourney,
-            matchingTrip.getId()
+            matchingTrip.getId(),
+            deduplicator
           );
           if (updatedTripTimes != null) {
             patterns.add(pattern);
@@ -926,71 +1095,97 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
         lineRef,
         vehicleRef
       );
-      return false;
+      return null;
     }
 
     if (times.isEmpty()) {
-      return false;
+      return null;
     }
 
-    boolean result = false;
+    List<PatternUpdate> patternUpdates = new ArrayList<>();
     for (TripTimes tripTimes : times) {
       Trip trip = tripTimes.getTrip();
       for (TripPattern pattern : patterns) {
         if (tripTimes.getNumStops() == pattern.numberOfStops()) {
+          List<StopLocation> modifiedStops = null;
+          List<StopTime> modifiedStopTimes = null;
           if (!tripTimes.isCanceled()) {
-            /*
-                          UPDATED and MODIFIED tripTimes should be handled the same way to always allow latest realtime-update
-                          to replace previous update regardless of realtimestate
-                         */
+            // Calculate modified stop-pattern
+            Timetable currentTimetable = getCurrentTimetable(
+              timetableSnapshot,
+              pattern,
+              serviceDate
+            );
+            modifiedStops =
+              createModifiedStops(currentTimetable, estimatedVehicleJourney, routingService);
+            modifiedStopTimes =
+              createModifiedStopTimes(
+                currentTimetable,
+                tripTimes,
+                estimatedVehicleJourney,
+                trip,
+                routingService
+              );
+          }
+          patternUpdates.add(
+            new PatternUpdate(pattern, tripTimes, modifiedStops, modifiedStopTimes)
+          );
+        } else {
+          LOG.debug("Ignoring update since number of stops do not match");
+        }
+      }
+    }
 
-            cancelScheduledTrip(feedId, trip.getId().getId(), serviceDate);
+    return new JourneyMatch(estimatedVehicleJourney, serviceDate, patternUpdates);
+  }
 
-            // Check whether trip id has been used for previously ADDED/MODIFIED trip message and remove
-            // previously created trip
-            removePreviousRealtimeUpdate(feedId, trip.getId().getId(), serviceDate);
+  /**
+   * Apply a matched journey to the buffer. Must be called while holding the {@link #bufferLock}.
+   */
+  private boolean applyModifiedTrip(Graph graph, String feedId, JourneyMatch match) {
+    final ServiceDate serviceDate = match.serviceDate;
+    final EstimatedVehicleJourney estimatedVehicleJourney = match.journey;
 
-            // Calculate modified stop-pattern
-            Timetable currentTimetable = getCurrentTimetable(pattern, serviceDate);
-            var modifiedStops = createModifiedStops(
-              currentTimetable,
-              estimatedVehicleJourney,
-              routingService
-            );
-            List<StopTime> modifiedStopTimes = createModifiedStopTimes(
-              currentTimetable,
-              tripTimes,
-              estimatedVehicleJourney,
-              trip,
-              routingService
-            );
+    boolean result = false;
+    for (PatternUpdate update : match.patternUpdates) {
+      TripPattern pattern = update.pattern;
+      TripTimes tripTimes = update.tripTimes;
+      Trip trip = tripTimes.getTrip();
+      // The trip times may have been cancelled while applying an update for another pattern
+      if (!tripTimes.isCanceled()) {
+        /*
+          UPDATED and MODIFIED tripTimes should be handled the same way to always allow latest realtime-update
+          to replace previous update regardless of realtimestate
+         */
 
-            if (modifiedStops != null && modifiedStops.isEmpty()) {
-              tripTimes.cancelTrip();
-            } else {
-              // Add new trip
-              result =
-                result |
-                addTripToGraphAndBuffer(
-                  feedId,
-                  graph,
-                  trip,
-                  modifiedStopTimes,
-                  modifiedStops,
-                  tripTimes,
-                  serviceDate,
-                  estimatedVehicleJourney
-                );
-            }
-          } else {
-            result = result | buffer.update(pattern, tripTimes, serviceDate);
-          }
+        cancelScheduledTrip(feedId, trip.getId().getId(), serviceDate);
 
-          LOG.debug("Applied realtime data for trip {}", trip.getId().getId());
+        // Check whether trip id has been used for previously ADDED/MODIFIED trip message and remove
+        // previously created trip
+        removePreviousRealtimeUpdate(feedId, trip.getId().getId(), serviceDate);
+
+        if (update.modifiedStops != null && update.modifiedStops.isEmpty()) {
+          tripTimes.cancelTrip();
         } else {
-          LOG.debug("Ignoring update since number of stops do not match");
+          // Add new trip
+          result =
+            result |
+            addTripToGraphAndBuffer(
+              feedId,
+              graph,
+              trip,
+              update.modifiedStopTimes,
+              update.modifiedStops,
+              tripTimes,
+              serviceDate,
+              estimatedVehicleJourney
+            );
         }
+      } else {
+        result = result | buffer.update(pattern, tripTimes, serviceDate);
       }
+
+      LOG.debug("Applied realtime data for trip {}", trip.getId().getId());
     }
 
     return result;
@@ -1579,4 +1774,48 @@ public class SiriTimetableSnapshotSource implements TimetableSnapshotProvider {
   private StopLocation getStopForStopId(String feedId, String stopId) {
     return routingService.getStopForId(new FeedScopedId(feedId, stopId));
   }
+
+  /**
+   * The updated trip times for one trip in one pattern, with the modified stop pattern. The
+   * modified stops and stop times are not computed if the trip is cancelled.
+   */
+  private static class PatternUpdate {
+
+    private final TripPattern pattern;
+    private final TripTimes tripTimes;
+    private final List<StopLocation> modifiedStops;
+    private final List<StopTime> modifiedStopTimes;
+
+    private PatternUpdate(
+      TripPattern pattern,
+      TripTimes tripTimes,
+      List<StopLocation> modifiedStops,
+      List<StopTime> modifiedStopTimes
+    ) {
+      this.pattern = pattern;
+      this.tripTimes = tripTimes;
+      this.modifiedStops = modifiedStops;
+      this.modifiedStopTimes = modifiedStopTimes;
+    }
+  }
+
+  /**
+   * An EstimatedVehicleJourney matched to scheduled trips, ready to be applied to the buffer.
+   */
+  static class JourneyMatch {
+
+    private final EstimatedVehicleJourney journey;
+    private final ServiceDate serviceDate;
+    private final List<PatternUpdate> patternUpdates;
+
+    private JourneyMatch(
+      EstimatedVehicleJourney journey,
+      ServiceDate serviceDate,
+      List<PatternUpdate> patternUpdates
+    ) {
+      this.journey = journey;
+      this.serviceDate = serviceDate;
+      this.patternUpdates = patternUpdates;
+    }
+  }
 }
@@ -24,6 +24,7 @@ import org.opentripplanner.model.Trip;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.mappers.DateMapper;
 import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.trippattern.Deduplicator;
 import org.opentripplanner.routing.trippattern.RealTimeState;
 import org.opentripplanner.routing.trippattern.TripTimes;
 import org.slf4j.Logger;
@@ -60,6 +61,21 @@ public class TimetableHelper {
     Timetable timetable,
     EstimatedVehicleJourney journey,
     FeedScopedId tripId
+  ) {
+    return createUpdatedTripTimes(graph, timetable, journey, tripId, graph.deduplicator);
+  }
+
+  /**
+   * Same as {@link #createUpdatedTripTimes(Graph, Timetable, EstimatedVehicleJourney,
+   * FeedScopedId)}, but with an explicit deduplicator. The graph deduplicator is not thread-safe,
+   * so callers creating trip times in parallel must pass in a deduplicator per thread.
+   */
+  public static TripTimes createUpdatedTripTimes(
+    final Graph graph,
+    Timetable timetable,
+    EstimatedVehicleJourney journey,
+    FeedScopedId tripId,
+    Deduplicator deduplicator
   ) {
     if (journey == null) {
       return null;
@@ -116,7 +132,7 @@ public class TimetableHelper {
     if (modifiedStopTimes == null) {
       return null;
     }
-    TripTimes newTimes = new TripTimes(trip, modifiedStopTimes, graph.deduplicator);
+    TripTimes newTimes = new TripTimes(trip, modifiedStopTimes, deduplicator);
 
     //Populate missing data from existing TripTimes
     newTimes.setServiceCode(oldTimes.getServiceCode());
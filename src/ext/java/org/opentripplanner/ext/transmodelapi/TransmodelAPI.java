@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.Consumes;
@@ -26,6 +27,7 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import org.opentripplanner.api.common.GraphQLDocumentCache;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.ext.transmodelapi.mapping.TransitIdMapper;
 import org.opentripplanner.ext.transmodelapi.support.GqlUtil;
@@ -47,6 +49,7 @@ public class TransmodelAPI {
   private static final Logger LOG = LoggerFactory.getLogger(TransmodelAPI.class);
 
   private static GraphQLSchema schema;
+  private static GraphQLDocumentCache documentCache;
   private static Collection<String> tracingHeaderTags;
 
   private final Router router;
@@ -62,7 +65,7 @@ public class TransmodelAPI {
     @Deprecated @PathParam("ignoreRouterId") String ignoreRouterId
   ) {
     this.router = otpServer.getRouter();
-    this.index = new TransmodelGraph(schema);
+    this.index = new TransmodelGraph(schema, documentCache);
   }
 
   /**
@@ -81,6 +84,7 @@ public class TransmodelAPI {
     tracingHeaderTags = config.tracingHeaderTags();
     GqlUtil gqlUtil = new GqlUtil(graph.getTimeZone());
     schema = TransmodelGraphQLSchema.create(defaultRoutingRequest, gqlUtil);
+    documentCache = new GraphQLDocumentCache(schema);
   }
 
   /**
@@ -100,7 +104,10 @@ public class TransmodelAPI {
     @HeaderParam("OTPMaxResolves") @DefaultValue("1000000") int maxResolves,
     @Context HttpHeaders headers
   ) {
-    if (queryParameters == null || !queryParameters.containsKey("query")) {
+    if (
+      queryParameters == null ||
+      !(queryParameters.containsKey("query") || queryParameters.containsKey("extensions"))
+    ) {
       LOG.debug("No query found in body");
       throw new BadRequestException("No query found in body");
     }
@@ -124,6 +131,7 @@ public class TransmodelAPI {
       query,
       router,
       variables,
+      extensions(queryParameters),
       operationName,
       maxResolves,
       getTagsFromHeaders(headers)
@@ -143,6 +151,7 @@ public class TransmodelAPI {
       router,
       null,
       null,
+      null,
       maxResolves,
       getTagsFromHeaders(headers)
     );
@@ -181,6 +190,7 @@ public class TransmodelAPI {
           (String) query.get("query"),
           router,
           variables,
+          extensions(query),
           operationName,
           maxResolves,
           getTagsFromHeaders(headers)
@@ -189,17 +199,30 @@ public class TransmodelAPI {
     }
 
     try {
-      List<Future<ExecutionResult>> results = index.threadPool.invokeAll(futures);
+      List<Future<ExecutionResult>> results = router.graphQLExecutor.invokeAll(futures);
       return Response
         .status(Response.Status.OK)
         .entity(GraphQLResponseSerializer.serializeBatch(queries, results))
         .build();
+    } catch (RejectedExecutionException e) {
+      LOG.warn("Batch query rejected, the GraphQL queue is full");
+      return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
     } catch (InterruptedException e) {
       LOG.error("Batch query interrupted", e);
       throw new RuntimeException(e);
     }
   }
 
+  /**
+   * The extensions of the request, used by persisted queries.
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> extensions(Map<String, Object> queryParameters) {
+    return queryParameters.get("extensions") instanceof Map
+      ? (Map<String, Object>) queryParameters.get("extensions")
+      : null;
+  }
+
   private static Iterable<Tag> getTagsFromHeaders(HttpHeaders headers) {
     return tracingHeaderTags
       .stream()
@@ -1,6 +1,5 @@
 package org.opentripplanner.ext.transmodelapi;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
@@ -12,12 +11,11 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tag;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import javax.ws.rs.core.Response;
+import org.opentripplanner.api.common.GraphQLDocumentCache;
 import org.opentripplanner.api.json.GraphQLResponseSerializer;
 import org.opentripplanner.ext.actuator.MicrometerGraphQLInstrumentation;
-import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.RequestScopedRoutingService;
 import org.opentripplanner.standalone.server.Router;
 import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
@@ -29,20 +27,24 @@ class TransmodelGraph {
 
   private final GraphQLSchema indexSchema;
 
-  final ExecutorService threadPool;
+  private final GraphQLDocumentCache documentCache;
 
-  TransmodelGraph(GraphQLSchema schema) {
-    this.threadPool =
-      Executors.newCachedThreadPool(
-        new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
-      );
+  TransmodelGraph(GraphQLSchema schema, GraphQLDocumentCache documentCache) {
     this.indexSchema = schema;
+    this.documentCache = documentCache;
   }
 
+  /**
+   * Execute the query on the calling thread. Unlike the legacy GraphQL API, the top level fields
+   * are not fetched in parallel on the GraphQL executor: a Transmodel query usually has a single
+   * expensive top level field ({@code trip}), which is bounded by the routing timeout of the
+   * request. Batches are executed on the executor by {@link TransmodelAPI}.
+   */
   ExecutionResult getGraphQLExecutionResult(
     String query,
     Router router,
     Map<String, Object> variables,
+    Map<String, Object> extensions,
     String operationName,
     int maxResolves,
     Iterable<Tag> tracingTags
@@ -56,7 +58,11 @@ class TransmodelGraph {
         );
     }
 
-    GraphQL graphQL = GraphQL.newGraphQL(indexSchema).instrumentation(instrumentation).build();
+    GraphQL graphQL = GraphQL
+      .newGraphQL(indexSchema)
+      .instrumentation(instrumentation)
+      .preparsedDocumentProvider(documentCache.provider(maxResolves))
+      .build();
 
     if (variables == null) {
       variables = new HashMap<>();
@@ -64,16 +70,17 @@ class TransmodelGraph {
 
     TransmodelRequestContext transmodelRequestContext = new TransmodelRequestContext(
       router,
-      new RoutingService(router.graph)
+      new RequestScopedRoutingService(router.graph)
     );
 
     ExecutionInput executionInput = ExecutionInput
       .newExecutionInput()
-      .query(query)
+      .query(query == null ? "" : query)
       .operationName(operationName)
       .context(transmodelRequestContext)
       .root(router)
       .variables(variables)
+      .extensions(extensions == null ? Map.of() : extensions)
       .build();
     return graphQL.execute(executionInput);
   }
@@ -82,6 +89,7 @@ class TransmodelGraph {
     String query,
     Router router,
     Map<String, Object> variables,
+    Map<String, Object> extensions,
     String operationName,
     int maxResolves,
     Iterable<Tag> tracingTags
@@ -90,6 +98,7 @@ class TransmodelGraph {
       query,
       router,
       variables,
+      extensions,
       operationName,
       maxResolves,
       tracingTags
@@ -27,7 +27,6 @@ import org.opentripplanner.model.plan.StopArrival;
 import org.opentripplanner.model.plan.legreference.LegReferenceSerializer;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.alternativelegs.AlternativeLegs;
-import org.opentripplanner.util.PolylineEncoder;
 
 public class LegType {
 
@@ -166,7 +165,7 @@ public class LegType {
           .name("pointsOnLink")
           .description("The leg's geometry.")
           .type(linkGeometryType)
-          .dataFetcher(env -> PolylineEncoder.encodeGeometry(leg(env).getLegGeometry()))
+          .dataFetcher(env -> leg(env).getEncodedLegGeometry())
           .build()
       )
       .field(
@@ -0,0 +1,71 @@
+package org.opentripplanner.ext.vectortiles;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.wdtinc.mapbox_vector_tile.VectorTile;
+import java.io.Serializable;
+import java.util.function.Supplier;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.routing.graph.Graph;
+
+/**
+ * A cache of the encoded vector tile layers of a graph. Each layer of a tile is cached separately,
+ * as a tile with only that layer. Since the layers of a tile are a repeated protobuf field, a tile
+ * with several layers is made by concatenating the cached bytes of each layer, without decoding
+ * them.
+ * <p>
+ * Each layer is cached with a version. Layers with static data, like stops, use the same version
+ * as long as the graph is loaded. Layers with realtime data use the modification count of the
+ * service updated by their updater, so they are built again after an update. Old versions are
+ * evicted when the cache is full, the least recently used first.
+ */
+class VectorTileCache implements Serializable {
+
+  private static final long MAX_SIZE_BYTES = 64 * 1024 * 1024;
+
+  private final transient Cache<TileLayerKey, byte[]> layers = CacheBuilder
+    .newBuilder()
+    .maximumWeight(MAX_SIZE_BYTES)
+    .<TileLayerKey, byte[]>weigher((key, bytes) -> bytes.length)
+    .build();
+
+  static synchronized VectorTileCache forGraph(Graph graph) {
+    var existingCache = graph.getService(VectorTileCache.class);
+    if (existingCache != null) {
+      return existingCache;
+    }
+    var newCache = new VectorTileCache();
+    graph.putService(VectorTileCache.class, newCache);
+    return newCache;
+  }
+
+  /**
+   * @return the layer encoded as a tile with only this layer.
+   */
+  byte[] getLayer(
+    LayerParameters layer,
+    int x,
+    int y,
+    int z,
+    long version,
+    Supplier<VectorTile.Tile.Layer> builder
+  ) {
+    var key = new TileLayerKey(layer, x, y, z, version);
+    // The layer is not built in a cache loader, so exceptions from the layer builders are passed
+    // on unchanged. Two threads may build the same layer.
+    byte[] bytes = layers.getIfPresent(key);
+    if (bytes == null) {
+      bytes = encode(builder.get());
+      layers.put(key, bytes);
+    }
+    return bytes;
+  }
+
+  /** Encode the layer as a tile with only this layer */
+  static byte[] encode(VectorTile.Tile.Layer layer) {
+    return VectorTile.Tile.newBuilder().addLayers(layer).build().toByteArray();
+  }
+
+  /** The layer parameters are compared by identity, they are the same until the config reloads */
+  private record TileLayerKey(LayerParameters layer, int x, int y, int z, long version) {}
+}
@@ -0,0 +1,307 @@
+package org.opentripplanner.ext.vectortiles;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.routing.graph.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Vector tile layers with static data, rendered when the graph is built and stored in a file next
+ * to the graph. The file is memory mapped by the server, and the tiles are served from it without
+ * building them again. Tiles which are not in the file are built on request as usual.
+ * <p>
+ * The file contains the tile layers one after the other, each encoded as a tile with only that
+ * layer (see {@link VectorTileCache}), followed by an index of the tiles sorted by layer, z, x and
+ * y, the parameters of the layers and a fixed size footer. The file is only used with the graph it
+ * was built with, and for layers with the same parameters in the router config.
+ */
+public class VectorTilePyramid implements Serializable {
+
+  public static final String FILE_NAME = "vectorTiles.pyramid";
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorTilePyramid.class);
+
+  private static final int MAGIC = 0x4f545056;
+  private static final int VERSION = 1;
+  private static final int FOOTER_SIZE = 8 + 8 + 4 + 8 + 4 + 4;
+  private static final int INDEX_ENTRY_SIZE = 8 + 8 + 4;
+  /** The layer index has 5 bits in the key, above the zoom */
+  static final int MAX_LAYERS = 32;
+
+  /** Identifies the file written for the graph, the graph is serialized with this id */
+  private final long id;
+
+  private final transient MappedByteBuffer buffer;
+  private final transient List<PyramidLayer> layers;
+  private final transient int indexOffset;
+  private final transient int numberOfTiles;
+
+  private VectorTilePyramid(long id) {
+    this(id, null, List.of(), 0, 0);
+  }
+
+  private VectorTilePyramid(
+    long id,
+    MappedByteBuffer buffer,
+    List<PyramidLayer> layers,
+    int indexOffset,
+    int numberOfTiles
+  ) {
+    this.id = id;
+    this.buffer = buffer;
+    this.layers = layers;
+    this.indexOffset = indexOffset;
+    this.numberOfTiles = numberOfTiles;
+  }
+
+  /**
+   * Open the file and add it as a service to the graph, if the file exists and was written when
+   * this graph was built.
+   */
+  public static void load(File file, Graph graph) {
+    var built = graph.getService(VectorTilePyramid.class);
+    if (built == null || !file.exists()) {
+      return;
+    }
+    try (
+      RandomAccessFile raf = new RandomAccessFile(file, "r");
+      FileChannel channel = raf.getChannel()
+    ) {
+      if (channel.size() > Integer.MAX_VALUE || channel.size() < FOOTER_SIZE) {
+        LOG.warn("The vector tile pyramid {} has an unexpected size, it is not used.", file);
+        return;
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      int footer = buffer.capacity() - FOOTER_SIZE;
+      long id = buffer.getLong(footer);
+      int indexOffset = (int) buffer.getLong(footer + 8);
+      int numberOfTiles = buffer.getInt(footer + 16);
+      int layersOffset = (int) buffer.getLong(footer + 20);
+      int version = buffer.getInt(footer + 28);
+      int magic = buffer.getInt(footer + 32);
+
+      if (magic != MAGIC || version != VERSION) {
+        LOG.warn("The vector tile pyramid {} has an unknown format, it is not used.", file);
+        return;
+      }
+      if (id != built.id) {
+        LOG.warn("The vector tile pyramid {} is built for another graph, it is not used.", file);
+        return;
+      }
+
+      List<PyramidLayer> layers = new ArrayList<>();
+      var in = new DataInputStream(
+        new ByteBufferInputStream(buffer.slice(layersOffset, footer - layersOffset))
+      );
+      int numberOfLayers = in.readInt();
+      for (int i = 0; i < numberOfLayers; ++i) {
+        layers.add(PyramidLayer.read(in));
+      }
+
+      graph.putService(
+        VectorTilePyramid.class,
+        new VectorTilePyramid(id, buffer, layers, indexOffset, numberOfTiles)
+      );
+      LOG.info("Vector tile pyramid loaded with {} tiles for layers {}.", numberOfTiles, layers);
+    } catch (IOException e) {
+      LOG.warn("Unable to read the vector tile pyramid {}: {}", file, e.getMessage());
+    }
+  }
+
+  /**
+   * @return the layer encoded as a tile with only this layer, or {@code null} if the tile is not
+   * pre-rendered. The buffer is a read only view of the memory mapped file.
+   */
+  ByteBuffer getLayer(LayerParameters params, int x, int y, int z) {
+    if (buffer == null) {
+      return null;
+    }
+    for (int layerIndex = 0; layerIndex < layers.size(); ++layerIndex) {
+      PyramidLayer layer = layers.get(layerIndex);
+      if (layer.matches(params)) {
+        if (z < layer.minZoom || z > layer.maxZoom) {
+          return null;
+        }
+        return find(key(layerIndex, z, x, y));
+      }
+    }
+    return null;
+  }
+
+  private ByteBuffer find(long key) {
+    int low = 0;
+    int high = numberOfTiles - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int entry = indexOffset + mid * INDEX_ENTRY_SIZE;
+      long midKey = buffer.getLong(entry);
+      if (midKey < key) {
+        low = mid + 1;
+      } else if (midKey > key) {
+        high = mid - 1;
+      } else {
+        int offset = (int) buffer.getLong(entry + 8);
+        int length = buffer.getInt(entry + 16);
+        return buffer.slice(offset, length).asReadOnlyBuffer();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The key sorts the tiles by layer, z, x and y. The zoom is at most 20, so x and y fit in 26
+   * bits. There are at most {@link #MAX_LAYERS} layers, so the key is never negative.
+   */
+  static long key(int layerIndex, int z, int x, int y) {
+    return ((long) layerIndex << 57) | ((long) z << 52) | ((long) x << 26) | y;
+  }
+
+  /**
+   * Writes the pyramid file. The tiles must be added in the order of their keys. When the file is
+   * closed, the id of the file is added to the graph, so the server can check that the file belongs
+   * to the graph.
+   */
+  static class Writer implements AutoCloseable {
+
+    private final DataOutputStream out;
+    private final Graph graph;
+    private final long id = new Random().nextLong();
+    private final List<PyramidLayer> layers = new ArrayList<>();
+    private final List<long[]> index = new ArrayList<>();
+    private long offset = 0;
+    private long lastKey = -1;
+
+    Writer(DataOutputStream out, Graph graph) {
+      this.out = out;
+      this.graph = graph;
+    }
+
+    /** @return the index of the layer, used in the key of its tiles */
+    int addLayer(LayerParameters params, int minZoom, int maxZoom) {
+      if (layers.size() == MAX_LAYERS) {
+        throw new IllegalArgumentException(
+          "The vector tile pyramid can not have more than " + MAX_LAYERS + " layers."
+        );
+      }
+      layers.add(new PyramidLayer(params, minZoom, maxZoom));
+      return layers.size() - 1;
+    }
+
+    void addTile(long key, byte[] tile) throws IOException {
+      if (key <= lastKey) {
+        throw new IllegalArgumentException("The tiles must be added in the order of their keys.");
+      }
+      if (offset + tile.length > Integer.MAX_VALUE) {
+        throw new IllegalStateException("The vector tile pyramid can not be larger than 2 GB.");
+      }
+      out.write(tile);
+      index.add(new long[] { key, offset, tile.length });
+      offset += tile.length;
+      lastKey = key;
+    }
+
+    @Override
+    public void close() throws IOException {
+      long indexOffset = offset;
+      for (long[] entry : index) {
+        out.writeLong(entry[0]);
+        out.writeLong(entry[1]);
+        out.writeInt((int) entry[2]);
+      }
+      long layersOffset = indexOffset + (long) index.size() * INDEX_ENTRY_SIZE;
+      out.writeInt(layers.size());
+      for (PyramidLayer layer : layers) {
+        layer.write(out);
+      }
+      out.writeLong(id);
+      out.writeLong(indexOffset);
+      out.writeInt(index.size());
+      out.writeLong(layersOffset);
+      out.writeInt(VERSION);
+      out.writeInt(MAGIC);
+      out.close();
+      graph.putService(VectorTilePyramid.class, new VectorTilePyramid(id));
+    }
+  }
+
+  /**
+   * The parameters of a pre-rendered layer. A layer in the router config with the same name, type,
+   * mapper and expansion factor is served from the pyramid.
+   */
+  private record PyramidLayer(
+    String name,
+    String type,
+    String mapper,
+    double expansionFactor,
+    int minZoom,
+    int maxZoom
+  ) {
+    PyramidLayer(LayerParameters params, int minZoom, int maxZoom) {
+      this(
+        params.name(),
+        params.type(),
+        params.mapper(),
+        params.expansionFactor(),
+        minZoom,
+        maxZoom
+      );
+    }
+
+    boolean matches(LayerParameters params) {
+      return (
+        name.equals(params.name()) &&
+        type.equals(params.type()) &&
+        mapper.equals(params.mapper()) &&
+        expansionFactor == params.expansionFactor()
+      );
+    }
+
+    static PyramidLayer read(DataInputStream in) throws IOException {
+      return new PyramidLayer(
+        in.readUTF(),
+        in.readUTF(),
+        in.readUTF(),
+        in.readDouble(),
+        in.readInt(),
+        in.readInt()
+      );
+    }
+
+    void write(DataOutputStream out) throws IOException {
+      out.writeUTF(name);
+      out.writeUTF(type);
+      out.writeUTF(mapper);
+      out.writeDouble(expansionFactor);
+      out.writeInt(minZoom);
+      out.writeInt(maxZoom);
+    }
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+  }
+}
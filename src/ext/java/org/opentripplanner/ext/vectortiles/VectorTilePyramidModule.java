@@ -0,0 +1,169 @@
+package org.opentripplanner.ext.vectortiles;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.opentripplanner.common.geometry.WebMercatorTile;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerParameters;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayerType;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource.LayersParameters;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.graph_builder.services.GraphBuilderModule;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.GraphIndex;
+import org.opentripplanner.standalone.config.VectorTileConfig;
+import org.opentripplanner.util.OtpAppException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Render the tiles of the vector tile layers with static data, and write them to a
+ * {@link VectorTilePyramid} file. Only the tiles with features in them are rendered, the empty
+ * tiles are built on request by the server.
+ * <p>
+ * Each tile is rendered with the same layer builder as the server uses, so the tiles are the same
+ * as the tiles built on request.
+ */
+public class VectorTilePyramidModule implements GraphBuilderModule {
+
+  private static final Logger LOG = LoggerFactory.getLogger(VectorTilePyramidModule.class);
+
+  private static final Envelope WORLD = new Envelope(-180, 180, -90, 90);
+
+  private final LayersParameters layers;
+  private final int maxZoom;
+  private final File file;
+
+  public VectorTilePyramidModule(LayersParameters layers, int maxZoom, File file) {
+    this.layers = layers;
+    this.maxZoom = maxZoom;
+    this.file = file;
+  }
+
+  @Override
+  public void buildGraph(
+    Graph graph,
+    HashMap<Class<?>, Object> extra,
+    DataImportIssueStore issueStore
+  ) {
+    /* Initialize graph index which is needed by the stop layer. */
+    if (graph.index == null) {
+      graph.index = new GraphIndex(graph);
+    }
+
+    LOG.info("Rendering vector tiles up to zoom level {} to {}...", maxZoom, file);
+
+    try (
+      var writer = new VectorTilePyramid.Writer(
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))),
+        graph
+      )
+    ) {
+      for (LayerParameters params : layers.layers()) {
+        LayerType layerType = LayerType.valueOf(params.type());
+        if (!isStatic(layerType) || params.minZoom() > maxZoom) {
+          continue;
+        }
+        int minZoom = Math.max(params.minZoom(), VectorTileConfig.MIN_ZOOM);
+        int layerMaxZoom = Math.min(params.maxZoom(), maxZoom);
+        int layerIndex = writer.addLayer(params, minZoom, layerMaxZoom);
+
+        long[] keys = tilesWithFeatures(graph, params, layerIndex, minZoom, layerMaxZoom);
+        for (int i = 0; i < keys.length; ++i) {
+          long key = keys[i];
+          int z = (int) (key >>> 52) & 0x1f;
+          int x = (int) (key >>> 26) & 0x3ffffff;
+          int y = (int) key & 0x3ffffff;
+          // The layer builders keep the features they have built, so each tile needs a new one
+          var layer = VectorTilesResource.layers
+            .get(layerType)
+            .apply(graph, params)
+            .build(VectorTilesResource.tileEnvelope(x, y, z), params);
+          writer.addTile(key, VectorTileCache.encode(layer));
+          if ((i + 1) % 10_000 == 0) {
+            LOG.info("{} of {} tiles rendered for layer {}", i + 1, keys.length, params.name());
+          }
+        }
+        LOG.info("{} tiles rendered for layer {}", keys.length, params.name());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to write the vector tile pyramid " + file, e);
+    }
+  }
+
+  @Override
+  public void checkInputs() {
+    if (maxZoom > VectorTileConfig.MAX_ZOOM) {
+      throw new OtpAppException(
+        "The build config 'vectorTilePyramidMaxZoom' can not be larger than %d",
+        VectorTileConfig.MAX_ZOOM
+      );
+    }
+  }
+
+  /** The stops and stations do not change after the graph is built */
+  private static boolean isStatic(LayerType layerType) {
+    return layerType == LayerType.Stop || layerType == LayerType.Station;
+  }
+
+  /**
+   * Find the tiles where the envelopes of the geometries of the layer intersect the query envelope
+   * used by the layer builder, that is the tile expanded by the expansion factor.
+   *
+   * @return the sorted keys of the tiles.
+   */
+  private static long[] tilesWithFeatures(
+    Graph graph,
+    LayerParameters params,
+    int layerIndex,
+    int minZoom,
+    int maxZoom
+  ) {
+    List<Geometry> geometries = VectorTilesResource.layers
+      .get(LayerType.valueOf(params.type()))
+      .apply(graph, params)
+      .getGeometries(WORLD);
+    return tilesWithFeatures(geometries, params.expansionFactor(), layerIndex, minZoom, maxZoom);
+  }
+
+  static long[] tilesWithFeatures(
+    List<Geometry> geometries,
+    double expansionFactor,
+    int layerIndex,
+    int minZoom,
+    int maxZoom
+  ) {
+    int expansion = (int) Math.ceil(expansionFactor);
+
+    LongStream.Builder keys = LongStream.builder();
+    for (Geometry geometry : geometries) {
+      Envelope envelope = geometry.getEnvelopeInternal();
+      for (int z = minZoom; z <= maxZoom; ++z) {
+        int last = (1 << z) - 1;
+        int minX = Math.max(0, WebMercatorTile.lon2tile(envelope.getMinX(), z) - expansion);
+        int maxX = Math.min(last, WebMercatorTile.lon2tile(envelope.getMaxX(), z) + expansion);
+        // The rows of tiles are numbered from north to south
+        int minY = Math.max(0, WebMercatorTile.lat2tile(envelope.getMaxY(), z) - expansion);
+        int maxY = Math.min(last, WebMercatorTile.lat2tile(envelope.getMinY(), z) + expansion);
+        for (int x = minX; x <= maxX; ++x) {
+          for (int y = minY; y <= maxY; ++y) {
+            Envelope query = VectorTilesResource.tileEnvelope(x, y, z);
+            query.expandBy(query.getWidth() * expansionFactor, query.getHeight() * expansionFactor);
+            if (query.intersects(envelope)) {
+              keys.add(VectorTilePyramid.key(layerIndex, z, x, y));
+            }
+          }
+        }
+      }
+    }
+    return keys.build().sorted().distinct().toArray();
+  }
+}
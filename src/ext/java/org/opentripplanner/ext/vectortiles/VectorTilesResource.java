@@ -1,7 +1,10 @@
 package org.opentripplanner.ext.vectortiles;
 
 import com.wdtinc.mapbox_vector_tile.VectorTile;
+import java.io.ByteArrayOutputStream;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -36,7 +39,7 @@ import org.opentripplanner.util.WorldEnvelope;
 @Path("/routers/{ignoreRouterId}/vectorTiles")
 public class VectorTilesResource {
 
-  private static final Map<LayerType, BiFunction<Graph, LayerParameters, LayerBuilder>> layers = new HashMap<>();
+  static final Map<LayerType, BiFunction<Graph, LayerParameters, LayerBuilder>> layers = new HashMap<>();
   private final OTPServer otpServer;
   private final String ignoreRouterId;
 
@@ -68,19 +71,23 @@ public class VectorTilesResource {
     @PathParam("z") int z,
     @PathParam("layers") String requestedLayers
   ) throws Exception {
-    VectorTile.Tile.Builder mvtBuilder = VectorTile.Tile.newBuilder();
-
     if (z < VectorTileConfig.MIN_ZOOM) {
-      return Response.status(Response.Status.OK).entity(mvtBuilder.build().toByteArray()).build();
+      return Response
+        .status(Response.Status.OK)
+        .entity(VectorTile.Tile.newBuilder().build().toByteArray())
+        .build();
     }
 
-    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
-    Envelope envelope = new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
+    Envelope envelope = tileEnvelope(x, y, z);
 
     List<String> layers = Arrays.asList(requestedLayers.split(","));
 
     Router router = otpServer.getRouter();
+    VectorTilePyramid pyramid = router.graph.getService(VectorTilePyramid.class);
+    VectorTileCache cache = VectorTileCache.forGraph(router.graph);
     int cacheMaxSeconds = Integer.MAX_VALUE;
+    // Concatenating tiles with one layer each gives a tile with all the layers
+    ByteArrayOutputStream tile = new ByteArrayOutputStream();
 
     for (LayerParameters layerParameters : router.routerConfig.vectorTileLayers().layers()) {
       if (
@@ -89,11 +96,27 @@ public class VectorTilesResource {
         z <= layerParameters.maxZoom()
       ) {
         cacheMaxSeconds = Math.min(cacheMaxSeconds, layerParameters.cacheMaxSeconds());
-        mvtBuilder.addLayers(
-          VectorTilesResource.layers
-            .get(LayerType.valueOf(layerParameters.type()))
-            .apply(router.graph, layerParameters)
-            .build(envelope, layerParameters)
+        ByteBuffer preRendered = pyramid == null
+          ? null
+          : pyramid.getLayer(layerParameters, x, y, z);
+        if (preRendered != null) {
+          Channels.newChannel(tile).write(preRendered);
+          continue;
+        }
+        LayerType layerType = LayerType.valueOf(layerParameters.type());
+        tile.writeBytes(
+          cache.getLayer(
+            layerParameters,
+            x,
+            y,
+            z,
+            cacheVersion(layerType, router.graph),
+            () ->
+              VectorTilesResource.layers
+                .get(layerType)
+                .apply(router.graph, layerParameters)
+                .build(envelope, layerParameters)
+          )
         );
       }
     }
@@ -102,7 +125,7 @@ public class VectorTilesResource {
     if (cacheMaxSeconds != Integer.MAX_VALUE) {
       cacheControl.setMaxAge(cacheMaxSeconds);
     }
-    byte[] bytes = mvtBuilder.build().toByteArray();
+    byte[] bytes = tile.toByteArray();
     return Response.status(Response.Status.OK).cacheControl(cacheControl).entity(bytes).build();
   }
 
@@ -117,6 +140,28 @@ public class VectorTilesResource {
     return new TileJson(otpServer.getRouter().graph, uri, headers, requestedLayers);
   }
 
+  static Envelope tileEnvelope(int x, int y, int z) {
+    Envelope2D env = WebMercatorTile.tile2Envelope(x, y, z);
+    return new Envelope(env.getMaxX(), env.getMinX(), env.getMaxY(), env.getMinY());
+  }
+
+  /**
+   * The version of the layer data in the {@link VectorTileCache}. The stops and stations do not
+   * change while the graph is loaded. The vehicle rental and parking layers change when their
+   * updaters modify the services.
+   */
+  private static long cacheVersion(LayerType layerType, Graph graph) {
+    return switch (layerType) {
+      case Stop, Station -> 0;
+      case VehicleRental -> graph.getVehicleRentalStationService() == null
+        ? 0
+        : graph.getVehicleRentalStationService().getModificationCount();
+      case VehicleParking -> graph.getVehicleParkingService() == null
+        ? 0
+        : graph.getVehicleParkingService().getModificationCount();
+    };
+  }
+
   private String getBaseAddress(UriInfo uri, HttpHeaders headers) {
     String protocol;
     if (headers.getRequestHeader("X-Forwarded-Proto") != null) {
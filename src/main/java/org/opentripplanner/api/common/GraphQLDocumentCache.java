@@ -0,0 +1,179 @@
+package org.opentripplanner.api.common;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphQLException;
+import graphql.GraphqlErrorBuilder;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.introspection.Introspection;
+import graphql.schema.GraphQLSchema;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A cache of parsed and validated GraphQL query documents, shared by all requests to a GraphQL
+ * API. Most clients send the same few queries over and over again, with different variables, so
+ * the parsing and validation of the query text can be skipped for most requests.
+ * <p>
+ * The cache also supports Apollo automatic persisted queries. A client may send the SHA-256 hash
+ * of the query in {@code extensions.persistedQuery.sha256Hash} instead of the query text. If the
+ * hash is unknown the client is asked to send the query text with the hash, using the
+ * {@code PersistedQueryNotFound} error.
+ * <p>
+ * The {@link graphql.analysis.MaxQueryComplexityInstrumentation} checks the complexity of a query
+ * during validation, which is skipped when a cached document is used. Instead, the complexity of a
+ * cached document is checked by {@link #provider(int)}, since it depends on the variables of the
+ * request.
+ * <p>
+ * The number of hits and misses is measured by the {@code MicrometerGraphQLInstrumentation}.
+ */
+public class GraphQLDocumentCache {
+
+  /**
+   * The max total length of the cached query texts. The parsed documents are about ten times the
+   * size of the text.
+   */
+  private static final long MAX_DOCUMENTS_QUERY_LENGTH = 2_000_000;
+
+  /** The max total length of the query texts of persisted queries. */
+  private static final long MAX_PERSISTED_QUERIES_LENGTH = 2_000_000;
+
+  private static final String PERSISTED_QUERY = "persistedQuery";
+  private static final String SHA_256_HASH = "sha256Hash";
+
+  private final GraphQLSchema schema;
+
+  private final Cache<String, PreparsedDocumentEntry> documents = CacheBuilder
+    .newBuilder()
+    .maximumWeight(MAX_DOCUMENTS_QUERY_LENGTH)
+    .<String, PreparsedDocumentEntry>weigher((query, entry) -> query.length())
+    .build();
+
+  private final Cache<String, String> persistedQueries = CacheBuilder
+    .newBuilder()
+    .maximumWeight(MAX_PERSISTED_QUERIES_LENGTH)
+    .<String, String>weigher((hash, query) -> query.length())
+    .build();
+
+  public GraphQLDocumentCache(GraphQLSchema schema) {
+    this.schema = schema;
+  }
+
+  /**
+   * @param maxComplexity The max query complexity of the request, checked when a cached document
+   *                      is used.
+   */
+  public PreparsedDocumentProvider provider(int maxComplexity) {
+    return (executionInput, parseAndValidate) ->
+      getDocument(executionInput, parseAndValidate, maxComplexity);
+  }
+
+  private PreparsedDocumentEntry getDocument(
+    ExecutionInput executionInput,
+    Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidate,
+    int maxComplexity
+  ) {
+    String query = executionInput.getQuery();
+    String hash = persistedQueryHash(executionInput.getExtensions());
+
+    if (hash != null) {
+      if (query == null || query.isBlank()) {
+        query = persistedQueries.getIfPresent(hash);
+        if (query == null) {
+          return persistedQueryError("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND");
+        }
+        String persistedQuery = query;
+        executionInput = executionInput.transform(builder -> builder.query(persistedQuery));
+      } else if (hash.equals(sha256(query))) {
+        persistedQueries.put(hash, query);
+      } else {
+        return persistedQueryError("PersistedQueryIdInvalid", "PERSISTED_QUERY_ID_INVALID");
+      }
+    }
+
+    // The parsing and validation is not done in the cache loader, as the exceptions thrown by the
+    // instrumentation must be passed on unchanged. Two threads may parse the same query.
+    PreparsedDocumentEntry entry = documents.getIfPresent(query);
+    if (entry == null) {
+      entry = parseAndValidate.apply(executionInput);
+      documents.put(query, entry);
+    } else if (!entry.hasErrors()) {
+      checkComplexity(executionInput, entry, maxComplexity);
+    }
+    return entry;
+  }
+
+  /**
+   * Count the fields of the query, in the same way as the default field complexity calculator of
+   * {@link graphql.analysis.MaxQueryComplexityInstrumentation}.
+   */
+  private void checkComplexity(
+    ExecutionInput executionInput,
+    PreparsedDocumentEntry entry,
+    int maxComplexity
+  ) {
+    int[] complexity = { 0 };
+    try {
+      QueryTraverser
+        .newQueryTraverser()
+        .schema(schema)
+        .document(entry.getDocument())
+        .operationName(executionInput.getOperationName())
+        .variables(executionInput.getVariables())
+        .build()
+        .visitPreOrder(
+          new QueryVisitorStub() {
+            @Override
+            public void visitField(QueryVisitorFieldEnvironment env) {
+              if (!env.getField().getName().equals(Introspection.TypeNameMetaFieldDef.getName())) {
+                ++complexity[0];
+              }
+            }
+          }
+        );
+    } catch (GraphQLException e) {
+      // An unknown operation name is reported when the query is executed
+      return;
+    }
+    if (complexity[0] > maxComplexity) {
+      throw new AbortExecutionException(
+        "maximum query complexity exceeded " + complexity[0] + " > " + maxComplexity
+      );
+    }
+  }
+
+  private static String persistedQueryHash(Map<String, Object> extensions) {
+    if (
+      extensions != null &&
+      extensions.get(PERSISTED_QUERY) instanceof Map<?, ?> persistedQuery &&
+      persistedQuery.get(SHA_256_HASH) instanceof String hash
+    ) {
+      return hash;
+    }
+    return null;
+  }
+
+  private static String sha256(String query) {
+    return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+  }
+
+  private static PreparsedDocumentEntry persistedQueryError(String message, String code) {
+    return new PreparsedDocumentEntry(
+      GraphqlErrorBuilder
+        .newError()
+        .message(message)
+        .errorType(ErrorType.ValidationError)
+        .extensions(Map.of("code", code))
+        .build()
+    );
+  }
+}
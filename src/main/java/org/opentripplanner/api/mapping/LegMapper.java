@@ -11,7 +11,6 @@ import org.opentripplanner.api.model.ApiAlert;
 import org.opentripplanner.api.model.ApiLeg;
 import org.opentripplanner.model.PickDrop;
 import org.opentripplanner.model.plan.Leg;
-import org.opentripplanner.util.PolylineEncoder;
 
 public class LegMapper {
 
@@ -124,7 +123,7 @@ public class LegMapper {
     if (addIntermediateStops) {
       api.intermediateStops = placeMapper.mapStopArrivals(domain.getIntermediateStops());
     }
-    api.legGeometry = PolylineEncoder.encodeGeometry(domain.getLegGeometry());
+    api.legGeometry = domain.getEncodedLegGeometry();
     api.legElevation = mapElevation(domain.getLegElevation());
     api.steps = walkStepMapper.mapWalkSteps(domain.getWalkSteps());
     api.alerts =
@@ -146,7 +145,7 @@ public class LegMapper {
     return api;
   }
 
-  private static String getBoardAlightMessage(PickDrop boardAlightType) {
+  static String getBoardAlightMessage(PickDrop boardAlightType) {
     if (boardAlightType == null) {
       return null;
     }
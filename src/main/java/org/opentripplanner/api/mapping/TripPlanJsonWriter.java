@@ -0,0 +1,337 @@
+package org.opentripplanner.api.mapping;
+
+import static org.opentripplanner.api.mapping.ElevationMapper.mapElevation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Locale;
+import org.opentripplanner.api.model.ApiAlert;
+import org.opentripplanner.api.model.ApiItinerary;
+import org.opentripplanner.api.model.ApiLeg;
+import org.opentripplanner.api.model.ApiTripPlan;
+import org.opentripplanner.api.model.ApiWalkStep;
+import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.model.plan.Leg;
+import org.opentripplanner.model.plan.TripPlan;
+import org.opentripplanner.model.plan.WalkStep;
+
+/**
+ * Write a trip plan as JSON directly from the internal model, without creating the {@link
+ * ApiTripPlan}, {@link ApiItinerary}, {@link ApiLeg} and {@link ApiWalkStep} copies first. The JSON
+ * is the same as the JSON of the mapped {@link ApiTripPlan}: the properties have the same names and
+ * order, and {@code null} values are left out. Smaller objects, like places and alerts, are mapped
+ * with the usual mappers and written with the given object writer.
+ * <p>
+ * Keep this in sync with {@link TripPlanMapper}, {@link ItineraryMapper}, {@link LegMapper} and
+ * {@link WalkStepMapper}.
+ */
+public class TripPlanJsonWriter {
+
+  private final Locale locale;
+  private final boolean addIntermediateStops;
+  private final ObjectWriter objectWriter;
+  private final PlaceMapper placeMapper;
+  private final AlertMapper alertMapper;
+  private final StreetNoteMaperMapper streetNoteMaperMapper;
+
+  public TripPlanJsonWriter(
+    Locale locale,
+    boolean addIntermediateStops,
+    ObjectWriter objectWriter
+  ) {
+    this.locale = locale;
+    this.addIntermediateStops = addIntermediateStops;
+    this.objectWriter = objectWriter;
+    this.placeMapper = new PlaceMapper(locale);
+    this.alertMapper = new AlertMapper(locale);
+    this.streetNoteMaperMapper = new StreetNoteMaperMapper(locale);
+  }
+
+  /** Write the plan as a field of the current object, nothing is written for a null plan */
+  public void writeTripPlan(JsonGenerator gen, String fieldName, TripPlan domain)
+    throws IOException {
+    if (domain == null) {
+      return;
+    }
+    gen.writeFieldName(fieldName);
+    writeTripPlan(gen, domain);
+  }
+
+  /** Write the plan as a value */
+  public void writeTripPlan(JsonGenerator gen, TripPlan domain) throws IOException {
+    gen.writeStartObject();
+    if (domain.date != null) {
+      gen.writeNumberField("date", domain.date.getTime());
+    }
+    // The origin/destination do not have arrival/depature times; Hence {@code null} is used.
+    writeObject(gen, "from", placeMapper.mapPlace(domain.from, null, null, null, null));
+    writeObject(gen, "to", placeMapper.mapPlace(domain.to, null, null, null, null));
+    if (domain.itineraries != null) {
+      gen.writeArrayFieldStart("itineraries");
+      for (Itinerary itinerary : domain.itineraries) {
+        writeItinerary(gen, itinerary);
+      }
+      gen.writeEndArray();
+    }
+    gen.writeEndObject();
+  }
+
+  private void writeItinerary(JsonGenerator gen, Itinerary domain) throws IOException {
+    gen.writeStartObject();
+    gen.writeNumberField("duration", (long) domain.durationSeconds);
+    gen.writeNumberField("startTime", domain.startTime().toInstant().toEpochMilli());
+    gen.writeNumberField("endTime", domain.endTime().toInstant().toEpochMilli());
+    gen.writeNumberField("walkTime", (long) domain.nonTransitTimeSeconds);
+    gen.writeNumberField("transitTime", (long) domain.transitTimeSeconds);
+    gen.writeNumberField("waitingTime", (long) domain.waitingTimeSeconds);
+    gen.writeNumberField("walkDistance", domain.nonTransitDistanceMeters);
+    gen.writeBooleanField("walkLimitExceeded", false);
+    gen.writeNumberField("generalizedCost", domain.generalizedCost);
+    writeNumber(gen, "elevationLost", domain.elevationLost);
+    writeNumber(gen, "elevationGained", domain.elevationGained);
+    gen.writeNumberField("transfers", domain.nTransfers);
+    writeObject(gen, "fare", domain.fare);
+    if (domain.legs != null) {
+      gen.writeArrayFieldStart("legs");
+      List<Leg> legs = domain.legs;
+      for (int i = 0; i < legs.size(); ++i) {
+        ZonedDateTime arrivalTimeFromPlace = (i == 0) ? null : legs.get(i - 1).getEndTime();
+        ZonedDateTime departureTimeToPlace = (i == legs.size() - 1)
+          ? null
+          : legs.get(i + 1).getStartTime();
+        writeLeg(gen, legs.get(i), arrivalTimeFromPlace, departureTimeToPlace);
+      }
+      gen.writeEndArray();
+    }
+    writeObject(gen, "systemNotices", SystemNoticeMapper.mapSystemNotices(domain.systemNotices));
+    gen.writeBooleanField("tooSloped", domain.tooSloped);
+    gen.writeBooleanField(
+      "arrivedAtDestinationWithRentedBicycle",
+      domain.arrivedAtDestinationWithRentedVehicle
+    );
+    if (domain.accessibilityScore != null) {
+      gen.writeNumberField("accessibilityScore", domain.accessibilityScore);
+    }
+    gen.writeEndObject();
+  }
+
+  private void writeLeg(
+    JsonGenerator gen,
+    Leg domain,
+    ZonedDateTime arrivalTimeFromPlace,
+    ZonedDateTime departureTimeToPlace
+  ) throws IOException {
+    long startTime = domain.getStartTime().toInstant().toEpochMilli();
+    long endTime = domain.getEndTime().toInstant().toEpochMilli();
+
+    gen.writeStartObject();
+    gen.writeNumberField("startTime", startTime);
+    gen.writeNumberField("endTime", endTime);
+    gen.writeNumberField("departureDelay", domain.getDepartureDelay());
+    gen.writeNumberField("arrivalDelay", domain.getArrivalDelay());
+    gen.writeBooleanField("realTime", domain.getRealTime());
+    writeBoolean(gen, "isNonExactFrequency", domain.getNonExactFrequency());
+    writeNumber(gen, "headway", domain.getHeadway());
+    gen.writeNumberField("distance", domain.getDistanceMeters());
+    gen.writeNumberField("generalizedCost", domain.getGeneralizedCost());
+    gen.writeBooleanField("pathway", domain.getPathwayId() != null);
+    writeString(gen, "mode", TraverseModeMapper.mapToApi(domain.getMode()));
+    gen.writeBooleanField("transitLeg", domain.isTransitLeg());
+
+    if (domain.isTransitLeg()) {
+      var agency = domain.getAgency();
+      var route = domain.getRoute();
+      writeString(gen, "route", route.getLongName());
+      writeString(gen, "agencyName", agency.getName());
+      writeString(gen, "agencyUrl", agency.getUrl());
+      writeString(gen, "agencyBrandingUrl", agency.getBrandingUrl());
+      gen.writeNumberField("agencyTimeZoneOffset", domain.getAgencyTimeZoneOffset());
+      writeString(gen, "routeColor", route.getColor());
+      writeNumber(gen, "routeType", domain.getRouteType());
+      writeString(gen, "routeId", FeedScopedIdMapper.mapToApi(route.getId()));
+      writeString(gen, "routeTextColor", route.getTextColor());
+    } else {
+      // TODO OTP2 - This should be set to the street name according to the JavaDoc
+      String route = domain.getPathwayId() != null
+        ? FeedScopedIdMapper.mapToApi(domain.getPathwayId())
+        : "";
+      writeString(gen, "route", route);
+      gen.writeNumberField("agencyTimeZoneOffset", domain.getAgencyTimeZoneOffset());
+    }
+
+    writeBoolean(gen, "interlineWithPreviousLeg", domain.isInterlinedWithPreviousLeg());
+
+    if (domain.isTransitLeg()) {
+      var trip = domain.getTrip();
+      writeString(gen, "tripShortName", trip.getTripShortName());
+      writeString(gen, "tripBlockId", trip.getBlockId());
+      writeString(gen, "headsign", domain.getHeadsign());
+      writeString(gen, "agencyId", FeedScopedIdMapper.mapToApi(domain.getAgency().getId()));
+      writeString(gen, "tripId", FeedScopedIdMapper.mapToApi(trip.getId()));
+    } else {
+      writeString(gen, "headsign", domain.getHeadsign());
+    }
+
+    writeString(gen, "serviceDate", ServiceDateMapper.mapToApi(domain.getServiceDate()));
+    writeString(gen, "routeBrandingUrl", domain.getRouteBrandingUrl());
+
+    // Set the arrival and departure times, even if this is redundant information
+    writeObject(
+      gen,
+      "from",
+      placeMapper.mapPlace(
+        domain.getFrom(),
+        arrivalTimeFromPlace,
+        domain.getStartTime(),
+        domain.getBoardStopPosInPattern(),
+        domain.getBoardingGtfsStopSequence()
+      )
+    );
+    writeObject(
+      gen,
+      "to",
+      placeMapper.mapPlace(
+        domain.getTo(),
+        domain.getEndTime(),
+        departureTimeToPlace,
+        domain.getAlightStopPosInPattern(),
+        domain.getAlightGtfsStopSequence()
+      )
+    );
+    if (addIntermediateStops) {
+      writeObject(
+        gen,
+        "intermediateStops",
+        placeMapper.mapStopArrivals(domain.getIntermediateStops())
+      );
+    }
+    writeObject(gen, "legGeometry", domain.getEncodedLegGeometry());
+    writeString(gen, "legElevation", mapElevation(domain.getLegElevation()));
+    if (domain.getWalkSteps() != null) {
+      gen.writeArrayFieldStart("steps");
+      for (WalkStep walkStep : domain.getWalkSteps()) {
+        writeWalkStep(gen, walkStep);
+      }
+      gen.writeEndArray();
+    }
+    writeAlerts(
+      gen,
+      streetNoteMaperMapper.mapToApi(domain.getStreetNotes()),
+      alertMapper.mapToApi(domain.getTransitAlerts())
+    );
+
+    if (domain.isTransitLeg()) {
+      writeString(gen, "routeShortName", domain.getRoute().getShortName());
+      writeString(gen, "routeLongName", domain.getRoute().getLongName());
+    }
+    writeString(gen, "boardRule", LegMapper.getBoardAlightMessage(domain.getBoardRule()));
+    writeString(gen, "alightRule", LegMapper.getBoardAlightMessage(domain.getAlightRule()));
+    writeObject(
+      gen,
+      "pickupBookingInfo",
+      BookingInfoMapper.mapBookingInfo(domain.getPickupBookingInfo(), true)
+    );
+    writeObject(
+      gen,
+      "dropOffBookingInfo",
+      BookingInfoMapper.mapBookingInfo(domain.getDropOffBookingInfo(), false)
+    );
+    writeBoolean(gen, "rentedBike", domain.getRentedVehicle());
+    writeBoolean(gen, "walkingBike", domain.getWalkingBike());
+    if (domain.accessibilityScore() != null) {
+      gen.writeNumberField("accessibilityScore", domain.accessibilityScore());
+    }
+    gen.writeNumberField("duration", endTime / 1000.0 - startTime / 1000.0);
+    gen.writeEndObject();
+  }
+
+  private void writeWalkStep(JsonGenerator gen, WalkStep domain) throws IOException {
+    var relativeDirection = RelativeDirectionMapper.mapRelativeDirection(
+      domain.relativeDirection
+    );
+    var absoluteDirection = AbsoluteDirectionMapper.mapAbsoluteDirection(
+      domain.absoluteDirection
+    );
+
+    var startLocation = domain.startLocation;
+
+    gen.writeStartObject();
+    gen.writeNumberField("distance", domain.distance);
+    if (relativeDirection != null) {
+      gen.writeStringField("relativeDirection", relativeDirection.name());
+    }
+    gen.writeStringField("streetName", domain.streetName.toString(locale));
+    if (absoluteDirection != null) {
+      gen.writeStringField("absoluteDirection", absoluteDirection.name());
+    }
+    writeString(gen, "exit", domain.exit);
+    writeBoolean(gen, "stayOn", domain.stayOn);
+    writeBoolean(gen, "area", domain.area);
+    writeBoolean(gen, "bogusName", domain.bogusName);
+    gen.writeNumberField("lon", startLocation == null ? 0 : startLocation.longitude());
+    gen.writeNumberField("lat", startLocation == null ? 0 : startLocation.latitude());
+    writeString(gen, "elevation", mapElevation(domain.elevation));
+    gen.writeBooleanField("walkingBike", domain.walkingBike);
+    writeObject(gen, "alerts", streetNoteMaperMapper.mapToApi(domain.streetNotes));
+    gen.writeEndObject();
+  }
+
+  /** The street notes and the transit alerts are written as one list */
+  private void writeAlerts(JsonGenerator gen, List<ApiAlert> a, List<ApiAlert> b)
+    throws IOException {
+    if (a == null && b == null) {
+      return;
+    }
+    gen.writeArrayFieldStart("alerts");
+    writeAll(gen, a);
+    writeAll(gen, b);
+    gen.writeEndArray();
+  }
+
+  private void writeAll(JsonGenerator gen, List<ApiAlert> alerts) throws IOException {
+    if (alerts != null) {
+      for (ApiAlert alert : alerts) {
+        objectWriter.writeValue(gen, alert);
+      }
+    }
+  }
+
+  private void writeObject(JsonGenerator gen, String fieldName, Object value)
+    throws IOException {
+    if (value != null) {
+      gen.writeFieldName(fieldName);
+      objectWriter.writeValue(gen, value);
+    }
+  }
+
+  private static void writeString(JsonGenerator gen, String fieldName, String value)
+    throws IOException {
+    if (value != null) {
+      gen.writeStringField(fieldName, value);
+    }
+  }
+
+  private static void writeBoolean(JsonGenerator gen, String fieldName, Boolean value)
+    throws IOException {
+    if (value != null) {
+      gen.writeBooleanField(fieldName, value);
+    }
+  }
+
+  private static void writeNumber(JsonGenerator gen, String fieldName, Integer value)
+    throws IOException {
+    if (value != null) {
+      gen.writeNumberField(fieldName, value);
+    }
+  }
+
+  private static void writeNumber(JsonGenerator gen, String fieldName, Double value)
+    throws IOException {
+    if (value != null) {
+      gen.writeNumberField(fieldName, value);
+    }
+  }
+}
@@ -1,5 +1,10 @@
 package org.opentripplanner.api.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import javax.ws.rs.GET;
@@ -8,19 +13,26 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.glassfish.grizzly.http.server.Request;
 import org.opentripplanner.api.common.Message;
 import org.opentripplanner.api.common.RoutingResource;
+import org.opentripplanner.api.json.JSONObjectMapperProvider;
 import org.opentripplanner.api.mapping.PlannerErrorMapper;
+import org.opentripplanner.api.mapping.TripPlanJsonWriter;
 import org.opentripplanner.api.mapping.TripPlanMapper;
 import org.opentripplanner.api.mapping.TripSearchMetadataMapper;
+import org.opentripplanner.api.model.ApiTripPlan;
 import org.opentripplanner.api.model.error.PlannerError;
 import org.opentripplanner.model.plan.Itinerary;
+import org.opentripplanner.model.plan.TripPlan;
 import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.api.request.RoutingRequest;
 import org.opentripplanner.routing.api.response.RoutingResponse;
 import org.opentripplanner.standalone.server.Router;
+import org.opentripplanner.util.OTPFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +50,12 @@ public class PlannerResource extends RoutingResource {
 
   private static final Logger LOG = LoggerFactory.getLogger(PlannerResource.class);
 
+  /** Used to write the streamed responses, without flushing the output after each value */
+  private static final ObjectWriter JSON_WRITER = new JSONObjectMapperProvider()
+    .getContext(TripPlannerResponse.class)
+    .writer()
+    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
   /**
    * @deprecated The support for multiple routers are removed from OTP2. See
    * https://github.com/opentripplanner/OpenTripPlanner/issues/2760
@@ -51,7 +69,7 @@ public class PlannerResource extends RoutingResource {
   // Jersey uses @Context to inject internal types and @InjectParam or @Resource for DI objects.
   @GET
   @Produces(MediaType.APPLICATION_JSON)
-  public TripPlannerResponse plan(@Context UriInfo uriInfo, @Context Request grizzlyRequest) {
+  public Response plan(@Context UriInfo uriInfo, @Context Request grizzlyRequest) {
     /*
      * TODO: add Lang / Locale parameter, and thus get localized content (Messages & more...)
      * TODO: from/to inputs should be converted / geocoded / etc... here, and maybe send coords
@@ -65,6 +83,7 @@ public class PlannerResource extends RoutingResource {
     RoutingRequest request = null;
     Router router = null;
     RoutingResponse res = null;
+    TokenBuffer plan = null;
     try {
       /* Fill in request fields from query parameters via shared superclass method, catching any errors. */
       request = super.buildRequest(uriInfo.getQueryParameters());
@@ -74,12 +93,18 @@ public class PlannerResource extends RoutingResource {
       RoutingService routingService = new RoutingService(router.graph);
       res = routingService.route(request, router);
 
-      // Map to API
-      TripPlanMapper tripPlanMapper = new TripPlanMapper(
-        request.locale,
-        request.showIntermediateStops
-      );
-      response.setPlan(tripPlanMapper.mapTripPlan(res.getTripPlan()));
+      if (OTPFeature.StreamingPlanResponse.isOn()) {
+        // The plan is written directly from the internal model, before the response is sent, so
+        // an error is reported in the response instead of cutting the response short
+        plan = writePlan(request, res.getTripPlan());
+      } else {
+        // Map to API
+        TripPlanMapper tripPlanMapper = new TripPlanMapper(
+          request.locale,
+          request.showIntermediateStops
+        );
+        response.setPlan(tripPlanMapper.mapTripPlan(res.getTripPlan()));
+      }
       if (res.getPreviousPageCursor() != null) {
         response.setPreviousPageCursor(res.getPreviousPageCursor().encode());
       }
@@ -108,7 +133,62 @@ public class PlannerResource extends RoutingResource {
     /* Log this request if such logging is enabled. */
     logRequest(grizzlyRequest, request, router, res);
 
-    return response;
+    if (plan != null) {
+      return Response.ok(streamResponse(response, plan)).build();
+    }
+    return Response.ok(response).build();
+  }
+
+  /**
+   * Write the plan as JSON tokens, which are copied to the response when it is written, without
+   * mapping the plan to an {@link ApiTripPlan} first. Any error in the plan is thrown here, before
+   * the response is sent.
+   */
+  private static TokenBuffer writePlan(RoutingRequest request, TripPlan tripPlan)
+    throws IOException {
+    if (tripPlan == null) {
+      return null;
+    }
+    var planWriter = new TripPlanJsonWriter(
+      request.locale,
+      request.showIntermediateStops,
+      JSON_WRITER
+    );
+    var plan = new TokenBuffer(null, false);
+    planWriter.writeTripPlan(plan, tripPlan);
+    return plan;
+  }
+
+  /**
+   * Write the response in the same format as the {@link TripPlannerResponse} is serialized, with
+   * the plan written from the internal model.
+   */
+  private static StreamingOutput streamResponse(TripPlannerResponse response, TokenBuffer plan) {
+    return output -> {
+      try (JsonGenerator gen = JSON_WRITER.getFactory().createGenerator(output)) {
+        // Jersey closes the output stream
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.writeStartObject();
+        writeField(gen, "requestParameters", response.requestParameters);
+        gen.writeFieldName("plan");
+        plan.serialize(gen);
+        writeField(gen, "metadata", response.getMetadata());
+        writeField(gen, "previousPageCursor", response.getPreviousPageCursor());
+        writeField(gen, "nextPageCursor", response.getNextPageCursor());
+        writeField(gen, "error", response.getError());
+        writeField(gen, "debugOutput", response.debugOutput);
+        writeField(gen, "elevationMetadata", response.elevationMetadata);
+        gen.writeEndObject();
+      }
+    };
+  }
+
+  private static void writeField(JsonGenerator gen, String fieldName, Object value)
+    throws IOException {
+    if (value != null) {
+      gen.writeFieldName(fieldName);
+      JSON_WRITER.writeValue(gen, value);
+    }
   }
 
   private void logRequest(
@@ -7,13 +7,19 @@ import org.geotools.referencing.crs.DefaultGeographicCRS;
 public class WebMercatorTile {
 
   public static String getTileNumber(final double lat, final double lon, final int zoom) {
-    int xtile = (int) Math.floor((lon + 180) / 360 * (1 << zoom));
-    int ytile = (int) Math.floor(
+    return ("" + zoom + "/" + lon2tile(lon, zoom) + "/" + lat2tile(lat, zoom));
+  }
+
+  public static int lon2tile(double lon, int z) {
+    return (int) Math.floor((lon + 180) / 360 * (1 << z));
+  }
+
+  public static int lat2tile(double lat, int z) {
+    return (int) Math.floor(
       (1 - Math.log(Math.tan(Math.toRadians(lat)) + 1 / Math.cos(Math.toRadians(lat))) / Math.PI) /
       2 *
-      (1 << zoom)
+      (1 << z)
     );
-    return ("" + zoom + "/" + xtile + "/" + ytile);
   }
 
   public static double tile2lon(int x, int z) {
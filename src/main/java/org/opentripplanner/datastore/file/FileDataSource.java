@@ -12,6 +12,9 @@ import org.opentripplanner.datastore.FileType;
 
 public class FileDataSource extends AbstractFileDataSource {
 
+  /** The GZIP default of 512 bytes makes reading large files, like a graph, slow. */
+  private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
   /**
    * Create a data source wrapper around a file. This wrapper handles GZIP(.gz) compressed files as
    * well as normal files. It does not handle directories({@link DirectoryDataSource}) or zip-files
@@ -26,7 +29,7 @@ public class FileDataSource extends AbstractFileDataSource {
     try {
       // We support both gzip and unzipped files when reading.
       if (file.getName().endsWith(".gz")) {
-        return new GZIPInputStream(new FileInputStream(file));
+        return new GZIPInputStream(new FileInputStream(file), GZIP_BUFFER_SIZE);
       } else {
         return new FileInputStream(file);
       }
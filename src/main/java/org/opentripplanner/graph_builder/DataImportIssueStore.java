@@ -35,6 +35,16 @@ public class DataImportIssueStore {
     add(Issue.issue(type, message, arguments));
   }
 
+  /**
+   * Add the issues collected by another store, for example a store used by a separate thread. The
+   * issues are not logged again.
+   */
+  public void addAll(DataImportIssueStore other) {
+    if (storeIssues) {
+      this.issues.addAll(other.issues);
+    }
+  }
+
   public List<DataImportIssue> getIssues() {
     return this.issues;
   }
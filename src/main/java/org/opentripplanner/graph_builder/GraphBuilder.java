@@ -16,7 +16,11 @@ import org.opentripplanner.datastore.CompositeDataSource;
 import org.opentripplanner.datastore.DataSource;
 import org.opentripplanner.ext.dataoverlay.configure.DataOverlayFactory;
 import org.opentripplanner.ext.flex.FlexLocationsToStreetEdgesMapper;
+import org.opentripplanner.ext.geocoder.LuceneIndexModule;
 import org.opentripplanner.ext.transferanalyzer.DirectTransferAnalyzer;
+import org.opentripplanner.ext.vectortiles.VectorTilePyramid;
+import org.opentripplanner.ext.vectortiles.VectorTilePyramidModule;
+import org.opentripplanner.ext.vectortiles.VectorTilesResource;
 import org.opentripplanner.graph_builder.model.GtfsBundle;
 import org.opentripplanner.graph_builder.module.DirectTransferGenerator;
 import org.opentripplanner.graph_builder.module.GraphCoherencyCheckerModule;
@@ -66,6 +70,7 @@ public class GraphBuilder implements Runnable {
    */
   public static GraphBuilder create(
     BuildConfig config,
+    VectorTilesResource.LayersParameters vectorTileLayers,
     GraphBuilderDataSources dataSources,
     Graph baseGraph,
     boolean loadStreetGraph,
@@ -137,7 +142,8 @@ public class GraphBuilder implements Runnable {
 
     // Prune graph connectivity islands after transit stop linking, so that pruning can take into account
     // existence of stops in islands. If an island has a stop, it actually may be a real island and should
-    // not be removed quite as easily
+    // not be removed quite as easily. Unlike the transfers, the result is not cached between
+    // builds, since an island anywhere in the graph may be kept or removed when the stops change.
     if ((hasOsm && !saveStreetGraph) || loadStreetGraph) {
       PruneNoThruIslands pruneNoThruIslands = new PruneNoThruIslands(streetLinkerModule);
       pruneNoThruIslands.setPruningThresholdIslandWithoutStops(
@@ -195,7 +201,10 @@ public class GraphBuilder implements Runnable {
       graphBuilder.addModule(
         new DirectTransferGenerator(
           Duration.ofSeconds((long) config.maxTransferDurationSeconds),
-          config.transferRequests
+          config.transferRequests,
+          new File(dataSources.getCacheDirectory(), "cached_transfers.obj"),
+          config.readCachedTransfers,
+          config.writeCachedTransfers
         )
       );
 
@@ -229,6 +238,21 @@ public class GraphBuilder implements Runnable {
       }
     }
 
+    if (OTPFeature.SandboxAPIGeocoder.isOn()) {
+      graphBuilder.addModule(new LuceneIndexModule());
+    }
+
+    // Render the vector tiles last, when the stops and stations are final
+    if (OTPFeature.SandboxAPIMapboxVectorTilesApi.isOn() && config.vectorTilePyramidMaxZoom > 0) {
+      graphBuilder.addModule(
+        new VectorTilePyramidModule(
+          vectorTileLayers,
+          config.vectorTilePyramidMaxZoom,
+          new File(dataSources.getBaseDirectory(), VectorTilePyramid.FILE_NAME)
+        )
+      );
+    }
+
     return graphBuilder;
   }
 
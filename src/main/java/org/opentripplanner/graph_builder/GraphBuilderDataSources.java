@@ -41,11 +41,13 @@ public class GraphBuilderDataSources {
   private final Multimap<FileType, DataSource> inputData = ArrayListMultimap.create();
   private final Multimap<FileType, DataSource> skipData = ArrayListMultimap.create();
   private final Set<FileType> includeTypes = EnumSet.complementOf(EnumSet.of(FileType.UNKNOWN));
+  private final File baseDirectory;
   private final File cacheDirectory;
   private final DataSource outputGraph;
 
   private GraphBuilderDataSources(CommandLineParameters cli, BuildConfig bc, OtpDataStore store) {
     this.store = store;
+    this.baseDirectory = cli.getBaseDirectory();
     this.cacheDirectory = cli.cacheDirectory;
     this.outputGraph = getOutputGraph(cli);
 
@@ -97,6 +99,10 @@ public class GraphBuilderDataSources {
     return store.getBuildReportDir();
   }
 
+  File getBaseDirectory() {
+    return baseDirectory;
+  }
+
   File getCacheDirectory() {
     return cacheDirectory;
   }
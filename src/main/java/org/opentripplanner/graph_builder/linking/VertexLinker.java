@@ -6,6 +6,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -63,6 +64,11 @@ public class VertexLinker {
   private final Graph graph;
   // TODO Temporary code until we refactor WalkableAreaBuilder  (#3152)
   private Boolean addExtraEdgesToAreas = false;
+  /**
+   * The number of vertices added to areas when splitting area edges. Adding a vertex to an area
+   * creates new edges, so a search done before that is not current.
+   */
+  private int areaVerticesAdded = 0;
 
   /**
    * Construct a new VertexLinker. NOTE: Only one VertexLinker should be active on a graph at any
@@ -84,6 +90,46 @@ public class VertexLinker {
     link(vertex, traverseModes, direction, Scope.PERMANENT, edgeFunction);
   }
 
+  /**
+   * Link many vertices permanently. This gives the same result as calling {@link
+   * #linkVertexPermanently} for each of the vertices in order (up to the rounding of split
+   * geometries), but the search for the closest edges, which is the expensive part, is done in
+   * parallel.
+   * <p>
+   * The searches are done against the graph as it is when this method is called. The edges are
+   * then split and linked in the order of the vertices. If an edge found by the search for a
+   * vertex has been split by a vertex earlier in the list, or a vertex earlier in the list has been
+   * added to an area, the search is repeated for that vertex. Splitting is never done in parallel,
+   * so the result does not depend on the number of threads. The searches get stale as edges are
+   * split, so a long list should be linked in batches.
+   *
+   * @param traverseModes the modes of each vertex, in the same order as the vertices
+   */
+  public <T extends Vertex> void linkVerticesPermanently(
+    List<T> vertices,
+    List<TraverseModeSet> traverseModes,
+    LinkingDirection direction,
+    BiFunction<Vertex, StreetVertex, List<Edge>> edgeFunction
+  ) {
+    List<EdgeSearch> searches = IntStream
+      .range(0, vertices.size())
+      .parallel()
+      .mapToObj(i -> findClosestEdges(vertices.get(i), traverseModes.get(i), Scope.PERMANENT))
+      .collect(Collectors.toList());
+
+    for (int i = 0; i < vertices.size(); ++i) {
+      T vertex = vertices.get(i);
+      EdgeSearch search = searches.get(i);
+      if (!search.isCurrent(areaVerticesAdded)) {
+        search = findClosestEdges(vertex, traverseModes.get(i), Scope.PERMANENT);
+      }
+      var streetVertices = linkToClosestEdges(vertex, search, Scope.PERMANENT, direction, null);
+      for (StreetVertex streetVertex : streetVertices) {
+        edgeFunction.apply(vertex, streetVertex);
+      }
+    }
+  }
+
   public DisposableEdgeCollection linkVertexForRealTime(
     Vertex vertex,
     TraverseModeSet traverseModes,
@@ -195,25 +241,13 @@ public class VertexLinker {
       : null;
 
     try {
-      Set<StreetVertex> streetVertices = linkToStreetEdges(
+      Set<StreetVertex> streetVertices = linkToClosestEdges(
         vertex,
-        traverseModes,
-        direction,
+        findClosestEdges(vertex, traverseModes, scope),
         scope,
-        INITIAL_SEARCH_RADIUS_METERS,
+        direction,
         tempEdges
       );
-      if (streetVertices.isEmpty()) {
-        streetVertices =
-          linkToStreetEdges(
-            vertex,
-            traverseModes,
-            direction,
-            scope,
-            MAX_SEARCH_RADIUS_METERS,
-            tempEdges
-          );
-      }
 
       for (StreetVertex streetVertex : streetVertices) {
         List<Edge> edges = edgeFunction.apply(vertex, streetVertex);
@@ -233,13 +267,29 @@ public class VertexLinker {
     return tempEdges;
   }
 
-  private Set<StreetVertex> linkToStreetEdges(
+  /**
+   * Find the closest edges within the initial search radius, or if there are none, within the max
+   * search radius. This does not change the graph or the spatial index, and may be called from
+   * several threads as long as no edges are split at the same time.
+   */
+  private EdgeSearch findClosestEdges(Vertex vertex, TraverseModeSet traverseModes, Scope scope) {
+    EdgeSearch search = findClosestEdges(
+      vertex,
+      traverseModes,
+      scope,
+      INITIAL_SEARCH_RADIUS_METERS
+    );
+    if (search.closestEdges().isEmpty()) {
+      search = findClosestEdges(vertex, traverseModes, scope, MAX_SEARCH_RADIUS_METERS);
+    }
+    return search;
+  }
+
+  private EdgeSearch findClosestEdges(
     Vertex vertex,
     TraverseModeSet traverseModes,
-    LinkingDirection direction,
     Scope scope,
-    int radiusMeters,
-    DisposableEdgeCollection tempEdges
+    int radiusMeters
   ) {
     final double radiusDeg = SphericalDistanceLibrary.metersToDegrees(radiusMeters);
 
@@ -265,14 +315,25 @@ public class VertexLinker {
       .collect(Collectors.toList());
 
     if (candidateEdges.isEmpty()) {
-      return Set.of();
+      return new EdgeSearch(xscale, List.of(), Set.of(), areaVerticesAdded);
     }
 
     Set<DistanceTo<StreetEdge>> closesEdges = getClosestEdgesPerMode(traverseModes, candidateEdges);
 
-    return closesEdges
+    return new EdgeSearch(xscale, candidateEdges, closesEdges, areaVerticesAdded);
+  }
+
+  private Set<StreetVertex> linkToClosestEdges(
+    Vertex vertex,
+    EdgeSearch search,
+    Scope scope,
+    LinkingDirection direction,
+    DisposableEdgeCollection tempEdges
+  ) {
+    return search
+      .closestEdges()
       .stream()
-      .map(ce -> link(vertex, ce.item, xscale, scope, direction, tempEdges))
+      .map(ce -> link(vertex, ce.item, search.xScale(), scope, direction, tempEdges))
       .collect(Collectors.toSet());
   }
 
@@ -377,6 +438,7 @@ public class VertexLinker {
       // TODO Temporary code until we refactor the WalkableAreaBuilder (#3152)
       if (scope == Scope.PERMANENT && this.addExtraEdgesToAreas && edge instanceof AreaEdge) {
         ((AreaEdge) edge).getArea().addVertex(v0);
+        ++areaVerticesAdded;
       }
 
       // TODO Consider moving this code
@@ -456,6 +518,39 @@ public class VertexLinker {
     return v;
   }
 
+  /**
+   * The result of searching for the edges to link a vertex to.
+   *
+   * @param xScale         The scale of the local equirectangular projection
+   * @param candidateEdges All edges within the search radius
+   * @param closestEdges   The edges to link to
+   * @param areaVerticesAdded The number of vertices added to areas when the search was done
+   */
+  private record EdgeSearch(
+    double xScale,
+    List<DistanceTo<StreetEdge>> candidateEdges,
+    Set<DistanceTo<StreetEdge>> closestEdges,
+    int areaVerticesAdded
+  ) {
+    /**
+     * A search is current if no vertex has been added to an area and none of the edges within the
+     * search radius has been split since the search was done. Splitting an edge removes it from
+     * the graph.
+     */
+    boolean isCurrent(int areaVerticesAddedNow) {
+      if (areaVerticesAdded != areaVerticesAddedNow) {
+        return false;
+      }
+      for (DistanceTo<StreetEdge> candidate : candidateEdges) {
+        StreetEdge edge = candidate.item;
+        if (!edge.getToVertex().getIncoming().contains(edge)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
   private static class DistanceTo<T> {
 
     T item;
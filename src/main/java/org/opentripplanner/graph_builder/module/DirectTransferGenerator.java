@@ -1,21 +1,26 @@
 package org.opentripplanner.graph_builder.module;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimaps;
+import java.io.File;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.StopNotLinkedForTransfers;
 import org.opentripplanner.graph_builder.services.GraphBuilderModule;
+import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.PathTransfer;
 import org.opentripplanner.model.Stop;
 import org.opentripplanner.model.StopLocation;
 import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.request.StreetRelevantOptions;
 import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.api.request.StreetMode;
 import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.GraphIndex;
@@ -33,6 +38,9 @@ import org.slf4j.LoggerFactory;
  * <p>
  * It will use the street network if OSM data has already been loaded into the graph. Otherwise it
  * will use straight-line distance between stops.
+ * <p>
+ * The transfers may be written to a cache file and reused by the next graph build for the stops
+ * where neither the stop nor the graph around it has changed, see {@link TransferCache}.
  */
 public class DirectTransferGenerator implements GraphBuilderModule {
 
@@ -42,9 +50,28 @@ public class DirectTransferGenerator implements GraphBuilderModule {
 
   private final List<RoutingRequest> transferRequests;
 
+  private final File cachedTransfersFile;
+
+  private final boolean readCachedTransfers;
+
+  private final boolean writeCachedTransfers;
+
   public DirectTransferGenerator(Duration radiusByDuration, List<RoutingRequest> transferRequests) {
+    this(radiusByDuration, transferRequests, null, false, false);
+  }
+
+  public DirectTransferGenerator(
+    Duration radiusByDuration,
+    List<RoutingRequest> transferRequests,
+    File cachedTransfersFile,
+    boolean readCachedTransfers,
+    boolean writeCachedTransfers
+  ) {
     this.radiusByDuration = radiusByDuration;
     this.transferRequests = transferRequests;
+    this.cachedTransfersFile = cachedTransfersFile;
+    this.readCachedTransfers = readCachedTransfers;
+    this.writeCachedTransfers = writeCachedTransfers;
   }
 
   public List<String> provides() {
@@ -77,100 +104,77 @@ public class DirectTransferGenerator implements GraphBuilderModule {
     }
 
     List<TransitStopVertex> stops = graph.getVerticesOfType(TransitStopVertex.class);
+    List<RoutingRequest> streetRequests = prepareStreetRequests(nearbyStopFinder.useStreets);
+    LOG.info(
+      "Searching for transfers with {} distinct street searches for {} transfer requests.",
+      streetRequests.size(),
+      transferRequests.size()
+    );
 
     ProgressTracker progress = ProgressTracker.track(
       "Create transfer edges for stops",
       1000,
       stops.size()
     );
+    Instant start = Instant.now();
 
-    AtomicInteger nTransfersTotal = new AtomicInteger();
-    AtomicInteger nLinkedStops = new AtomicInteger();
+    TransferCache cache = createCache(graph, nearbyStopFinder, issueStore);
 
-    // This is a synchronizedMultimap so that a parallel stream may be used to insert elements.
-    var transfersByStop = Multimaps.<StopLocation, PathTransfer>synchronizedMultimap(
-      HashMultimap.create()
-    );
-
-    stops
-      .stream()
-      .parallel()
-      .forEach(ts0 -> {
-        /* Make transfers to each nearby stop that has lowest weight on some trip pattern.
-         * Use map based on the list of edges, so that only distinct transfers are stored. */
-        Map<TransferKey, PathTransfer> distinctTransfers = new HashMap<>();
-        Stop stop = ts0.getStop();
-        LOG.debug("Linking stop '{}' {}", stop, ts0);
-
-        for (RoutingRequest transferProfile : transferRequests) {
-          RoutingRequest streetRequest = Transfer.prepareTransferRoutingRequest(transferProfile);
-
-          for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(
-            ts0,
-            streetRequest,
-            false
-          )) {
-            // Skip the origin stop, loop transfers are not needed.
-            if (sd.stop == stop) {
-              continue;
-            }
-            distinctTransfers.put(
-              new TransferKey(stop, sd.stop, sd.edges),
-              new PathTransfer(stop, sd.stop, sd.distance, sd.edges)
-            );
-          }
-          if (OTPFeature.FlexRouting.isOn()) {
-            // This code is for finding transfers from FlexStopLocations to Stops, transfers
-            // from Stops to FlexStopLocations and between Stops are already covered above.
-            for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(
-              ts0,
-              streetRequest,
-              true
-            )) {
-              // Skip the origin stop, loop transfers are not needed.
-              if (sd.stop == stop) {
-                continue;
-              }
-              if (sd.stop instanceof Stop) {
-                continue;
-              }
-              distinctTransfers.put(
-                new TransferKey(sd.stop, stop, sd.edges),
-                new PathTransfer(sd.stop, stop, sd.distance, sd.edges)
-              );
-            }
+    // Each stop gets its own result, the results are merged into the graph in stop order below
+    // without any locking.
+    List<Collection<PathTransfer>> transfersForStops = stops
+      .parallelStream()
+      .map(ts0 -> {
+        Collection<PathTransfer> transfers = cache == null ? null : cache.get(ts0);
+        if (transfers == null) {
+          transfers = findTransfers(ts0, nearbyStopFinder, streetRequests);
+          if (cache != null) {
+            cache.put(ts0, transfers);
           }
         }
-
         LOG.debug(
           "Linked stop {} with {} transfers to stops with different patterns.",
-          stop,
-          distinctTransfers.size()
+          ts0.getStop(),
+          transfers.size()
         );
-        if (distinctTransfers.isEmpty()) {
-          issueStore.add(new StopNotLinkedForTransfers(ts0));
-        } else {
-          distinctTransfers
-            .values()
-            .forEach(transfer -> transfersByStop.put(transfer.from, transfer));
-          nLinkedStops.incrementAndGet();
-          nTransfersTotal.addAndGet(distinctTransfers.size());
-        }
-
         //Keep lambda! A method-ref would causes incorrect class and line number to be logged
         //noinspection Convert2MethodRef
         progress.step(m -> LOG.info(m));
-      });
+        return transfers;
+      })
+      .collect(Collectors.toList());
 
-    graph.transfersByStop.putAll(transfersByStop);
+    int nTransfersTotal = 0;
+    int nLinkedStops = 0;
+    for (int i = 0; i < stops.size(); ++i) {
+      Collection<PathTransfer> transfers = transfersForStops.get(i);
+      if (transfers.isEmpty()) {
+        issueStore.add(new StopNotLinkedForTransfers(stops.get(i)));
+      } else {
+        transfers.forEach(transfer -> graph.transfersByStop.put(transfer.from, transfer));
+        nLinkedStops++;
+        nTransfersTotal += transfers.size();
+      }
+    }
 
+    Duration duration = Duration.between(start, Instant.now());
     LOG.info(progress.completeMessage());
     LOG.info(
-      "Done connecting stops to one another. Created a total of {} transfers from {} stops.",
+      "Done connecting stops to one another. Created a total of {} transfers from {} stops in " +
+      "{}s ({} stops/s).",
       nTransfersTotal,
-      nLinkedStops
+      nLinkedStops,
+      duration.toSeconds(),
+      stops.size() * 1000L / Math.max(1, duration.toMillis())
     );
     graph.hasDirectTransfers = true;
+
+    if (cache != null) {
+      cache.logStatistics();
+      if (writeCachedTransfers) {
+        cache.write(cachedTransfersFile, issueStore);
+      }
+    }
   }
 
   @Override
@@ -178,6 +182,121 @@ public class DirectTransferGenerator implements GraphBuilderModule {
     // No inputs
   }
 
+  /**
+   * @return the cache to read and write transfers from, or {@code null} if the cache is not used.
+   */
+  private TransferCache createCache(
+    Graph graph,
+    NearbyStopFinder nearbyStopFinder,
+    DataImportIssueStore issueStore
+  ) {
+    if (cachedTransfersFile == null || !(readCachedTransfers || writeCachedTransfers)) {
+      return null;
+    }
+    // The transfers found by these depend on more than the graph around each stop
+    if (OTPFeature.FlexRouting.isOn() || OTPFeature.VehicleToStopHeuristics.isOn()) {
+      LOG.info("Cached transfers are not used with flex routing or vehicle-to-stop heuristics.");
+      return null;
+    }
+    var previous = readCachedTransfers
+      ? TransferCache.read(cachedTransfersFile, issueStore)
+      : Map.<FeedScopedId, TransferCache.CachedStop>of();
+    // Hashing the graph is only worth it if there are transfers to reuse or to write
+    if (previous.isEmpty() && !writeCachedTransfers) {
+      return null;
+    }
+    return new TransferCache(
+      previous,
+      graph,
+      radiusByDuration,
+      transferRequests,
+      nearbyStopFinder.useStreets
+    );
+  }
+
+  /**
+   * Prepare the street requests used to search for transfers. Transfer requests which are equal
+   * in all options relevant for the street search would find the same transfers, so only one of
+   * them is searched. Without streets the transfers are found by straight-line distance, which
+   * does not depend on the request, so one search is enough.
+   */
+  private List<RoutingRequest> prepareStreetRequests(boolean useStreets) {
+    Map<StreetSearchKey, RoutingRequest> streetRequests = new LinkedHashMap<>();
+    for (RoutingRequest transferProfile : transferRequests) {
+      RoutingRequest streetRequest = Transfer.prepareTransferRoutingRequest(transferProfile);
+      streetRequests.putIfAbsent(
+        new StreetSearchKey(
+          new StreetRelevantOptions(streetRequest),
+          streetRequest.modes.accessMode
+        ),
+        streetRequest
+      );
+    }
+    if (!useStreets && streetRequests.size() > 1) {
+      return List.of(streetRequests.values().iterator().next());
+    }
+    return List.copyOf(streetRequests.values());
+  }
+
+  /**
+   * Make transfers to each nearby stop that has lowest weight on some trip pattern. Use map based
+   * on the list of edges, so that only distinct transfers are stored.
+   */
+  private Collection<PathTransfer> findTransfers(
+    TransitStopVertex ts0,
+    NearbyStopFinder nearbyStopFinder,
+    List<RoutingRequest> streetRequests
+  ) {
+    Map<TransferKey, PathTransfer> distinctTransfers = new HashMap<>();
+    Stop stop = ts0.getStop();
+    LOG.debug("Linking stop '{}' {}", stop, ts0);
+
+    for (RoutingRequest streetRequest : streetRequests) {
+      for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(
+        ts0,
+        streetRequest,
+        false
+      )) {
+        // Skip the origin stop, loop transfers are not needed.
+        if (sd.stop == stop) {
+          continue;
+        }
+        distinctTransfers.put(
+          new TransferKey(stop, sd.stop, sd.edges),
+          new PathTransfer(stop, sd.stop, sd.distance, sd.edges)
+        );
+      }
+      if (OTPFeature.FlexRouting.isOn()) {
+        // This code is for finding transfers from FlexStopLocations to Stops, transfers
+        // from Stops to FlexStopLocations and between Stops are already covered above.
+        for (NearbyStop sd : nearbyStopFinder.findNearbyStopsConsideringPatterns(
+          ts0,
+          streetRequest,
+          true
+        )) {
+          // Skip the origin stop, loop transfers are not needed.
+          if (sd.stop == stop) {
+            continue;
+          }
+          if (sd.stop instanceof Stop) {
+            continue;
+          }
+          distinctTransfers.put(
+            new TransferKey(sd.stop, stop, sd.edges),
+            new PathTransfer(sd.stop, stop, sd.distance, sd.edges)
+          );
+        }
+      }
+    }
+    return distinctTransfers.values();
+  }
+
+  /**
+   * The access mode is used by the vehicle-to-stop heuristics of the street search, in addition
+   * to the options relevant for transfers.
+   */
+  private record StreetSearchKey(StreetRelevantOptions options, StreetMode accessMode) {}
+
   private static class TransferKey {
 
     private final StopLocation source;
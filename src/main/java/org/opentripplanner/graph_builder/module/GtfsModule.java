@@ -4,13 +4,20 @@ import com.google.common.collect.Sets;
 import java.awt.Color;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.onebusaway.csv_entities.EntityHandler;
 import org.onebusaway.gtfs.impl.GtfsRelationalDaoImpl;
 import org.onebusaway.gtfs.model.Agency;
@@ -50,7 +57,11 @@ import org.slf4j.LoggerFactory;
 public class GtfsModule implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(GtfsModule.class);
-  private final EntityHandler counter = new EntityCounter();
+  /**
+   * The max number of bundles read in parallel. A bundle is held in memory until it is added to the
+   * graph, so this is kept low.
+   */
+  private static final int N_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
   private final Set<String> agencyIdsSeen = Sets.newHashSet();
   /**
    * @see BuildConfig#transitServiceStart
@@ -100,17 +111,24 @@ public class GtfsModule implements GraphBuilderModule {
 
     boolean hasTransit = false;
 
+    // Generated feed ids depend on the order the ids are requested in, so do it before reading
+    gtfsBundles.forEach(GtfsBundle::getFeedId);
+
+    // The bundles are read and mapped in parallel, a few bundles ahead of the bundle added to the
+    // graph. Adding a bundle to the graph is done in the order of the bundles.
+    ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
+    Deque<PendingBundle> pending = new ArrayDeque<>();
+    Iterator<GtfsBundle> bundlesToRead = gtfsBundles.iterator();
+
     try {
       for (GtfsBundle gtfsBundle : gtfsBundles) {
-        GtfsMutableRelationalDao gtfsDao = loadBundle(gtfsBundle);
-        GTFSToOtpTransitServiceMapper mapper = new GTFSToOtpTransitServiceMapper(
-          gtfsBundle.getFeedId().getId(),
-          issueStore,
-          gtfsDao
-        );
-        mapper.mapStopTripAndRouteDatantoBuilder();
-
-        OtpTransitServiceBuilder builder = mapper.getBuilder();
+        while (pending.size() < N_THREADS && bundlesToRead.hasNext()) {
+          BundleReader reader = new BundleReader(bundlesToRead.next());
+          pending.add(new PendingBundle(reader, executor.submit(reader::readAndMap)));
+        }
+        PendingBundle next = pending.poll();
+        OtpTransitServiceBuilder builder = next.builder().get();
+        issueStore.addAll(next.reader().issueStore);
 
         builder.limitServiceDays(transitPeriodLimit, issueStore);
 
@@ -136,7 +154,14 @@ public class GtfsModule implements GraphBuilderModule {
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
     } finally {
+      pending.forEach(it -> it.builder().cancel(true));
+      executor.shutdownNow();
       // Note the close method of each bundle should NOT throw an exception, so this
       // code should be safe without the try/catch block.
       gtfsBundles.forEach(GtfsBundle::close);
@@ -215,87 +240,6 @@ public class GtfsModule implements GraphBuilderModule {
     );
   }
 
-  private GtfsMutableRelationalDao loadBundle(GtfsBundle gtfsBundle) throws IOException {
-    StoreImpl store = new StoreImpl(new GtfsRelationalDaoImpl());
-    store.open();
-    LOG.info("reading {}", gtfsBundle.toString());
-
-    GtfsFeedId gtfsFeedId = gtfsBundle.getFeedId();
-
-    GtfsReader reader = new GtfsReader();
-    reader.setInputSource(gtfsBundle.getCsvInputSource());
-    reader.setEntityStore(store);
-    reader.setInternStrings(true);
-    reader.setDefaultAgencyId(gtfsFeedId.getId());
-
-    if (LOG.isDebugEnabled()) reader.addEntityHandler(counter);
-
-    for (Class<?> entityClass : reader.getEntityClasses()) {
-      LOG.info("reading entities: " + entityClass.getName());
-      reader.readEntities(entityClass);
-      store.flush();
-      // NOTE that agencies are first in the list and read before all other entity types, so it is effective to
-      // set the agencyId here. Each feed ("bundle") is loaded by a separate reader, so there is no risk of
-      // agency mappings accumulating.
-      if (entityClass == Agency.class) {
-        for (Agency agency : reader.getAgencies()) {
-          String agencyId = agency.getId();
-          LOG.info("This Agency has the ID {}", agencyId);
-          // Somehow, when the agency's id field is missing, OBA replaces it with the agency's name.
-          // TODO Figure out how and why this is happening.
-          if (agencyId == null || agencyIdsSeen.contains(gtfsFeedId.getId() + agencyId)) {
-            // Loop in case generated name is already in use.
-            String generatedAgencyId = null;
-            while (generatedAgencyId == null || agencyIdsSeen.contains(generatedAgencyId)) {
-              generatedAgencyId = "F" + nextAgencyId;
-              nextAgencyId++;
-            }
-            LOG.warn(
-              "The agency ID '{}' was already seen, or I think it's bad. Replacing with '{}'.",
-              agencyId,
-              generatedAgencyId
-            );
-            reader.addAgencyIdMapping(agencyId, generatedAgencyId); // NULL key should work
-            agency.setId(generatedAgencyId);
-            agencyId = generatedAgencyId;
-          }
-          if (agencyId != null) agencyIdsSeen.add(gtfsFeedId.getId() + agencyId);
-        }
-      }
-    }
-
-    for (ShapePoint shapePoint : store.getAllEntitiesForType(ShapePoint.class)) {
-      shapePoint.getShapeId().setAgencyId(reader.getDefaultAgencyId());
-    }
-    for (Route route : store.getAllEntitiesForType(Route.class)) {
-      route.getId().setAgencyId(reader.getDefaultAgencyId());
-      generateRouteColor(route);
-    }
-    for (Stop stop : store.getAllEntitiesForType(Stop.class)) {
-      stop.getId().setAgencyId(reader.getDefaultAgencyId());
-    }
-    for (Trip trip : store.getAllEntitiesForType(Trip.class)) {
-      trip.getId().setAgencyId(reader.getDefaultAgencyId());
-    }
-    for (ServiceCalendar serviceCalendar : store.getAllEntitiesForType(ServiceCalendar.class)) {
-      serviceCalendar.getServiceId().setAgencyId(reader.getDefaultAgencyId());
-    }
-    for (ServiceCalendarDate serviceCalendarDate : store.getAllEntitiesForType(
-      ServiceCalendarDate.class
-    )) {
-      serviceCalendarDate.getServiceId().setAgencyId(reader.getDefaultAgencyId());
-    }
-    for (FareAttribute fareAttribute : store.getAllEntitiesForType(FareAttribute.class)) {
-      fareAttribute.getId().setAgencyId(reader.getDefaultAgencyId());
-    }
-    for (Pathway pathway : store.getAllEntitiesForType(Pathway.class)) {
-      pathway.getId().setAgencyId(reader.getDefaultAgencyId());
-    }
-
-    store.close();
-    return store.dao;
-  }
-
   /**
    * Generates routeText colors for routes with routeColor and without routeTextColor
    * <p>
@@ -335,6 +279,120 @@ public class GtfsModule implements GraphBuilderModule {
     route.setTextColor(textColor);
   }
 
+  private record PendingBundle(BundleReader reader, Future<OtpTransitServiceBuilder> builder) {}
+
+  /**
+   * Reads a GTFS bundle into its own store and maps it to a {@link OtpTransitServiceBuilder}.
+   * <p>
+   * The agencies are read by the constructor, which is called in the order of the bundles, because
+   * an agency id which is already used by an earlier bundle is replaced. The rest of the bundle is
+   * read and mapped by {@link #readAndMap()}, which may run in parallel with other bundles. The
+   * issues found while reading are collected in a separate issue store, and added to the module
+   * issue store in the order of the bundles.
+   */
+  private class BundleReader {
+
+    private final GtfsBundle gtfsBundle;
+    private final GtfsReader reader = new GtfsReader();
+    private final StoreImpl store = new StoreImpl(new GtfsRelationalDaoImpl());
+    private final DataImportIssueStore issueStore = new DataImportIssueStore(true);
+
+    private BundleReader(GtfsBundle gtfsBundle) throws IOException {
+      this.gtfsBundle = gtfsBundle;
+      store.open();
+      LOG.info("reading {}", gtfsBundle.toString());
+
+      GtfsFeedId gtfsFeedId = gtfsBundle.getFeedId();
+
+      reader.setInputSource(gtfsBundle.getCsvInputSource());
+      reader.setEntityStore(store);
+      reader.setInternStrings(true);
+      reader.setDefaultAgencyId(gtfsFeedId.getId());
+
+      if (LOG.isDebugEnabled()) reader.addEntityHandler(new EntityCounter());
+
+      // NOTE that agencies are first in the list and read before all other entity types, so it is
+      // effective to set the agencyId here. Each feed ("bundle") is loaded by a separate reader, so
+      // there is no risk of agency mappings accumulating.
+      readEntities(Agency.class);
+      for (Agency agency : reader.getAgencies()) {
+        String agencyId = agency.getId();
+        LOG.info("This Agency has the ID {}", agencyId);
+        // Somehow, when the agency's id field is missing, OBA replaces it with the agency's name.
+        // TODO Figure out how and why this is happening.
+        if (agencyId == null || agencyIdsSeen.contains(gtfsFeedId.getId() + agencyId)) {
+          // Loop in case generated name is already in use.
+          String generatedAgencyId = null;
+          while (generatedAgencyId == null || agencyIdsSeen.contains(generatedAgencyId)) {
+            generatedAgencyId = "F" + nextAgencyId;
+            nextAgencyId++;
+          }
+          LOG.warn(
+            "The agency ID '{}' was already seen, or I think it's bad. Replacing with '{}'.",
+            agencyId,
+            generatedAgencyId
+          );
+          reader.addAgencyIdMapping(agencyId, generatedAgencyId); // NULL key should work
+          agency.setId(generatedAgencyId);
+          agencyId = generatedAgencyId;
+        }
+        if (agencyId != null) agencyIdsSeen.add(gtfsFeedId.getId() + agencyId);
+      }
+    }
+
+    private OtpTransitServiceBuilder readAndMap() throws IOException {
+      for (Class<?> entityClass : reader.getEntityClasses()) {
+        if (entityClass != Agency.class) {
+          readEntities(entityClass);
+        }
+      }
+
+      for (ShapePoint shapePoint : store.getAllEntitiesForType(ShapePoint.class)) {
+        shapePoint.getShapeId().setAgencyId(reader.getDefaultAgencyId());
+      }
+      for (Route route : store.getAllEntitiesForType(Route.class)) {
+        route.getId().setAgencyId(reader.getDefaultAgencyId());
+        generateRouteColor(route);
+      }
+      for (Stop stop : store.getAllEntitiesForType(Stop.class)) {
+        stop.getId().setAgencyId(reader.getDefaultAgencyId());
+      }
+      for (Trip trip : store.getAllEntitiesForType(Trip.class)) {
+        trip.getId().setAgencyId(reader.getDefaultAgencyId());
+      }
+      for (ServiceCalendar serviceCalendar : store.getAllEntitiesForType(ServiceCalendar.class)) {
+        serviceCalendar.getServiceId().setAgencyId(reader.getDefaultAgencyId());
+      }
+      for (ServiceCalendarDate serviceCalendarDate : store.getAllEntitiesForType(
+        ServiceCalendarDate.class
+      )) {
+        serviceCalendarDate.getServiceId().setAgencyId(reader.getDefaultAgencyId());
+      }
+      for (FareAttribute fareAttribute : store.getAllEntitiesForType(FareAttribute.class)) {
+        fareAttribute.getId().setAgencyId(reader.getDefaultAgencyId());
+      }
+      for (Pathway pathway : store.getAllEntitiesForType(Pathway.class)) {
+        pathway.getId().setAgencyId(reader.getDefaultAgencyId());
+      }
+
+      store.close();
+
+      GTFSToOtpTransitServiceMapper mapper = new GTFSToOtpTransitServiceMapper(
+        gtfsBundle.getFeedId().getId(),
+        issueStore,
+        store.dao
+      );
+      mapper.mapStopTripAndRouteDatantoBuilder();
+      return mapper.getBuilder();
+    }
+
+    private void readEntities(Class<?> entityClass) throws IOException {
+      LOG.info("reading entities: " + entityClass.getName());
+      reader.readEntities(entityClass);
+      store.flush();
+    }
+  }
+
   private static class StoreImpl implements GenericMutableDao {
 
     private final GtfsMutableRelationalDao dao;
@@ -1,12 +1,16 @@
 package org.opentripplanner.graph_builder.module;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.ParkAndRideEntranceRemoved;
 import org.opentripplanner.graph_builder.linking.LinkingDirection;
 import org.opentripplanner.graph_builder.services.GraphBuilderModule;
+import org.opentripplanner.model.StopLocation;
 import org.opentripplanner.routing.core.TraverseMode;
 import org.opentripplanner.routing.core.TraverseModeSet;
 import org.opentripplanner.routing.edgetype.StreetTransitEntranceLink;
@@ -34,6 +38,13 @@ import org.slf4j.LoggerFactory;
 public class StreetLinkerModule implements GraphBuilderModule {
 
   private static final Logger LOG = LoggerFactory.getLogger(StreetLinkerModule.class);
+
+  /**
+   * The number of vertices searched for in parallel before the edges are split. Larger batches
+   * give more parallelism, but more searches have to be repeated because an edge has been split by
+   * another vertex in the batch.
+   */
+  private static final int LINKING_BATCH_SIZE = 1000;
   private Boolean addExtraEdgesToAreas = true;
 
   public void setAddExtraEdgesToAreas(Boolean addExtraEdgesToAreas) {
@@ -78,6 +89,13 @@ public class StreetLinkerModule implements GraphBuilderModule {
     var progress = ProgressTracker.track("Linking transit stops to graph", 5000, vertices.size());
     LOG.info(progress.startMessage());
 
+    Set<StopLocation> flexStops = OTPFeature.FlexRouting.isOn()
+      ? graph.getAllFlexStopsFlat()
+      : Set.of();
+
+    List<TransitStopVertex> stopsToLink = new ArrayList<>();
+    List<TraverseModeSet> modes = new ArrayList<>();
+
     for (TransitStopVertex tStop : vertices) {
       // Stops with pathways do not need to be connected to the street network, since there are explicit entraces defined for that
       if (tStop.hasPathways()) {
@@ -87,21 +105,24 @@ public class StreetLinkerModule implements GraphBuilderModule {
       if (tStop.getDegreeOut() + tStop.getDegreeIn() > 0) {
         continue;
       }
-      TraverseModeSet modes = new TraverseModeSet(TraverseMode.WALK);
-
-      if (OTPFeature.FlexRouting.isOn()) {
-        // If regular stops are used for flex trips, they also need to be connected to car routable
-        // street edges.
-        if (graph.getAllFlexStopsFlat().contains(tStop.getStop())) {
-          modes = new TraverseModeSet(TraverseMode.WALK, TraverseMode.CAR);
-        }
+      stopsToLink.add(tStop);
+
+      // If regular stops are used for flex trips, they also need to be connected to car routable
+      // street edges.
+      if (flexStops.contains(tStop.getStop())) {
+        modes.add(new TraverseModeSet(TraverseMode.WALK, TraverseMode.CAR));
+      } else {
+        modes.add(new TraverseModeSet(TraverseMode.WALK));
       }
+    }
 
+    for (int start = 0; start < stopsToLink.size(); start += LINKING_BATCH_SIZE) {
+      int end = Math.min(start + LINKING_BATCH_SIZE, stopsToLink.size());
       graph
         .getLinker()
-        .linkVertexPermanently(
-          tStop,
-          modes,
+        .linkVerticesPermanently(
+          stopsToLink.subList(start, end),
+          modes.subList(start, end),
           LinkingDirection.BOTH_WAYS,
           (vertex, streetVertex) ->
             List.of(
@@ -110,7 +131,7 @@ public class StreetLinkerModule implements GraphBuilderModule {
             )
         );
       //noinspection Convert2MethodRef
-      progress.step(m -> LOG.info(m));
+      progress.steps(end - start, m -> LOG.info(m));
     }
     LOG.info(progress.completeMessage());
   }
@@ -152,12 +173,18 @@ public class StreetLinkerModule implements GraphBuilderModule {
 
   private void linkTransitEntrances(Graph graph) {
     LOG.info("Linking transit entrances to graph...");
-    for (TransitEntranceVertex tEntrance : graph.getVerticesOfType(TransitEntranceVertex.class)) {
+    List<TransitEntranceVertex> vertices = graph.getVerticesOfType(TransitEntranceVertex.class);
+    List<TraverseModeSet> modes = Collections.nCopies(
+      vertices.size(),
+      new TraverseModeSet(TraverseMode.WALK)
+    );
+    for (int start = 0; start < vertices.size(); start += LINKING_BATCH_SIZE) {
+      int end = Math.min(start + LINKING_BATCH_SIZE, vertices.size());
       graph
         .getLinker()
-        .linkVertexPermanently(
-          tEntrance,
-          new TraverseModeSet(TraverseMode.WALK),
+        .linkVerticesPermanently(
+          vertices.subList(start, end),
+          modes.subList(start, end),
           LinkingDirection.BOTH_WAYS,
           (vertex, streetVertex) ->
             List.of(
@@ -0,0 +1,426 @@
+package org.opentripplanner.graph_builder.module;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
+import org.opentripplanner.graph_builder.issues.Graphwide;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.PathTransfer;
+import org.opentripplanner.model.Stop;
+import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.routing.algorithm.raptoradapter.transit.Transfer;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.edgetype.StreetEdge;
+import org.opentripplanner.routing.graph.Edge;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
+import org.opentripplanner.routing.vertextype.TransitStopVertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of the transfers found by the {@link DirectTransferGenerator}, which can be written to
+ * disk and reused by the next graph build. This makes rebuilding a graph after a transit data
+ * update much faster, since most stops and the streets around them are unchanged.
+ * <p>
+ * The transfers of a stop only depend on the graph within the search radius of the stop. The
+ * graph is divided into cells, and a hash is computed for each cell from the vertices in it: their
+ * position, the outgoing edges with their end points, lengths and traversal permissions, and for
+ * transit stops the stop id and the patterns visiting the stop. The cached transfers of a stop are
+ * used only if the stop and all cells within the search radius are unchanged, together with the
+ * transfer requests. A stop that is added or moved will change the cells around it, so the
+ * transfers of the stops nearby are calculated again, while the rest are reused.
+ * <p>
+ * The edges of a cached transfer are stored as a list of steps, each with the edge type and the
+ * position of the vertex it leads to. When a transfer is reused the steps are followed through the
+ * new graph, starting at the stop, to find the edges. If this fails for some reason the transfers
+ * of the stop are calculated again.
+ * <p>
+ * The cache is thread-safe after it is created.
+ */
+class TransferCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TransferCache.class);
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  /** The size of the cells used to detect changes in the graph, about 1 km north-south. */
+  private static final double CELL_SIZE_DEGREES = 0.01;
+
+  private final Map<FeedScopedId, CachedStop> previous;
+
+  private final Map<FeedScopedId, CachedStop> current = new ConcurrentHashMap<>();
+
+  private final Graph graph;
+
+  private final double radiusMeters;
+
+  private final String requestsHash;
+
+  private final Map<Long, Long> cellHashes;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  TransferCache(
+    Map<FeedScopedId, CachedStop> previous,
+    Graph graph,
+    Duration radiusByDuration,
+    List<RoutingRequest> transferRequests,
+    boolean useStreets
+  ) {
+    this.previous = previous;
+    this.graph = graph;
+    this.radiusMeters = radiusByDuration.toSeconds() * maxSpeed(transferRequests);
+    this.requestsHash = hashRequests(radiusByDuration, transferRequests, useStreets);
+    this.cellHashes = hashCells(graph);
+  }
+
+  /**
+   * Read the transfers cached by a previous graph build. An empty cache is returned if the file
+   * does not exist or could not be read.
+   */
+  @SuppressWarnings("unchecked")
+  static Map<FeedScopedId, CachedStop> read(File file, DataImportIssueStore issueStore) {
+    if (!file.exists()) {
+      LOG.info("No cached transfers found at {}.", file.getAbsolutePath());
+      return Map.of();
+    }
+    try (
+      var in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))
+    ) {
+      var cachedStops = (HashMap<FeedScopedId, CachedStop>) in.readObject();
+      LOG.info("Read cached transfers for {} stops.", cachedStops.size());
+      return cachedStops;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      issueStore.add(
+        new Graphwide(
+          String.format("Cached transfers file could not be read in due to error: %s!", e)
+        )
+      );
+      return Map.of();
+    }
+  }
+
+  /**
+   * Write the transfers of all stops in this build, reused or calculated, to the given file.
+   */
+  void write(File file, DataImportIssueStore issueStore) {
+    try (
+      var out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file)))
+    ) {
+      out.writeObject(new HashMap<>(current));
+    } catch (IOException e) {
+      issueStore.add(new Graphwide("Failed to write cached transfers file: " + e.getMessage()));
+    }
+  }
+
+  /**
+   * @return the cached transfers of the stop, or {@code null} if they must be calculated.
+   */
+  List<PathTransfer> get(TransitStopVertex vertex) {
+    Stop stop = vertex.getStop();
+    CachedStop cachedStop = previous.get(stop.getId());
+    String neighbourhoodHash = hashNeighbourhood(vertex);
+
+    if (cachedStop == null || !cachedStop.neighbourhoodHash().equals(neighbourhoodHash)) {
+      misses.increment();
+      return null;
+    }
+    List<PathTransfer> transfers = new ArrayList<>(cachedStop.transfers().size());
+    for (CachedTransfer cachedTransfer : cachedStop.transfers()) {
+      PathTransfer transfer = cachedTransfer.resolve(vertex, graph);
+      if (transfer == null) {
+        misses.increment();
+        return null;
+      }
+      transfers.add(transfer);
+    }
+    current.put(stop.getId(), cachedStop);
+    hits.increment();
+    return transfers;
+  }
+
+  /**
+   * Add the calculated transfers of a stop to the cache.
+   */
+  void put(TransitStopVertex vertex, Collection<PathTransfer> transfers) {
+    List<CachedTransfer> cachedTransfers = new ArrayList<>(transfers.size());
+    for (PathTransfer transfer : transfers) {
+      cachedTransfers.add(CachedTransfer.of(transfer));
+    }
+    current.put(
+      vertex.getStop().getId(),
+      new CachedStop(hashNeighbourhood(vertex), cachedTransfers)
+    );
+  }
+
+  void logStatistics() {
+    LOG.info("Reused cached transfers for {} stops, calculated {} stops.", hits, misses);
+  }
+
+  /**
+   * The fastest speed any of the transfer requests may travel at, used to find the cells a
+   * transfer search may reach.
+   */
+  private static double maxSpeed(List<RoutingRequest> transferRequests) {
+    double maxSpeed = new RoutingRequest().walkSpeed;
+    for (RoutingRequest transferRequest : transferRequests) {
+      RoutingRequest request = Transfer.prepareTransferRoutingRequest(transferRequest);
+      maxSpeed = Math.max(maxSpeed, request.walkSpeed);
+      if (request.streetSubRequestModes.getBicycle()) {
+        maxSpeed = Math.max(maxSpeed, request.bikeSpeed);
+      }
+      if (request.streetSubRequestModes.getCar()) {
+        maxSpeed = Math.max(maxSpeed, request.carSpeed);
+      }
+    }
+    return maxSpeed;
+  }
+
+  /**
+   * Hash the parameters of the transfer requests that may change the transfers found. These are
+   * the same parameters the transfers are cached by in the router.
+   */
+  private static String hashRequests(
+    Duration radiusByDuration,
+    List<RoutingRequest> transferRequests,
+    boolean useStreets
+  ) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putLong(radiusByDuration.toSeconds());
+    hasher.putBoolean(useStreets);
+    for (RoutingRequest transferRequest : transferRequests) {
+      RoutingRequest rr = Transfer.prepareTransferRoutingRequest(transferRequest);
+      hasher.putUnencodedChars(String.valueOf(rr.modes.transferMode));
+      hasher.putUnencodedChars(rr.streetSubRequestModes.toString());
+      hasher.putUnencodedChars(String.valueOf(rr.bicycleOptimizeType));
+      hasher.putDouble(rr.bikeTriangleSafetyFactor);
+      hasher.putDouble(rr.bikeTriangleSlopeFactor);
+      hasher.putDouble(rr.bikeTriangleTimeFactor);
+      hasher.putBoolean(rr.wheelchairAccessibility.enabled());
+      hasher.putDouble(rr.maxWheelchairSlope);
+      hasher.putDouble(rr.wheelchairSlopeTooSteepCostFactor);
+      hasher.putDouble(rr.walkSpeed);
+      hasher.putDouble(rr.bikeSpeed);
+      hasher.putDouble(rr.carSpeed);
+      hasher.putDouble(rr.walkReluctance);
+      hasher.putDouble(rr.stairsReluctance);
+      hasher.putDouble(rr.stairsTimeFactor);
+      hasher.putDouble(rr.turnReluctance);
+      hasher.putInt(rr.elevatorBoardCost);
+      hasher.putInt(rr.elevatorBoardTime);
+      hasher.putInt(rr.elevatorHopCost);
+      hasher.putInt(rr.elevatorHopTime);
+      hasher.putInt(rr.bikeSwitchCost);
+      hasher.putInt(rr.bikeSwitchTime);
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Compute the hash of each cell of the graph. The hashes of the vertices in a cell are added
+   * together, so the result does not depend on the order of the vertices.
+   */
+  private static Map<Long, Long> hashCells(Graph graph) {
+    Map<Long, Long> cellHashes = new ConcurrentHashMap<>();
+    graph
+      .getVertices()
+      .parallelStream()
+      .forEach(v -> cellHashes.merge(cell(v.getX(), v.getY()), hashVertex(graph, v), Long::sum));
+    return cellHashes;
+  }
+
+  /**
+   * The vertex labels are not used, as the labels of the vertices created when splitting streets
+   * are not stable between graph builds.
+   */
+  private static long hashVertex(Graph graph, Vertex vertex) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putUnencodedChars(vertex.getClass().getSimpleName());
+    hasher.putDouble(vertex.getX());
+    hasher.putDouble(vertex.getY());
+
+    if (vertex instanceof TransitStopVertex stopVertex) {
+      Stop stop = stopVertex.getStop();
+      hasher.putUnencodedChars(stop.getId().toString());
+      hasher.putUnencodedChars(String.valueOf(stop.getWheelchairBoarding()));
+      // The patterns are added together, as the order of them is not stable
+      long patternsHash = 0;
+      for (TripPattern pattern : graph.index.getPatternsForStop(stop)) {
+        patternsHash += HASH_FUNCTION.hashUnencodedChars(pattern.semanticHashString(null)).asLong();
+      }
+      hasher.putLong(patternsHash);
+    }
+
+    long hash = hasher.hash().asLong();
+    for (Edge edge : vertex.getOutgoing()) {
+      hash += hashEdge(edge);
+    }
+    return hash;
+  }
+
+  private static long hashEdge(Edge edge) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putUnencodedChars(edge.getClass().getSimpleName());
+    hasher.putDouble(edge.getToVertex().getX());
+    hasher.putDouble(edge.getToVertex().getY());
+    hasher.putDouble(edge.getDistanceMeters());
+    hasher.putDouble(edge.getEffectiveWalkDistance());
+    hasher.putInt(edge.getDistanceIndependentTime());
+
+    if (edge instanceof StreetEdge streetEdge) {
+      hasher.putUnencodedChars(streetEdge.getPermission().name());
+      hasher.putBoolean(streetEdge.isWheelchairAccessible());
+      hasher.putBoolean(streetEdge.isStairs());
+      hasher.putBoolean(streetEdge.isWalkNoThruTraffic());
+      hasher.putBoolean(streetEdge.isBicycleNoThruTraffic());
+      hasher.putBoolean(streetEdge.isMotorVehicleNoThruTraffic());
+      hasher.putFloat(streetEdge.getBicycleSafetyFactor());
+      hasher.putFloat(streetEdge.getCarSpeed());
+      hasher.putFloat(streetEdge.getMaxSlope());
+      hasher.putDouble(streetEdge.getEffectiveBikeDistance());
+    }
+    return hasher.hash().asLong();
+  }
+
+  private String hashNeighbourhood(TransitStopVertex vertex) {
+    double dLat = SphericalDistanceLibrary.metersToDegrees(radiusMeters);
+    double dLon = SphericalDistanceLibrary.metersToLonDegrees(radiusMeters, vertex.getLat());
+
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    hasher.putUnencodedChars(requestsHash);
+    hasher.putUnencodedChars(vertex.getStop().getId().toString());
+    hasher.putDouble(vertex.getX());
+    hasher.putDouble(vertex.getY());
+
+    long minX = cellIndex(vertex.getX() - dLon);
+    long maxX = cellIndex(vertex.getX() + dLon);
+    long minY = cellIndex(vertex.getY() - dLat);
+    long maxY = cellIndex(vertex.getY() + dLat);
+    for (long x = minX; x <= maxX; ++x) {
+      for (long y = minY; y <= maxY; ++y) {
+        hasher.putLong(cellHashes.getOrDefault(cell(x, y), 0L));
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  private static long cellIndex(double degrees) {
+    return (long) Math.floor(degrees / CELL_SIZE_DEGREES);
+  }
+
+  private static long cell(double x, double y) {
+    return cell(cellIndex(x), cellIndex(y));
+  }
+
+  private static long cell(long x, long y) {
+    return (x << 32) | (y & 0xffffffffL);
+  }
+
+  /**
+   * The cached transfers of a stop, valid as long as the neighbourhood hash is unchanged.
+   */
+  record CachedStop(String neighbourhoodHash, List<CachedTransfer> transfers)
+    implements Serializable {}
+
+  /**
+   * A transfer from the stop it is cached for.
+   *
+   * @param steps The edges of the transfer, or {@code null} for straight-line transfers.
+   */
+  record CachedTransfer(FeedScopedId to, double distance, List<CachedStep> steps)
+    implements Serializable {
+    static CachedTransfer of(PathTransfer transfer) {
+      List<CachedStep> steps = null;
+      if (transfer.getEdges() != null) {
+        steps = new ArrayList<>(transfer.getEdges().size());
+        for (Edge edge : transfer.getEdges()) {
+          steps.add(CachedStep.of(edge));
+        }
+      }
+      return new CachedTransfer(transfer.to.getId(), transfer.getDistanceMeters(), steps);
+    }
+
+    /**
+     * Find the stop and the edges of the transfer in the given graph.
+     *
+     * @return the transfer, or {@code null} if the transfer does not exist in the graph.
+     */
+    PathTransfer resolve(TransitStopVertex from, Graph graph) {
+      StopLocation toStop = graph.index.getStopForId(to);
+      if (!(toStop instanceof Stop)) {
+        return null;
+      }
+      if (steps == null) {
+        return new PathTransfer(from.getStop(), toStop, distance, null);
+      }
+      List<Edge> edges = new ArrayList<>(steps.size());
+      Vertex vertex = from;
+      for (CachedStep step : steps) {
+        Edge edge = step.follow(vertex);
+        if (edge == null) {
+          return null;
+        }
+        edges.add(edge);
+        vertex = edge.getToVertex();
+      }
+      if (vertex != graph.index.getStopVertexForStop().get(toStop)) {
+        return null;
+      }
+      return new PathTransfer(from.getStop(), toStop, distance, edges);
+    }
+  }
+
+  /**
+   * An edge of a cached transfer, identified by its type, length and the vertex it leads to.
+   */
+  record CachedStep(String edgeType, double toX, double toY, double distance)
+    implements Serializable {
+    static CachedStep of(Edge edge) {
+      Vertex to = edge.getToVertex();
+      return new CachedStep(
+        edge.getClass().getSimpleName(),
+        to.getX(),
+        to.getY(),
+        edge.getDistanceMeters()
+      );
+    }
+
+    Edge follow(Vertex from) {
+      for (Edge edge : from.getOutgoing()) {
+        Vertex to = edge.getToVertex();
+        if (
+          to.getX() == toX &&
+          to.getY() == toY &&
+          edge.getDistanceMeters() == distance &&
+          edge.getClass().getSimpleName().equals(edgeType)
+        ) {
+          return edge;
+        }
+      }
+      return null;
+    }
+  }
+}
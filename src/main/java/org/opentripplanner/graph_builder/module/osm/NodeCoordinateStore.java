@@ -0,0 +1,199 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import java.util.Arrays;
+
+/**
+ * A compact store for the coordinates of OSM nodes without tags, which is most of the nodes
+ * referenced by ways. The nodes are kept in three primitive arrays (id, lat and lon), 24 bytes per
+ * node, instead of an {@link org.opentripplanner.openstreetmap.model.OSMNode} object and a hash map
+ * entry for each node.
+ * <p>
+ * Nodes are appended while loading, and the arrays are sorted by id before the first lookup after
+ * an append. Lookups are binary searches. PBF files are usually sorted by node id, in which case
+ * no sorting is needed.
+ * <p>
+ * This class is not thread-safe.
+ */
+class NodeCoordinateStore {
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** Below this size a range is sorted with insertion sort */
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  private long[] ids = new long[INITIAL_CAPACITY];
+  private double[] lats = new double[INITIAL_CAPACITY];
+  private double[] lons = new double[INITIAL_CAPACITY];
+  private int size = 0;
+  private boolean sorted = true;
+
+  void add(long id, double lat, double lon) {
+    if (size == ids.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, ids.length + (ids.length >> 1));
+      ids = Arrays.copyOf(ids, capacity);
+      lats = Arrays.copyOf(lats, capacity);
+      lons = Arrays.copyOf(lons, capacity);
+    }
+    if (size > 0 && id <= ids[size - 1]) {
+      sorted = false;
+    }
+    ids[size] = id;
+    lats[size] = lat;
+    lons[size] = lon;
+    ++size;
+  }
+
+  /**
+   * @return the index of the node, to be used with {@link #lat(int)} and {@link #lon(int)}, or a
+   * negative number if the node does not exist.
+   */
+  int indexOf(long id) {
+    ensureSorted();
+    return Arrays.binarySearch(ids, 0, size, id);
+  }
+
+  boolean contains(long id) {
+    return indexOf(id) >= 0;
+  }
+
+  double lat(int index) {
+    return lats[index];
+  }
+
+  double lon(int index) {
+    return lons[index];
+  }
+
+  int size() {
+    ensureSorted();
+    return size;
+  }
+
+  /**
+   * Release the unused capacity of the arrays. Call this when all nodes are loaded.
+   */
+  void trimToSize() {
+    ensureSorted();
+    ids = Arrays.copyOf(ids, size);
+    lats = Arrays.copyOf(lats, size);
+    lons = Arrays.copyOf(lons, size);
+  }
+
+  private void ensureSorted() {
+    if (sorted) {
+      return;
+    }
+    sortByIdAndInsertOrder();
+    removeDuplicates();
+    sorted = true;
+  }
+
+  /**
+   * The same node may be loaded from more than one file. Keep the first one added, like the
+   * tagged nodes in {@link OSMDatabase}. The nodes are sorted by id and then by the order they were
+   * added, so the first one added comes first.
+   */
+  private void removeDuplicates() {
+    if (size == 0) {
+      return;
+    }
+    int n = 1;
+    for (int i = 1; i < size; ++i) {
+      if (ids[i] != ids[n - 1]) {
+        ids[n] = ids[i];
+        lats[n] = lats[i];
+        lons[n] = lons[i];
+        ++n;
+      }
+    }
+    size = n;
+  }
+
+  /**
+   * Sort the nodes by id, nodes with the same id are kept in the order they were added. The
+   * indexes of the nodes are sorted, and the arrays are then rearranged in that order.
+   */
+  private void sortByIdAndInsertOrder() {
+    int[] order = new int[size];
+    for (int i = 0; i < size; ++i) {
+      order[i] = i;
+    }
+    sort(order, 0, size - 1);
+
+    long[] sortedIds = new long[ids.length];
+    double[] sortedLats = new double[lats.length];
+    double[] sortedLons = new double[lons.length];
+    for (int i = 0; i < size; ++i) {
+      sortedIds[i] = ids[order[i]];
+      sortedLats[i] = lats[order[i]];
+      sortedLons[i] = lons[order[i]];
+    }
+    ids = sortedIds;
+    lats = sortedLats;
+    lons = sortedLons;
+  }
+
+  /**
+   * Quicksort of the node indexes by id and index. Recurse into the smaller partition to limit the
+   * stack depth.
+   */
+  private void sort(int[] order, int from, int to) {
+    while (to - from >= INSERTION_SORT_THRESHOLD) {
+      int pivot = order[medianOfThree(order, from, from + (to - from) / 2, to)];
+      int i = from;
+      int j = to;
+      while (i <= j) {
+        while (compare(order[i], pivot) < 0) {
+          ++i;
+        }
+        while (compare(order[j], pivot) > 0) {
+          --j;
+        }
+        if (i <= j) {
+          swap(order, i++, j--);
+        }
+      }
+      if (j - from < to - i) {
+        sort(order, from, j);
+        from = i;
+      } else {
+        sort(order, i, to);
+        to = j;
+      }
+    }
+    insertionSort(order, from, to);
+  }
+
+  private void insertionSort(int[] order, int from, int to) {
+    for (int i = from + 1; i <= to; ++i) {
+      for (int j = i; j > from && compare(order[j - 1], order[j]) > 0; --j) {
+        swap(order, j, j - 1);
+      }
+    }
+  }
+
+  private int medianOfThree(int[] order, int a, int b, int c) {
+    if (compare(order[a], order[b]) < 0) {
+      if (compare(order[b], order[c]) < 0) {
+        return b;
+      }
+      return compare(order[a], order[c]) < 0 ? c : a;
+    }
+    if (compare(order[a], order[c]) < 0) {
+      return a;
+    }
+    return compare(order[b], order[c]) < 0 ? c : b;
+  }
+
+  /** Compare two nodes by id, and then by the order they were added */
+  private int compare(int i, int j) {
+    int c = Long.compare(ids[i], ids[j]);
+    return c != 0 ? c : Integer.compare(i, j);
+  }
+
+  private static void swap(int[] order, int i, int j) {
+    int tmp = order[i];
+    order[i] = order[j];
+    order[j] = tmp;
+  }
+}
@@ -56,9 +56,12 @@ public class OSMDatabase {
 
   private final DataImportIssueStore issueStore;
 
-  /* Map of all nodes used in ways/areas keyed by their OSM ID */
+  /* Map of all tagged and virtual nodes used in ways/areas keyed by their OSM ID */
   private final TLongObjectMap<OSMNode> nodesById = new TLongObjectHashMap<>();
 
+  /* Coordinates of all untagged nodes used in ways/areas */
+  private final NodeCoordinateStore untaggedNodes = new NodeCoordinateStore();
+
   /* Map of all bike parking nodes, keyed by their OSM ID */
   private final TLongObjectMap<OSMNode> bikeParkingNodes = new TLongObjectHashMap<>();
 
@@ -138,8 +141,24 @@ public class OSMDatabase {
     this.boardingAreaRefTags = boardingAreaRefTags;
   }
 
+  /**
+   * Untagged nodes are only stored as coordinates, a new {@link OSMNode} instance is returned for
+   * each call. {@link OSMNode}s are equal if they have the same id.
+   */
   public OSMNode getNode(Long nodeId) {
-    return nodesById.get(nodeId);
+    OSMNode node = nodesById.get(nodeId);
+    if (node != null) {
+      return node;
+    }
+    int index = untaggedNodes.indexOf(nodeId);
+    if (index < 0) {
+      return null;
+    }
+    node = new OSMNode();
+    node.setId(nodeId);
+    node.lat = untaggedNodes.lat(index);
+    node.lon = untaggedNodes.lon(index);
+    return node;
   }
 
   public OSMWay getWay(Long nodeId) {
@@ -155,7 +174,7 @@ public class OSMDatabase {
   }
 
   public int nodeCount() {
-    return nodesById.size();
+    return nodesById.size() + untaggedNodes.size();
   }
 
   public int wayCount() {
@@ -240,10 +259,11 @@ public class OSMDatabase {
       return;
     }
 
-    nodesById.put(node.getId(), node);
-
-    if (nodesById.size() % 100000 == 0) {
-      LOG.debug("nodes=" + nodesById.size());
+    // Duplicates of untagged nodes are removed by the store, checking here would force a sort
+    if (node.getTags() == null || node.getTags().isEmpty()) {
+      untaggedNodes.add(node.getId(), node.lat, node.lon);
+    } else {
+      nodesById.put(node.getId(), node);
     }
   }
 
@@ -382,6 +402,8 @@ public class OSMDatabase {
    * and nodes are loaded, handle areas.
    */
   public void doneThirdPhaseNodes() {
+    untaggedNodes.trimToSize();
+    LOG.debug("nodes={}", nodeCount());
     processMultipolygonRelations();
     processSingleWayAreas();
   }
@@ -440,8 +462,8 @@ public class OSMDatabase {
 
       // For each segment of the way
       for (int i = 0; i < way.getNodeRefs().size() - 1; i++) {
-        OSMNode nA = nodesById.get(way.getNodeRefs().get(i));
-        OSMNode nB = nodesById.get(way.getNodeRefs().get(i + 1));
+        OSMNode nA = getNode(way.getNodeRefs().get(i));
+        OSMNode nB = getNode(way.getNodeRefs().get(i + 1));
         if (nA == null || nB == null) {
           continue;
         }
@@ -734,6 +756,10 @@ public class OSMDatabase {
     }
   }
 
+  private boolean containsNode(long nodeId) {
+    return nodesById.containsKey(nodeId) || untaggedNodes.contains(nodeId);
+  }
+
   private void markNodesForKeeping(Collection<OSMWay> osmWays, TLongSet nodeSet) {
     for (OSMWay way : osmWays) {
       // Since the way is kept, update nodes-with-neighbors
@@ -755,12 +781,12 @@ public class OSMDatabase {
       TLongIterator longIterator = way.getNodeRefs().iterator();
       while (longIterator.hasNext()) {
         long nodeRef = longIterator.next();
-        if (!nodesById.containsKey(nodeRef)) {
+        if (!containsNode(nodeRef)) {
           continue AREA;
         }
       }
       try {
-        newArea(new Area(way, List.of(way), Collections.emptyList(), nodesById));
+        newArea(new Area(way, List.of(way), Collections.emptyList(), this::getNode));
       } catch (Area.AreaConstructionException | Ring.RingConstructionException e) {
         // this area cannot be constructed, but we already have all the
         // necessary nodes to construct it. So, something must be wrong with
@@ -810,7 +836,7 @@ public class OSMDatabase {
         TLongIterator wayNodeIterator = way.getNodeRefs().iterator();
         while (wayNodeIterator.hasNext()) {
           long nodeId = wayNodeIterator.next();
-          if (nodesById.containsKey(nodeId)) {
+          if (containsNode(nodeId)) {
             MapUtils.addToMapSet(areasForNode, nodeId, way);
           } else {
             // this area is missing some nodes, perhaps because it is on
@@ -828,7 +854,7 @@ public class OSMDatabase {
       }
       processedAreas.add(relation);
       try {
-        newArea(new Area(relation, outerWays, innerWays, nodesById));
+        newArea(new Area(relation, outerWays, innerWays, this::getNode));
       } catch (Area.AreaConstructionException | Ring.RingConstructionException e) {
         issueStore.add("InvalidGeometry", "Invalid geometry for osm relation %s", relation.getId());
         continue;
@@ -1163,8 +1189,8 @@ public class OSMDatabase {
         } else {
           issueStore.add(new TooManyAreasInRelation(relation.getId()));
         }
-      } else if ("node".equals(member.getType()) && nodesById.containsKey(member.getRef())) {
-        platformsNodes.add(nodesById.get(member.getRef()));
+      } else if ("node".equals(member.getType()) && containsNode(member.getRef())) {
+        platformsNodes.add(getNode(member.getRef()));
       }
     }
     if (platformArea != null && !platformsNodes.isEmpty()) {
@@ -2,7 +2,9 @@ package org.opentripplanner.graph_builder.module.osm;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.opentripplanner.common.model.P2;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
@@ -110,6 +112,24 @@ public class OSMSpecifier {
     return builder.toString();
   }
 
+  /**
+   * The keys of all tags which can change the score of this specifier, including the ":left" and
+   * ":right" variants used by {@link #matchScores(OSMWithTags)}. The keys are in lower case.
+   */
+  public Set<String> getTagKeys() {
+    Set<String> keys = new HashSet<>();
+    for (P2<String> pair : logicalANDPairs) {
+      String tag = pair.first.toLowerCase();
+      keys.add(tag);
+      keys.add(tag + ":left");
+      keys.add(tag + ":right");
+    }
+    for (P2<String> pair : logicalORPairs) {
+      keys.add(pair.first.toLowerCase());
+    }
+    return keys;
+  }
+
   public boolean containsLogicalOr() {
     return !logicalORPairs.isEmpty();
   }
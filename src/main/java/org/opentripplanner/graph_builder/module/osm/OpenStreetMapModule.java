@@ -213,6 +213,9 @@ public class OpenStreetMapModule implements GraphBuilderModule {
 
     private static final String levelnodeLabelFormat = nodeLabelFormat + ":level:%s";
 
+    /** The number of ways which are prepared in parallel before their edges are created */
+    private static final int WAY_BATCH_SIZE = 10_000;
+
     private final Graph graph;
 
     private final OSMDatabase osmdb;
@@ -272,6 +275,8 @@ public class OpenStreetMapModule implements GraphBuilderModule {
       extra.put(ElevationPoint.class, elevationData);
 
       applyBikeSafetyFactor(graph);
+
+      wayPropertySet.logMatchCacheStatistics();
     } // END buildGraph()
 
     // TODO Set this to private once WalkableAreaBuilder is gone
@@ -864,166 +869,206 @@ public class OpenStreetMapModule implements GraphBuilderModule {
       ProgressTracker progress = ProgressTracker.track("Build street graph", 5_000, wayCount);
       LOG.info(progress.startMessage());
 
-      WAY:for (OSMWay way : osmdb.getWays()) {
-        if (wayIndex % 10000 == 0) LOG.debug("ways=" + wayIndex + "/" + wayCount);
-        wayIndex++;
+      // The tags of the ways are matched in parallel, one batch at a time. The vertices and edges
+      // are created on this thread, in the order of the ways, so the graph does not depend on the
+      // number of threads.
+      List<OSMWay> ways = new ArrayList<>(osmdb.getWays());
+      for (int batchStart = 0; batchStart < ways.size(); batchStart += WAY_BATCH_SIZE) {
+        List<PreparedWay> batch = ways
+          .subList(batchStart, Math.min(batchStart + WAY_BATCH_SIZE, ways.size()))
+          .parallelStream()
+          .map(this::prepareWay)
+          .collect(Collectors.toList());
 
-        WayProperties wayData = wayPropertySet.getDataForWay(way);
+        for (PreparedWay preparedWay : batch) {
+          OSMWay way = preparedWay.way();
+          if (wayIndex % 10000 == 0) LOG.debug("ways=" + wayIndex + "/" + wayCount);
+          wayIndex++;
 
-        setWayName(way);
+          WayProperties wayData = preparedWay.wayData();
 
-        StreetTraversalPermission permissions = OSMFilter.getPermissionsForWay(
-          way,
-          wayData.getPermission(),
-          banDiscouragedWalking,
-          banDiscouragedBiking,
-          issueStore
-        );
-        if (!OSMFilter.isWayRoutable(way) || permissions.allowsNothing()) continue;
-
-        // handle duplicate nodes in OSM ways
-        // this is a workaround for crappy OSM data quality
-        ArrayList<Long> nodes = new ArrayList<>(way.getNodeRefs().size());
-        long last = -1;
-        double lastLat = -1, lastLon = -1;
-        String lastLevel = null;
-        for (TLongIterator iter = way.getNodeRefs().iterator(); iter.hasNext();) {
-          long nodeId = iter.next();
-          OSMNode node = osmdb.getNode(nodeId);
-          if (node == null) continue WAY;
-          boolean levelsDiffer = false;
-          String level = node.getTag("level");
-          if (lastLevel == null) {
-            if (level != null) {
-              levelsDiffer = true;
-            }
-          } else {
-            if (!lastLevel.equals(level)) {
-              levelsDiffer = true;
-            }
-          }
-          if (
-            nodeId != last && (node.lat != lastLat || node.lon != lastLon || levelsDiffer)
-          ) nodes.add(nodeId);
-          last = nodeId;
-          lastLon = node.lon;
-          lastLat = node.lat;
-          lastLevel = level;
-        }
+          StreetTraversalPermission permissions = OSMFilter.getPermissionsForWay(
+            way,
+            wayData.getPermission(),
+            banDiscouragedWalking,
+            banDiscouragedBiking,
+            issueStore
+          );
+          if (!OSMFilter.isWayRoutable(way) || permissions.allowsNothing()) continue;
 
-        OsmVertex startEndpoint = null;
-        OsmVertex endEndpoint = null;
+          // One of the nodes of the way is missing
+          if (preparedWay.nodes() == null) continue;
 
-        ArrayList<Coordinate> segmentCoordinates = new ArrayList<>();
+          List<Long> nodes = preparedWay.nodes();
 
-        /*
-         * Traverse through all the nodes of this edge. For nodes which are not shared with any other edge, do not create endpoints -- just
-         * accumulate them for geometry and ele tags. For nodes which are shared, create endpoints and StreetVertex instances. One exception:
-         * if the next vertex also appears earlier in the way, we need to split the way, because otherwise we have a way that loops from a
-         * vertex to itself, which could cause issues with splitting.
-         */
-        Long startNode = null;
-        // where the current edge should start
-        OSMNode osmStartNode = null;
+          OsmVertex startEndpoint = null;
+          OsmVertex endEndpoint = null;
 
-        for (int i = 0; i < nodes.size() - 1; i++) {
-          OSMNode segmentStartOSMNode = osmdb.getNode(nodes.get(i));
+          ArrayList<Coordinate> segmentCoordinates = new ArrayList<>();
 
-          if (segmentStartOSMNode == null) {
-            continue;
-          }
+          /*
+           * Traverse through all the nodes of this edge. For nodes which are not shared with any other edge, do not create endpoints -- just
+           * accumulate them for geometry and ele tags. For nodes which are shared, create endpoints and StreetVertex instances. One exception:
+           * if the next vertex also appears earlier in the way, we need to split the way, because otherwise we have a way that loops from a
+           * vertex to itself, which could cause issues with splitting.
+           */
+          Long startNode = null;
+          // where the current edge should start
+          OSMNode osmStartNode = null;
 
-          Long endNode = nodes.get(i + 1);
+          for (int i = 0; i < nodes.size() - 1; i++) {
+            OSMNode segmentStartOSMNode = osmdb.getNode(nodes.get(i));
 
-          if (osmStartNode == null) {
-            startNode = nodes.get(i);
-            osmStartNode = segmentStartOSMNode;
-          }
-          // where the current edge might end
-          OSMNode osmEndNode = osmdb.getNode(endNode);
+            if (segmentStartOSMNode == null) {
+              continue;
+            }
 
-          LineString geometry;
+            Long endNode = nodes.get(i + 1);
 
-          /*
-           * We split segments at intersections, self-intersections, nodes with ele tags, and transit stops;
-           * the only processing we do on other nodes is to accumulate their geometry
-           */
-          if (segmentCoordinates.size() == 0) {
-            segmentCoordinates.add(getCoordinate(osmStartNode));
-          }
+            if (osmStartNode == null) {
+              startNode = nodes.get(i);
+              osmStartNode = segmentStartOSMNode;
+            }
+            // where the current edge might end
+            OSMNode osmEndNode = osmdb.getNode(endNode);
 
-          if (
-            intersectionNodes.containsKey(endNode) ||
-            i == nodes.size() - 2 ||
-            nodes.subList(0, i).contains(nodes.get(i)) ||
-            osmEndNode.hasTag("ele") ||
-            osmEndNode.isBoardingLocation() ||
-            osmEndNode.isBarrier()
-          ) {
-            segmentCoordinates.add(getCoordinate(osmEndNode));
-
-            geometry =
-              GeometryUtils
-                .getGeometryFactory()
-                .createLineString(segmentCoordinates.toArray(new Coordinate[0]));
-            segmentCoordinates.clear();
-          } else {
-            segmentCoordinates.add(getCoordinate(osmEndNode));
-            continue;
-          }
+            LineString geometry;
+
+            /*
+             * We split segments at intersections, self-intersections, nodes with ele tags, and transit stops;
+             * the only processing we do on other nodes is to accumulate their geometry
+             */
+            if (segmentCoordinates.size() == 0) {
+              segmentCoordinates.add(getCoordinate(osmStartNode));
+            }
+
+            if (
+              intersectionNodes.containsKey(endNode) ||
+              i == nodes.size() - 2 ||
+              nodes.subList(0, i).contains(nodes.get(i)) ||
+              osmEndNode.hasTag("ele") ||
+              osmEndNode.isBoardingLocation() ||
+              osmEndNode.isBarrier()
+            ) {
+              segmentCoordinates.add(getCoordinate(osmEndNode));
+
+              geometry =
+                GeometryUtils
+                  .getGeometryFactory()
+                  .createLineString(segmentCoordinates.toArray(new Coordinate[0]));
+              segmentCoordinates.clear();
+            } else {
+              segmentCoordinates.add(getCoordinate(osmEndNode));
+              continue;
+            }
+
+            /* generate endpoints */
+            if (startEndpoint == null) { // first iteration on this way
+              // make or get a shared vertex for flat intersections,
+              // one vertex per level for multilevel nodes like elevators
+              startEndpoint = getVertexForOsmNode(osmStartNode, way);
+              String ele = segmentStartOSMNode.getTag("ele");
+              if (ele != null) {
+                Double elevation = ElevationUtils.parseEleTag(ele);
+                if (elevation != null) {
+                  elevationData.put(startEndpoint, elevation);
+                }
+              }
+            } else { // subsequent iterations
+              startEndpoint = endEndpoint;
+            }
 
-          /* generate endpoints */
-          if (startEndpoint == null) { // first iteration on this way
-            // make or get a shared vertex for flat intersections,
-            // one vertex per level for multilevel nodes like elevators
-            startEndpoint = getVertexForOsmNode(osmStartNode, way);
-            String ele = segmentStartOSMNode.getTag("ele");
+            endEndpoint = getVertexForOsmNode(osmEndNode, way);
+            String ele = osmEndNode.getTag("ele");
             if (ele != null) {
               Double elevation = ElevationUtils.parseEleTag(ele);
               if (elevation != null) {
-                elevationData.put(startEndpoint, elevation);
+                elevationData.put(endEndpoint, elevation);
               }
             }
-          } else { // subsequent iterations
-            startEndpoint = endEndpoint;
-          }
+            P2<StreetEdge> streets = getEdgesForStreet(
+              startEndpoint,
+              endEndpoint,
+              way,
+              i,
+              osmStartNode.getId(),
+              osmEndNode.getId(),
+              permissions,
+              geometry
+            );
 
-          endEndpoint = getVertexForOsmNode(osmEndNode, way);
-          String ele = osmEndNode.getTag("ele");
-          if (ele != null) {
-            Double elevation = ElevationUtils.parseEleTag(ele);
-            if (elevation != null) {
-              elevationData.put(endEndpoint, elevation);
-            }
-          }
-          P2<StreetEdge> streets = getEdgesForStreet(
-            startEndpoint,
-            endEndpoint,
-            way,
-            i,
-            osmStartNode.getId(),
-            osmEndNode.getId(),
-            permissions,
-            geometry
-          );
+            StreetEdge street = streets.first;
+            StreetEdge backStreet = streets.second;
+            applyWayProperties(street, backStreet, wayData, way);
 
-          StreetEdge street = streets.first;
-          StreetEdge backStreet = streets.second;
-          applyWayProperties(street, backStreet, wayData, way);
+            applyEdgesToTurnRestrictions(way, startNode, endNode, street, backStreet);
+            startNode = endNode;
+            osmStartNode = osmdb.getNode(startNode);
+          }
 
-          applyEdgesToTurnRestrictions(way, startNode, endNode, street, backStreet);
-          startNode = endNode;
-          osmStartNode = osmdb.getNode(startNode);
+          //Keep lambda! A method-ref would log incorrect class and line number
+          //noinspection Convert2MethodRef
+          progress.step(m -> LOG.info(m));
         }
-
-        //Keep lambda! A method-ref would log incorrect class and line number
-        //noinspection Convert2MethodRef
-        progress.step(m -> LOG.info(m));
       } // END loop over OSM ways
 
       LOG.info(progress.completeMessage());
     }
 
+    /**
+     * The part of building the streets of a way which only reads the OSM data: matching the way
+     * properties, generating the creative name and removing duplicate nodes. Each way is only
+     * touched by one thread, so this can run in parallel for a batch of ways.
+     */
+    private PreparedWay prepareWay(OSMWay way) {
+      WayProperties wayData = wayPropertySet.getDataForWay(way);
+
+      setWayName(way);
+
+      if (!OSMFilter.isWayRoutable(way)) {
+        return new PreparedWay(way, wayData, null);
+      }
+
+      // handle duplicate nodes in OSM ways
+      // this is a workaround for crappy OSM data quality
+      ArrayList<Long> nodes = new ArrayList<>(way.getNodeRefs().size());
+      long last = -1;
+      double lastLat = -1, lastLon = -1;
+      String lastLevel = null;
+      for (TLongIterator iter = way.getNodeRefs().iterator(); iter.hasNext();) {
+        long nodeId = iter.next();
+        OSMNode node = osmdb.getNode(nodeId);
+        if (node == null) {
+          return new PreparedWay(way, wayData, null);
+        }
+        boolean levelsDiffer = false;
+        String level = node.getTag("level");
+        if (lastLevel == null) {
+          if (level != null) {
+            levelsDiffer = true;
+          }
+        } else {
+          if (!lastLevel.equals(level)) {
+            levelsDiffer = true;
+          }
+        }
+        if (
+          nodeId != last && (node.lat != lastLat || node.lon != lastLon || levelsDiffer)
+        ) nodes.add(nodeId);
+        last = nodeId;
+        lastLon = node.lon;
+        lastLat = node.lat;
+        lastLevel = level;
+      }
+      return new PreparedWay(way, wayData, nodes);
+    }
+
+    /**
+     * @param nodes The nodes of the way without consecutive duplicates, or {@code null} if the way
+     *              is not routable or one of its nodes is missing.
+     */
+    private record PreparedWay(OSMWay way, WayProperties wayData, List<Long> nodes) {}
+
     private void setWayName(OSMWithTags way) {
       if (!way.hasTag("name")) {
         I18NString creativeName = wayPropertySet.getCreativeNameForWay(way);
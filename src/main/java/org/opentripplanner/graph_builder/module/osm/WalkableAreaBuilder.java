@@ -9,6 +9,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
@@ -73,6 +74,9 @@ public class WalkableAreaBuilder {
 
   private static final Logger LOG = LoggerFactory.getLogger(WalkableAreaBuilder.class);
 
+  /** Areas with at least this many visibility nodes are checked for visibility in parallel */
+  private static final int PARALLEL_VISIBILITY_THRESHOLD = 32;
+
   private final DataImportIssueStore issueStore;
 
   private final int maxAreaNodes;
@@ -308,24 +312,28 @@ public class WalkableAreaBuilder {
 
       createNamedAreas(edgeList, ring, group.areas);
 
-      for (OSMNode nodeI : visibilityNodes) {
-        IntersectionVertex startEndpoint = handler.getVertexForOsmNode(nodeI, areaEntity);
-        if (startingNodes.contains(nodeI)) {
+      List<OSMNode> nodes = new ArrayList<>(visibilityNodes);
+      List<IntersectionVertex> vertices = new ArrayList<>(nodes.size());
+      for (OSMNode node : nodes) {
+        vertices.add(handler.getVertexForOsmNode(node, areaEntity));
+      }
+      boolean[] visible = findVisibleNodePairs(
+        polygon,
+        nodes,
+        vertices,
+        alreadyAddedEdges,
+        geometryFactory
+      );
+
+      for (int i = 0; i < nodes.size(); ++i) {
+        IntersectionVertex startEndpoint = vertices.get(i);
+        if (startingNodes.contains(nodes.get(i))) {
           startingVertices.add(startEndpoint);
         }
 
-        for (OSMNode nodeJ : visibilityNodes) {
-          P2<OSMNode> nodePair = new P2<>(nodeI, nodeJ);
-          if (alreadyAddedEdges.contains(nodePair)) continue;
-
-          IntersectionVertex endEndpoint = handler.getVertexForOsmNode(nodeJ, areaEntity);
-
-          Coordinate[] coordinates = new Coordinate[] {
-            startEndpoint.getCoordinate(),
-            endEndpoint.getCoordinate(),
-          };
-          LineString line = geometryFactory.createLineString(coordinates);
-          if (polygon.contains(line)) {
+        for (int j = 0; j < nodes.size(); ++j) {
+          IntersectionVertex endEndpoint = vertices.get(j);
+          if (visible[i * nodes.size() + j]) {
             Set<AreaEdge> segments = createSegments(
               startEndpoint,
               endEndpoint,
@@ -346,6 +354,47 @@ public class WalkableAreaBuilder {
     pruneAreaEdges(startingVertices, edges, ringEdges);
   }
 
+  /**
+   * Check which pairs of visibility nodes can see each other, i.e. the straight line between them
+   * is inside the polygon. The number of checks is quadratic in the number of nodes, so for large
+   * areas they are done in parallel. Pairs which are already connected by a ring edge are not
+   * visible.
+   *
+   * @return a flag for each pair of nodes (i, j) at index {@code i * nodes.size() + j}
+   */
+  private static boolean[] findVisibleNodePairs(
+    Polygon polygon,
+    List<OSMNode> nodes,
+    List<IntersectionVertex> vertices,
+    Set<P2<OSMNode>> alreadyAddedEdges,
+    GeometryFactory geometryFactory
+  ) {
+    int n = nodes.size();
+    boolean[] visible = new boolean[n * n];
+
+    // The envelope of the polygon is computed lazily, do it before the polygon is shared
+    polygon.getEnvelopeInternal();
+
+    IntStream rows = IntStream.range(0, n);
+    if (n >= PARALLEL_VISIBILITY_THRESHOLD) {
+      rows = rows.parallel();
+    }
+    rows.forEach(i -> {
+      for (int j = 0; j < n; ++j) {
+        if (alreadyAddedEdges.contains(new P2<>(nodes.get(i), nodes.get(j)))) {
+          continue;
+        }
+        Coordinate[] coordinates = new Coordinate[] {
+          vertices.get(i).getCoordinate(),
+          vertices.get(j).getCoordinate(),
+        };
+        LineString line = geometryFactory.createLineString(coordinates);
+        visible[i * n + j] = polygon.contains(line);
+      }
+    });
+    return visible;
+  }
+
   /**
    * Do an all-pairs shortest path search from a list of vertices over a specified set of edges, and
    * retain only those edges which are actually used in some shortest path.
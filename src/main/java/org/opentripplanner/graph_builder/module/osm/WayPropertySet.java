@@ -7,6 +7,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.opentripplanner.common.model.P2;
@@ -32,6 +34,9 @@ public class WayPropertySet {
 
   private static final Logger LOG = LoggerFactory.getLogger(WayPropertySet.class);
 
+  /** Stop adding to the match cache if the tags have an unexpectedly high number of variations */
+  private static final int MAX_MATCH_CACHE_SIZE = 100_000;
+
   private final List<WayPropertyPicker> wayProperties;
 
   /** Assign names to ways that do not have them based on OSM tags. */
@@ -48,6 +53,17 @@ public class WayPropertySet {
   /** The WayProperties applied to all ways that do not match any WayPropertyPicker. */
   public WayProperties defaultProperties;
 
+  /**
+   * Which pickers match a way only depends on the tags the specifiers inspect, and most ways have
+   * one of a small number of combinations of those tags. The pickers are therefore matched once
+   * for each combination, and the result is cached. The cache is cleared if a picker is added.
+   */
+  private final Map<List<String>, PickerMatch> matchCache = new ConcurrentHashMap<>();
+  private final LongAdder matchCacheHits = new LongAdder();
+  private final LongAdder matchCacheMisses = new LongAdder();
+  /** The keys of the tags inspected by any specifier, computed on the first lookup. */
+  private volatile Set<String> specifierTagKeys;
+
   public WayPropertySet() {
     /* sensible defaults */
     defaultProperties = new WayProperties();
@@ -69,36 +85,15 @@ public class WayPropertySet {
    * that are mixins will have their safety values applied if they match at all.
    */
   public WayProperties getDataForWay(OSMWithTags way) {
-    WayProperties leftResult = defaultProperties;
-    WayProperties rightResult = defaultProperties;
-    int bestLeftScore = 0;
-    int bestRightScore = 0;
-    List<WayProperties> leftMixins = new ArrayList<>();
-    List<WayProperties> rightMixins = new ArrayList<>();
-    for (WayPropertyPicker picker : wayProperties) {
-      OSMSpecifier specifier = picker.getSpecifier();
-      WayProperties wayProperties = picker.getProperties();
-      P2<Integer> score = specifier.matchScores(way);
-      int leftScore = score.first;
-      int rightScore = score.second;
-      if (picker.isSafetyMixin()) {
-        if (leftScore > 0) {
-          leftMixins.add(wayProperties);
-        }
-        if (rightScore > 0) {
-          rightMixins.add(wayProperties);
-        }
-      } else {
-        if (leftScore > bestLeftScore) {
-          leftResult = wayProperties;
-          bestLeftScore = leftScore;
-        }
-        if (rightScore > bestRightScore) {
-          rightResult = wayProperties;
-          bestRightScore = rightScore;
-        }
-      }
-    }
+    PickerMatch match = match(way);
+    WayProperties leftResult = match.leftProperties() == null
+      ? defaultProperties
+      : match.leftProperties();
+    WayProperties rightResult = match.rightProperties() == null
+      ? defaultProperties
+      : match.rightProperties();
+    List<WayProperties> leftMixins = match.leftMixins();
+    List<WayProperties> rightMixins = match.rightMixins();
 
     WayProperties result = rightResult.clone();
     result.setSafetyFeatures(
@@ -113,8 +108,9 @@ public class WayPropertySet {
       applyMixins(result, rightMixins, true);
     }
     if (
-      (bestLeftScore == 0 || bestRightScore == 0) &&
-      (leftMixins.size() == 0 || rightMixins.size() == 0)
+      (match.leftProperties() == null || match.rightProperties() == null) &&
+      (leftMixins.size() == 0 || rightMixins.size() == 0) &&
+      LOG.isDebugEnabled()
     ) {
       String all_tags = dumpTags(way);
       LOG.debug("Used default permissions: " + all_tags);
@@ -123,17 +119,7 @@ public class WayPropertySet {
   }
 
   public I18NString getCreativeNameForWay(OSMWithTags way) {
-    CreativeNamer bestNamer = null;
-    int bestScore = 0;
-    for (CreativeNamerPicker picker : creativeNamers) {
-      OSMSpecifier specifier = picker.specifier;
-      CreativeNamer namer = picker.namer;
-      int score = specifier.matchScore(way);
-      if (score > bestScore) {
-        bestNamer = namer;
-        bestScore = score;
-      }
-    }
+    CreativeNamer bestNamer = match(way).creativeNamer();
     if (bestNamer == null) {
       return null;
     }
@@ -181,21 +167,7 @@ public class WayPropertySet {
     if (speed != null && speed > 0.0001) return speed;
 
     // otherwise, we use the speedPickers
-
-    int bestScore = 0;
-    Float bestSpeed = null;
-    int score;
-
-    // SpeedPickers are constructed in DefaultWayPropertySetSource with an OSM specifier
-    // (e.g. highway=motorway) and a default speed for that segment.
-    for (SpeedPicker picker : speedPickers) {
-      OSMSpecifier specifier = picker.specifier;
-      score = specifier.matchScore(way);
-      if (score > bestScore) {
-        bestScore = score;
-        bestSpeed = picker.speed;
-      }
-    }
+    Float bestSpeed = match(way).speed();
 
     if (bestSpeed != null) {
       return bestSpeed;
@@ -205,32 +177,37 @@ public class WayPropertySet {
   }
 
   public Set<T2<StreetNote, NoteMatcher>> getNoteForWay(OSMWithTags way) {
-    HashSet<T2<StreetNote, NoteMatcher>> out = new HashSet<>();
-    for (NotePicker picker : notes) {
-      OSMSpecifier specifier = picker.specifier;
-      NoteProperties noteProperties = picker.noteProperties;
-      if (specifier.matchScore(way) > 0) {
-        out.add(noteProperties.generateNote(way));
-      }
-    }
-    if (out.size() == 0) {
+    List<NoteProperties> matchingNotes = match(way).notes();
+    if (matchingNotes.isEmpty()) {
       return null;
     }
+    HashSet<T2<StreetNote, NoteMatcher>> out = new HashSet<>();
+    for (NoteProperties noteProperties : matchingNotes) {
+      out.add(noteProperties.generateNote(way));
+    }
     return out;
   }
 
   public boolean getSlopeOverride(OSMWithTags way) {
-    boolean result = false;
-    int bestScore = 0;
-    for (SlopeOverridePicker picker : slopeOverrides) {
-      OSMSpecifier specifier = picker.getSpecifier();
-      int score = specifier.matchScore(way);
-      if (score > bestScore) {
-        result = picker.getOverride();
-        bestScore = score;
-      }
+    return match(way).slopeOverride();
+  }
+
+  /**
+   * Log how many of the lookups were answered from the cache of matched pickers.
+   */
+  public void logMatchCacheStatistics() {
+    long hits = matchCacheHits.sum();
+    long total = hits + matchCacheMisses.sum();
+    if (total == 0) {
+      return;
     }
-    return result;
+    LOG.info(
+      "Way properties: {} of {} lookups ({}%) were cached, {} distinct tag combinations",
+      hits,
+      total,
+      Math.round(100.0 * hits / total),
+      matchCache.size()
+    );
   }
 
   public void addProperties(OSMSpecifier spec, WayProperties properties, boolean mixin) {
@@ -243,22 +220,27 @@ public class WayPropertySet {
       );
     }
     wayProperties.add(new WayPropertyPicker(spec, properties, mixin));
+    clearMatchCache();
   }
 
   public void addProperties(OSMSpecifier spec, WayProperties properties) {
     wayProperties.add(new WayPropertyPicker(spec, properties, false));
+    clearMatchCache();
   }
 
   public void addCreativeNamer(OSMSpecifier spec, CreativeNamer namer) {
     creativeNamers.add(new CreativeNamerPicker(spec, namer));
+    clearMatchCache();
   }
 
   public void addNote(OSMSpecifier osmSpecifier, NoteProperties properties) {
     notes.add(new NotePicker(osmSpecifier, properties));
+    clearMatchCache();
   }
 
   public void setSlopeOverride(OSMSpecifier spec, boolean override) {
     slopeOverrides.add(new SlopeOverridePicker(spec, override));
+    clearMatchCache();
   }
 
   public int hashCode() {
@@ -286,6 +268,7 @@ public class WayPropertySet {
 
   public void addSpeedPicker(SpeedPicker picker) {
     this.speedPickers.add(picker);
+    clearMatchCache();
   }
 
   public Float getMetersSecondFromSpeed(String speed) {
@@ -387,6 +370,153 @@ public class WayPropertySet {
     return all_tags;
   }
 
+  private PickerMatch match(OSMWithTags way) {
+    List<String> fingerprint = tagFingerprint(way);
+    PickerMatch match = matchCache.get(fingerprint);
+    if (match != null) {
+      matchCacheHits.increment();
+      return match;
+    }
+    matchCacheMisses.increment();
+    match = matchPickers(way);
+    if (matchCache.size() < MAX_MATCH_CACHE_SIZE) {
+      matchCache.putIfAbsent(fingerprint, match);
+    }
+    return match;
+  }
+
+  /**
+   * The keys and values of the tags of the way which are inspected by any specifier, sorted by
+   * key. Ways with the same fingerprint are matched by the same pickers.
+   */
+  private List<String> tagFingerprint(OSMWithTags way) {
+    Map<String, String> tags = way.getTags();
+    if (tags == null || tags.isEmpty()) {
+      return List.of();
+    }
+    Set<String> keys = specifierTagKeys;
+    if (keys == null) {
+      keys = collectSpecifierTagKeys();
+      specifierTagKeys = keys;
+    }
+    List<String> relevantKeys = new ArrayList<>(tags.size());
+    for (String key : tags.keySet()) {
+      if (keys.contains(key)) {
+        relevantKeys.add(key);
+      }
+    }
+    Collections.sort(relevantKeys);
+
+    List<String> fingerprint = new ArrayList<>(2 * relevantKeys.size());
+    for (String key : relevantKeys) {
+      fingerprint.add(key);
+      fingerprint.add(tags.get(key));
+    }
+    return fingerprint;
+  }
+
+  private Set<String> collectSpecifierTagKeys() {
+    Set<String> keys = new HashSet<>();
+    wayProperties.forEach(it -> keys.addAll(it.getSpecifier().getTagKeys()));
+    creativeNamers.forEach(it -> keys.addAll(it.specifier.getTagKeys()));
+    slopeOverrides.forEach(it -> keys.addAll(it.getSpecifier().getTagKeys()));
+    speedPickers.forEach(it -> keys.addAll(it.specifier.getTagKeys()));
+    notes.forEach(it -> keys.addAll(it.specifier.getTagKeys()));
+    return keys;
+  }
+
+  private void clearMatchCache() {
+    matchCache.clear();
+    specifierTagKeys = null;
+  }
+
+  /**
+   * Match the way against all pickers. This is the expensive part of the lookups, the result is
+   * cached by {@link #match(OSMWithTags)}.
+   */
+  private PickerMatch matchPickers(OSMWithTags way) {
+    WayProperties leftResult = null;
+    WayProperties rightResult = null;
+    int bestLeftScore = 0;
+    int bestRightScore = 0;
+    List<WayProperties> leftMixins = new ArrayList<>();
+    List<WayProperties> rightMixins = new ArrayList<>();
+    for (WayPropertyPicker picker : wayProperties) {
+      OSMSpecifier specifier = picker.getSpecifier();
+      WayProperties wayProperties = picker.getProperties();
+      P2<Integer> score = specifier.matchScores(way);
+      int leftScore = score.first;
+      int rightScore = score.second;
+      if (picker.isSafetyMixin()) {
+        if (leftScore > 0) {
+          leftMixins.add(wayProperties);
+        }
+        if (rightScore > 0) {
+          rightMixins.add(wayProperties);
+        }
+      } else {
+        if (leftScore > bestLeftScore) {
+          leftResult = wayProperties;
+          bestLeftScore = leftScore;
+        }
+        if (rightScore > bestRightScore) {
+          rightResult = wayProperties;
+          bestRightScore = rightScore;
+        }
+      }
+    }
+
+    CreativeNamer bestNamer = null;
+    int bestNamerScore = 0;
+    for (CreativeNamerPicker picker : creativeNamers) {
+      int score = picker.specifier.matchScore(way);
+      if (score > bestNamerScore) {
+        bestNamer = picker.namer;
+        bestNamerScore = score;
+      }
+    }
+
+    // SpeedPickers are constructed in DefaultWayPropertySetSource with an OSM specifier
+    // (e.g. highway=motorway) and a default speed for that segment.
+    Float bestSpeed = null;
+    int bestSpeedScore = 0;
+    for (SpeedPicker picker : speedPickers) {
+      int score = picker.specifier.matchScore(way);
+      if (score > bestSpeedScore) {
+        bestSpeed = picker.speed;
+        bestSpeedScore = score;
+      }
+    }
+
+    boolean slopeOverride = false;
+    int bestSlopeOverrideScore = 0;
+    for (SlopeOverridePicker picker : slopeOverrides) {
+      int score = picker.getSpecifier().matchScore(way);
+      if (score > bestSlopeOverrideScore) {
+        slopeOverride = picker.getOverride();
+        bestSlopeOverrideScore = score;
+      }
+    }
+
+    List<NoteProperties> matchingNotes = new ArrayList<>();
+    for (NotePicker picker : notes) {
+      if (picker.specifier.matchScore(way) > 0) {
+        matchingNotes.add(picker.noteProperties);
+      }
+    }
+
+    return new PickerMatch(
+      leftResult,
+      rightResult,
+      List.copyOf(leftMixins),
+      List.copyOf(rightMixins),
+      bestNamer,
+      bestSpeed,
+      slopeOverride,
+      List.copyOf(matchingNotes)
+    );
+  }
+
   private void applyMixins(WayProperties result, List<WayProperties> mixins, boolean right) {
     P2<Double> safetyFeatures = result.getSafetyFeatures();
     double first = safetyFeatures.first;
@@ -400,4 +530,20 @@ public class WayPropertySet {
     }
     result.setSafetyFeatures(new P2<>(first, second));
   }
+
+  /**
+   * The pickers matching a combination of tags. The properties and the speed are {@code null} if
+   * no picker matches, in which case the defaults are used. The defaults are not stored here
+   * because they are public fields which may be changed after a lookup.
+   */
+  private record PickerMatch(
+    WayProperties leftProperties,
+    WayProperties rightProperties,
+    List<WayProperties> leftMixins,
+    List<WayProperties> rightMixins,
+    CreativeNamer creativeNamer,
+    Float speed,
+    boolean slopeOverride,
+    List<NoteProperties> notes
+  ) {}
 }
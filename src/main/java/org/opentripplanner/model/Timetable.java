@@ -48,6 +48,9 @@ public class Timetable implements Serializable {
    */
   private transient int minTime, maxTime;
 
+  /** Created on demand, and cleared when the trips of the timetable are changed. */
+  private transient volatile TimetableDepartureIndex departureIndex;
+
   /** Construct an empty Timetable. */
   public Timetable(TripPattern pattern) {
     this.pattern = pattern;
@@ -102,6 +105,7 @@ public class Timetable implements Serializable {
    * compact the data structure such as trimming and deduplicating arrays.
    */
   public void finish() {
+    departureIndex = null;
     int nStops = pattern.numberOfStops();
 
     // Concatenate raw TripTimes and those referenced from FrequencyEntries
@@ -173,6 +177,7 @@ public class Timetable implements Serializable {
    * @return old trip times of trip
    */
   public TripTimes setTripTimes(int tripIndex, TripTimes tt) {
+    departureIndex = null;
     return tripTimes.set(tripIndex, tt);
   }
 
@@ -370,6 +375,7 @@ public class Timetable implements Serializable {
    * scheduled trip or a realtime-added trip.
    */
   public void addTripTimes(TripTimes tt) {
+    departureIndex = null;
     tripTimes.add(tt);
   }
 
@@ -413,6 +419,20 @@ public class Timetable implements Serializable {
     return tripTimes;
   }
 
+  /**
+   * The trips of this timetable sorted by departure time at each stop. The index is created again
+   * if the trips have been added or removed since it was created.
+   */
+  public TimetableDepartureIndex getDepartureIndex() {
+    TimetableDepartureIndex index = departureIndex;
+    // Trips may also be removed through the list returned by getTripTimes()
+    if (index == null || index.numberOfTrips() != tripTimes.size()) {
+      index = TimetableDepartureIndex.of(tripTimes, pattern.numberOfStops());
+      departureIndex = index;
+    }
+    return index;
+  }
+
   /**
    * Contains one FrequencyEntry object for each block of frequency-based trips.
    */
@@ -0,0 +1,110 @@
+package org.opentripplanner.model;
+
+import java.util.Arrays;
+import java.util.List;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+/**
+ * The trips of a {@link Timetable} sorted by their departure time at each stop of the pattern. This
+ * allows finding the next departures from a stop with a binary search, instead of looking at every
+ * trip of the timetable. The trips are not always in the same order at every stop, since a trip may
+ * overtake another, or be delayed by a realtime update.
+ * <p>
+ * The index is created on demand by {@link Timetable#getDepartureIndex()}. Timetables in a
+ * committed {@link TimetableSnapshot} are not changed, a realtime update creates a new timetable.
+ * So the index is only created again for the timetables that are updated.
+ */
+public final class TimetableDepartureIndex {
+
+  private final int numberOfTrips;
+
+  /** The departure times at each stop position, sorted. */
+  private final int[][] departureTimes;
+
+  /** The index in the timetable of the trips, in the same order as the departure times. */
+  private final int[][] tripIndexes;
+
+  /** The min and max time between the arrival and the departure at each stop position. */
+  private final int[] minDwellTimes;
+  private final int[] maxDwellTimes;
+
+  private TimetableDepartureIndex(int numberOfTrips, int numberOfStops) {
+    this.numberOfTrips = numberOfTrips;
+    this.departureTimes = new int[numberOfStops][numberOfTrips];
+    this.tripIndexes = new int[numberOfStops][numberOfTrips];
+    this.minDwellTimes = new int[numberOfStops];
+    this.maxDwellTimes = new int[numberOfStops];
+  }
+
+  static TimetableDepartureIndex of(List<TripTimes> tripTimes, int numberOfStops) {
+    var index = new TimetableDepartureIndex(tripTimes.size(), numberOfStops);
+    // The departure time and trip index are packed in a long, so a primitive sort can be used
+    long[] sortKeys = new long[tripTimes.size()];
+
+    for (int stopPos = 0; stopPos < numberOfStops; ++stopPos) {
+      int minDwellTime = 0;
+      int maxDwellTime = 0;
+      for (int i = 0; i < sortKeys.length; ++i) {
+        TripTimes tt = tripTimes.get(i);
+        int departureTime = tt.getDepartureTime(stopPos);
+        int dwellTime = departureTime - tt.getArrivalTime(stopPos);
+        minDwellTime = Math.min(minDwellTime, dwellTime);
+        maxDwellTime = Math.max(maxDwellTime, dwellTime);
+        sortKeys[i] = ((long) departureTime << 32) | i;
+      }
+      Arrays.sort(sortKeys);
+
+      for (int i = 0; i < sortKeys.length; ++i) {
+        index.departureTimes[stopPos][i] = (int) (sortKeys[i] >> 32);
+        index.tripIndexes[stopPos][i] = (int) sortKeys[i];
+      }
+      index.minDwellTimes[stopPos] = minDwellTime;
+      index.maxDwellTimes[stopPos] = maxDwellTime;
+    }
+    return index;
+  }
+
+  /** The number of trips in the timetable when the index was created. */
+  public int numberOfTrips() {
+    return numberOfTrips;
+  }
+
+  /**
+   * @return the position in the sorted order of the first trip departing from the stop at or after
+   * the given time, or {@link #numberOfTrips()} if there is no such trip.
+   */
+  public int firstDepartureAtOrAfter(int stopPos, int time) {
+    int[] times = departureTimes[stopPos];
+    int low = 0;
+    int high = times.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (times[mid] < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** The departure time of the i-th trip departing from the stop. */
+  public int departureTime(int stopPos, int i) {
+    return departureTimes[stopPos][i];
+  }
+
+  /** The index in the timetable of the i-th trip departing from the stop. */
+  public int tripIndex(int stopPos, int i) {
+    return tripIndexes[stopPos][i];
+  }
+
+  /** The smallest departure time minus arrival time at the stop, zero or less. */
+  public int minDwellTime(int stopPos) {
+    return minDwellTimes[stopPos];
+  }
+
+  /** The largest departure time minus arrival time at the stop, zero or more. */
+  public int maxDwellTime(int stopPos) {
+    return maxDwellTimes[stopPos];
+  }
+}
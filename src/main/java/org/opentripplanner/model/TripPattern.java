@@ -28,6 +28,8 @@ import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.issues.NonUniqueRouteName;
 import org.opentripplanner.routing.trippattern.FrequencyEntry;
 import org.opentripplanner.routing.trippattern.TripTimes;
+import org.opentripplanner.util.PolylineEncoder;
+import org.opentripplanner.util.model.EncodedPolyline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,6 +66,12 @@ public final class TripPattern extends TransitEntity implements Cloneable, Seria
    */
   private byte[][] hopGeometries = null;
 
+  /**
+   * The hop geometries encoded as polyline fragments, created when first used. They are not kept
+   * in the serialized graph.
+   */
+  private transient PolylineEncoder.Fragment[] encodedHopGeometries = null;
+
   /**
    * The original TripPattern this replaces at least for one modified trip.
    */
@@ -309,6 +317,28 @@ public final class TripPattern extends TransitEntity implements Cloneable, Seria
 
   public void setHopGeometry(int i, LineString hopGeometry) {
     this.hopGeometries[i] = CompactLineString.compactLineString(hopGeometry, false);
+    this.encodedHopGeometries = null;
+  }
+
+  /**
+   * The geometry between the two stops encoded as a polyline. It is the same as encoding the
+   * coordinates of the hop geometries, but each hop is only encoded once.
+   */
+  public EncodedPolyline getEncodedGeometry(int fromStopPosInPattern, int toStopPosInPattern) {
+    var encoded = encodedHopGeometries;
+    if (encoded == null) {
+      // Concurrent requests may both create the array, the fragments are the same
+      encoded = new PolylineEncoder.Fragment[numberOfStops() - 1];
+      encodedHopGeometries = encoded;
+    }
+    List<PolylineEncoder.Fragment> fragments = new ArrayList<>();
+    for (int i = fromStopPosInPattern; i < toStopPosInPattern; i++) {
+      if (encoded[i] == null) {
+        encoded[i] = PolylineEncoder.encodeFragment(getHopGeometry(i).getCoordinates());
+      }
+      fragments.add(encoded[i]);
+    }
+    return PolylineEncoder.joinFragments(fragments);
   }
 
   /**
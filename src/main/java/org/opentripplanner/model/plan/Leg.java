@@ -20,6 +20,8 @@ import org.opentripplanner.model.plan.legreference.LegReference;
 import org.opentripplanner.model.transfer.ConstrainedTransfer;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.util.PolylineEncoder;
+import org.opentripplanner.util.model.EncodedPolyline;
 
 /**
  * One leg of a trip -- that is, a temporally continuous piece of the journey that takes place on a
@@ -265,6 +267,13 @@ public interface Leg {
    */
   LineString getLegGeometry();
 
+  /**
+   * The leg's geometry encoded as a polyline.
+   */
+  default EncodedPolyline getEncodedLegGeometry() {
+    return PolylineEncoder.encodeGeometry(getLegGeometry());
+  }
+
   /**
    * The leg's elevation profile.
    */
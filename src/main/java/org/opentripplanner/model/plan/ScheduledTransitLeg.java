@@ -30,6 +30,7 @@ import org.opentripplanner.model.transfer.ConstrainedTransfer;
 import org.opentripplanner.routing.alertpatch.TransitAlert;
 import org.opentripplanner.routing.core.TraverseMode;
 import org.opentripplanner.routing.trippattern.TripTimes;
+import org.opentripplanner.util.model.EncodedPolyline;
 
 /**
  * One leg of a trip -- that is, a temporally continuous piece of the journey that takes place on a
@@ -237,6 +238,14 @@ public class ScheduledTransitLeg implements Leg {
     return legGeometry;
   }
 
+  /**
+   * Joins the hop geometries encoded by the trip pattern, instead of encoding the leg geometry.
+   */
+  @Override
+  public EncodedPolyline getEncodedLegGeometry() {
+    return tripPattern.getEncodedGeometry(boardStopPosInPattern, alightStopPosInPattern);
+  }
+
   @Override
   public Set<TransitAlert> getTransitAlerts() {
     return transitAlerts;
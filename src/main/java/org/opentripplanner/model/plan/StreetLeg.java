@@ -1,20 +1,27 @@
 package org.opentripplanner.model.plan;
 
+import com.google.common.base.Suppliers;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.OptionalDouble;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.common.model.P2;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.StreetNote;
 import org.opentripplanner.model.base.ToStringBuilder;
 import org.opentripplanner.routing.core.TraverseMode;
+import org.opentripplanner.routing.edgetype.StreetEdge;
 
 /**
  * One leg of a trip -- that is, a temporally continuous piece of the journey that takes place using
  * mainly a single model on the street network.
+ * <p>
+ * The geometry, elevation profile and walk steps can be computed lazily, see {@link #lazy}. They
+ * are then only computed for the legs of the itineraries returned, and only if they are used.
  */
 public class StreetLeg implements Leg {
 
@@ -30,13 +37,14 @@ public class StreetLeg implements Leg {
 
   private final Place to;
 
-  private final LineString legGeometry;
-  private final List<WalkStep> walkSteps;
+  private final Supplier<LineString> legGeometry;
+  private final Supplier<List<WalkStep>> walkSteps;
   private final Set<StreetNote> streetNotes = new HashSet<>();
   private final int generalizedCost;
-  private final List<P2<Double>> legElevation;
-  private Double elevationLost = null;
-  private Double elevationGained = null;
+  private final Supplier<List<P2<Double>>> legElevation;
+  private final Double elevationGained;
+  private final Double elevationLost;
+  private final Double maxSlope;
 
   private FeedScopedId pathwayId;
   private Boolean walkingBike;
@@ -54,6 +62,38 @@ public class StreetLeg implements Leg {
     LineString geometry,
     List<P2<Double>> elevation,
     List<WalkStep> walkSteps
+  ) {
+    this(
+      mode,
+      startTime,
+      endTime,
+      from,
+      to,
+      distanceMeters,
+      generalizedCost,
+      Suppliers.ofInstance(geometry),
+      Suppliers.ofInstance(elevation),
+      elevationChange(elevation, true),
+      elevationChange(elevation, false),
+      maxSlope(walkSteps),
+      Suppliers.ofInstance(walkSteps)
+    );
+  }
+
+  private StreetLeg(
+    TraverseMode mode,
+    ZonedDateTime startTime,
+    ZonedDateTime endTime,
+    Place from,
+    Place to,
+    double distanceMeters,
+    int generalizedCost,
+    Supplier<LineString> geometry,
+    Supplier<List<P2<Double>>> elevation,
+    Double elevationGained,
+    Double elevationLost,
+    Double maxSlope,
+    Supplier<List<WalkStep>> walkSteps
   ) {
     if (mode.isTransit()) {
       throw new IllegalArgumentException(
@@ -69,9 +109,49 @@ public class StreetLeg implements Leg {
     this.generalizedCost = generalizedCost;
     this.legElevation = elevation;
     this.legGeometry = geometry;
+    this.elevationGained = elevationGained;
+    this.elevationLost = elevationLost;
+    this.maxSlope = maxSlope;
     this.walkSteps = walkSteps;
+  }
 
-    updateElevationChanges();
+  /**
+   * Create a leg where the geometry, elevation profile and walk steps are computed the first time
+   * they are used. Each supplier is called at most once, also for the copies made by {@link
+   * #withTimeShift(Duration)}. The elevation gained and lost are used in the itinerary totals, so
+   * they are given up front and must match the elevation profile. The same goes for the max slope,
+   * which is used before the itineraries are filtered and must match the edges of the walk steps.
+   */
+  public static StreetLeg lazy(
+    TraverseMode mode,
+    ZonedDateTime startTime,
+    ZonedDateTime endTime,
+    Place from,
+    Place to,
+    double distanceMeters,
+    int generalizedCost,
+    Supplier<LineString> geometry,
+    Supplier<List<P2<Double>>> elevation,
+    Double elevationGained,
+    Double elevationLost,
+    Double maxSlope,
+    Supplier<List<WalkStep>> walkSteps
+  ) {
+    return new StreetLeg(
+      mode,
+      startTime,
+      endTime,
+      from,
+      to,
+      distanceMeters,
+      generalizedCost,
+      Suppliers.memoize(geometry::get),
+      Suppliers.memoize(elevation::get),
+      elevationGained,
+      elevationLost,
+      maxSlope,
+      Suppliers.memoize(walkSteps::get)
+    );
   }
 
   @Override
@@ -130,12 +210,12 @@ public class StreetLeg implements Leg {
 
   @Override
   public LineString getLegGeometry() {
-    return legGeometry;
+    return legGeometry.get();
   }
 
   @Override
   public List<P2<Double>> getLegElevation() {
-    return legElevation;
+    return legElevation.get();
   }
 
   @Override
@@ -148,9 +228,17 @@ public class StreetLeg implements Leg {
     return elevationLost;
   }
 
+  /**
+   * @return the largest slope of the street edges of the leg, or {@code null} if the leg has no
+   * street edges.
+   */
+  public Double getMaxSlope() {
+    return maxSlope;
+  }
+
   @Override
   public List<WalkStep> getWalkSteps() {
-    return walkSteps;
+    return walkSteps.get();
   }
 
   @Override
@@ -206,6 +294,9 @@ public class StreetLeg implements Leg {
       generalizedCost,
       legGeometry,
       legElevation,
+      elevationGained,
+      elevationLost,
+      maxSlope,
       walkSteps
     );
 
@@ -218,7 +309,8 @@ public class StreetLeg implements Leg {
   }
 
   /**
-   * Should be used for debug logging only
+   * Should be used for debug logging only. The lazy fields are not computed, their suppliers are
+   * logged instead.
    */
   @Override
   public String toString() {
@@ -233,10 +325,11 @@ public class StreetLeg implements Leg {
       .addNum("cost", generalizedCost)
       .addObj("gtfsPathwayId", pathwayId)
       .addObj("legGeometry", legGeometry)
-      .addStr("legElevation", legElevation != null ? legElevation.toString() : null)
+      .addObj("legElevation", legElevation)
       .addNum("elevationGained", elevationGained, "m")
       .addNum("elevationLost", elevationLost, "m")
-      .addCol("walkSteps", walkSteps)
+      .addNum("maxSlope", maxSlope)
+      .addObj("walkSteps", walkSteps)
       .addCol("streetNotes", streetNotes)
       .addBool("walkingBike", walkingBike)
       .addBool("rentedVehicle", rentedVehicle)
@@ -244,27 +337,44 @@ public class StreetLeg implements Leg {
       .toString();
   }
 
-  private void updateElevationChanges() {
-    if (legElevation != null) {
-      double elevationGained = 0.0;
-      double elevationLost = 0.0;
-
-      Double lastElevation = null;
-      for (final P2<Double> p2 : legElevation) {
-        double elevation = p2.second;
-        if (lastElevation != null) {
-          double change = elevation - lastElevation;
-          if (change > 0) {
-            elevationGained += change;
-          } else if (change < 0) {
-            elevationLost -= change;
-          }
+  private static Double maxSlope(List<WalkStep> walkSteps) {
+    if (walkSteps == null) {
+      return null;
+    }
+    OptionalDouble maxSlope = walkSteps
+      .stream()
+      .flatMap(step -> step.edges.stream())
+      .filter(StreetEdge.class::isInstance)
+      .map(StreetEdge.class::cast)
+      .mapToDouble(StreetEdge::getMaxSlope)
+      .max();
+    return maxSlope.isPresent() ? maxSlope.getAsDouble() : null;
+  }
+
+  /**
+   * @param gained {@code true} for the sum of the climbs, {@code false} for the sum of the descents
+   * @return the elevation change, or {@code null} if the leg has no elevation profile.
+   */
+  private static Double elevationChange(List<P2<Double>> legElevation, boolean gained) {
+    if (legElevation == null) {
+      return null;
+    }
+    double elevationGained = 0.0;
+    double elevationLost = 0.0;
+
+    Double lastElevation = null;
+    for (final P2<Double> p2 : legElevation) {
+      double elevation = p2.second;
+      if (lastElevation != null) {
+        double change = elevation - lastElevation;
+        if (change > 0) {
+          elevationGained += change;
+        } else if (change < 0) {
+          elevationLost -= change;
         }
-        lastElevation = elevation;
       }
-
-      this.elevationGained = elevationGained;
-      this.elevationLost = elevationLost;
+      lastElevation = elevation;
     }
+    return gained ? elevationGained : elevationLost;
   }
 }
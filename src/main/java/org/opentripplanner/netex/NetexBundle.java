@@ -2,6 +2,7 @@ package org.opentripplanner.netex;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import javax.xml.bind.JAXBException;
@@ -12,7 +13,7 @@ import org.opentripplanner.model.impl.OtpTransitServiceBuilder;
 import org.opentripplanner.netex.index.NetexEntityIndex;
 import org.opentripplanner.netex.loader.GroupEntries;
 import org.opentripplanner.netex.loader.NetexDataSourceHierarchy;
-import org.opentripplanner.netex.loader.NetexXmlParser;
+import org.opentripplanner.netex.loader.PrefetchingNetexXmlParser;
 import org.opentripplanner.netex.loader.parser.NetexDocumentParser;
 import org.opentripplanner.netex.mapping.NetexMapper;
 import org.opentripplanner.netex.validation.Validator;
@@ -48,7 +49,7 @@ public class NetexBundle implements Closeable {
   private DataImportIssueStore issueStore;
   /** maps the NeTEx XML document to OTP transit model. */
   private NetexMapper mapper;
-  private NetexXmlParser xmlParser;
+  private PrefetchingNetexXmlParser xmlParser;
 
   public NetexBundle(
     String netexFeedId,
@@ -74,8 +75,7 @@ public class NetexBundle implements Closeable {
     // Store result in a mutable OTP Transit Model
     OtpTransitServiceBuilder transitBuilder = new OtpTransitServiceBuilder();
 
-    // init parser and mapper
-    xmlParser = new NetexXmlParser();
+    // init mapper
     mapper =
       new NetexMapper(
         transitBuilder,
@@ -106,28 +106,45 @@ public class NetexBundle implements Closeable {
 
   /** Load all files entries in the bundle */
   private void loadFileEntries() {
-    // Load global shared files
-    loadFilesThenMapToOtpTransitModel("shared file", hierarchy.sharedEntries());
-
-    for (GroupEntries group : hierarchy.groups()) {
-      LOG.info("reading group {}", group.name());
-
-      scopeInputData(() -> {
-        // Load shared group files
-        loadFilesThenMapToOtpTransitModel("shared group file", group.sharedEntries());
-
-        for (DataSource entry : group.independentEntries()) {
-          scopeInputData(() -> {
-            // Load each independent file in group
-            loadFilesThenMapToOtpTransitModel("group file", List.of(entry));
-          });
-        }
-      });
+    // The XML files are parsed in parallel, in the order they are loaded below
+    xmlParser = new PrefetchingNetexXmlParser(entriesInLoadOrder());
+    try {
+      // Load global shared files
+      loadFilesThenMapToOtpTransitModel("shared file", hierarchy.sharedEntries());
+
+      for (GroupEntries group : hierarchy.groups()) {
+        LOG.info("reading group {}", group.name());
+
+        scopeInputData(() -> {
+          // Load shared group files
+          loadFilesThenMapToOtpTransitModel("shared group file", group.sharedEntries());
+
+          for (DataSource entry : group.independentEntries()) {
+            scopeInputData(() -> {
+              // Load each independent file in group
+              loadFilesThenMapToOtpTransitModel("group file", List.of(entry));
+            });
+          }
+        });
+      }
+    } finally {
+      xmlParser.close();
     }
     mapper.finnishUp();
     NetexDocumentParser.finnishUp();
   }
 
+  /** All files in the bundle, in the order they are loaded by {@link #loadFileEntries()} */
+  private List<DataSource> entriesInLoadOrder() {
+    List<DataSource> entries = new ArrayList<>();
+    hierarchy.sharedEntries().forEach(entries::add);
+    for (GroupEntries group : hierarchy.groups()) {
+      entries.addAll(group.sharedEntries());
+      entries.addAll(group.independentEntries());
+    }
+    return entries;
+  }
+
   /**
    * make a new index and pushes it on the index stack, before executing the task and at the end pop
    * of the index.
@@ -167,7 +184,7 @@ public class NetexBundle implements Closeable {
     try {
       LOG.info("reading entity {}: {}", fileDescription, entry.name());
 
-      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry.asInputStream());
+      PublicationDeliveryStructure doc = xmlParser.parseXmlDoc(entry);
       NetexDocumentParser.parseAndPopulateIndex(index, doc);
     } catch (JAXBException e) {
       throw new RuntimeException(e.getMessage(), e);
@@ -7,9 +7,16 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Unmarshaller;
 import org.rutebanken.netex.model.PublicationDeliveryStructure;
 
-/** Simple wrapper to perform typesafe xml parsing and simple error handling. */
+/**
+ * Simple wrapper to perform typesafe xml parsing and simple error handling.
+ * <p>
+ * An instance is not thread-safe, use one parser for each thread. The JAXB context is expensive
+ * to create and is shared by all parsers.
+ */
 public class NetexXmlParser {
 
+  private static final JAXBContext JAXB_CONTEXT = createJaxbContext();
+
   /** used to parse the XML. */
   private final Unmarshaller unmarshaller;
 
@@ -29,10 +36,20 @@ public class NetexXmlParser {
     return root.getValue();
   }
 
+  /** factory method for the shared context, the context is thread-safe */
+  private static JAXBContext createJaxbContext() {
+    try {
+      return JAXBContext.newInstance(PublicationDeliveryStructure.class);
+    } catch (JAXBException e) {
+      // This is a programming error - not expected!
+      throw new RuntimeException(e);
+    }
+  }
+
   /** factory method for unmarshaller */
   private static Unmarshaller createUnmarshaller() {
     try {
-      return JAXBContext.newInstance(PublicationDeliveryStructure.class).createUnmarshaller();
+      return JAXB_CONTEXT.createUnmarshaller();
     } catch (JAXBException e) {
       // This is a programming error - not expected!
       // We abort early and also allow for this to happen in the constructor;
@@ -0,0 +1,97 @@
+package org.opentripplanner.netex.loader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.xml.bind.JAXBException;
+import org.opentripplanner.datastore.DataSource;
+import org.rutebanken.netex.model.PublicationDeliveryStructure;
+
+/**
+ * Parses the XML files of a NeTEx bundle in parallel, ahead of the file being loaded.
+ * <p>
+ * The files must be loaded into the index and mapped one at a time, in the order given by the
+ * {@link NetexDataSourceHierarchy}, but parsing the XML - which is most of the loading time - does
+ * not depend on the other files. The files are parsed in the given order, by a pool of threads
+ * with one {@link NetexXmlParser} each. To limit the memory used by documents waiting to be
+ * loaded, at most a few files for each thread are parsed ahead of the file being loaded.
+ */
+public class PrefetchingNetexXmlParser implements Closeable {
+
+  private static final int N_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /** Limit the number of parsed documents waiting to be loaded */
+  private static final int MAX_FILES_AHEAD = 2 * N_THREADS;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
+
+  private final ThreadLocal<NetexXmlParser> parsers = ThreadLocal.withInitial(NetexXmlParser::new);
+
+  private final Iterator<DataSource> entries;
+
+  private final Deque<PendingDocument> pending = new ArrayDeque<>();
+
+  /**
+   * @param entries All the files which will be parsed, in the order they are loaded.
+   */
+  public PrefetchingNetexXmlParser(List<DataSource> entries) {
+    this.entries = entries.iterator();
+    submitFilesAhead();
+  }
+
+  /**
+   * Return the document of the next file. The files must be requested in the order they were
+   * given to the constructor.
+   */
+  public PublicationDeliveryStructure parseXmlDoc(DataSource entry) throws JAXBException {
+    PendingDocument next = pending.poll();
+    if (next == null || next.entry() != entry) {
+      throw new IllegalStateException("NeTEx file is not parsed in the expected order: " + entry);
+    }
+    submitFilesAhead();
+    try {
+      return next.document().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof JAXBException jaxbException) {
+        throw jaxbException;
+      }
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+    }
+  }
+
+  @Override
+  public void close() {
+    pending.forEach(it -> it.document().cancel(true));
+    pending.clear();
+    executor.shutdownNow();
+  }
+
+  private void submitFilesAhead() {
+    while (pending.size() < MAX_FILES_AHEAD && entries.hasNext()) {
+      DataSource entry = entries.next();
+      pending.add(new PendingDocument(entry, executor.submit(() -> parse(entry))));
+    }
+  }
+
+  private PublicationDeliveryStructure parse(DataSource entry) throws JAXBException, IOException {
+    try (InputStream in = entry.asInputStream()) {
+      return parsers.get().parseXmlDoc(in);
+    }
+  }
+
+  private record PendingDocument(DataSource entry, Future<PublicationDeliveryStructure> document) {}
+}
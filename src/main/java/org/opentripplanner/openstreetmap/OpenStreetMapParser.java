@@ -1,8 +1,10 @@
 package org.opentripplanner.openstreetmap;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.openstreetmap.osmosis.osmbinary.BinaryParser;
 import org.openstreetmap.osmosis.osmbinary.Osmformat;
 import org.opentripplanner.graph_builder.module.osm.OSMDatabase;
@@ -15,17 +17,28 @@ import org.opentripplanner.openstreetmap.model.OSMWay;
 
 /**
  * Parser for the OpenStreetMap PBF Format.
+ * <p>
+ * One parser is used for each block of the file, and the blocks may be parsed in parallel. The
+ * entities of the current phase are collected, and added to the {@link OSMDatabase} with
+ * {@link #addTo(OSMDatabase)} in the order of the blocks in the file.
  *
  * @since 0.4
  */
-public class OpenStreetMapParser extends BinaryParser {
+class OpenStreetMapParser extends BinaryParser {
 
-  private final OSMDatabase osmdb;
-  private final Map<String, String> stringTable = new HashMap<>();
-  private OsmParserPhase parsePhase;
+  private final OsmParserPhase parsePhase;
+  private final Map<String, String> stringTable;
+  private final Set<OsmParserPhase> phasesInBlock = EnumSet.noneOf(OsmParserPhase.class);
+  private final List<OSMRelation> relations = new ArrayList<>();
+  private final List<OSMWay> ways = new ArrayList<>();
+  private final List<OSMNode> nodes = new ArrayList<>();
 
-  public OpenStreetMapParser(OSMDatabase osmdb) {
-    this.osmdb = osmdb;
+  /**
+   * @param stringTable Shared by all parsers reading the same file, must be thread-safe.
+   */
+  OpenStreetMapParser(OsmParserPhase parsePhase, Map<String, String> stringTable) {
+    this.parsePhase = parsePhase;
+    this.stringTable = stringTable;
   }
 
   // The strings are already being pulled from a string table in the PBF file,
@@ -33,12 +46,8 @@ public class OpenStreetMapParser extends BinaryParser {
   // String.intern grinds to a halt on large PBF files (as it did on GTFS import), so
   // we implement our own.
   public String internalize(String s) {
-    String fromTable = stringTable.get(s);
-    if (fromTable == null) {
-      stringTable.put(s, s);
-      return s;
-    }
-    return fromTable;
+    String fromTable = stringTable.putIfAbsent(s, s);
+    return fromTable == null ? s : fromTable;
   }
 
   @Override
@@ -47,14 +56,27 @@ public class OpenStreetMapParser extends BinaryParser {
   }
 
   /**
-   * Set the phase to be parsed
+   * Add the parsed entities to the database. This must be called from a single thread.
    */
-  public void setPhase(OsmParserPhase phase) {
-    this.parsePhase = phase;
+  void addTo(OSMDatabase osmdb) {
+    relations.forEach(osmdb::addRelation);
+    ways.forEach(osmdb::addWay);
+    nodes.forEach(osmdb::addNode);
+  }
+
+  /**
+   * The phases which need this block - the types of entities it contains - regardless of the phase
+   * being parsed.
+   */
+  Set<OsmParserPhase> phasesInBlock() {
+    return phasesInBlock;
   }
 
   @Override
   protected void parseRelations(List<Osmformat.Relation> rels) {
+    if (!rels.isEmpty()) {
+      phasesInBlock.add(OsmParserPhase.Relations);
+    }
     if (parsePhase != OsmParserPhase.Relations) {
       return;
     }
@@ -95,7 +117,7 @@ public class OpenStreetMapParser extends BinaryParser {
         tmp.addMember(relMember);
       }
 
-      osmdb.addRelation(tmp);
+      relations.add(tmp);
     }
   }
 
@@ -104,6 +126,9 @@ public class OpenStreetMapParser extends BinaryParser {
     long lastId = 0, lastLat = 0, lastLon = 0;
     int j = 0; // Index into the keysvals array.
 
+    if (nodes.getIdCount() > 0) {
+      phasesInBlock.add(OsmParserPhase.Nodes);
+    }
     if (parsePhase != OsmParserPhase.Nodes) {
       return;
     }
@@ -139,12 +164,15 @@ public class OpenStreetMapParser extends BinaryParser {
         j++; // Skip over the '0' delimiter.
       }
 
-      osmdb.addNode(tmp);
+      this.nodes.add(tmp);
     }
   }
 
   @Override
   protected void parseNodes(List<Osmformat.Node> nodes) {
+    if (!nodes.isEmpty()) {
+      phasesInBlock.add(OsmParserPhase.Nodes);
+    }
     if (parsePhase != OsmParserPhase.Nodes) {
       return;
     }
@@ -165,12 +193,15 @@ public class OpenStreetMapParser extends BinaryParser {
         tmp.addTag(tag);
       }
 
-      osmdb.addNode(tmp);
+      this.nodes.add(tmp);
     }
   }
 
   @Override
   protected void parseWays(List<Osmformat.Way> ways) {
+    if (!ways.isEmpty()) {
+      phasesInBlock.add(OsmParserPhase.Ways);
+    }
     if (parsePhase != OsmParserPhase.Ways) {
       return;
     }
@@ -197,7 +228,7 @@ public class OpenStreetMapParser extends BinaryParser {
         lastId = j + lastId;
       }
 
-      osmdb.addWay(tmp);
+      this.ways.add(tmp);
     }
   }
 
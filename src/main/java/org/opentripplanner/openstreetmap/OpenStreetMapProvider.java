@@ -1,11 +1,21 @@
 package org.opentripplanner.openstreetmap;
 
 import com.google.common.base.MoreObjects;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
-import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.opentripplanner.datastore.DataSource;
 import org.opentripplanner.datastore.FileType;
 import org.opentripplanner.datastore.file.FileDataSource;
@@ -17,15 +27,28 @@ import org.slf4j.LoggerFactory;
 /**
  * Parser for the OpenStreetMap PBF format. Parses files in three passes: First the relations, then
  * the ways, then the nodes are also loaded.
+ * <p>
+ * The blocks of the file are decompressed and parsed in parallel, and added to the
+ * {@link OSMDatabase} in file order on the calling thread. The first pass records which entity
+ * types each block contains, the following passes skip decoding of blocks without entities of the
+ * type they load. In a sorted file, the usual case, only the first pass decodes all blocks.
  */
 public class OpenStreetMapProvider {
 
   private static final Logger LOG = LoggerFactory.getLogger(OpenStreetMapProvider.class);
 
+  private static final int N_THREADS = Runtime.getRuntime().availableProcessors();
+
+  /** Limit the number of decoded blocks waiting to be added to the database */
+  private static final int MAX_BLOCKS_IN_FLIGHT = 4 * N_THREADS;
+
   private final DataSource source;
   private final boolean cacheDataInMem;
   private byte[] cachedBytes = null;
 
+  /** The phases needing each block, indexed by block position. Empty until a pass completes. */
+  private List<Set<OsmParserPhase>> phasesByBlock = List.of();
+
   /** For tests */
   public OpenStreetMapProvider(File file, boolean cacheDataInMem) {
     this(new FileDataSource(file, FileType.OSM), cacheDataInMem);
@@ -37,19 +60,21 @@ public class OpenStreetMapProvider {
   }
 
   public void readOSM(OSMDatabase osmdb) {
+    Map<String, String> stringTable = new ConcurrentHashMap<>();
+    ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
     try {
-      OpenStreetMapParser parser = new OpenStreetMapParser(osmdb);
-
-      parsePhase(parser, OsmParserPhase.Relations);
+      parsePhase(osmdb, OsmParserPhase.Relations, stringTable, executor);
       osmdb.doneFirstPhaseRelations();
 
-      parsePhase(parser, OsmParserPhase.Ways);
+      parsePhase(osmdb, OsmParserPhase.Ways, stringTable, executor);
       osmdb.doneSecondPhaseWays();
 
-      parsePhase(parser, OsmParserPhase.Nodes);
+      parsePhase(osmdb, OsmParserPhase.Nodes, stringTable, executor);
       osmdb.doneThirdPhaseNodes();
     } catch (Exception ex) {
       throw new IllegalStateException("error loading OSM from path " + source.path(), ex);
+    } finally {
+      executor.shutdownNow();
     }
   }
 
@@ -75,22 +100,62 @@ public class OpenStreetMapProvider {
     return ProgressTracker.track("Parse OSM " + phase, 1000, size, inputStream, m -> LOG.info(m));
   }
 
-  private void parsePhase(OpenStreetMapParser parser, OsmParserPhase phase) throws IOException {
-    parser.setPhase(phase);
-    BlockInputStream in = null;
-    try {
-      in = new BlockInputStream(createInputStream(phase), parser);
-      in.process();
-    } finally {
-      // Close
-      try {
-        if (in != null) {
-          in.close();
+  private void parsePhase(
+    OSMDatabase osmdb,
+    OsmParserPhase phase,
+    Map<String, String> stringTable,
+    ExecutorService executor
+  ) throws Exception {
+    List<Set<OsmParserPhase>> phasesInBlocks = new ArrayList<>();
+    Deque<PendingBlock> inFlight = new ArrayDeque<>();
+    int nSkipped = 0;
+
+    try (
+      var in = new DataInputStream(new BufferedInputStream(createInputStream(phase), 1 << 16))
+    ) {
+      OsmBlock block;
+      while ((block = OsmBlock.read(in, phasesInBlocks.size())) != null) {
+        if (block.index() < phasesByBlock.size()) {
+          Set<OsmParserPhase> phases = phasesByBlock.get(block.index());
+          phasesInBlocks.add(phases);
+          if (!phases.contains(phase)) {
+            nSkipped++;
+            continue;
+          }
+        } else {
+          // Unknown content, filled in when the block is added
+          phasesInBlocks.add(null);
+        }
+        OsmBlock toDecode = block;
+        Future<OpenStreetMapParser> parser = executor.submit(() ->
+          toDecode.decode(phase, stringTable)
+        );
+        inFlight.add(new PendingBlock(block.index(), parser));
+
+        if (inFlight.size() >= MAX_BLOCKS_IN_FLIGHT) {
+          addNextBlock(osmdb, inFlight, phasesInBlocks);
         }
-      } catch (Exception e) {
-        LOG.error(e.getMessage(), e);
       }
+      while (!inFlight.isEmpty()) {
+        addNextBlock(osmdb, inFlight, phasesInBlocks);
+      }
+    } finally {
+      inFlight.forEach(it -> it.parser.cancel(true));
     }
+    phasesByBlock = phasesInBlocks;
+
+    LOG.debug("Parsed OSM {}, {} of {} blocks skipped.", phase, nSkipped, phasesInBlocks.size());
+  }
+
+  private static void addNextBlock(
+    OSMDatabase osmdb,
+    Deque<PendingBlock> inFlight,
+    List<Set<OsmParserPhase>> phasesInBlocks
+  ) throws Exception {
+    PendingBlock next = inFlight.poll();
+    OpenStreetMapParser parser = next.parser.get();
+    parser.addTo(osmdb);
+    phasesInBlocks.set(next.index, parser.phasesInBlock());
   }
 
   private InputStream createInputStream(OsmParserPhase phase) {
@@ -102,4 +167,6 @@ public class OpenStreetMapProvider {
     }
     return track(phase, source.size(), source.asInputStream());
   }
+
+  private record PendingBlock(int index, Future<OpenStreetMapParser> parser) {}
 }
@@ -0,0 +1,95 @@
+package org.opentripplanner.openstreetmap;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.openstreetmap.osmosis.osmbinary.Fileformat;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+
+/**
+ * A raw, still compressed, block of an OpenStreetMap PBF file.
+ * <p>
+ * The blocks of a PBF file are independent of each other, so they can be decompressed and parsed
+ * in parallel. Reading a block from the stream is cheap, it is just a length-prefixed copy of
+ * bytes, and is done on the thread reading the file. The expensive part - inflating and parsing
+ * the protobuf messages - is done by {@link #decode(OsmParserPhase, Map)}.
+ *
+ * @param index The position of the block in the file, counting from zero.
+ * @param type  The block type, "OSMHeader" or "OSMData". Other types are ignored.
+ */
+record OsmBlock(int index, String type, byte[] blob) {
+  private static final String HEADER_TYPE = "OSMHeader";
+  private static final String DATA_TYPE = "OSMData";
+
+  /** The max size of a block header and a block, from the PBF specification. */
+  private static final int MAX_HEADER_SIZE = 64 * 1024;
+  private static final int MAX_BLOB_SIZE = 32 * 1024 * 1024;
+
+  /**
+   * Read the next block from the stream.
+   *
+   * @return the block, or {@code null} if the end of the stream is reached.
+   */
+  static OsmBlock read(DataInputStream in, int index) throws IOException {
+    int headerSize;
+    try {
+      headerSize = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    if (headerSize < 0 || headerSize > MAX_HEADER_SIZE) {
+      throw new IOException("Invalid PBF block header size: " + headerSize);
+    }
+    byte[] headerBytes = new byte[headerSize];
+    in.readFully(headerBytes);
+    var header = Fileformat.BlobHeader.parseFrom(headerBytes);
+
+    if (header.getDatasize() < 0 || header.getDatasize() > MAX_BLOB_SIZE) {
+      throw new IOException("Invalid PBF block size: " + header.getDatasize());
+    }
+    byte[] blob = new byte[header.getDatasize()];
+    in.readFully(blob);
+    return new OsmBlock(index, header.getType(), blob);
+  }
+
+  /**
+   * Inflate and parse the block. This is thread-safe, a new parser is created for each block.
+   */
+  OpenStreetMapParser decode(OsmParserPhase phase, Map<String, String> stringTable)
+    throws IOException, DataFormatException {
+    var parser = new OpenStreetMapParser(phase, stringTable);
+
+    if (HEADER_TYPE.equals(type)) {
+      parser.parse(Osmformat.HeaderBlock.parseFrom(data()));
+    } else if (DATA_TYPE.equals(type)) {
+      parser.parse(Osmformat.PrimitiveBlock.parseFrom(data()));
+    }
+    return parser;
+  }
+
+  private byte[] data() throws IOException, DataFormatException {
+    var message = Fileformat.Blob.parseFrom(blob);
+
+    if (message.hasRaw()) {
+      return message.getRaw().toByteArray();
+    }
+    if (!message.hasZlibData()) {
+      throw new IOException("Unsupported PBF block compression in block " + index);
+    }
+    byte[] data = new byte[message.getRawSize()];
+    var inflater = new Inflater();
+    try {
+      inflater.setInput(message.getZlibData().toByteArray());
+      int size = inflater.inflate(data);
+      if (size != data.length || !inflater.finished()) {
+        throw new DataFormatException("Unexpected size of PBF block " + index);
+      }
+    } finally {
+      inflater.end();
+    }
+    return data;
+  }
+}
@@ -11,6 +11,26 @@ public class OSMNode extends OSMWithTags {
     return "osm node " + id;
   }
 
+  /**
+   * Nodes are equal if they have the same id. The OSM database does not keep an instance of
+   * untagged nodes, it creates a new instance each time one is requested.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return id == ((OSMNode) o).id;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(id);
+  }
+
   public Coordinate getCoordinate() {
     return new Coordinate(this.lon, this.lat);
   }
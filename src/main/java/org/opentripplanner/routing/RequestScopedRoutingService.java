@@ -0,0 +1,154 @@
+package org.opentripplanner.routing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.model.StopTimesInPattern;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.model.TripTimeOnDate;
+import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+
+/**
+ * A {@link RoutingService} for a single API request, which remembers the results of the more
+ * expensive lookups. In the GraphQL APIs the same lookup is often made many times in one request,
+ * for example the patterns of a stop for every stop time of the stop, or the departures of a stop
+ * requested by several fields. The results are the same within a request, since the same
+ * TimetableSnapshot is used for the whole request.
+ * <p>
+ * The results returned are shared, and can not be modified. An instance must not be kept after the
+ * request is done, as the results would not be updated.
+ */
+public class RequestScopedRoutingService extends RoutingService {
+
+  private final Map<StopTimesKey, List<StopTimesInPattern>> stopTimesForStop =
+    new ConcurrentHashMap<>();
+
+  private final Map<PatternStopTimesKey, List<TripTimeOnDate>> stopTimesForPatternAtStop =
+    new ConcurrentHashMap<>();
+
+  private final Map<StopLocation, Collection<TripPattern>> realtimePatternsForStop =
+    new ConcurrentHashMap<>();
+
+  public RequestScopedRoutingService(Graph graph) {
+    super(graph);
+    // Resolve the snapshot up front, so all the lookups of the request use the same snapshot
+    lazyGetTimeTableSnapShot();
+  }
+
+  @Override
+  public List<StopTimesInPattern> stopTimesForStop(
+    StopLocation stop,
+    long startTime,
+    int timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture,
+    boolean includeCancelledTrips
+  ) {
+    return lookup(
+      stopTimesForStop,
+      new StopTimesKey(
+        stop,
+        startTime,
+        timeRange,
+        numberOfDepartures,
+        arrivalDeparture,
+        includeCancelledTrips
+      ),
+      () ->
+        Collections.unmodifiableList(
+          super.stopTimesForStop(
+            stop,
+            startTime,
+            timeRange,
+            numberOfDepartures,
+            arrivalDeparture,
+            includeCancelledTrips
+          )
+        )
+    );
+  }
+
+  @Override
+  public List<TripTimeOnDate> stopTimesForPatternAtStop(
+    StopLocation stop,
+    TripPattern pattern,
+    long startTime,
+    int timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture
+  ) {
+    return lookup(
+      stopTimesForPatternAtStop,
+      new PatternStopTimesKey(
+        stop,
+        pattern,
+        startTime,
+        timeRange,
+        numberOfDepartures,
+        arrivalDeparture
+      ),
+      () ->
+        Collections.unmodifiableList(
+          super.stopTimesForPatternAtStop(
+            stop,
+            pattern,
+            startTime,
+            timeRange,
+            numberOfDepartures,
+            arrivalDeparture
+          )
+        )
+    );
+  }
+
+  @Override
+  public Collection<TripPattern> getPatternsForStop(
+    StopLocation stop,
+    boolean includeRealtimeUpdates
+  ) {
+    if (!includeRealtimeUpdates) {
+      return super.getPatternsForStop(stop, false);
+    }
+    return lookup(
+      realtimePatternsForStop,
+      stop,
+      () -> Collections.unmodifiableCollection(super.getPatternsForStop(stop, true))
+    );
+  }
+
+  /**
+   * The lookup is not done inside computeIfAbsent, as it may be slow and may use the other maps.
+   * Two threads may do the same lookup, with the same result.
+   */
+  private static <K, V> V lookup(Map<K, V> results, K key, Supplier<V> lookup) {
+    V result = results.get(key);
+    if (result == null) {
+      result = lookup.get();
+      results.put(key, result);
+    }
+    return result;
+  }
+
+  private record StopTimesKey(
+    StopLocation stop,
+    long startTime,
+    int timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture,
+    boolean includeCancelledTrips
+  ) {}
+
+  private record PatternStopTimesKey(
+    StopLocation stop,
+    TripPattern pattern,
+    long startTime,
+    int timeRange,
+    int numberOfDepartures,
+    ArrivalDeparture arrivalDeparture
+  ) {}
+}
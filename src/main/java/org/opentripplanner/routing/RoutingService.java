@@ -93,7 +93,7 @@ public class RoutingService {
   /**
    * This should only be accessed through the getTimetableSnapshot method.
    */
-  private TimetableSnapshot timetableSnapshot;
+  private volatile TimetableSnapshot timetableSnapshot;
 
   public RoutingService(Graph graph) {
     this.graph = graph;
@@ -809,14 +809,23 @@ public class RoutingService {
   }
 
   /**
-   * Lazy-initialization of TimetableSnapshot
+   * Lazy-initialization of TimetableSnapshot. The service may be used by more than one thread, for
+   * example by the fields of a GraphQL query fetched in parallel, so all threads must get the same
+   * snapshot.
    *
    * @return The same TimetableSnapshot is returned throughout the lifecycle of this object.
    */
-  private TimetableSnapshot lazyGetTimeTableSnapShot() {
-    if (this.timetableSnapshot == null) {
-      timetableSnapshot = graph.getTimetableSnapshot();
+  TimetableSnapshot lazyGetTimeTableSnapShot() {
+    TimetableSnapshot snapshot = this.timetableSnapshot;
+    if (snapshot == null) {
+      synchronized (this) {
+        snapshot = this.timetableSnapshot;
+        if (snapshot == null) {
+          snapshot = graph.getTimetableSnapshot();
+          this.timetableSnapshot = snapshot;
+        }
+      }
     }
-    return this.timetableSnapshot;
+    return snapshot;
   }
 }
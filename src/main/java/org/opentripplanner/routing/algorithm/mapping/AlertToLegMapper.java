@@ -153,15 +153,11 @@ public class AlertToLegMapper {
     if (stop == null) {
       return new ArrayList<>();
     }
-    Collection<TransitAlert> alertsForStopAndRoute = transitAlertService.getStopAndRouteAlerts(
-      stop.getId(),
-      routeId
+    // The service may return an immutable collection, copy it before adding more alerts
+    Collection<TransitAlert> alertsForStopAndRoute = new HashSet<>(
+      transitAlertService.getStopAndRouteAlerts(stop.getId(), routeId)
     );
     if (checkParentStop) {
-      if (alertsForStopAndRoute == null) {
-        alertsForStopAndRoute = new HashSet<>();
-      }
-
       if (stop.isPartOfStation()) {
         //Also check parent
         Collection<TransitAlert> alerts = transitAlertService.getStopAndRouteAlerts(
@@ -228,15 +224,10 @@ public class AlertToLegMapper {
       return new ArrayList<>();
     }
 
-    Collection<TransitAlert> alertsForStopAndTrip = transitAlertService.getStopAndTripAlerts(
-      stop.getId(),
-      tripId,
-      serviceDate
+    Collection<TransitAlert> alertsForStopAndTrip = new HashSet<>(
+      transitAlertService.getStopAndTripAlerts(stop.getId(), tripId, serviceDate)
     );
     if (checkParentStop) {
-      if (alertsForStopAndTrip == null) {
-        alertsForStopAndTrip = new HashSet<>();
-      }
       if (stop.isPartOfStation()) {
         // Also check parent
         Collection<TransitAlert> alerts = transitAlertService.getStopAndTripAlerts(
@@ -284,12 +275,10 @@ public class AlertToLegMapper {
       return new ArrayList<>();
     }
 
-    Collection<TransitAlert> alertsForStop = transitAlertService.getStopAlerts(stop.getId());
+    Collection<TransitAlert> alertsForStop = new HashSet<>(
+      transitAlertService.getStopAlerts(stop.getId())
+    );
     if (checkParentStop) {
-      if (alertsForStop == null) {
-        alertsForStop = new HashSet<>();
-      }
-
       if (stop.isPartOfStation()) {
         // Also check parent
         Collection<TransitAlert> parentStopAlerts = transitAlertService.getStopAlerts(
@@ -6,8 +6,10 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.LineString;
@@ -105,22 +107,21 @@ public class GraphPathToItineraryMapper {
    */
   public Itinerary generateItinerary(GraphPath path) {
     List<Leg> legs = new ArrayList<>();
-    WalkStep previousStep = null;
+    Supplier<WalkStep> previousStep = () -> null;
     for (List<State> legStates : sliceStates(path.states)) {
       if (OTPFeature.FlexRouting.isOn() && legStates.get(1).backEdge instanceof FlexTripEdge) {
         legs.add(generateFlexLeg(legStates));
-        previousStep = null;
+        previousStep = () -> null;
         continue;
       }
       StreetLeg leg = generateLeg(legStates, previousStep);
       legs.add(leg);
 
-      List<WalkStep> walkSteps = leg.getWalkSteps();
-      if (walkSteps.size() > 0) {
-        previousStep = walkSteps.get(walkSteps.size() - 1);
-      } else {
-        previousStep = null;
-      }
+      previousStep =
+        () -> {
+          List<WalkStep> walkSteps = leg.getWalkSteps();
+          return walkSteps.isEmpty() ? null : walkSteps.get(walkSteps.size() - 1);
+        };
     }
 
     Itinerary itinerary = new Itinerary(legs);
@@ -366,12 +367,15 @@ public class GraphPathToItineraryMapper {
   /**
    * Generate one leg of an itinerary from a list of {@link State}.
    *
+   * The geometry, elevation profile and walk steps of the leg are computed when they are first
+   * used, which is only done for the itineraries that are returned.
+   *
    * @param states       The list of states to base the leg on
    * @param previousStep the previous walk step, so that the first relative turn direction is
    *                     calculated correctly
    * @return The generated leg
    */
-  private StreetLeg generateLeg(List<State> states, WalkStep previousStep) {
+  private StreetLeg generateLeg(List<State> states, Supplier<WalkStep> previousStep) {
     List<Edge> edges = states
       .stream()
       // The first back edge is part of the previous leg, skip it
@@ -388,17 +392,6 @@ public class GraphPathToItineraryMapper {
 
     double distanceMeters = edges.stream().mapToDouble(Edge::getDistanceMeters).sum();
 
-    CoordinateArrayListSequence coordinates = makeCoordinates(edges);
-    LineString geometry = GeometryUtils.getGeometryFactory().createLineString(coordinates);
-
-    var statesToWalkStepsMapper = new StatesToWalkStepsMapper(
-      states,
-      previousStep,
-      streetNotesService,
-      ellipsoidToGeoidDifference
-    );
-    List<WalkStep> walkSteps = statesToWalkStepsMapper.generateWalkSteps();
-
     /* For the from/to vertices to be in the correct place for vehicle parking
      * the state for actually parking (traversing the VehicleParkEdge) is excluded
      * from the list of states.
@@ -409,7 +402,12 @@ public class GraphPathToItineraryMapper {
 
     State startTimeState = previousStateIsVehicleParking ? firstState.getBackState() : firstState;
 
-    StreetLeg leg = new StreetLeg(
+    boolean geoidElevation = firstState.getOptions().geoidElevation;
+    double[] elevationChanges = makeElevationChanges(edges, geoidElevation);
+    // The states are a view of the path, keep a copy for computing the walk steps later
+    List<State> walkStepStates = List.copyOf(states);
+
+    StreetLeg leg = StreetLeg.lazy(
       resolveMode(states),
       startTimeState.getTime().atZone(timeZone),
       lastState.getTime().atZone(timeZone),
@@ -417,9 +415,19 @@ public class GraphPathToItineraryMapper {
       makePlace(lastState),
       distanceMeters,
       (int) (lastState.getWeight() - firstState.getWeight()),
-      geometry,
-      makeElevation(edges, firstState.getOptions().geoidElevation),
-      walkSteps
+      () -> GeometryUtils.getGeometryFactory().createLineString(makeCoordinates(edges)),
+      () -> makeElevation(edges, geoidElevation),
+      elevationChanges == null ? null : elevationChanges[0],
+      elevationChanges == null ? null : elevationChanges[1],
+      makeMaxSlope(edges),
+      () ->
+        new StatesToWalkStepsMapper(
+          walkStepStates,
+          previousStep.get(),
+          streetNotesService,
+          ellipsoidToGeoidDifference
+        )
+          .generateWalkSteps()
     );
 
     leg.setRentedVehicle(firstState.isRentingVehicle());
@@ -457,6 +465,64 @@ public class GraphPathToItineraryMapper {
     }
   }
 
+  /**
+   * Calculate the max slope of the street edges, without making the walk steps. The walk steps have
+   * the same street edges.
+   *
+   * @return the max slope, or {@code null} if there are no street edges.
+   */
+  private static Double makeMaxSlope(List<Edge> edges) {
+    OptionalDouble maxSlope = edges
+      .stream()
+      .filter(StreetEdge.class::isInstance)
+      .map(StreetEdge.class::cast)
+      .mapToDouble(StreetEdge::getMaxSlope)
+      .max();
+    return maxSlope.isPresent() ? maxSlope.getAsDouble() : null;
+  }
+
+  /**
+   * Calculate the elevation gained and lost along the elevation profile made by {@link
+   * #makeElevation(List, boolean)}, without making the profile. The points removed from the
+   * profile there do not change the result.
+   *
+   * @return the elevation gained and lost, or {@code null} if the profile has no elevation.
+   */
+  private double[] makeElevationChanges(List<Edge> edges, boolean geoidElevation) {
+    double heightOffset = geoidElevation ? ellipsoidToGeoidDifference : 0;
+
+    double elevationGained = 0.0;
+    double elevationLost = 0.0;
+    double lastElevation = Double.NaN;
+    boolean hasElevation = false;
+
+    for (final Edge edge : edges) {
+      if (edge.getDistanceMeters() <= 0) {
+        continue;
+      }
+      PackedCoordinateSequence profile = edge instanceof StreetEdge streetEdge
+        ? streetEdge.getElevationProfile()
+        : null;
+      if (profile == null || profile.size() == 0) {
+        // The profile has NaN for edges without elevation, the changes to and from it are skipped
+        lastElevation = Double.NaN;
+        continue;
+      }
+      for (int i = 0; i < profile.size(); i++) {
+        double elevation = profile.getOrdinate(i, 1) + heightOffset;
+        double change = elevation - lastElevation;
+        if (change > 0) {
+          elevationGained += change;
+        } else if (change < 0) {
+          elevationLost -= change;
+        }
+        lastElevation = elevation;
+        hasElevation |= !Double.isNaN(elevation);
+      }
+    }
+    return hasElevation ? new double[] { elevationGained, elevationLost } : null;
+  }
+
   private List<P2<Double>> makeElevation(List<Edge> edges, boolean geoidElevation) {
     ArrayList<P2<Double>> elevationProfile = new ArrayList<>();
 
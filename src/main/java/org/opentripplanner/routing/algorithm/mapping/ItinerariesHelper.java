@@ -1,11 +1,11 @@
 package org.opentripplanner.routing.algorithm.mapping;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.OptionalDouble;
 import org.opentripplanner.model.plan.Itinerary;
 import org.opentripplanner.model.plan.StreetLeg;
 import org.opentripplanner.routing.api.request.RoutingRequest;
-import org.opentripplanner.routing.edgetype.StreetEdge;
 
 public class ItinerariesHelper {
 
@@ -31,12 +31,9 @@ public class ItinerariesHelper {
       .stream()
       .filter(StreetLeg.class::isInstance)
       .map(StreetLeg.class::cast)
-      .map(StreetLeg::getWalkSteps)
-      .flatMap(List::stream)
-      .map(step -> step.edges)
-      .filter(StreetEdge.class::isInstance)
-      .map(StreetEdge.class::cast)
-      .mapToDouble(StreetEdge::getMaxSlope)
+      .map(StreetLeg::getMaxSlope)
+      .filter(Objects::nonNull)
+      .mapToDouble(Double::doubleValue)
       .max();
   }
 }
@@ -41,6 +41,12 @@ public class SerializedGraphObject implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(SerializedGraphObject.class);
 
+  /**
+   * The size of the Kryo input and output buffers. The Kryo default is 4 KB, which results in one
+   * read or write call to the underlying (unbuffered) stream for every 4 KB of the graph file.
+   */
+  private static final int IO_BUFFER_SIZE = 1024 * 1024;
+
   public final Graph graph;
 
   private final Collection<Edge> edges;
@@ -125,7 +131,8 @@ public class SerializedGraphObject implements Serializable {
     // TODO store version information, halt load if versions mismatch
     try (inputStream) {
       LOG.info("Reading graph from '{}'", sourceDescription);
-      Input input = new Input(inputStream);
+      long startTime = System.currentTimeMillis();
+      Input input = new Input(inputStream, IO_BUFFER_SIZE);
 
       validateGraphSerializationId(
         input.readBytes(GraphFileHeader.headerLength()),
@@ -137,7 +144,13 @@ public class SerializedGraphObject implements Serializable {
       Graph graph = serObj.graph;
       LOG.debug("Graph read.");
       serObj.reconstructEdgeLists();
-      LOG.info("Graph read. |V|={} |E|={}", graph.countVertices(), graph.countEdges());
+      LOG.info(
+        "Graph read in {}s, {} MB. |V|={} |E|={}",
+        (System.currentTimeMillis() - startTime) / 1000,
+        input.total() / (1024 * 1024),
+        graph.countVertices(),
+        graph.countEdges()
+      );
       return serObj;
     } catch (IOException e) {
       LOG.error("Exception while loading graph: {}", e.getLocalizedMessage(), e);
@@ -194,7 +207,7 @@ public class SerializedGraphObject implements Serializable {
     LOG.info("Writing graph " + graphName + " ...");
     outputStream = wrapOutputStreamWithProgressTracker(outputStream, size);
     Kryo kryo = KryoBuilder.create();
-    Output output = new Output(outputStream);
+    Output output = new Output(outputStream, IO_BUFFER_SIZE);
     output.write(OtpProjectInfo.projectInfo().graphFileHeaderInfo.header());
     kryo.writeClassAndObject(output, this);
     output.close();
@@ -137,4 +137,49 @@ public class DelegatingTransitAlertServiceImpl implements TransitAlertService {
       .flatMap(Collection::stream)
       .collect(Collectors.toList());
   }
+
+  @Override
+  public Collection<TransitAlert> getStopAndRouteAlertsByStop(FeedScopedId stop) {
+    return transitAlertServices
+      .stream()
+      .map(transitAlertService -> transitAlertService.getStopAndRouteAlertsByStop(stop))
+      .flatMap(Collection::stream)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndRouteAlertsByRoute(FeedScopedId route) {
+    return transitAlertServices
+      .stream()
+      .map(transitAlertService -> transitAlertService.getStopAndRouteAlertsByRoute(route))
+      .flatMap(Collection::stream)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndTripAlertsByStop(FeedScopedId stop) {
+    return transitAlertServices
+      .stream()
+      .map(transitAlertService -> transitAlertService.getStopAndTripAlertsByStop(stop))
+      .flatMap(Collection::stream)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndTripAlertsByTrip(FeedScopedId trip) {
+    return transitAlertServices
+      .stream()
+      .map(transitAlertService -> transitAlertService.getStopAndTripAlertsByTrip(trip))
+      .flatMap(Collection::stream)
+      .collect(Collectors.toList());
+  }
+
+  @Override
+  public Collection<TransitAlert> getRouteTypeAlertsByFeed(String feedId) {
+    return transitAlertServices
+      .stream()
+      .map(transitAlertService -> transitAlertService.getRouteTypeAlertsByFeed(feedId))
+      .flatMap(Collection::stream)
+      .collect(Collectors.toList());
+  }
 }
@@ -1,10 +1,12 @@
 package org.opentripplanner.routing.impl;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Set;
+import java.util.Map;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.alertpatch.EntitySelector;
@@ -16,12 +18,15 @@ import org.opentripplanner.routing.services.TransitAlertService;
  * When an alert is added with more than one transit entity, e.g. a Stop and a Trip, both conditions
  * must be met for the alert to be displayed. This is the case in both the Norwegian interpretation
  * of SIRI, and the GTFS-RT alerts specification.
+ * <p>
+ * All indexes are built when the alerts are set, and replaced atomically. The collections returned
+ * are immutable, so callers should copy them before adding more alerts.
  */
 public class TransitAlertServiceImpl implements TransitAlertService {
 
   private final Graph graph;
 
-  private Multimap<EntitySelector, TransitAlert> alerts = HashMultimap.create();
+  private volatile AlertIndex index = AlertIndex.EMPTY;
 
   public TransitAlertServiceImpl(Graph graph) {
     this.graph = graph;
@@ -29,34 +34,22 @@ public class TransitAlertServiceImpl implements TransitAlertService {
 
   @Override
   public void setAlerts(Collection<TransitAlert> alerts) {
-    Multimap<EntitySelector, TransitAlert> newAlerts = HashMultimap.create();
-    for (TransitAlert alert : alerts) {
-      for (EntitySelector entity : alert.getEntities()) {
-        newAlerts.put(entity, alert);
-      }
-    }
-
-    this.alerts = newAlerts;
+    this.index = new AlertIndex(alerts);
   }
 
   @Override
   public Collection<TransitAlert> getAllAlerts() {
-    return new HashSet<>(alerts.values());
+    return new HashSet<>(index.all);
   }
 
   @Override
   public TransitAlert getAlertById(String id) {
-    return alerts
-      .values()
-      .stream()
-      .filter(transitAlert -> transitAlert.getId().equals(id))
-      .findAny()
-      .orElse(null);
+    return id == null ? null : index.byId.get(id);
   }
 
   @Override
   public Collection<TransitAlert> getStopAlerts(FeedScopedId stopId) {
-    Set<TransitAlert> result = new HashSet<>(alerts.get(new EntitySelector.Stop(stopId)));
+    Collection<TransitAlert> result = index.byEntity.get(new EntitySelector.Stop(stopId));
     if (result.isEmpty()) {
       // Search for alerts on parent-stop
       if (graph != null && graph.index != null) {
@@ -81,22 +74,22 @@ public class TransitAlertServiceImpl implements TransitAlertService {
 
   @Override
   public Collection<TransitAlert> getRouteAlerts(FeedScopedId route) {
-    return alerts.get(new EntitySelector.Route(route));
+    return index.byEntity.get(new EntitySelector.Route(route));
   }
 
   @Override
   public Collection<TransitAlert> getTripAlerts(FeedScopedId trip, ServiceDate serviceDate) {
-    return alerts.get(new EntitySelector.Trip(trip, serviceDate));
+    return index.byEntity.get(new EntitySelector.Trip(trip, serviceDate));
   }
 
   @Override
   public Collection<TransitAlert> getAgencyAlerts(FeedScopedId agency) {
-    return alerts.get(new EntitySelector.Agency(agency));
+    return index.byEntity.get(new EntitySelector.Agency(agency));
   }
 
   @Override
   public Collection<TransitAlert> getStopAndRouteAlerts(FeedScopedId stop, FeedScopedId route) {
-    return alerts.get(new EntitySelector.StopAndRoute(stop, route));
+    return index.byEntity.get(new EntitySelector.StopAndRoute(stop, route));
   }
 
   @Override
@@ -105,21 +98,106 @@ public class TransitAlertServiceImpl implements TransitAlertService {
     FeedScopedId trip,
     ServiceDate serviceDate
   ) {
-    return alerts.get(new EntitySelector.StopAndTrip(stop, trip, serviceDate));
+    return index.byEntity.get(new EntitySelector.StopAndTrip(stop, trip, serviceDate));
   }
 
   @Override
   public Collection<TransitAlert> getRouteTypeAndAgencyAlerts(int routeType, FeedScopedId agency) {
-    return alerts.get(new EntitySelector.RouteTypeAndAgency(routeType, agency));
+    return index.byEntity.get(new EntitySelector.RouteTypeAndAgency(routeType, agency));
   }
 
   @Override
   public Collection<TransitAlert> getRouteTypeAlerts(int routeType, String feedId) {
-    return alerts.get(new EntitySelector.RouteType(routeType, feedId));
+    return index.byEntity.get(new EntitySelector.RouteType(routeType, feedId));
   }
 
   @Override
   public Collection<TransitAlert> getDirectionAndRouteAlerts(int directionId, FeedScopedId route) {
-    return alerts.get(new EntitySelector.DirectionAndRoute(directionId, route));
+    return index.byEntity.get(new EntitySelector.DirectionAndRoute(directionId, route));
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndRouteAlertsByStop(FeedScopedId stop) {
+    return index.stopAndRouteByStop.get(stop);
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndRouteAlertsByRoute(FeedScopedId route) {
+    return index.stopAndRouteByRoute.get(route);
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndTripAlertsByStop(FeedScopedId stop) {
+    return index.stopAndTripByStop.get(stop);
+  }
+
+  @Override
+  public Collection<TransitAlert> getStopAndTripAlertsByTrip(FeedScopedId trip) {
+    return index.stopAndTripByTrip.get(trip);
+  }
+
+  @Override
+  public Collection<TransitAlert> getRouteTypeAlertsByFeed(String feedId) {
+    return index.routeTypeByFeed.get(feedId);
+  }
+
+  /**
+   * Immutable lookup tables for a set of alerts. The alerts are indexed by their entity selectors,
+   * and the combined stop-and-route/trip selectors are also indexed on each of their parts, so
+   * that looking up e.g. all alerts on a stop for any route does not require a scan of all alerts.
+   */
+  private static class AlertIndex {
+
+    private static final AlertIndex EMPTY = new AlertIndex(ImmutableSet.of());
+
+    private final ImmutableSet<TransitAlert> all;
+    private final ImmutableMap<String, TransitAlert> byId;
+    private final ImmutableSetMultimap<EntitySelector, TransitAlert> byEntity;
+    private final ImmutableSetMultimap<FeedScopedId, TransitAlert> stopAndRouteByStop;
+    private final ImmutableSetMultimap<FeedScopedId, TransitAlert> stopAndRouteByRoute;
+    private final ImmutableSetMultimap<FeedScopedId, TransitAlert> stopAndTripByStop;
+    private final ImmutableSetMultimap<FeedScopedId, TransitAlert> stopAndTripByTrip;
+    private final ImmutableSetMultimap<String, TransitAlert> routeTypeByFeed;
+
+    private AlertIndex(Collection<TransitAlert> alerts) {
+      var allBuilder = ImmutableSet.<TransitAlert>builder();
+      Map<String, TransitAlert> byIdBuilder = new HashMap<>();
+      var byEntityBuilder = ImmutableSetMultimap.<EntitySelector, TransitAlert>builder();
+      var stopAndRouteByStopBuilder = ImmutableSetMultimap.<FeedScopedId, TransitAlert>builder();
+      var stopAndRouteByRouteBuilder = ImmutableSetMultimap.<FeedScopedId, TransitAlert>builder();
+      var stopAndTripByStopBuilder = ImmutableSetMultimap.<FeedScopedId, TransitAlert>builder();
+      var stopAndTripByTripBuilder = ImmutableSetMultimap.<FeedScopedId, TransitAlert>builder();
+      var routeTypeByFeedBuilder = ImmutableSetMultimap.<String, TransitAlert>builder();
+
+      for (TransitAlert alert : alerts) {
+        allBuilder.add(alert);
+        if (alert.getId() != null) {
+          // If more than one alert have the same id, any one of them may be returned
+          byIdBuilder.putIfAbsent(alert.getId(), alert);
+        }
+        for (EntitySelector entity : alert.getEntities()) {
+          byEntityBuilder.put(entity, alert);
+
+          if (entity instanceof EntitySelector.StopAndRoute stopAndRoute) {
+            stopAndRouteByStopBuilder.put(stopAndRoute.stopAndRoute.stop, alert);
+            stopAndRouteByRouteBuilder.put(stopAndRoute.stopAndRoute.routeOrTrip, alert);
+          } else if (entity instanceof EntitySelector.StopAndTrip stopAndTrip) {
+            stopAndTripByStopBuilder.put(stopAndTrip.stopAndTrip.stop, alert);
+            stopAndTripByTripBuilder.put(stopAndTrip.stopAndTrip.routeOrTrip, alert);
+          } else if (entity instanceof EntitySelector.RouteType routeType) {
+            routeTypeByFeedBuilder.put(routeType.feedId, alert);
+          }
+        }
+      }
+
+      this.all = allBuilder.build();
+      this.byId = ImmutableMap.copyOf(byIdBuilder);
+      this.byEntity = byEntityBuilder.build();
+      this.stopAndRouteByStop = stopAndRouteByStopBuilder.build();
+      this.stopAndRouteByRoute = stopAndRouteByRouteBuilder.build();
+      this.stopAndTripByStop = stopAndTripByStopBuilder.build();
+      this.stopAndTripByTrip = stopAndTripByTripBuilder.build();
+      this.routeTypeByFeed = routeTypeByFeedBuilder.build();
+    }
   }
 }
@@ -33,4 +33,19 @@ public interface TransitAlertService {
   Collection<TransitAlert> getRouteTypeAlerts(int routeType, String feedId);
 
   Collection<TransitAlert> getDirectionAndRouteAlerts(int directionId, FeedScopedId route);
+
+  /** Alerts on the given stop in combination with any route. */
+  Collection<TransitAlert> getStopAndRouteAlertsByStop(FeedScopedId stop);
+
+  /** Alerts on the given route in combination with any stop. */
+  Collection<TransitAlert> getStopAndRouteAlertsByRoute(FeedScopedId route);
+
+  /** Alerts on the given stop in combination with any trip, on any service date. */
+  Collection<TransitAlert> getStopAndTripAlertsByStop(FeedScopedId stop);
+
+  /** Alerts on the given trip, on any service date, in combination with any stop. */
+  Collection<TransitAlert> getStopAndTripAlertsByTrip(FeedScopedId trip);
+
+  /** Alerts on any route type within the given feed. */
+  Collection<TransitAlert> getRouteTypeAlertsByFeed(String feedId);
 }
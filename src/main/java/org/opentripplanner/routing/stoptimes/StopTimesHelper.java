@@ -18,6 +18,7 @@ import org.opentripplanner.model.PickDrop;
 import org.opentripplanner.model.StopLocation;
 import org.opentripplanner.model.StopTimesInPattern;
 import org.opentripplanner.model.Timetable;
+import org.opentripplanner.model.TimetableDepartureIndex;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.TripPattern;
@@ -272,7 +273,24 @@ public class StopTimesHelper {
             continue;
           }
 
-          for (TripTimes tripTimes : timetable.getTripTimes()) {
+          // The trips are visited in order of departure from the stop. A trip arriving in range
+          // departs at most the max dwell time after the end of the range.
+          TimetableDepartureIndex index = timetable.getDepartureIndex();
+          int endTime = secondsSinceMidnight + timeRange;
+          int firstDepartureTime = arrivalDeparture == DEPARTURES
+            ? secondsSinceMidnight
+            : secondsSinceMidnight + index.minDwellTime(stopIndex);
+          int lastDepartureTime = arrivalDeparture == DEPARTURES
+            ? endTime
+            : endTime + index.maxDwellTime(stopIndex);
+          int nFound = 0;
+
+          for (
+            int i = index.firstDepartureAtOrAfter(stopIndex, firstDepartureTime);
+            i < index.numberOfTrips() && index.departureTime(stopIndex, i) <= lastDepartureTime;
+            i++
+          ) {
+            TripTimes tripTimes = timetable.getTripTimes(index.tripIndex(stopIndex, i));
             if (!sd.serviceRunning(tripTimes.getServiceCode())) {
               continue;
             }
@@ -293,11 +311,11 @@ public class StopTimesHelper {
 
             boolean departureTimeInRange =
               tripTimes.getDepartureTime(stopIndex) >= secondsSinceMidnight &&
-              tripTimes.getDepartureTime(stopIndex) <= secondsSinceMidnight + timeRange;
+              tripTimes.getDepartureTime(stopIndex) <= endTime;
 
             boolean arrivalTimeInRange =
               tripTimes.getArrivalTime(stopIndex) >= secondsSinceMidnight &&
-              tripTimes.getArrivalTime(stopIndex) <= secondsSinceMidnight + timeRange;
+              tripTimes.getArrivalTime(stopIndex) <= endTime;
 
             // ARRIVAL: Arrival time has to be within range
             // DEPARTURES: Departure time has to be within range
@@ -307,6 +325,11 @@ public class StopTimesHelper {
               (arrivalDeparture != DEPARTURES && arrivalTimeInRange)
             ) {
               pq.add(new TripTimeOnDate(tripTimes, stopIndex, pattern, sd));
+              // The queue is ordered by departure time, later trips on this date can not be
+              // part of the result
+              if (++nFound == numberOfDepartures) {
+                break;
+              }
             }
           }
           // TODO Add back support for frequency entries
@@ -11,12 +11,32 @@ public class VehicleParkingService implements Serializable {
 
   private final Set<VehicleParking> vehicleParkings = new HashSet<>();
 
+  /**
+   * Incremented each time a vehicle parking is added, removed or updated, so caches of the
+   * vehicle parkings know when to update. The service is only modified by the graph writer thread.
+   */
+  private transient volatile long modificationCount;
+
   public void addVehicleParking(VehicleParking vehicleParking) {
     vehicleParkings.add(vehicleParking);
+    ++modificationCount;
   }
 
   public void removeVehicleParking(VehicleParking vehicleParking) {
     vehicleParkings.remove(vehicleParking);
+    ++modificationCount;
+  }
+
+  public void updateVehicleParkingAvailability(
+    VehicleParking vehicleParking,
+    VehicleParkingSpaces availability
+  ) {
+    vehicleParking.updateAvailability(availability);
+    ++modificationCount;
+  }
+
+  public long getModificationCount() {
+    return modificationCount;
   }
 
   public Stream<VehicleParking> getBikeParks() {
@@ -16,6 +16,12 @@ public class VehicleRentalStationService implements Serializable {
 
   private final Map<FeedScopedId, VehicleRentalPlace> vehicleRentalStations = new HashMap<>();
 
+  /**
+   * Incremented each time a station is added or removed, so caches of the stations know when to
+   * update. The service is only modified by the graph writer thread.
+   */
+  private transient volatile long modificationCount;
+
   public Collection<VehicleRentalPlace> getVehicleRentalPlaces() {
     return vehicleRentalStations.values();
   }
@@ -60,10 +66,16 @@ public class VehicleRentalStationService implements Serializable {
     // Remove old reference first, as adding will be a no-op if already present
     vehicleRentalStations.remove(vehicleRentalStation.getId());
     vehicleRentalStations.put(vehicleRentalStation.getId(), vehicleRentalStation);
+    ++modificationCount;
   }
 
   public void removeVehicleRentalStation(FeedScopedId vehicleRentalStationId) {
     vehicleRentalStations.remove(vehicleRentalStationId);
+    ++modificationCount;
+  }
+
+  public long getModificationCount() {
+    return modificationCount;
   }
 
   /**
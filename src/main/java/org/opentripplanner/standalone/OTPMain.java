@@ -5,7 +5,9 @@ import static org.opentripplanner.model.projectinfo.OtpProjectInfo.projectInfo;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.ParameterException;
 import io.micrometer.core.instrument.Metrics;
+import java.io.File;
 import org.opentripplanner.datastore.DataSource;
+import org.opentripplanner.ext.vectortiles.VectorTilePyramid;
 import org.opentripplanner.graph_builder.GraphBuilder;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.graph.SerializedGraphObject;
@@ -13,6 +15,7 @@ import org.opentripplanner.standalone.config.CommandLineParameters;
 import org.opentripplanner.standalone.configure.OTPAppConstruction;
 import org.opentripplanner.standalone.server.GrizzlyServer;
 import org.opentripplanner.standalone.server.Router;
+import org.opentripplanner.util.OTPFeature;
 import org.opentripplanner.util.OtpAppException;
 import org.opentripplanner.util.ThrowableUtils;
 import org.opentripplanner.visualizer.GraphVisualizer;
@@ -158,6 +161,11 @@ public class OTPMain {
     // Index graph for travel search
     graph.index();
 
+    if (OTPFeature.SandboxAPIMapboxVectorTilesApi.isOn()) {
+      File pyramidFile = new File(params.getBaseDirectory(), VectorTilePyramid.FILE_NAME);
+      VectorTilePyramid.load(pyramidFile, graph);
+    }
+
     // publishing the config version info make it available to the APIs
     app.setOtpConfigVersionsOnServerInfo();
 
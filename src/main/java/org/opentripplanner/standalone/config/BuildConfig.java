@@ -256,6 +256,22 @@ public class BuildConfig {
    * elevation data again.
    */
   public boolean writeCachedElevations;
+  /**
+   * When set to true (it is by default), the transfers cached by a previous graph build are read
+   * and reused for the stops where neither the stop nor the graph around it has changed.
+   */
+  public boolean readCachedTransfers;
+  /**
+   * When set to true (it is false by default), the transfers between stops are written to a file in
+   * the cache directory, to be reused by subsequent graph builds.
+   */
+  public boolean writeCachedTransfers;
+  /**
+   * When set (it is 0 by default), the vector tile layers with stops and stations are rendered up
+   * to this zoom level when the graph is built, and written to a file next to the graph. The
+   * vector tile API serves these tiles from the file instead of building them on request.
+   */
+  public int vectorTilePyramidMaxZoom;
   /**
    * When set to true (it is false by default), the elevation module will include the Ellipsoid to
    * Geiod difference in the calculations of every point along every StreetWithElevationEdge in the
@@ -355,6 +371,7 @@ public class BuildConfig {
     parentStopLinking = c.asBoolean("parentStopLinking", false);
     platformEntriesLinking = c.asBoolean("platformEntriesLinking", false);
     readCachedElevations = c.asBoolean("readCachedElevations", true);
+    readCachedTransfers = c.asBoolean("readCachedTransfers", true);
     staticBikeParkAndRide = c.asBoolean("staticBikeParkAndRide", false);
     staticParkAndRide = c.asBoolean("staticParkAndRide", true);
     stationTransfers = c.asBoolean("stationTransfers", false);
@@ -364,6 +381,8 @@ public class BuildConfig {
     transitServiceStart = c.asDateOrRelativePeriod("transitServiceStart", "-P1Y");
     transitServiceEnd = c.asDateOrRelativePeriod("transitServiceEnd", "P3Y");
     writeCachedElevations = c.asBoolean("writeCachedElevations", false);
+    writeCachedTransfers = c.asBoolean("writeCachedTransfers", false);
+    vectorTilePyramidMaxZoom = c.asInt("vectorTilePyramidMaxZoom", 0);
     maxAreaNodes = c.asInt("maxAreaNodes", 500);
     maxElevationPropagationMeters = c.asInt("maxElevationPropagationMeters", 2000);
     boardingLocationTags = c.asTextSet("boardingLocationTags", Set.of("ref"));
@@ -38,6 +38,8 @@ public class RouterConfig implements Serializable {
   private final String requestLogFile;
   private final TransmodelAPIConfig transmodelApi;
   private final double streetRoutingTimeoutSeconds;
+  private final int graphQLThreadPoolSize;
+  private final int graphQLQueueSize;
   private final RoutingRequest routingRequestDefaults;
   private final TransitRoutingConfig transitConfig;
   private final UpdatersParameters updatersParameters;
@@ -52,6 +54,9 @@ public class RouterConfig implements Serializable {
     this.transmodelApi = new TransmodelAPIConfig(adapter.path("transmodelApi"));
     this.streetRoutingTimeoutSeconds =
       adapter.asDouble("streetRoutingTimeout", DEFAULT_STREET_ROUTING_TIMEOUT);
+    this.graphQLThreadPoolSize =
+      adapter.asInt("graphQLThreadPoolSize", Runtime.getRuntime().availableProcessors());
+    this.graphQLQueueSize = adapter.asInt("graphQLQueueSize", 10 * graphQLThreadPoolSize);
     this.transitConfig = new TransitRoutingConfig(adapter.path("transit"));
     this.routingRequestDefaults = mapRoutingRequest(adapter.path("routingDefaults"));
     this.updatersParameters = new UpdatersConfig(adapter);
@@ -93,6 +98,23 @@ public class RouterConfig implements Serializable {
     return streetRoutingTimeoutSeconds;
   }
 
+  /**
+   * The number of threads used to execute GraphQL queries. Requests are queued when all threads
+   * are busy. The default is the number of available processors.
+   */
+  public int graphQLThreadPoolSize() {
+    return graphQLThreadPoolSize;
+  }
+
+  /**
+   * The number of GraphQL tasks that can wait for a thread. When the queue is full, new tasks are
+   * rejected instead of waiting past the deadline of the request. The default is ten times the
+   * number of threads.
+   */
+  public int graphQLQueueSize() {
+    return graphQLQueueSize;
+  }
+
   public TransmodelAPIConfig transmodelApi() {
     return transmodelApi;
   }
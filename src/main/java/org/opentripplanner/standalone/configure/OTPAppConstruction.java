@@ -84,6 +84,7 @@ public class OTPAppConstruction {
     LOG.info("Wiring up and configuring graph builder task.");
     return GraphBuilder.create(
       config.buildConfig(),
+      config.routerConfig().vectorTileLayers(),
       graphBuilderDataSources(),
       baseGraph,
       config.getCli().doLoadStreetGraph(),
@@ -5,9 +5,14 @@ import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.FileAppender;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
 import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import org.opentripplanner.ext.geocoder.LuceneIndex;
 import org.opentripplanner.ext.transmodelapi.TransmodelAPI;
 import org.opentripplanner.inspector.TileRendererManager;
@@ -39,6 +44,12 @@ public class Router {
   public final MeterRegistry meterRegistry;
   public final RaptorConfig<TripSchedule> raptorConfig;
 
+  /**
+   * A bounded thread pool for executing GraphQL queries, shared by all GraphQL APIs. The size is
+   * set by {@link RouterConfig#graphQLThreadPoolSize()}.
+   */
+  public final ExecutorService graphQLExecutor;
+
   /**
    * Separate logger for incoming requests. This should be handled with a Logback logger rather than
    * something simple like a PrintStream because requests come in multi-threaded.
@@ -60,6 +71,17 @@ public class Router {
     this.defaultRoutingRequest = routerConfig.routingRequestDefaults();
     this.meterRegistry = meterRegistry;
     this.raptorConfig = new RaptorConfig<>(routerConfig.raptorTuningParameters(), meterRegistry);
+    // The queue is bounded, so tasks are rejected during load spikes instead of waiting past the
+    // deadline of the request
+    this.graphQLExecutor =
+      new ThreadPoolExecutor(
+        routerConfig.graphQLThreadPoolSize(),
+        routerConfig.graphQLThreadPoolSize(),
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(routerConfig.graphQLQueueSize()),
+        new ThreadFactoryBuilder().setNameFormat("GraphQLExecutor-%d").build()
+      );
   }
 
   /*
@@ -146,6 +168,7 @@ public class Router {
   public void shutdown() {
     GraphUpdaterConfigurator.shutdownGraph(this.graph);
     raptorConfig.shutdown();
+    graphQLExecutor.shutdown();
   }
 
   public double streetRoutingTimeoutSeconds() {
@@ -1,14 +1,24 @@
 package org.opentripplanner.updater;
 
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.io.Serializable;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.Route;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.trippattern.TripTimes;
 import org.opentripplanner.util.time.TimeUtils;
 
@@ -18,15 +28,45 @@ import org.opentripplanner.util.time.TimeUtils;
  * <p>
  * The class should only be used if we know that the feed producer is unable to produce trip_ids in
  * the GTFS-RT feed.
+ * <p>
+ * The scheduled trips are indexed by route and departure time from the first stop when the matcher
+ * is created, so a match is a map lookup followed by a check of the direction and service date of
+ * the (usually single) candidate trip. Building the index takes time, so one matcher is shared by
+ * the updaters and APIs of a graph, see {@link #forGraph(Graph)}. Trips added by realtime updates
+ * after the matcher is created are added to the index with {@link #addTrip(TripPattern,
+ * TripTimes, ServiceDate)}, and removed again when the realtime data is cleared, purged or the trip
+ * is cancelled. The number of matched and unmatched trips is available in the
+ * "gtfs_rt.fuzzy_match" metric.
+ * <p>
+ * The matcher is only kept in the graph while the server runs, the fields are not serialized.
  */
-public class GtfsRealtimeFuzzyTripMatcher {
+public class GtfsRealtimeFuzzyTripMatcher implements Serializable {
+
+  private static final Counter HITS = matchCounter("hit");
+  private static final Counter MISSES = matchCounter("miss");
 
-  private final RoutingService routingService;
-  private BitSet servicesRunningForDate;
-  private ServiceDate date;
+  private final transient RoutingService routingService;
+  private final transient Map<Route, TIntObjectMap<List<Candidate>>> tripsByRouteAndStartTime;
+  private final transient Map<FeedScopedId, AddedTrip> addedTrips = new HashMap<>();
+  private transient BitSet servicesRunningForDate;
+  private transient ServiceDate date;
 
   public GtfsRealtimeFuzzyTripMatcher(RoutingService routingService) {
     this.routingService = routingService;
+    this.tripsByRouteAndStartTime = indexScheduledTrips(routingService);
+  }
+
+  /**
+   * @return the matcher shared by the users of the graph, which is created on the first call.
+   */
+  public static synchronized GtfsRealtimeFuzzyTripMatcher forGraph(Graph graph) {
+    var existingMatcher = graph.getService(GtfsRealtimeFuzzyTripMatcher.class);
+    if (existingMatcher != null) {
+      return existingMatcher;
+    }
+    var newMatcher = new GtfsRealtimeFuzzyTripMatcher(new RoutingService(graph));
+    graph.putService(GtfsRealtimeFuzzyTripMatcher.class, newMatcher);
+    return newMatcher;
   }
 
   public TripDescriptor match(String feedId, TripDescriptor trip) {
@@ -66,8 +106,10 @@ public class GtfsRealtimeFuzzyTripMatcher {
     }
 
     if (matchedTrip == null) {
+      MISSES.increment();
       return trip;
     }
+    HITS.increment();
 
     // If everything succeeds, build a new TripDescriptor with the matched trip_id
     return trip.toBuilder().setTripId(matchedTrip.getId().getId()).build();
@@ -79,17 +121,128 @@ public class GtfsRealtimeFuzzyTripMatcher {
       // TODO: This is slow, we should either precalculate or cache these for all dates in graph
       this.servicesRunningForDate = routingService.getServicesRunningForDate(date);
     }
-    for (TripPattern pattern : routingService.getPatternsForRoute().get(route)) {
-      if (pattern.getDirection().gtfsCode != direction) continue;
-      for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
+    TIntObjectMap<List<Candidate>> tripsByStartTime = tripsByRouteAndStartTime.get(route);
+    List<Candidate> candidates = tripsByStartTime == null ? null : tripsByStartTime.get(startTime);
+    if (candidates != null) {
+      for (Candidate candidate : candidates) {
         if (
-          times.getScheduledDepartureTime(0) == startTime &&
-          servicesRunningForDate.get(times.getServiceCode())
+          candidate.direction == direction &&
+          servicesRunningForDate.get(candidate.tripTimes.getServiceCode())
         ) {
-          return times.getTrip();
+          return candidate.tripTimes.getTrip();
         }
       }
     }
     return null;
   }
+
+  /**
+   * Add a trip added by a realtime update, so later updates for the trip without a trip_id are
+   * matched to it. The trip is matched after the scheduled trips with the same start time. Realtime
+   * feeds repeat the added trips in every message, so a trip added before with the same id is
+   * replaced.
+   */
+  public synchronized void addTrip(
+    TripPattern pattern,
+    TripTimes tripTimes,
+    ServiceDate serviceDate
+  ) {
+    FeedScopedId tripId = tripTimes.getTrip().getId();
+    removeAddedTrip(tripId);
+    Candidate candidate = addCandidate(
+      tripsByRouteAndStartTime.computeIfAbsent(pattern.getRoute(), r -> new TIntObjectHashMap<>()),
+      pattern.getDirection().gtfsCode,
+      tripTimes
+    );
+    addedTrips.put(tripId, new AddedTrip(pattern.getRoute(), candidate, serviceDate));
+  }
+
+  /** Remove a trip added by a realtime update, if it is in the index. */
+  public synchronized void removeAddedTrip(FeedScopedId tripId) {
+    AddedTrip addedTrip = addedTrips.remove(tripId);
+    if (addedTrip == null) {
+      return;
+    }
+    TIntObjectMap<List<Candidate>> tripsByStartTime = tripsByRouteAndStartTime.get(addedTrip.route);
+    int startTime = addedTrip.candidate.tripTimes.getScheduledDepartureTime(0);
+    List<Candidate> candidates = tripsByStartTime.get(startTime);
+    candidates.removeIf(c -> c == addedTrip.candidate);
+    if (candidates.isEmpty()) {
+      tripsByStartTime.remove(startTime);
+    }
+  }
+
+  /** Remove the trips added by realtime updates from the feed. */
+  public synchronized void removeAddedTrips(String feedId) {
+    for (FeedScopedId tripId : List.copyOf(addedTrips.keySet())) {
+      if (tripId.getFeedId().equals(feedId)) {
+        removeAddedTrip(tripId);
+      }
+    }
+  }
+
+  /** Remove the trips added by realtime updates for a service date on-or-before the one given. */
+  public synchronized void removeAddedTripsUntil(ServiceDate serviceDate) {
+    for (Map.Entry<FeedScopedId, AddedTrip> entry : List.copyOf(addedTrips.entrySet())) {
+      if (entry.getValue().serviceDate.compareTo(serviceDate) <= 0) {
+        removeAddedTrip(entry.getKey());
+      }
+    }
+  }
+
+  /** @return the number of trips in the index for the route and start time. */
+  public synchronized int numberOfTrips(Route route, int startTime) {
+    TIntObjectMap<List<Candidate>> tripsByStartTime = tripsByRouteAndStartTime.get(route);
+    List<Candidate> candidates = tripsByStartTime == null ? null : tripsByStartTime.get(startTime);
+    return candidates == null ? 0 : candidates.size();
+  }
+
+  /**
+   * The candidates for each start time are kept in the same order as the patterns and trips were
+   * scanned before the index existed, so the first matching trip is still the one returned.
+   */
+  private static Map<Route, TIntObjectMap<List<Candidate>>> indexScheduledTrips(
+    RoutingService routingService
+  ) {
+    Map<Route, TIntObjectMap<List<Candidate>>> index = new HashMap<>();
+    for (Route route : routingService.getPatternsForRoute().keySet()) {
+      TIntObjectMap<List<Candidate>> tripsByStartTime = new TIntObjectHashMap<>();
+      for (TripPattern pattern : routingService.getPatternsForRoute().get(route)) {
+        int direction = pattern.getDirection().gtfsCode;
+        for (TripTimes times : pattern.getScheduledTimetable().getTripTimes()) {
+          addCandidate(tripsByStartTime, direction, times);
+        }
+      }
+      index.put(route, tripsByStartTime);
+    }
+    return index;
+  }
+
+  private static Candidate addCandidate(
+    TIntObjectMap<List<Candidate>> tripsByStartTime,
+    int direction,
+    TripTimes times
+  ) {
+    int startTime = times.getScheduledDepartureTime(0);
+    List<Candidate> candidates = tripsByStartTime.get(startTime);
+    if (candidates == null) {
+      candidates = new ArrayList<>(1);
+      tripsByStartTime.put(startTime, candidates);
+    }
+    Candidate candidate = new Candidate(direction, times);
+    candidates.add(candidate);
+    return candidate;
+  }
+
+  private static Counter matchCounter(String result) {
+    return Counter
+      .builder("gtfs_rt.fuzzy_match")
+      .description("Number of trip descriptors matched by route, direction and start time")
+      .tag("result", result)
+      .register(Metrics.globalRegistry);
+  }
+
+  private record Candidate(int direction, TripTimes tripTimes) {}
+
+  private record AddedTrip(Route route, Candidate candidate, ServiceDate serviceDate) {}
 }
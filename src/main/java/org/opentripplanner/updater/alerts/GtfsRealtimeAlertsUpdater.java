@@ -4,7 +4,6 @@ import com.google.transit.realtime.GtfsRealtime.FeedMessage;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.Map;
-import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.impl.TransitAlertServiceImpl;
 import org.opentripplanner.routing.services.TransitAlertService;
@@ -64,7 +63,7 @@ public class GtfsRealtimeAlertsUpdater extends PollingGraphUpdater implements Tr
   public void setup(Graph graph) {
     TransitAlertService transitAlertService = new TransitAlertServiceImpl(graph);
     if (fuzzyTripMatching) {
-      this.fuzzyTripMatcher = new GtfsRealtimeFuzzyTripMatcher(new RoutingService(graph));
+      this.fuzzyTripMatcher = GtfsRealtimeFuzzyTripMatcher.forGraph(graph);
     }
     this.transitAlertService = transitAlertService;
     if (updateHandler == null) {
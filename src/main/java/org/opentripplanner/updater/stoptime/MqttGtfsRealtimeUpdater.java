@@ -12,7 +12,6 @@ import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
-import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GraphUpdater;
 import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
@@ -76,7 +75,7 @@ public class MqttGtfsRealtimeUpdater implements GraphUpdater {
 
     // Set properties of realtime data snapshot source
     if (fuzzyTripMatching) {
-      snapshotSource.fuzzyTripMatcher = new GtfsRealtimeFuzzyTripMatcher(new RoutingService(graph));
+      snapshotSource.fuzzyTripMatcher = GtfsRealtimeFuzzyTripMatcher.forGraph(graph);
     }
   }
 
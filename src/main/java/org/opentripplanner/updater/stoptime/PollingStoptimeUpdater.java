@@ -3,7 +3,6 @@ package org.opentripplanner.updater.stoptime;
 import com.google.transit.realtime.GtfsRealtime.TripUpdate;
 import java.util.List;
 import org.opentripplanner.model.base.ToStringBuilder;
-import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
 import org.opentripplanner.updater.PollingGraphUpdater;
@@ -90,7 +89,7 @@ public class PollingStoptimeUpdater extends PollingGraphUpdater {
   @Override
   public void setup(Graph graph) {
     if (fuzzyTripMatching) {
-      this.fuzzyTripMatcher = new GtfsRealtimeFuzzyTripMatcher(new RoutingService(graph));
+      this.fuzzyTripMatcher = GtfsRealtimeFuzzyTripMatcher.forGraph(graph);
     }
 
     // Only create a realtime data snapshot source if none exists already
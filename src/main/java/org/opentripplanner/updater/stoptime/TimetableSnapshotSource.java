@@ -178,6 +178,9 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
       if (fullDataset) {
         // Remove all updates from the buffer
         buffer.clear(feedId);
+        if (fuzzyTripMatcher != null) {
+          fuzzyTripMatcher.removeAddedTrips(feedId);
+        }
       }
 
       LOG.debug("message contains {} trip updates", updates.size());
@@ -748,7 +751,13 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
     newTripTimes.setRealTimeState(realTimeState);
 
     // Add new trip times to the buffer
-    return buffer.update(pattern, newTripTimes, serviceDate);
+    final boolean success = buffer.update(pattern, newTripTimes, serviceDate);
+
+    // Make the added trip matchable by later updates without a trip_id
+    if (success && realTimeState == RealTimeState.ADDED && fuzzyTripMatcher != null) {
+      fuzzyTripMatcher.addTrip(pattern, newTripTimes, serviceDate);
+    }
+    return success;
   }
 
   /**
@@ -810,6 +819,10 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
         newTripTimes.cancelTrip();
         buffer.update(pattern, newTripTimes, serviceDate);
         success = true;
+        // A cancelled trip is not matched by later updates without a trip_id
+        if (fuzzyTripMatcher != null) {
+          fuzzyTripMatcher.removeAddedTrip(tripId);
+        }
       }
     }
 
@@ -950,6 +963,9 @@ public class TimetableSnapshotSource implements TimetableSnapshotProvider {
 
     lastPurgeDate = previously;
 
+    if (fuzzyTripMatcher != null) {
+      fuzzyTripMatcher.removeAddedTripsUntil(previously);
+    }
     return buffer.purgeExpiredData(previously);
   }
 
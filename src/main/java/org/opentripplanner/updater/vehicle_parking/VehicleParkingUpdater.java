@@ -117,9 +117,10 @@ public class VehicleParkingUpdater extends PollingGraphUpdater {
         var alreadyExists = oldVehicleParkings.contains(updatedVehicleParking);
 
         if (alreadyExists) {
-          oldVehicleParkingsById
-            .get(updatedVehicleParking.getId())
-            .updateAvailability(updatedVehicleParking.getAvailability());
+          vehicleParkingService.updateVehicleParkingAvailability(
+            oldVehicleParkingsById.get(updatedVehicleParking.getId()),
+            updatedVehicleParking.getAvailability()
+          );
         } else {
           toAdd.add(updatedVehicleParking);
           if (operational) {
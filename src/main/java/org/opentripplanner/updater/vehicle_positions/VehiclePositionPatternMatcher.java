@@ -1,7 +1,6 @@
 package org.opentripplanner.updater.vehicle_positions;
 
 import com.google.common.base.Strings;
-import com.google.common.collect.Sets;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.util.JsonFormat;
 import com.google.transit.realtime.GtfsRealtime.VehiclePosition;
@@ -10,15 +9,14 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.opentripplanner.common.model.T2;
 import org.opentripplanner.model.FeedScopedId;
@@ -37,6 +35,11 @@ import org.slf4j.LoggerFactory;
 /**
  * Responsible for converting vehicle positions in memory to exportable ones, and associating each
  * position with a pattern.
+ * <p>
+ * Most vehicles in a feed have not reported a new position since the previous poll. A position
+ * with the same trip, vehicle, timestamp, stop and coordinates as in the previous update is not
+ * matched again, the previous result is reused. Patterns whose positions are unchanged are not
+ * written to the {@link RealtimeVehiclePositionService}.
  */
 public class VehiclePositionPatternMatcher {
 
@@ -50,7 +53,9 @@ public class VehiclePositionPatternMatcher {
   private final Function<Trip, TripPattern> getStaticPattern;
   private final BiFunction<Trip, ServiceDate, TripPattern> getRealtimePattern;
 
-  private Set<TripPattern> patternsInPreviousUpdate = Set.of();
+  private Map<TripPattern, List<RealtimeVehiclePosition>> positionsInPreviousUpdate = Map.of();
+  private Map<PositionKey, T2<TripPattern, RealtimeVehiclePosition>> matchesInPreviousUpdate =
+    Map.of();
 
   public VehiclePositionPatternMatcher(
     String feedId,
@@ -78,30 +83,56 @@ public class VehiclePositionPatternMatcher {
     // that map makes it very easy to update the positions in the service
     // it also enables the bookkeeping about which pattern previously had positions but no longer do
     // these need to be removed from the service as we assume that the vehicle has stopped
-    var positions = vehiclePositions
-      .stream()
-      .map(vehiclePosition -> toRealtimeVehiclePosition(feedId, vehiclePosition))
-      .filter(Objects::nonNull)
-      .collect(Collectors.groupingBy(t -> t.first))
-      .entrySet()
-      .stream()
-      .collect(
-        Collectors.toMap(
-          Entry::getKey,
-          e -> e.getValue().stream().map(t -> t.second).collect(Collectors.toList())
-        )
-      );
+    Map<PositionKey, T2<TripPattern, RealtimeVehiclePosition>> matchesInCurrentUpdate =
+      new HashMap<>();
+    Map<TripPattern, List<RealtimeVehiclePosition>> positions = new HashMap<>();
+    int unchanged = 0;
+
+    for (VehiclePosition vehiclePosition : vehiclePositions) {
+      var key = PositionKey.of(vehiclePosition);
+      var match = key == null ? null : matchesInPreviousUpdate.get(key);
+      if (match == null) {
+        match = toRealtimeVehiclePosition(feedId, vehiclePosition);
+        if (match == null) {
+          continue;
+        }
+      } else {
+        unchanged++;
+      }
+      if (key != null) {
+        matchesInCurrentUpdate.put(key, match);
+      }
+      positions.computeIfAbsent(match.first, p -> new ArrayList<>()).add(match.second);
+    }
 
-    positions.forEach(service::setVehiclePositions);
-    Set<TripPattern> patternsInCurrentUpdate = positions.keySet();
+    int updatedPatterns = 0;
+    for (var it : positions.entrySet()) {
+      // Only replace the positions of a pattern if any of them have changed
+      if (!it.getValue().equals(positionsInPreviousUpdate.get(it.getKey()))) {
+        service.setVehiclePositions(it.getKey(), it.getValue());
+        updatedPatterns++;
+      }
+    }
 
     // if there was a position in the previous update but not in the current one, we assume
     // that the pattern has no more vehicle positions.
-    var toDelete = Sets.difference(patternsInPreviousUpdate, patternsInCurrentUpdate);
-    toDelete.forEach(service::clearVehiclePositions);
-    patternsInPreviousUpdate = patternsInCurrentUpdate;
-
-    if (!vehiclePositions.isEmpty() && patternsInCurrentUpdate.isEmpty()) {
+    for (TripPattern pattern : positionsInPreviousUpdate.keySet()) {
+      if (!positions.containsKey(pattern)) {
+        service.clearVehiclePositions(pattern);
+      }
+    }
+    positionsInPreviousUpdate = positions;
+    matchesInPreviousUpdate = matchesInCurrentUpdate;
+
+    LOG.debug(
+      "Applied {} vehicle positions for feedId '{}', {} unchanged, {} patterns updated.",
+      vehiclePositions.size(),
+      feedId,
+      unchanged,
+      updatedPatterns
+    );
+
+    if (!vehiclePositions.isEmpty() && positions.isEmpty()) {
       LOG.error(
         "Could not match any vehicle positions for feedId '{}'. Are you sure that the updater is using the correct feedId?",
         feedId
@@ -221,6 +252,37 @@ public class VehiclePositionPatternMatcher {
 
   private record TemporalDistance(LocalDate date, long distance) {}
 
+  /**
+   * The fields which identify an unchanged vehicle position. Positions without a timestamp are
+   * always matched, as we cannot tell if they are new.
+   */
+  private record PositionKey(
+    String tripId,
+    String startDate,
+    String vehicleId,
+    long timestamp,
+    String stopId,
+    int stopSequence,
+    float latitude,
+    float longitude
+  ) {
+    static PositionKey of(VehiclePosition position) {
+      if (!position.hasTimestamp() || !position.hasTrip()) {
+        return null;
+      }
+      return new PositionKey(
+        position.getTrip().getTripId(),
+        position.getTrip().getStartDate(),
+        position.getVehicle().getId(),
+        position.getTimestamp(),
+        position.getStopId(),
+        position.getCurrentStopSequence(),
+        position.getPosition().getLatitude(),
+        position.getPosition().getLongitude()
+      );
+    }
+  }
+
   private static StopStatus toModel(VehicleStopStatus currentStatus) {
     return switch (currentStatus) {
       case IN_TRANSIT_TO -> StopStatus.IN_TRANSIT_TO;
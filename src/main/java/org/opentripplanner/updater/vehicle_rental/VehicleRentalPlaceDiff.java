@@ -0,0 +1,218 @@
+package org.opentripplanner.updater.vehicle_rental;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.base.ToStringBuilder;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalPlace;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalStation;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalStationUris;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalSystem;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalVehicle;
+
+/**
+ * The difference between two consecutive snapshots of a vehicle rental feed. The diff is computed
+ * on the polling thread, so that the graph writer thread only has to touch the places that have
+ * actually changed.
+ * <p>
+ * A place is put into one of three groups:
+ * <ul>
+ *   <li>{@link #added()} - the place is new, or it has moved, and needs to be (re)linked to the
+ *   street graph.</li>
+ *   <li>{@link #updated()} - the place exists at the same location, but some of its state has
+ *   changed.</li>
+ *   <li>{@link #removed()} - the place is no longer present in the feed.</li>
+ * </ul>
+ * Places which are identical to the previous snapshot are not part of the diff.
+ */
+class VehicleRentalPlaceDiff {
+
+  private final List<VehicleRentalPlace> added;
+  private final List<VehicleRentalPlace> updated;
+  private final List<FeedScopedId> removed;
+
+  private VehicleRentalPlaceDiff(
+    List<VehicleRentalPlace> added,
+    List<VehicleRentalPlace> updated,
+    List<FeedScopedId> removed
+  ) {
+    this.added = added;
+    this.updated = updated;
+    this.removed = removed;
+  }
+
+  /**
+   * Compute the diff between the {@code previous} snapshot and the {@code current} list of places.
+   * The {@code previous} map is not modified.
+   */
+  static VehicleRentalPlaceDiff of(
+    Map<FeedScopedId, VehicleRentalPlace> previous,
+    Collection<VehicleRentalPlace> current
+  ) {
+    List<VehicleRentalPlace> added = new ArrayList<>();
+    List<VehicleRentalPlace> updated = new ArrayList<>();
+    Set<FeedScopedId> seen = new HashSet<>();
+
+    for (VehicleRentalPlace place : current) {
+      // Ignore duplicates in the feed, the first one wins
+      if (!seen.add(place.getId())) {
+        continue;
+      }
+      VehicleRentalPlace old = previous.get(place.getId());
+      if (old == null || !sameLocation(old, place)) {
+        added.add(place);
+      } else if (!sameState(old, place)) {
+        updated.add(place);
+      }
+    }
+
+    List<FeedScopedId> removed = new ArrayList<>();
+    for (FeedScopedId id : previous.keySet()) {
+      if (!seen.contains(id)) {
+        removed.add(id);
+      }
+    }
+    return new VehicleRentalPlaceDiff(added, updated, removed);
+  }
+
+  /**
+   * Index the given places by id, this is the snapshot to diff the next update against.
+   */
+  static Map<FeedScopedId, VehicleRentalPlace> snapshot(Collection<VehicleRentalPlace> places) {
+    Map<FeedScopedId, VehicleRentalPlace> snapshot = new HashMap<>();
+    for (VehicleRentalPlace place : places) {
+      snapshot.putIfAbsent(place.getId(), place);
+    }
+    return snapshot;
+  }
+
+  /** New places, and places which have moved since the last update. */
+  List<VehicleRentalPlace> added() {
+    return added;
+  }
+
+  /** Places with changed state at an unchanged location. */
+  List<VehicleRentalPlace> updated() {
+    return updated;
+  }
+
+  /** Places which no longer exist in the feed. */
+  List<FeedScopedId> removed() {
+    return removed;
+  }
+
+  boolean isEmpty() {
+    return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder
+      .of(VehicleRentalPlaceDiff.class)
+      .addNum("added", added.size())
+      .addNum("updated", updated.size())
+      .addNum("removed", removed.size())
+      .toString();
+  }
+
+  private static boolean sameLocation(VehicleRentalPlace a, VehicleRentalPlace b) {
+    return (
+      a.getClass() == b.getClass() &&
+      a.getLatitude() == b.getLatitude() &&
+      a.getLongitude() == b.getLongitude() &&
+      a.getAvailablePickupFormFactors(false).equals(b.getAvailablePickupFormFactors(false)) &&
+      a.getAvailableDropoffFormFactors(false).equals(b.getAvailableDropoffFormFactors(false))
+    );
+  }
+
+  private static boolean sameState(VehicleRentalPlace a, VehicleRentalPlace b) {
+    if (a instanceof VehicleRentalVehicle && b instanceof VehicleRentalVehicle) {
+      return sameVehicle((VehicleRentalVehicle) a, (VehicleRentalVehicle) b);
+    }
+    if (a instanceof VehicleRentalStation && b instanceof VehicleRentalStation) {
+      return sameStation((VehicleRentalStation) a, (VehicleRentalStation) b);
+    }
+    // Unknown implementation, always update
+    return false;
+  }
+
+  private static boolean sameVehicle(VehicleRentalVehicle a, VehicleRentalVehicle b) {
+    return (
+      a.isReserved == b.isReserved &&
+      a.isDisabled == b.isDisabled &&
+      Objects.equals(a.name, b.name) &&
+      Objects.equals(a.vehicleType, b.vehicleType) &&
+      Objects.equals(a.lastReported, b.lastReported) &&
+      Objects.equals(a.currentRangeMeters, b.currentRangeMeters) &&
+      Objects.equals(a.pricingPlanId, b.pricingPlanId) &&
+      sameSystem(a.system, b.system) &&
+      sameUris(a.rentalUris, b.rentalUris) &&
+      Objects.equals(
+        a.station == null ? null : a.station.id,
+        b.station == null ? null : b.station.id
+      )
+    );
+  }
+
+  private static boolean sameStation(VehicleRentalStation a, VehicleRentalStation b) {
+    return (
+      a.vehiclesAvailable == b.vehiclesAvailable &&
+      a.vehiclesDisabled == b.vehiclesDisabled &&
+      a.spacesAvailable == b.spacesAvailable &&
+      a.spacesDisabled == b.spacesDisabled &&
+      a.isInstalled == b.isInstalled &&
+      a.isRenting == b.isRenting &&
+      a.isReturning == b.isReturning &&
+      a.isVirtualStation == b.isVirtualStation &&
+      a.isValetStation == b.isValetStation &&
+      a.allowOverloading == b.allowOverloading &&
+      a.isKeepingVehicleRentalAtDestinationAllowed ==
+      b.isKeepingVehicleRentalAtDestinationAllowed &&
+      a.realTimeData == b.realTimeData &&
+      Objects.equals(a.lastReported, b.lastReported) &&
+      Objects.equals(a.vehicleTypesAvailable, b.vehicleTypesAvailable) &&
+      Objects.equals(a.vehicleSpacesAvailable, b.vehicleSpacesAvailable) &&
+      Objects.equals(a.name, b.name) &&
+      Objects.equals(a.shortName, b.shortName) &&
+      Objects.equals(a.address, b.address) &&
+      Objects.equals(a.crossStreet, b.crossStreet) &&
+      Objects.equals(a.regionId, b.regionId) &&
+      Objects.equals(a.postCode, b.postCode) &&
+      Objects.equals(a.rentalMethods, b.rentalMethods) &&
+      Objects.equals(a.stationArea, b.stationArea) &&
+      Objects.equals(a.capacity, b.capacity) &&
+      Objects.equals(a.vehicleTypeAreaCapacity, b.vehicleTypeAreaCapacity) &&
+      Objects.equals(a.vehicleTypeDockCapacity, b.vehicleTypeDockCapacity) &&
+      sameSystem(a.system, b.system) &&
+      sameUris(a.rentalUris, b.rentalUris)
+    );
+  }
+
+  /**
+   * The system information is mapped into a new instance on every poll, so only the id is
+   * compared. The rest of the system information is only used for presentation.
+   */
+  private static boolean sameSystem(VehicleRentalSystem a, VehicleRentalSystem b) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return Objects.equals(a.systemId, b.systemId);
+  }
+
+  private static boolean sameUris(VehicleRentalStationUris a, VehicleRentalStationUris b) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return (
+      Objects.equals(a.android, b.android) &&
+      Objects.equals(a.ios, b.ios) &&
+      Objects.equals(a.web, b.web)
+    );
+  }
+}
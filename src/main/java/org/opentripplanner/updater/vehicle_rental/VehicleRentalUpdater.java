@@ -1,11 +1,8 @@
 package org.opentripplanner.updater.vehicle_rental;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -41,6 +38,8 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
   private WriteToGraphCallback saveResultOnGraph;
   Map<FeedScopedId, VehicleRentalStationVertex> verticesByStation = new HashMap<>();
   Map<FeedScopedId, DisposableEdgeCollection> tempEdgesByStation = new HashMap<>();
+  /** The last update fetched from the source, only accessed by the polling thread. */
+  private Map<FeedScopedId, VehicleRentalPlace> previousStations = Map.of();
   private VertexLinker linker;
 
   private VehicleRentalStationService service;
@@ -97,75 +96,97 @@ public class VehicleRentalUpdater extends PollingGraphUpdater {
     }
     List<VehicleRentalPlace> stations = source.getUpdates();
 
-    // Create graph writer runnable to apply these stations to the graph
+    // Compute the changes since the last update here, on the polling thread, so the graph writer
+    // thread only has to deal with the places that actually changed.
+    VehicleRentalPlaceDiff diff = VehicleRentalPlaceDiff.of(previousStations, stations);
+    previousStations = VehicleRentalPlaceDiff.snapshot(stations);
+
+    if (diff.isEmpty()) {
+      LOG.debug("No changes in vehicle rental stations from {}", source);
+      return;
+    }
+    LOG.debug("Vehicle rental changes from {}: {}", source, diff);
+
+    // Create graph writer runnable to apply the changes to the graph
     VehicleRentalGraphWriterRunnable graphWriterRunnable = new VehicleRentalGraphWriterRunnable(
-      stations
+      diff
     );
     saveResultOnGraph.execute(graphWriterRunnable);
   }
 
   private class VehicleRentalGraphWriterRunnable implements GraphWriterRunnable {
 
-    private final List<VehicleRentalPlace> stations;
+    private final VehicleRentalPlaceDiff diff;
 
-    public VehicleRentalGraphWriterRunnable(List<VehicleRentalPlace> stations) {
-      this.stations = stations;
+    public VehicleRentalGraphWriterRunnable(VehicleRentalPlaceDiff diff) {
+      this.diff = diff;
     }
 
     @Override
     public void run(Graph graph) {
-      // Apply stations to graph
-      Set<FeedScopedId> stationSet = new HashSet<>();
+      /* remove existing stations that were not present in the update */
+      for (FeedScopedId station : diff.removed()) {
+        service.removeVehicleRentalStation(station);
+        removeVertex(station);
+      }
 
-      /* add any new stations and update vehicle counts for existing stations */
-      for (VehicleRentalPlace station : stations) {
+      /* update the state of existing stations */
+      for (VehicleRentalPlace station : diff.updated()) {
         service.addVehicleRentalStation(station);
-        stationSet.add(station.getId());
         VehicleRentalStationVertex vehicleRentalVertex = verticesByStation.get(station.getId());
         if (vehicleRentalVertex == null) {
-          vehicleRentalVertex = new VehicleRentalStationVertex(graph, station);
-          DisposableEdgeCollection tempEdges = linker.linkVertexForRealTime(
-            vehicleRentalVertex,
-            new TraverseModeSet(TraverseMode.WALK),
-            LinkingDirection.BOTH_WAYS,
-            (vertex, streetVertex) ->
-              List.of(
-                new StreetVehicleRentalLink((VehicleRentalStationVertex) vertex, streetVertex),
-                new StreetVehicleRentalLink(streetVertex, (VehicleRentalStationVertex) vertex)
-              )
-          );
-          if (vehicleRentalVertex.getOutgoing().isEmpty()) {
-            // the toString includes the text "Bike rental station"
-            LOG.info("VehicleRentalPlace {} is unlinked", vehicleRentalVertex);
-          }
-          Set<FormFactor> formFactors = Stream
-            .concat(
-              station.getAvailablePickupFormFactors(false).stream(),
-              station.getAvailableDropoffFormFactors(false).stream()
-            )
-            .collect(Collectors.toSet());
-          for (FormFactor formFactor : formFactors) {
-            tempEdges.addEdge(new VehicleRentalEdge(vehicleRentalVertex, formFactor));
-          }
-          verticesByStation.put(station.getId(), vehicleRentalVertex);
-          tempEdgesByStation.put(station.getId(), tempEdges);
+          // Should not happen, but the vertex might have been removed by someone else
+          addVertex(graph, station);
         } else {
           vehicleRentalVertex.setStation(station);
         }
       }
-      /* remove existing stations that were not present in the update */
-      List<FeedScopedId> toRemove = new ArrayList<>();
-      for (Entry<FeedScopedId, VehicleRentalStationVertex> entry : verticesByStation.entrySet()) {
-        FeedScopedId station = entry.getKey();
-        if (stationSet.contains(station)) continue;
-        toRemove.add(station);
-        service.removeVehicleRentalStation(station);
+
+      /* add new stations, and relink stations which have moved */
+      for (VehicleRentalPlace station : diff.added()) {
+        service.addVehicleRentalStation(station);
+        removeVertex(station.getId());
+        addVertex(graph, station);
       }
-      for (FeedScopedId station : toRemove) {
-        // post-iteration removal to avoid concurrent modification
-        verticesByStation.remove(station);
-        tempEdgesByStation.get(station).disposeEdges();
-        tempEdgesByStation.remove(station);
+    }
+
+    private void addVertex(Graph graph, VehicleRentalPlace station) {
+      VehicleRentalStationVertex vehicleRentalVertex = new VehicleRentalStationVertex(
+        graph,
+        station
+      );
+      DisposableEdgeCollection tempEdges = linker.linkVertexForRealTime(
+        vehicleRentalVertex,
+        new TraverseModeSet(TraverseMode.WALK),
+        LinkingDirection.BOTH_WAYS,
+        (vertex, streetVertex) ->
+          List.of(
+            new StreetVehicleRentalLink((VehicleRentalStationVertex) vertex, streetVertex),
+            new StreetVehicleRentalLink(streetVertex, (VehicleRentalStationVertex) vertex)
+          )
+      );
+      if (vehicleRentalVertex.getOutgoing().isEmpty()) {
+        // the toString includes the text "Bike rental station"
+        LOG.info("VehicleRentalPlace {} is unlinked", vehicleRentalVertex);
+      }
+      Set<FormFactor> formFactors = Stream
+        .concat(
+          station.getAvailablePickupFormFactors(false).stream(),
+          station.getAvailableDropoffFormFactors(false).stream()
+        )
+        .collect(Collectors.toSet());
+      for (FormFactor formFactor : formFactors) {
+        tempEdges.addEdge(new VehicleRentalEdge(vehicleRentalVertex, formFactor));
+      }
+      verticesByStation.put(station.getId(), vehicleRentalVertex);
+      tempEdgesByStation.put(station.getId(), tempEdges);
+    }
+
+    private void removeVertex(FeedScopedId station) {
+      verticesByStation.remove(station);
+      DisposableEdgeCollection tempEdges = tempEdgesByStation.remove(station);
+      if (tempEdges != null) {
+        tempEdges.disposeEdges();
       }
     }
   }
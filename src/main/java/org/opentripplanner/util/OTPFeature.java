@@ -21,6 +21,7 @@ public enum OTPFeature {
   MinimumTransferTimeIsDefinitive(false),
   OptimizeTransfers(true),
   ParallelRouting(false),
+  StreamingPlanResponse(false),
   TransferConstraints(true),
   FloatingBike(true),
 
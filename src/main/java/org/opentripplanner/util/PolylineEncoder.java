@@ -1,5 +1,6 @@
 package org.opentripplanner.util;
 
+import java.util.List;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.LineString;
@@ -53,6 +54,66 @@ public class PolylineEncoder {
     return new EncodedPolyline(encodedPoints.toString(), count);
   }
 
+  /**
+   * Encode the coordinates as a fragment of a polyline, which can be joined with other fragments by
+   * {@link #joinFragments(List)} without encoding the coordinates again.
+   */
+  public static Fragment encodeFragment(Coordinate[] points) {
+    if (points.length == 0) {
+      return new Fragment(0, 0, "", 0, 0, 0);
+    }
+    int firstLat = floor1e5(points[0].y);
+    int firstLng = floor1e5(points[0].x);
+
+    StringBuilder encodedPoints = new StringBuilder();
+    int plat = firstLat;
+    int plng = firstLng;
+
+    for (int i = 1; i < points.length; i++) {
+      int late5 = floor1e5(points[i].y);
+      int lnge5 = floor1e5(points[i].x);
+
+      int dlat = late5 - plat;
+      int dlng = lnge5 - plng;
+
+      plat = late5;
+      plng = lnge5;
+
+      encodedPoints.append(encodeSignedNumber(dlat)).append(encodeSignedNumber(dlng));
+    }
+
+    return new Fragment(firstLat, firstLng, encodedPoints.toString(), plat, plng, points.length);
+  }
+
+  /**
+   * Join the fragments to one polyline. The result is the same as encoding all the coordinates of
+   * the fragments with {@link #encodeGeometry(Geometry)}.
+   */
+  public static EncodedPolyline joinFragments(List<Fragment> fragments) {
+    StringBuilder encodedPoints = new StringBuilder();
+
+    int plat = 0;
+    int plng = 0;
+    int count = 0;
+
+    for (Fragment fragment : fragments) {
+      if (fragment.length == 0) {
+        continue;
+      }
+      // Only the first point depends on the previous fragment
+      encodedPoints
+        .append(encodeSignedNumber(fragment.firstLat - plat))
+        .append(encodeSignedNumber(fragment.firstLng - plng))
+        .append(fragment.points);
+
+      plat = fragment.lastLat;
+      plng = fragment.lastLng;
+      count += fragment.length;
+    }
+
+    return new EncodedPolyline(encodedPoints.toString(), count);
+  }
+
   private static String encodeSignedNumber(int num) {
     int sgn_num = num << 1;
     if (num < 0) {
@@ -79,4 +140,18 @@ public class PolylineEncoder {
   private static int floor1e5(double coordinate) {
     return (int) Math.floor(coordinate * 1e5);
   }
+
+  /**
+   * A list of coordinates where all but the first coordinate are encoded. The first and last
+   * coordinates are kept in the polyline precision, so the first coordinate can be encoded relative
+   * to the last coordinate of the preceding fragment.
+   */
+  public record Fragment(
+    int firstLat,
+    int firstLng,
+    String points,
+    int lastLat,
+    int lastLng,
+    int length
+  ) {}
 }
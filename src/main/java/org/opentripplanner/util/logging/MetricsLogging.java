@@ -74,6 +74,13 @@ public class MetricsLogging {
         .bindTo(Metrics.globalRegistry);
     }
 
+    new ExecutorServiceMetrics(
+      router.graphQLExecutor,
+      "graphQLExecutor",
+      List.of(Tag.of("pool", "graphQLExecutor"))
+    )
+      .bindTo(Metrics.globalRegistry);
+
     if (router.raptorConfig.isMultiThreaded()) {
       new ExecutorServiceMetrics(
         router.raptorConfig.threadPool(),
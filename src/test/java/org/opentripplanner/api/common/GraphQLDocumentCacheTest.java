@@ -0,0 +1,91 @@
+package org.opentripplanner.api.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class GraphQLDocumentCacheTest {
+
+  private static final String QUERY = "{ stop { name parent { name } } }";
+
+  private static final GraphQLSchema SCHEMA = new SchemaGenerator()
+    .makeExecutableSchema(
+      new SchemaParser().parse("type Query { stop: Stop } type Stop { name: String parent: Stop }"),
+      RuntimeWiring.newRuntimeWiring().build()
+    );
+
+  private int parseCount = 0;
+
+  @Test
+  void documentIsParsedOnce() {
+    var subject = new GraphQLDocumentCache(SCHEMA).provider(100);
+
+    var first = getDocument(subject, ExecutionInput.newExecutionInput(QUERY).build());
+    var second = getDocument(subject, ExecutionInput.newExecutionInput(QUERY).build());
+
+    assertEquals(1, parseCount);
+    assertSame(first, second);
+  }
+
+  @Test
+  void complexityIsCheckedWhenCachedDocumentIsUsed() {
+    var cache = new GraphQLDocumentCache(SCHEMA);
+    getDocument(cache.provider(4), ExecutionInput.newExecutionInput(QUERY).build());
+
+    assertThrows(
+      AbortExecutionException.class,
+      () -> getDocument(cache.provider(3), ExecutionInput.newExecutionInput(QUERY).build())
+    );
+  }
+
+  @Test
+  void persistedQuery() {
+    var subject = new GraphQLDocumentCache(SCHEMA).provider(100);
+    String hash = Hashing.sha256().hashString(QUERY, StandardCharsets.UTF_8).toString();
+    var extensions = Map.<String, Object>of("persistedQuery", Map.of("sha256Hash", hash));
+
+    var notFound = getDocument(subject, persistedQueryInput("", extensions));
+    assertEquals("PersistedQueryNotFound", notFound.getErrors().get(0).getMessage());
+
+    var invalid = getDocument(subject, persistedQueryInput("{ stop { name } }", extensions));
+    assertEquals("PersistedQueryIdInvalid", invalid.getErrors().get(0).getMessage());
+
+    getDocument(subject, persistedQueryInput(QUERY, extensions));
+    var found = getDocument(subject, persistedQueryInput("", extensions));
+
+    assertFalse(found.hasErrors());
+    assertEquals(1, parseCount);
+  }
+
+  private static ExecutionInput persistedQueryInput(String query, Map<String, Object> extensions) {
+    return ExecutionInput.newExecutionInput(query).extensions(extensions).build();
+  }
+
+  private PreparsedDocumentEntry getDocument(
+    PreparsedDocumentProvider provider,
+    ExecutionInput executionInput
+  ) {
+    return provider.getDocument(
+      executionInput,
+      input -> {
+        ++parseCount;
+        return new PreparsedDocumentEntry(new Parser().parseDocument(input.getQuery()));
+      }
+    );
+  }
+}
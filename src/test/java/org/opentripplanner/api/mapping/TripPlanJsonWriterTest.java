@@ -0,0 +1,64 @@
+package org.opentripplanner.api.mapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.opentripplanner.model.plan.TestItineraryBuilder.newItinerary;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.api.json.JSONObjectMapperProvider;
+import org.opentripplanner.model.plan.PlanTestConstants;
+import org.opentripplanner.model.plan.TripPlan;
+
+public class TripPlanJsonWriterTest implements PlanTestConstants {
+
+  private static final ObjectMapper MAPPER = new JSONObjectMapperProvider().getContext(null);
+
+  @Test
+  public void writesTheSameJsonAsTheMappedPlan() throws IOException {
+    var tripPlan = new TripPlan(
+      A,
+      E,
+      new Date(1_580_641_200_000L),
+      List.of(
+        newItinerary(A, T11_00).walk(D2m, B).bus(21, T11_05, T11_15, C).walk(D3m, E).build(),
+        newItinerary(A, T11_00).bicycle(T11_00, T11_10, D).rail(31, T11_12, T11_30, E).build(),
+        newItinerary(A, T11_00).rentedBicycle(T11_00, T11_20, E).build()
+      )
+    );
+
+    for (boolean addIntermediateStops : new boolean[] { false, true }) {
+      assertEquals(
+        MAPPER.writeValueAsString(
+          new TripPlanMapper(Locale.ENGLISH, addIntermediateStops).mapTripPlan(tripPlan)
+        ),
+        writeWithJsonWriter(tripPlan, addIntermediateStops)
+      );
+    }
+  }
+
+  @Test
+  public void writesTheSameJsonAsTheMappedPlanWithoutItineraries() throws IOException {
+    var tripPlan = new TripPlan(A, E, new Date(1_580_641_200_000L), List.of());
+
+    assertEquals(
+      MAPPER.writeValueAsString(new TripPlanMapper(Locale.ENGLISH, false).mapTripPlan(tripPlan)),
+      writeWithJsonWriter(tripPlan, false)
+    );
+  }
+
+  private static String writeWithJsonWriter(TripPlan tripPlan, boolean addIntermediateStops)
+    throws IOException {
+    var writer = new TripPlanJsonWriter(Locale.ENGLISH, addIntermediateStops, MAPPER.writer());
+    var json = new StringWriter();
+    try (JsonGenerator gen = MAPPER.getFactory().createGenerator(json)) {
+      writer.writeTripPlan(gen, tripPlan);
+    }
+    return json.toString();
+  }
+}
@@ -1,15 +1,19 @@
 package org.opentripplanner.graph_builder.linking;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
 import org.opentripplanner.common.geometry.GeometryUtils;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.model.Stop;
@@ -18,13 +22,18 @@ import org.opentripplanner.routing.core.TraverseMode;
 import org.opentripplanner.routing.core.TraverseModeSet;
 import org.opentripplanner.routing.edgetype.AreaEdge;
 import org.opentripplanner.routing.edgetype.AreaEdgeList;
+import org.opentripplanner.routing.edgetype.NamedArea;
 import org.opentripplanner.routing.edgetype.StreetTransitStopLink;
 import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
+import org.opentripplanner.routing.graph.Edge;
 import org.opentripplanner.routing.graph.Graph;
+import org.opentripplanner.routing.graph.Vertex;
 import org.opentripplanner.routing.vertextype.IntersectionVertex;
+import org.opentripplanner.routing.vertextype.StreetVertex;
 import org.opentripplanner.routing.vertextype.TransitStopVertex;
 import org.opentripplanner.util.I18NString;
 import org.opentripplanner.util.LocalizedString;
+import org.opentripplanner.util.NonLocalizedString;
 
 public class LinkStopToPlatformTest {
 
@@ -34,9 +43,65 @@ public class LinkStopToPlatformTest {
 
   @BeforeEach
   public void before() {
+    graph = createPlatformGraph();
+
+    Stop stop = Stop.stopForTest("TestStop", 59.13545, 10.22213);
+
+    TransitStopVertex stopVertex = new TransitStopVertex(graph, stop, null);
+  }
+
+  /**
+   * Tests that linking many stops to a platform area at once, where each split vertex is added to
+   * the area, gives the same edges as linking the stops one at a time.
+   */
+  @Test
+  public void testLinkManyStopsWithExtraEdges() {
+    double[][] stopCoordinates = {
+      { 59.13545, 10.22213 },
+      { 59.13551, 10.22150 },
+      { 59.13541, 10.22300 },
+      { 59.13533, 10.22380 },
+      { 59.13548, 10.22213 },
+    };
+
+    Graph oneAtATime = createPlatformGraph();
+    Graph batch = createPlatformGraph();
+    List<TransitStopVertex> stops = new ArrayList<>();
+    List<TransitStopVertex> batchStops = new ArrayList<>();
+    for (int i = 0; i < stopCoordinates.length; i++) {
+      double[] c = stopCoordinates[i];
+      stops.add(new TransitStopVertex(oneAtATime, Stop.stopForTest("S" + i, c[0], c[1]), null));
+      batchStops.add(new TransitStopVertex(batch, Stop.stopForTest("S" + i, c[0], c[1]), null));
+    }
+
+    VertexLinker linker = oneAtATime.getLinker();
+    linker.setAddExtraEdgesToAreas(true);
+    for (TransitStopVertex stop : stops) {
+      linker.linkVertexPermanently(
+        stop,
+        new TraverseModeSet(TraverseMode.WALK),
+        LinkingDirection.BOTH_WAYS,
+        LinkStopToPlatformTest::createStopLinks
+      );
+    }
+
+    VertexLinker batchLinker = batch.getLinker();
+    batchLinker.setAddExtraEdgesToAreas(true);
+    batchLinker.linkVerticesPermanently(
+      batchStops,
+      Collections.nCopies(batchStops.size(), new TraverseModeSet(TraverseMode.WALK)),
+      LinkingDirection.BOTH_WAYS,
+      LinkStopToPlatformTest::createStopLinks
+    );
+
+    assertTrue(oneAtATime.getEdgesOfType(AreaEdge.class).size() > 10);
+    assertEquals(edgeLabels(oneAtATime), edgeLabels(batch));
+  }
+
+  private Graph createPlatformGraph() {
     // Set up transit platform
 
-    graph = new Graph();
+    Graph graph = new Graph();
 
     ArrayList<IntersectionVertex> vertices = new ArrayList<>();
 
@@ -46,9 +111,17 @@ public class LinkStopToPlatformTest {
     vertices.add(new IntersectionVertex(graph, "4", 10.22493, 59.13518, "Platform vertex 4"));
     vertices.add(new IntersectionVertex(graph, "5", 10.22056, 59.13575, "Platform vertex 5"));
 
-    AreaEdgeList areaEdgeList = new AreaEdgeList(
-      GeometryUtils.getGeometryFactory().createPolygon()
-    );
+    Coordinate[] shell = new Coordinate[vertices.size() + 1];
+    for (int i = 0; i < shell.length; i++) {
+      shell[i] = vertices.get(i % vertices.size()).getCoordinate();
+    }
+    Polygon polygon = geometryFactory.createPolygon(shell);
+    AreaEdgeList areaEdgeList = new AreaEdgeList(polygon);
+    NamedArea namedArea = new NamedArea();
+    namedArea.setName(new NonLocalizedString("Platform"));
+    namedArea.setOriginalEdges(polygon);
+    namedArea.setPermission(StreetTraversalPermission.PEDESTRIAN_AND_BICYCLE);
+    areaEdgeList.addArea(namedArea);
 
     ArrayList<AreaEdge> edges = new ArrayList<>();
 
@@ -64,9 +137,23 @@ public class LinkStopToPlatformTest {
     edges.add(createAreaEdge(vertices.get(4), vertices.get(3), areaEdgeList, "edge 9"));
     edges.add(createAreaEdge(vertices.get(0), vertices.get(4), areaEdgeList, "edge 10"));
 
-    Stop stop = Stop.stopForTest("TestStop", 59.13545, 10.22213);
+    return graph;
+  }
 
-    TransitStopVertex stopVertex = new TransitStopVertex(graph, stop, null);
+  private static List<Edge> createStopLinks(Vertex vertex, StreetVertex streetVertex) {
+    return List.of(
+      new StreetTransitStopLink((TransitStopVertex) vertex, streetVertex),
+      new StreetTransitStopLink(streetVertex, (TransitStopVertex) vertex)
+    );
+  }
+
+  private static List<String> edgeLabels(Graph graph) {
+    return graph
+      .getEdges()
+      .stream()
+      .map(e -> e.getFromVertex().getLabel() + " -> " + e.getToVertex().getLabel())
+      .sorted()
+      .collect(Collectors.toList());
   }
 
   /**
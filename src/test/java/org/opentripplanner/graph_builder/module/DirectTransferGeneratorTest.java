@@ -2,10 +2,15 @@ package org.opentripplanner.graph_builder.module;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import com.google.common.collect.Multimap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -16,6 +21,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.PathTransfer;
 import org.opentripplanner.model.StopLocation;
@@ -159,6 +165,127 @@ class DirectTransferGeneratorTest extends GraphRoutingTest {
     );
   }
 
+  @Test
+  public void testMultipleRequestsSharingAStreetSearchWithPatterns() {
+    // These differ only in options which do not change the street search, or which are rounded
+    // to the same value for transfers, so they are searched once
+    var otherItineraries = new RoutingRequest(
+      new RequestModes(null, StreetMode.WALK, null, null, null)
+    );
+    otherItineraries.numItineraries = 7;
+    otherItineraries.transferSlack = 60;
+    var roundedWalkSpeed = new RoutingRequest(
+      new RequestModes(null, StreetMode.WALK, null, null, null)
+    );
+    roundedWalkSpeed.walkSpeed = 1.4;
+
+    var generator = new DirectTransferGenerator(
+      MAX_TRANSFER_DURATION,
+      List.of(
+        new RoutingRequest(new RequestModes(null, StreetMode.WALK, null, null, null)),
+        otherItineraries,
+        roundedWalkSpeed
+      )
+    );
+
+    var graph = graph(true);
+    graph.hasStreets = true;
+
+    generator.buildGraph(graph, null);
+
+    // The same transfers as for the single request
+    assertTransfers(
+      graph.transfersByStop,
+      tr(S0, 100, List.of(V0, V11), S11),
+      tr(S0, 100, List.of(V0, V21), S21),
+      tr(S11, 100, List.of(V11, V21), S21)
+    );
+  }
+
+  @Test
+  public void testCachedTransfersAreReused() throws IOException {
+    File cacheFile = Files.createTempFile("cached_transfers", ".obj").toFile();
+    cacheFile.deleteOnExit();
+    var requests = List.of(
+      new RoutingRequest(new RequestModes(null, StreetMode.WALK, null, null, null))
+    );
+
+    var graph = graph(true);
+    graph.hasStreets = true;
+    new DirectTransferGenerator(MAX_TRANSFER_DURATION, requests, cacheFile, false, true)
+      .buildGraph(graph, null);
+
+    // Build the same graph again, reading the transfers from the cache
+    graph = graph(true);
+    graph.hasStreets = true;
+    new DirectTransferGenerator(MAX_TRANSFER_DURATION, requests, cacheFile, true, false)
+      .buildGraph(graph, null);
+
+    assertTransfers(
+      graph.transfersByStop,
+      tr(S0, 100, List.of(V0, V11), S11),
+      tr(S0, 100, List.of(V0, V21), S21),
+      tr(S11, 100, List.of(V11, V21), S21)
+    );
+
+    var cache = new TransferCache(
+      TransferCache.read(cacheFile, new DataImportIssueStore(false)),
+      graph,
+      MAX_TRANSFER_DURATION,
+      requests,
+      true
+    );
+    assertNotNull(cache.get(S0));
+    assertNotNull(cache.get(S11));
+  }
+
+  @Test
+  public void testCachedTransfersAreInvalidatedByChanges() throws IOException {
+    File cacheFile = Files.createTempFile("cached_transfers", ".obj").toFile();
+    cacheFile.deleteOnExit();
+    var requests = List.of(
+      new RoutingRequest(new RequestModes(null, StreetMode.WALK, null, null, null))
+    );
+
+    var graph = graph(true);
+    graph.hasStreets = true;
+    new DirectTransferGenerator(MAX_TRANSFER_DURATION, requests, cacheFile, false, true)
+      .buildGraph(graph, null);
+    var cachedStops = TransferCache.read(cacheFile, new DataImportIssueStore(false));
+
+    // A street is removed
+    graph = graph(true);
+    graph.hasStreets = true;
+    V0
+      .getOutgoing()
+      .stream()
+      .filter(e -> e.getToVertex() == V11)
+      .collect(Collectors.toList())
+      .forEach(graph::removeEdge);
+    var cache = new TransferCache(cachedStops, graph, MAX_TRANSFER_DURATION, requests, true);
+    assertNull(cache.get(S0));
+    assertNull(cache.get(S11));
+
+    // A transfer parameter is changed
+    graph = graph(true);
+    graph.hasStreets = true;
+    var changedRequest = new RoutingRequest(
+      new RequestModes(null, StreetMode.WALK, null, null, null)
+    );
+    changedRequest.walkReluctance = 2 * changedRequest.walkReluctance;
+    cache =
+      new TransferCache(cachedStops, graph, MAX_TRANSFER_DURATION, List.of(changedRequest), true);
+    assertNull(cache.get(S0));
+    assertNull(cache.get(S11));
+
+    // Nothing is changed
+    graph = graph(true);
+    graph.hasStreets = true;
+    cache = new TransferCache(cachedStops, graph, MAX_TRANSFER_DURATION, requests, true);
+    assertNotNull(cache.get(S0));
+    assertNotNull(cache.get(S11));
+  }
+
   private Graph graph(boolean addPatterns) {
     return graphOf(
       new Builder() {
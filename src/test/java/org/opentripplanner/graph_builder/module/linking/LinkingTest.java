@@ -20,6 +20,7 @@ import org.locationtech.jts.geom.LineString;
 import org.opentripplanner.common.geometry.GeometryUtils;
 import org.opentripplanner.common.geometry.SphericalDistanceLibrary;
 import org.opentripplanner.common.model.P2;
+import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.routing.edgetype.StreetEdge;
 import org.opentripplanner.routing.edgetype.StreetTransitStopLink;
 import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
@@ -136,6 +137,40 @@ public class LinkingTest {
     }
   }
 
+  /**
+   * Test that linking the stops in parallel batches links them to the same street vertices as
+   * linking them one by one. The duplicate stops split the same edges as the regular stops, so some
+   * of the searches have to be repeated.
+   */
+  @Test
+  public void testStopsLinkedIdenticallyInParallel() throws URISyntaxException {
+    Graph g1 = buildGraphNoTransit();
+    addExtraStops(g1);
+    addRegularStopGrid(g1);
+    link(g1);
+
+    Graph g2 = buildGraphNoTransit();
+    addExtraStops(g2);
+    addRegularStopGrid(g2);
+    new StreetLinkerModule().linkTransitStops(g2);
+
+    for (TransitStopVertex ts : Iterables.filter(g1.getVertices(), TransitStopVertex.class)) {
+      List<StreetTransitStopLink> stls1 = outgoingStls(ts);
+      List<StreetTransitStopLink> stls2 = outgoingStls(
+        (TransitStopVertex) g2.getVertex(ts.getLabel())
+      );
+
+      assertEquals("Unequal number of links from stop " + ts, stls1.size(), stls2.size());
+
+      for (int i = 0; i < stls1.size(); i++) {
+        Vertex v1 = stls1.get(i).getToVertex();
+        Vertex v2 = stls2.get(i).getToVertex();
+        assertEquals(v1.getLat(), v2.getLat(), 1e-10);
+        assertEquals(v1.getLon(), v2.getLon(), 1e-10);
+      }
+    }
+  }
+
   private static List<StreetTransitStopLink> outgoingStls(final TransitStopVertex tsv) {
     return tsv
       .getOutgoing()
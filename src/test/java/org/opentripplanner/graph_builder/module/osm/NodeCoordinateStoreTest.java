@@ -0,0 +1,74 @@
+package org.opentripplanner.graph_builder.module.osm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class NodeCoordinateStoreTest {
+
+  @Test
+  void lookupSortedNodes() {
+    var subject = new NodeCoordinateStore();
+    subject.add(1, 60.1, 10.1);
+    subject.add(5, 60.5, 10.5);
+    subject.add(7, 60.7, 10.7);
+
+    assertEquals(3, subject.size());
+    assertFalse(subject.contains(2));
+
+    int index = subject.indexOf(5);
+    assertEquals(60.5, subject.lat(index));
+    assertEquals(10.5, subject.lon(index));
+  }
+
+  @Test
+  void lookupUnsortedNodesWithDuplicates() {
+    var subject = new NodeCoordinateStore();
+    var random = new Random(42);
+    int n = 5000;
+
+    // Add every id twice, in random order, the coordinates are derived from the id
+    for (int round = 0; round < 2; ++round) {
+      for (int i = 0; i < n; ++i) {
+        long id = random.nextInt(n) * 3L;
+        subject.add(id, id / 1000.0, -id / 1000.0);
+      }
+    }
+    subject.trimToSize();
+
+    for (long id = 0; id < 3L * n; ++id) {
+      int index = subject.indexOf(id);
+      if (index >= 0) {
+        assertEquals(0, id % 3);
+        assertEquals(id / 1000.0, subject.lat(index));
+        assertEquals(-id / 1000.0, subject.lon(index));
+      }
+    }
+    assertTrue(subject.size() <= n);
+
+    // Appending after a lookup keeps the store consistent
+    subject.add(-1, 1.0, 2.0);
+    assertEquals(1.0, subject.lat(subject.indexOf(-1)));
+  }
+
+  @Test
+  void firstAddedDuplicateIsKept() {
+    var subject = new NodeCoordinateStore();
+    // Enough nodes to be sorted with quicksort, each id is added three times
+    for (int round = 0; round < 3; ++round) {
+      for (long id = 100; id > 0; --id) {
+        subject.add(id, round, -round);
+      }
+    }
+
+    assertEquals(100, subject.size());
+    for (long id = 1; id <= 100; ++id) {
+      int index = subject.indexOf(id);
+      assertEquals(0.0, subject.lat(index));
+      assertEquals(0.0, subject.lon(index));
+    }
+  }
+}
@@ -8,12 +8,15 @@ import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.graph_builder.DataImportIssueStore;
 import org.opentripplanner.graph_builder.module.StreetLinkerModule;
 import org.opentripplanner.openstreetmap.OpenStreetMapProvider;
+import org.opentripplanner.openstreetmap.model.OSMNode;
+import org.opentripplanner.openstreetmap.model.OSMWay;
 import org.opentripplanner.routing.edgetype.StreetVehicleParkingLink;
 import org.opentripplanner.routing.edgetype.VehicleParkingEdge;
 import org.opentripplanner.routing.graph.Graph;
@@ -139,6 +142,54 @@ public class UnconnectedAreasTest {
     assertTrue(connections.contains("osm:node:-102284"));
   }
 
+  /**
+   * The nodes of the P+R area and the road have no tags, so they are only kept as coordinates in
+   * the OSM database. The road crosses the area twice without common nodes, and a node is added to
+   * the road at each crossing.
+   */
+  @Test
+  public void testParkAndRideAreaWithUntaggedNodes() {
+    var osmdb = new OSMDatabase(new DataImportIssueStore(false), Set.of());
+
+    var area = new OSMWay();
+    area.setId(1);
+    area.addTag("amenity", "parking");
+    area.addTag("park_ride", "yes");
+    for (long nodeId : new long[] { 11, 12, 13, 14, 11 }) {
+      area.addNodeRef(nodeId, area.getNodeRefs().size());
+    }
+    var road = new OSMWay();
+    road.setId(2);
+    road.addTag("highway", "primary");
+    road.addNodeRef(21, 0);
+    road.addNodeRef(22, 1);
+
+    osmdb.addWay(area);
+    osmdb.addWay(road);
+    osmdb.doneSecondPhaseWays();
+
+    // Not sorted by id, like nodes from more than one file
+    osmdb.addNode(node(22, 60.005, 10.02));
+    osmdb.addNode(node(11, 60.0, 10.0));
+    osmdb.addNode(node(12, 60.0, 10.01));
+    osmdb.addNode(node(13, 60.01, 10.01));
+    osmdb.addNode(node(14, 60.01, 10.0));
+    osmdb.addNode(node(21, 60.005, 9.99));
+    osmdb.doneThirdPhaseNodes();
+    osmdb.postLoad();
+
+    assertEquals(1, osmdb.getParkAndRideAreas().size());
+    assertEquals(4, osmdb.getWay(2L).getNodeRefs().size());
+  }
+
+  private static OSMNode node(long id, double lat, double lon) {
+    var node = new OSMNode();
+    node.setId(id);
+    node.lat = lat;
+    node.lon = lon;
+    return node;
+  }
+
   private Graph buildOSMGraph(String osmFileName) {
     return buildOSMGraph(osmFileName, new DataImportIssueStore(false));
   }
@@ -1,10 +1,12 @@
 package org.opentripplanner.graph_builder.module.osm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.openstreetmap.model.OSMWithTags;
+import org.opentripplanner.routing.edgetype.StreetTraversalPermission;
 
 public class WayPropertySetTest {
 
@@ -97,6 +99,42 @@ public class WayPropertySetTest {
     assertSpeed(22.347200393676758, "50.0 mph");
   }
 
+  /**
+   * Ways with the same inspected tags share a cached match, but the result must still depend on
+   * all the tags of each way and on pickers added after a lookup.
+   */
+  @Test
+  public void testCachedMatches() {
+    DefaultWayPropertySetSource source = new DefaultWayPropertySetSource();
+    source.populateProperties(wps);
+
+    OSMWithTags footway = new OSMWithTags();
+    footway.addTag("highway", "footway");
+    footway.addTag("name", "A");
+
+    OSMWithTags sameTags = new OSMWithTags();
+    sameTags.addTag("highway", "footway");
+    sameTags.addTag("name", "B");
+
+    OSMWithTags track = new OSMWithTags();
+    track.addTag("highway", "footway");
+    track.addTag("cycleway:right", "track");
+
+    assertEquals(wps.getDataForWay(footway), wps.getDataForWay(sameTags));
+    assertEquals(
+      StreetTraversalPermission.PEDESTRIAN_AND_BICYCLE,
+      wps.getDataForWay(footway).getPermission()
+    );
+    assertNotEquals(wps.getDataForWay(footway), wps.getDataForWay(track));
+
+    wps.setProperties("highway=footway;name=A", StreetTraversalPermission.NONE);
+    assertEquals(StreetTraversalPermission.NONE, wps.getDataForWay(footway).getPermission());
+    assertEquals(
+      StreetTraversalPermission.PEDESTRIAN_AND_BICYCLE,
+      wps.getDataForWay(sameTags).getPermission()
+    );
+  }
+
   /**
    * Test that two values are within epsilon of each other.
    */
@@ -0,0 +1,69 @@
+package org.opentripplanner.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.routing.trippattern.Deduplicator;
+import org.opentripplanner.routing.trippattern.TripTimes;
+
+class TimetableDepartureIndexTest {
+
+  @Test
+  void tripsAreSortedByDepartureAtEachStop() {
+    // The second trip overtakes the first trip between the stops, the third has a long dwell time
+    var tripTimes = List.of(
+      tripTimes("T1", 100, 100, 300, 300),
+      tripTimes("T2", 200, 200, 250, 250),
+      tripTimes("T3", 50, 50, 60, 400)
+    );
+
+    var subject = TimetableDepartureIndex.of(tripTimes, 2);
+
+    assertEquals(3, subject.numberOfTrips());
+    assertEquals(List.of(2, 0, 1), tripIndexes(subject, 0));
+    assertEquals(List.of(1, 0, 2), tripIndexes(subject, 1));
+    assertEquals(250, subject.departureTime(1, 0));
+    assertEquals(0, subject.minDwellTime(1));
+    assertEquals(340, subject.maxDwellTime(1));
+  }
+
+  @Test
+  void findFirstDepartureAtOrAfter() {
+    var subject = TimetableDepartureIndex.of(
+      List.of(tripTimes("T1", 100, 100), tripTimes("T2", 200, 200), tripTimes("T3", 200, 200)),
+      1
+    );
+
+    assertEquals(0, subject.firstDepartureAtOrAfter(0, 0));
+    assertEquals(0, subject.firstDepartureAtOrAfter(0, 100));
+    assertEquals(1, subject.firstDepartureAtOrAfter(0, 101));
+    assertEquals(1, subject.firstDepartureAtOrAfter(0, 200));
+    assertEquals(3, subject.firstDepartureAtOrAfter(0, 201));
+  }
+
+  private static List<Integer> tripIndexes(TimetableDepartureIndex index, int stopPos) {
+    List<Integer> result = new ArrayList<>();
+    for (int i = 0; i < index.numberOfTrips(); i++) {
+      result.add(index.tripIndex(stopPos, i));
+    }
+    return result;
+  }
+
+  /**
+   * @param times The arrival and departure time at each stop.
+   */
+  private static TripTimes tripTimes(String tripId, int... times) {
+    List<StopTime> stopTimes = new ArrayList<>();
+    for (int i = 0; i < times.length / 2; ++i) {
+      StopTime stopTime = new StopTime();
+      stopTime.setStop(Stop.stopForTest("S" + i, 0.0, 0.0));
+      stopTime.setArrivalTime(times[2 * i]);
+      stopTime.setDepartureTime(times[2 * i + 1]);
+      stopTime.setStopSequence(i);
+      stopTimes.add(stopTime);
+    }
+    return new TripTimes(new Trip(new FeedScopedId("F", tripId)), stopTimes, new Deduplicator());
+  }
+}
@@ -0,0 +1,134 @@
+package org.opentripplanner.model.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.opentripplanner.model.plan.TestItineraryBuilder.newTime;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.common.model.P2;
+import org.opentripplanner.routing.algorithm.mapping.ItinerariesHelper;
+import org.opentripplanner.routing.api.request.RoutingRequest;
+import org.opentripplanner.routing.core.TraverseMode;
+
+public class StreetLegTest implements PlanTestConstants {
+
+  private int geometryCount = 0;
+  private int elevationCount = 0;
+  private int walkStepsCount = 0;
+
+  @Test
+  public void lazyFieldsAreComputedOnceWhenUsed() {
+    var subject = lazyLeg(List.of(new P2<>(0.0, 10.0), new P2<>(5.0, 12.0)));
+
+    assertEquals(0, geometryCount + elevationCount + walkStepsCount);
+
+    List<WalkStep> walkSteps = subject.getWalkSteps();
+    var copy = subject.withTimeShift(Duration.ofMinutes(5));
+
+    assertSame(walkSteps, copy.getWalkSteps());
+    assertNull(copy.getLegGeometry());
+    assertNull(subject.getLegGeometry());
+    assertEquals(1, walkStepsCount);
+    assertEquals(1, geometryCount);
+    assertEquals(0, elevationCount);
+  }
+
+  @Test
+  public void elevationChangesAreComputedFromTheProfile() {
+    var subject = new StreetLeg(
+      TraverseMode.WALK,
+      newTime(T11_00),
+      newTime(T11_05),
+      A,
+      B,
+      100,
+      200,
+      null,
+      List.of(new P2<>(0.0, 10.0), new P2<>(5.0, 12.0), new P2<>(10.0, 9.0)),
+      List.of()
+    );
+
+    assertEquals(2.0, subject.getElevationGained(), 0.001);
+    assertEquals(3.0, subject.getElevationLost(), 0.001);
+  }
+
+  @Test
+  public void elevationChangesOfLazyLegDoNotComputeTheProfile() {
+    var subject = lazyLeg(List.of(new P2<>(0.0, 10.0), new P2<>(5.0, 12.0)));
+
+    assertEquals(2.0, subject.getElevationGained(), 0.001);
+    assertEquals(0.0, subject.getElevationLost(), 0.001);
+    assertEquals(0, elevationCount);
+  }
+
+  @Test
+  public void maxSlopeOfLazyLegDoesNotComputeTheWalkSteps() {
+    var itinerary = new Itinerary(List.of(lazyLeg(List.of())));
+    var request = new RoutingRequest();
+    request.setWheelchairAccessible(true);
+    request.maxWheelchairSlope = 0.08;
+
+    ItinerariesHelper.decorateItinerariesWithRequestData(List.of(itinerary), request);
+
+    assertEquals(0.1, itinerary.maxSlope, 0.001);
+    assertTrue(itinerary.tooSloped);
+    assertEquals(0, walkStepsCount);
+  }
+
+  @Test
+  public void toStringDoesNotComputeTheLazyFields() {
+    assertNotNull(lazyLeg(List.of()).toString());
+    assertEquals(0, geometryCount + elevationCount + walkStepsCount);
+  }
+
+  @Test
+  public void noElevationChangesWithoutProfile() {
+    var subject = new StreetLeg(
+      TraverseMode.WALK,
+      newTime(T11_00),
+      newTime(T11_05),
+      A,
+      B,
+      100,
+      200,
+      null,
+      null,
+      List.of()
+    );
+
+    assertNull(subject.getElevationGained());
+    assertNull(subject.getElevationLost());
+  }
+
+  private StreetLeg lazyLeg(List<P2<Double>> elevation) {
+    return StreetLeg.lazy(
+      TraverseMode.WALK,
+      newTime(T11_00),
+      newTime(T11_05),
+      A,
+      B,
+      100,
+      200,
+      () -> {
+        ++geometryCount;
+        return null;
+      },
+      () -> {
+        ++elevationCount;
+        return elevation;
+      },
+      2.0,
+      0.0,
+      0.1,
+      () -> {
+        ++walkStepsCount;
+        return List.of();
+      }
+    );
+  }
+}
@@ -11,6 +11,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.GregorianCalendar;
 import java.util.List;
+import org.opentripplanner.model.Agency;
 import org.opentripplanner.model.FeedScopedId;
 import org.opentripplanner.model.Route;
 import org.opentripplanner.model.StopPattern;
@@ -37,6 +38,7 @@ import org.opentripplanner.util.time.TimeUtils;
 public class TestItineraryBuilder implements PlanTestConstants {
 
   public static final LocalDate SERVICE_DAY = LocalDate.of(2020, Month.FEBRUARY, 2);
+  public static final Agency AGENCY = new Agency(new FeedScopedId(FEED_ID, "A"), "Agency", "UTC");
   public static final Route BUS_ROUTE = route(TransitMode.BUS);
   public static final Route RAIL_ROUTE = route(TransitMode.RAIL);
 
@@ -205,6 +207,7 @@ public class TestItineraryBuilder implements PlanTestConstants {
   private static Route route(TransitMode mode) {
     Route route = new Route(new FeedScopedId(FEED_ID, mode.name()));
     route.setMode(mode);
+    route.setAgency(AGENCY);
     return route;
   }
 
@@ -0,0 +1,196 @@
+package org.opentripplanner.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.GtfsTest;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.StopLocation;
+import org.opentripplanner.routing.stoptimes.ArrivalDeparture;
+
+public class RequestScopedRoutingServiceTest extends GtfsTest {
+
+  private static final int TIME_RANGE = 24 * 60 * 60;
+
+  @Override
+  public String getFeedName() {
+    return "testagency";
+  }
+
+  @Test
+  public void stopTimesForStopAreRemembered() {
+    var service = new RequestScopedRoutingService(graph);
+    var stopA = stop("A");
+    long start = startOfDay();
+
+    var stopTimes = service.stopTimesForStop(
+      stopA,
+      start,
+      TIME_RANGE,
+      10,
+      ArrivalDeparture.BOTH,
+      false
+    );
+
+    assertFalse(stopTimes.isEmpty());
+    assertSame(
+      stopTimes,
+      service.stopTimesForStop(stopA, start, TIME_RANGE, 10, ArrivalDeparture.BOTH, false)
+    );
+    assertEquals(
+      new RoutingService(graph)
+        .stopTimesForStop(stopA, start, TIME_RANGE, 10, ArrivalDeparture.BOTH, false)
+        .size(),
+      stopTimes.size()
+    );
+
+    // Each argument is part of the key
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForStop(stop("B"), start, TIME_RANGE, 10, ArrivalDeparture.BOTH, false)
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForStop(stopA, start + 60, TIME_RANGE, 10, ArrivalDeparture.BOTH, false)
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForStop(stopA, start, TIME_RANGE / 2, 10, ArrivalDeparture.BOTH, false)
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForStop(stopA, start, TIME_RANGE, 1, ArrivalDeparture.BOTH, false)
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForStop(stopA, start, TIME_RANGE, 10, ArrivalDeparture.DEPARTURES, false)
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForStop(stopA, start, TIME_RANGE, 10, ArrivalDeparture.BOTH, true)
+    );
+  }
+
+  @Test
+  public void stopTimesForPatternAtStopAreRemembered() {
+    var service = new RequestScopedRoutingService(graph);
+    var stopA = stop("A");
+    var pattern = service.getPatternsForStop(stopA, true).iterator().next();
+    long start = startOfDay();
+
+    var stopTimes = service.stopTimesForPatternAtStop(
+      stopA,
+      pattern,
+      start,
+      TIME_RANGE,
+      10,
+      ArrivalDeparture.BOTH
+    );
+
+    assertFalse(stopTimes.isEmpty());
+    assertSame(
+      stopTimes,
+      service.stopTimesForPatternAtStop(
+        stopA,
+        pattern,
+        start,
+        TIME_RANGE,
+        10,
+        ArrivalDeparture.BOTH
+      )
+    );
+
+    // Each argument is part of the key
+    for (var otherPattern : service.getPatternsForStop(stopA, true)) {
+      if (otherPattern != pattern) {
+        assertNotSame(
+          stopTimes,
+          service.stopTimesForPatternAtStop(
+            stopA,
+            otherPattern,
+            start,
+            TIME_RANGE,
+            10,
+            ArrivalDeparture.BOTH
+          )
+        );
+      }
+    }
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForPatternAtStop(
+        stop("B"),
+        pattern,
+        start,
+        TIME_RANGE,
+        10,
+        ArrivalDeparture.BOTH
+      )
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForPatternAtStop(
+        stopA,
+        pattern,
+        start + 60,
+        TIME_RANGE,
+        10,
+        ArrivalDeparture.BOTH
+      )
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForPatternAtStop(
+        stopA,
+        pattern,
+        start,
+        TIME_RANGE / 2,
+        10,
+        ArrivalDeparture.BOTH
+      )
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForPatternAtStop(stopA, pattern, start, TIME_RANGE, 1, ArrivalDeparture.BOTH)
+    );
+    assertNotSame(
+      stopTimes,
+      service.stopTimesForPatternAtStop(
+        stopA,
+        pattern,
+        start,
+        TIME_RANGE,
+        10,
+        ArrivalDeparture.DEPARTURES
+      )
+    );
+  }
+
+  @Test
+  public void realtimePatternsForStopAreRemembered() {
+    var service = new RequestScopedRoutingService(graph);
+    var stopA = stop("A");
+
+    var patterns = service.getPatternsForStop(stopA, true);
+
+    assertFalse(patterns.isEmpty());
+    assertSame(patterns, service.getPatternsForStop(stopA, true));
+    assertEquals(
+      new RoutingService(graph).getPatternsForStop(stopA, true).size(),
+      patterns.size()
+    );
+    assertNotSame(patterns, service.getPatternsForStop(stop("B"), true));
+  }
+
+  private StopLocation stop(String id) {
+    return graph.index.getStopForId(new FeedScopedId(feedId.getId(), id));
+  }
+
+  private long startOfDay() {
+    return LocalDate.of(2021, 5, 3).atStartOfDay(graph.getTimeZone().toZoneId()).toEpochSecond();
+  }
+}
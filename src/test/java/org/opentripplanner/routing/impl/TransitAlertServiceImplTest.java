@@ -0,0 +1,87 @@
+package org.opentripplanner.routing.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.alertpatch.EntitySelector;
+import org.opentripplanner.routing.alertpatch.TransitAlert;
+
+class TransitAlertServiceImplTest {
+
+  private static final String FEED_ID = "F";
+  private static final FeedScopedId STOP = new FeedScopedId(FEED_ID, "S1");
+  private static final FeedScopedId ROUTE = new FeedScopedId(FEED_ID, "R1");
+  private static final FeedScopedId TRIP = new FeedScopedId(FEED_ID, "T1");
+  private static final ServiceDate DATE = new ServiceDate(2022, 3, 1);
+
+  private final TransitAlert stopAlert = alert("A1", new EntitySelector.Stop(STOP));
+  private final TransitAlert stopAndRouteAlert = alert(
+    "A2",
+    new EntitySelector.StopAndRoute(STOP, ROUTE)
+  );
+  private final TransitAlert stopAndTripAlert = alert(
+    "A3",
+    new EntitySelector.StopAndTrip(STOP, TRIP, DATE)
+  );
+  private final TransitAlert tripAlert = alert("A4", new EntitySelector.Trip(TRIP, DATE));
+  private final TransitAlert routeTypeAlert = alert("A5", new EntitySelector.RouteType(3, FEED_ID));
+
+  private final TransitAlertServiceImpl subject = new TransitAlertServiceImpl(null);
+
+  @Test
+  void lookupByEntity() {
+    subject.setAlerts(
+      List.of(stopAlert, stopAndRouteAlert, stopAndTripAlert, tripAlert, routeTypeAlert)
+    );
+
+    assertEquals(Set.of(stopAlert), Set.copyOf(subject.getStopAlerts(STOP)));
+    assertEquals(Set.of(stopAndRouteAlert), Set.copyOf(subject.getStopAndRouteAlerts(STOP, ROUTE)));
+    assertEquals(
+      Set.of(stopAndTripAlert),
+      Set.copyOf(subject.getStopAndTripAlerts(STOP, TRIP, DATE))
+    );
+    assertEquals(Set.of(tripAlert), Set.copyOf(subject.getTripAlerts(TRIP, DATE)));
+    assertTrue(subject.getRouteAlerts(ROUTE).isEmpty());
+    assertEquals(5, subject.getAllAlerts().size());
+  }
+
+  @Test
+  void lookupByPartOfCombinedEntity() {
+    subject.setAlerts(
+      List.of(stopAlert, stopAndRouteAlert, stopAndTripAlert, tripAlert, routeTypeAlert)
+    );
+
+    assertEquals(Set.of(stopAndRouteAlert), Set.copyOf(subject.getStopAndRouteAlertsByStop(STOP)));
+    assertEquals(
+      Set.of(stopAndRouteAlert),
+      Set.copyOf(subject.getStopAndRouteAlertsByRoute(ROUTE))
+    );
+    assertEquals(Set.of(stopAndTripAlert), Set.copyOf(subject.getStopAndTripAlertsByStop(STOP)));
+    assertEquals(Set.of(stopAndTripAlert), Set.copyOf(subject.getStopAndTripAlertsByTrip(TRIP)));
+    assertEquals(Set.of(routeTypeAlert), Set.copyOf(subject.getRouteTypeAlertsByFeed(FEED_ID)));
+  }
+
+  @Test
+  void setAlertsReplacesIndex() {
+    subject.setAlerts(List.of(stopAlert, tripAlert));
+    assertEquals(stopAlert, subject.getAlertById("A1"));
+
+    subject.setAlerts(List.of(tripAlert));
+    assertNull(subject.getAlertById("A1"));
+    assertTrue(subject.getStopAlerts(STOP).isEmpty());
+    assertEquals(tripAlert, subject.getAlertById("A4"));
+  }
+
+  private static TransitAlert alert(String id, EntitySelector entity) {
+    TransitAlert alert = new TransitAlert();
+    alert.setId(id);
+    alert.addEntity(entity);
+    return alert;
+  }
+}
@@ -2,11 +2,22 @@ package org.opentripplanner.updater;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.GtfsTest;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.StopTime;
+import org.opentripplanner.model.Trip;
+import org.opentripplanner.model.TripPattern;
+import org.opentripplanner.model.calendar.ServiceDate;
 import org.opentripplanner.routing.RoutingService;
+import org.opentripplanner.routing.trippattern.Deduplicator;
+import org.opentripplanner.routing.trippattern.TripTimes;
+import org.opentripplanner.util.time.TimeUtils;
 
 public class GtfsRealtimeFuzzyTripMatcherTest extends GtfsTest {
 
@@ -56,6 +67,62 @@ public class GtfsRealtimeFuzzyTripMatcherTest extends GtfsTest {
     assertFalse(trip1.hasTripId());
   }
 
+  @Test
+  public void testMatcherIsSharedByTheUsersOfTheGraph() {
+    assertSame(
+      GtfsRealtimeFuzzyTripMatcher.forGraph(graph),
+      GtfsRealtimeFuzzyTripMatcher.forGraph(graph)
+    );
+  }
+
+  @Test
+  public void testMatchAddedTrip() {
+    String feedId = graph.getFeedIds().iterator().next();
+    RoutingService routingService = new RoutingService(graph);
+    GtfsRealtimeFuzzyTripMatcher matcher = new GtfsRealtimeFuzzyTripMatcher(routingService);
+
+    TripDescriptor descriptor = TripDescriptor
+      .newBuilder()
+      .setRouteId("1")
+      .setDirectionId(0)
+      .setStartTime("03:33:33")
+      .setStartDate("20090915")
+      .build();
+    // No scheduled departure at this time
+    assertFalse(matcher.match(feedId, descriptor).hasTripId());
+
+    TripPattern pattern = routingService
+      .getPatternsForRoute()
+      .get(routingService.getRouteForId(new FeedScopedId(feedId, "1")))
+      .stream()
+      .filter(p -> p.getDirection().gtfsCode == 0)
+      .findFirst()
+      .orElseThrow();
+    TripTimes scheduled = pattern.getScheduledTimetable().getTripTimes().get(0);
+
+    Trip trip = new Trip(new FeedScopedId(feedId, "added"));
+    trip.setRoute(pattern.getRoute());
+    trip.setServiceId(scheduled.getTrip().getServiceId());
+    trip.setDirection(pattern.getDirection());
+
+    List<StopTime> stopTimes = new ArrayList<>();
+    for (int i = 0; i < pattern.numberOfStops(); i++) {
+      StopTime stopTime = new StopTime();
+      stopTime.setTrip(trip);
+      stopTime.setStop(pattern.getStop(i));
+      stopTime.setStopSequence(i);
+      stopTime.setArrivalTime(TimeUtils.time("03:33:33") + 60 * i);
+      stopTime.setDepartureTime(TimeUtils.time("03:33:33") + 60 * i);
+      stopTimes.add(stopTime);
+    }
+    TripTimes tripTimes = new TripTimes(trip, stopTimes, new Deduplicator());
+    tripTimes.setServiceCode(scheduled.getServiceCode());
+
+    matcher.addTrip(pattern, tripTimes, new ServiceDate(2009, 9, 15));
+
+    assertEquals("added", matcher.match(feedId, descriptor).getTripId());
+  }
+
   @Override
   public String getFeedName() {
     return "portland/portland.gtfs.zip";
@@ -23,14 +23,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.opentripplanner.ConstantsForTests;
 import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.model.Route;
 import org.opentripplanner.model.Timetable;
 import org.opentripplanner.model.TimetableSnapshot;
 import org.opentripplanner.model.Trip;
 import org.opentripplanner.model.TripPattern;
 import org.opentripplanner.model.calendar.ServiceDate;
+import org.opentripplanner.routing.RoutingService;
 import org.opentripplanner.routing.graph.Graph;
 import org.opentripplanner.routing.trippattern.RealTimeState;
 import org.opentripplanner.routing.trippattern.TripTimes;
+import org.opentripplanner.updater.GtfsRealtimeFuzzyTripMatcher;
 
 public class TimetableSnapshotSourceTest {
 
@@ -528,4 +531,60 @@ public class TimetableSnapshotSourceTest {
     assertNotSame(snapshotA.resolve(pattern, null), snapshotA.resolve(pattern, serviceDate));
     assertSame(snapshotB.resolve(pattern, null), snapshotB.resolve(pattern, previously));
   }
+
+  @Test
+  public void testRepeatedAddedTripIsMatchedOnceUntilPurged() {
+    final ServiceDate previously = serviceDate.previous().previous();
+    final Route route = graph.index.getRouteForId(new FeedScopedId(feedId, "1"));
+    final int startTime = (8 * 3600) + (30 * 60);
+    final GtfsRealtimeFuzzyTripMatcher matcher = new GtfsRealtimeFuzzyTripMatcher(
+      new RoutingService(graph)
+    );
+    final int scheduledTrips = matcher.numberOfTrips(route, startTime);
+
+    updater.fuzzyTripMatcher = matcher;
+    updater.purgeExpiredData = false;
+
+    // Realtime feeds repeat the added trips in every message
+    final TripUpdate tripUpdate = addedTripUpdate("added_twice", "1", previously, startTime);
+    updater.applyTripUpdates(fullDataset, List.of(tripUpdate), feedId);
+    updater.applyTripUpdates(fullDataset, List.of(tripUpdate), feedId);
+
+    assertEquals(scheduledTrips + 1, matcher.numberOfTrips(route, startTime));
+
+    updater.purgeExpiredData = true;
+    updater.applyTripUpdates(fullDataset, List.of(), feedId);
+
+    assertEquals(scheduledTrips, matcher.numberOfTrips(route, startTime));
+  }
+
+  private static TripUpdate addedTripUpdate(
+    String tripId,
+    String routeId,
+    ServiceDate serviceDate,
+    int startTime
+  ) {
+    final long midnightSecondsSinceEpoch =
+      serviceDate.getAsCalendar(graph.getTimeZone()).getTimeInMillis() / 1000;
+
+    final TripUpdate.Builder tripUpdateBuilder = TripUpdate.newBuilder();
+    tripUpdateBuilder
+      .getTripBuilder()
+      .setTripId(tripId)
+      .setRouteId(routeId)
+      .setScheduleRelationship(TripDescriptor.ScheduleRelationship.ADDED)
+      .setStartDate(serviceDate.asCompactString());
+
+    int stopIndex = 0;
+    for (String stopId : List.of("A", "C")) {
+      final long time = midnightSecondsSinceEpoch + startTime + (10 * 60) * stopIndex++;
+      tripUpdateBuilder
+        .addStopTimeUpdateBuilder()
+        .setScheduleRelationship(StopTimeUpdate.ScheduleRelationship.SCHEDULED)
+        .setStopId(stopId)
+        .setArrival(StopTimeEvent.newBuilder().setTime(time).setDelay(0))
+        .setDeparture(StopTimeEvent.newBuilder().setTime(time).setDelay(0));
+    }
+    return tripUpdateBuilder.build();
+  }
 }
@@ -1,6 +1,8 @@
 package org.opentripplanner.updater.vehicle_positions;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
 import com.google.transit.realtime.GtfsRealtime.VehiclePosition;
@@ -153,6 +155,36 @@ public class VehiclePositionsMatcherTest {
     assertEquals(0, service.getVehiclePositions(pattern2).size());
   }
 
+  @Test
+  public void unchangedPositionsAreNotReplaced() {
+    var service = new RealtimeVehiclePositionService();
+    var trip = new Trip(scopedTripId);
+    var stopTimes = List.of(stopTime(trip, 0), stopTime(trip, 1), stopTime(trip, 2));
+    var pattern = new TripPattern(scopedTripId, null, new StopPattern(stopTimes));
+    var patternForTrip = Map.of(trip, pattern);
+
+    VehiclePositionPatternMatcher matcher = new VehiclePositionPatternMatcher(
+      feedId,
+      Map.of(scopedTripId, trip)::get,
+      patternForTrip::get,
+      (id, time) -> patternForTrip.get(id),
+      service,
+      zoneId
+    );
+
+    matcher.applyVehiclePositionUpdates(List.of(vehiclePosition(tripId, 1000)));
+    var first = service.getVehiclePositions(pattern);
+
+    matcher.applyVehiclePositionUpdates(List.of(vehiclePosition(tripId, 1000)));
+    assertSame(first, service.getVehiclePositions(pattern));
+
+    matcher.applyVehiclePositionUpdates(List.of(vehiclePosition(tripId, 1030)));
+    var second = service.getVehiclePositions(pattern);
+    assertNotSame(first, second);
+    assertEquals(1, second.size());
+    assertEquals(1030, second.get(0).time().getEpochSecond());
+  }
+
   static Stream<Arguments> inferenceTestCases = Stream.of(
     Arguments.of("2022-04-05T15:26:04+02:00", "2022-04-05"),
     Arguments.of("2022-04-06T00:26:04+02:00", "2022-04-05"),
@@ -204,6 +236,10 @@ public class VehiclePositionsMatcherTest {
       .build();
   }
 
+  private static VehiclePosition vehiclePosition(String tripId, long timestamp) {
+    return vehiclePosition(tripId).toBuilder().setTimestamp(timestamp).build();
+  }
+
   private static StopTime stopTime(Trip trip, int seq, int time) {
     var stopTime = stopTime(trip, seq);
     stopTime.setArrivalTime(time);
@@ -0,0 +1,72 @@
+package org.opentripplanner.updater.vehicle_rental;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.opentripplanner.model.FeedScopedId;
+import org.opentripplanner.routing.vehicle_rental.RentalVehicleType;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalPlace;
+import org.opentripplanner.routing.vehicle_rental.VehicleRentalVehicle;
+
+class VehicleRentalPlaceDiffTest {
+
+  private static final String NETWORK = "Network-1";
+
+  @Test
+  void unchangedPlacesAreNotPartOfTheDiff() {
+    var previous = VehicleRentalPlaceDiff.snapshot(List.of(vehicle("A", 1.0), vehicle("B", 2.0)));
+
+    var diff = VehicleRentalPlaceDiff.of(previous, List.of(vehicle("A", 1.0), vehicle("B", 2.0)));
+
+    assertTrue(diff.isEmpty());
+  }
+
+  @Test
+  void addedUpdatedAndRemovedPlaces() {
+    var previous = VehicleRentalPlaceDiff.snapshot(
+      List.of(vehicle("A", 1.0), vehicle("B", 2.0), vehicle("C", 3.0))
+    );
+
+    VehicleRentalVehicle reserved = vehicle("B", 2.0);
+    reserved.isReserved = true;
+
+    var diff = VehicleRentalPlaceDiff.of(
+      previous,
+      List.of(vehicle("A", 1.5), reserved, vehicle("D", 4.0))
+    );
+
+    assertEquals(List.of("A", "D"), ids(diff.added()));
+    assertEquals(List.of("B"), ids(diff.updated()));
+    assertEquals(List.of(new FeedScopedId(NETWORK, "C")), diff.removed());
+  }
+
+  @Test
+  void emptyPreviousSnapshot() {
+    var diff = VehicleRentalPlaceDiff.of(Map.of(), List.of(vehicle("A", 1.0), vehicle("A", 2.0)));
+
+    assertEquals(List.of("A"), ids(diff.added()));
+    assertTrue(diff.updated().isEmpty());
+    assertTrue(diff.removed().isEmpty());
+  }
+
+  private static List<String> ids(List<VehicleRentalPlace> places) {
+    return places
+      .stream()
+      .map(VehicleRentalPlace::getStationId)
+      .sorted()
+      .collect(Collectors.toList());
+  }
+
+  private static VehicleRentalVehicle vehicle(String id, double latitude) {
+    var vehicle = new VehicleRentalVehicle();
+    vehicle.id = new FeedScopedId(NETWORK, id);
+    vehicle.latitude = latitude;
+    vehicle.longitude = 10.0;
+    vehicle.vehicleType = RentalVehicleType.getDefaultType(NETWORK);
+    return vehicle;
+  }
+}
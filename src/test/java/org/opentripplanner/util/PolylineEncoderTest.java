@@ -47,4 +47,31 @@ public class PolylineEncoderTest {
 
     assertEquals("_gjaR_gjaR", polyline.points());
   }
+
+  @Test
+  public void testJoinFragments() {
+    var first = new Coordinate[] {
+      new Coordinate(-73.85062, 40.903125),
+      new Coordinate(-73.85136, 40.902261),
+    };
+    var second = new Coordinate[] {
+      new Coordinate(-73.85136, 40.902261),
+      new Coordinate(-73.85151, 40.902066),
+      new Coordinate(-73.84, 40.91),
+    };
+    var all = new ArrayList<Coordinate>();
+    all.addAll(List.of(first));
+    all.addAll(List.of(second));
+
+    var polyline = PolylineEncoder.joinFragments(
+      List.of(
+        PolylineEncoder.encodeFragment(first),
+        PolylineEncoder.encodeFragment(new Coordinate[0]),
+        PolylineEncoder.encodeFragment(second)
+      )
+    );
+
+    assertEquals(PolylineEncoder.encodeCoordinates(all.toArray(new Coordinate[0])), polyline);
+    assertEquals(5, polyline.length());
+  }
 }